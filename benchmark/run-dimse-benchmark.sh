@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+#
+# Runs org.weasis.dicom.bench.DimseBenchmark in a *forked* JVM: a loopback C-STORE benchmark
+# (in-process StoreSCP on localhost, no network or PACS needed). The native library is still
+# required because the transcode rows decode/encode pixel data.
+#
+# Usage:
+#   run-dimse-benchmark.sh <sample-dir | synthetic:N[:ROWSxCOLS]> [warmup] [iterations] [dst-ts]
+#
+#   synthetic:N  generate N 16-bit MONOCHROME2 instances (default 512x512) instead of a sample dir
+#   warmup       untimed passes per row (default 1)
+#   iterations   timed passes per row, median reported (default 3)
+#   dst-ts       destination syntax of the stream,transcode row (default JPEG Lossless SV1)
+#
+# Env overrides:
+#   OUT=<file.csv>         also write the CSV to this file (default: stdout only). When set,
+#                          a <file>.json build-metadata sidecar is written next to it.
+#   JAVA_OPTS=...          JVM options (default: -Xms2g -Xmx4g)
+#   TASKSET=0-7           pin to these CPUs via taskset for stable numbers (Linux)
+#   OFFLINE=0             build online instead of offline (-o). Default 1.
+#
+# Example:
+#   OUT=dimse.csv ./run-dimse-benchmark.sh synthetic:2000
+#   OUT=dimse-ct.csv ./run-dimse-benchmark.sh /data/samples/ct 1 5 1.2.840.10008.1.2.4.80
+#
+set -euo pipefail
+
+MODULE_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+REPO_ROOT="$(cd "$MODULE_DIR/.." && pwd)"
+MVN="${MVN:-mvn}"
+
+CORPUS="${1:-}"
+WARMUP="${2:-1}"
+ITERS="${3:-3}"
+DST_TS="${4:-1.2.840.10008.1.2.4.70}"
+OUT="${OUT:-}"
+# Split JAVA_OPTS into an array so a multi-token value (e.g. "-Xms2g -Xmx8g") becomes
+# separate java arguments, not one bogus option.
+read -r -a JAVA_OPTS_ARR <<< "${JAVA_OPTS:--Xms2g -Xmx4g}"
+OFF=(-o); [ "${OFFLINE:-1}" = 0 ] && OFF=()
+
+if [ -z "$CORPUS" ]; then
+  sed -n '2,24p' "${BASH_SOURCE[0]}" | sed 's/^# \{0,1\}//' >&2
+  exit 2
+fi
+
+# Make user-supplied paths absolute *before* cd'ing into the reactor root below,
+# so they keep working regardless of where the script was invoked from.
+case "$CORPUS" in /*|synthetic:*) ;; *) CORPUS="$PWD/$CORPUS" ;; esac
+[ -n "$OUT" ] && case "$OUT" in /*) ;; *) OUT="$PWD/$OUT" ;; esac
+
+# -pl resolves against the reactor root, so run everything from the repo root.
+cd "$REPO_ROOT"
+
+# Native lib dir name = <os-name>-<cpu-name>, matching the root pom OS/arch profiles.
+case "$(uname -s)" in
+  Linux)  OS=linux ;;
+  Darwin) OS=macosx ;;
+  *) echo "Unsupported OS '$(uname -s)' — run it through WSL on Windows." >&2; exit 1 ;;
+esac
+case "$(uname -m)" in
+  x86_64|amd64)  ARCH=x86-64 ;;
+  aarch64|arm64) ARCH=aarch64 ;;
+  *) echo "Unsupported arch '$(uname -m)'." >&2; exit 1 ;;
+esac
+NATIVE_DIR_NAME="${OS}-${ARCH}"
+
+# Install weasis-dicom-tools into the local repo so the benchmark's classpath can resolve it,
+# then compile the benchmark module + copy the native.
+echo "# building ..." >&2
+"$MVN" "${OFF[@]+"${OFF[@]}"}" -q install -DskipTests -pl weasis-dicom-tools -am
+"$MVN" "${OFF[@]+"${OFF[@]}"}" -q process-classes -pl benchmark
+
+LIB_DIR="$MODULE_DIR/target/lib/$NATIVE_DIR_NAME"
+if [ ! -d "$LIB_DIR" ]; then
+  echo "Native lib dir not found: $LIB_DIR" >&2
+  echo "Available: $(ls "$MODULE_DIR/target/lib" 2>/dev/null || echo none)" >&2
+  exit 1
+fi
+
+CP_FILE="$MODULE_DIR/target/dimse-bench-cp.txt"
+"$MVN" "${OFF[@]+"${OFF[@]}"}" -q dependency:build-classpath -pl benchmark \
+  -Dmdep.includeScope=runtime -Dmdep.outputFile="$CP_FILE"
+CP="$MODULE_DIR/target/classes:$(cat "$CP_FILE")"
+
+RUN=(java "${JAVA_OPTS_ARR[@]}"
+  -Djava.library.path="$LIB_DIR"
+  --enable-native-access=ALL-UNNAMED
+  -cp "$CP"
+  org.weasis.dicom.bench.DimseBenchmark "$CORPUS" "$WARMUP" "$ITERS" "$DST_TS")
+
+if [ -n "${TASKSET:-}" ] && command -v taskset >/dev/null 2>&1; then
+  RUN=(taskset -c "$TASKSET" "${RUN[@]}")
+fi
+
+if [ -n "$OUT" ]; then
+  "${RUN[@]}" | tee "$OUT"
+  # Build-metadata sidecar next to the CSV (parity with the CI run).
+  bash "$MODULE_DIR/collect-metadata.sh" "$NATIVE_DIR_NAME" "${OUT%.csv}.json" || true
+else
+  "${RUN[@]}"
+fi
\ No newline at end of file
@@ -0,0 +1,547 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.imageio.codec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.BulkData;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.imageio.codec.mp4.MP4SampleTable;
+import org.dcm4che3.imageio.codec.mpeg.MPEG2GopScanner;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keyframe index of a DICOM video object (MPEG-2, MPEG-4 AVC or HEVC), to read the bytes required
+ * to decode a frame or a time window without reading the whole stream.
+ *
+ * <p>The video stream is the concatenation of the pixel data fragments following the basic offset
+ * table. It is scanned once: the sequence and GOP headers of an MPEG-2 stream, or the sample table
+ * of an MP4 file (see {@link MP4SampleTable}). Each keyframe is mapped to its position in the
+ * stream, and each fragment to its position in the file. The index is stored next to the instance
+ * in a small sidecar file and is rebuilt when the instance is modified.
+ *
+ * <p>Frames are numbered from 0 in decoding order. An MPEG-2 range starts with a sequence or a GOP
+ * header and can be decoded alone. An MP4 range only holds samples: the decoder configuration is
+ * in the movie box given by {@link #getHeaderRange()}.
+ */
+public final class VideoIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(VideoIndex.class);
+
+  /** The extension appended to the file name of the instance to name its index. */
+  public static final String SIDECAR_EXTENSION = ".vidx";
+
+  private static final int MAGIC = 0x56494458; // VIDX
+  private static final int VERSION = 1;
+
+  /**
+   * A part of the video stream.
+   *
+   * @param start the position of the first byte in the stream
+   * @param end the position after the last byte in the stream
+   * @param firstFrame the first frame decoded from this range
+   */
+  public record ByteRange(long start, long end, int firstFrame) {
+    public long length() {
+      return end - start;
+    }
+  }
+
+  private final String transferSyntaxUID;
+  private final long sourceSize;
+  private final long sourceModified;
+  private final int frameCount;
+  private final double frameRate;
+  private final long dataEnd;
+  private final ByteRange headerRange;
+  private final int[] keyFrames;
+  private final long[] keyFrameOffsets;
+  private final long[] fragmentPositions;
+  private final long[] fragmentStarts;
+
+  private VideoIndex(
+      String transferSyntaxUID,
+      long sourceSize,
+      long sourceModified,
+      int frameCount,
+      double frameRate,
+      long dataEnd,
+      ByteRange headerRange,
+      int[] keyFrames,
+      long[] keyFrameOffsets,
+      long[] fragmentPositions,
+      long[] fragmentStarts) {
+    this.transferSyntaxUID = transferSyntaxUID;
+    this.sourceSize = sourceSize;
+    this.sourceModified = sourceModified;
+    this.frameCount = frameCount;
+    this.frameRate = frameRate;
+    this.dataEnd = dataEnd;
+    this.headerRange = headerRange;
+    this.keyFrames = keyFrames;
+    this.keyFrameOffsets = keyFrameOffsets;
+    this.fragmentPositions = fragmentPositions;
+    this.fragmentStarts = fragmentStarts;
+  }
+
+  /** Returns the path of the index of a DICOM file. */
+  public static Path sidecarOf(Path dicomFile) {
+    return dicomFile.resolveSibling(dicomFile.getFileName() + SIDECAR_EXTENSION);
+  }
+
+  /**
+   * Returns the index stored next to the DICOM file, or builds and stores it when it is missing or
+   * older than the file. A failure to store the index is only logged.
+   *
+   * @param dicomFile the DICOM video object
+   * @return the index of the video stream
+   * @throws IOException if the file is not a DICOM video object or cannot be read
+   */
+  public static VideoIndex of(Path dicomFile) throws IOException {
+    Path sidecar = sidecarOf(dicomFile);
+    if (Files.isRegularFile(sidecar)) {
+      try {
+        VideoIndex index = load(sidecar);
+        if (index.sourceSize == Files.size(dicomFile)
+            && index.sourceModified == Files.getLastModifiedTime(dicomFile).toMillis()) {
+          return index;
+        }
+      } catch (IOException e) {
+        LOG.debug("Cannot read the video index {}", sidecar, e);
+      }
+    }
+    VideoIndex index = build(dicomFile);
+    try {
+      index.save(sidecar);
+    } catch (IOException e) {
+      LOG.warn("Cannot write the video index {}", sidecar, e);
+    }
+    return index;
+  }
+
+  /**
+   * Builds the index by scanning the video stream of a DICOM file.
+   *
+   * @param dicomFile the DICOM video object
+   * @return the index of the video stream
+   * @throws IOException if the file is not a DICOM video object or cannot be read
+   */
+  public static VideoIndex build(Path dicomFile) throws IOException {
+    Objects.requireNonNull(dicomFile, "dicomFile cannot be null");
+    long size = Files.size(dicomFile);
+    long modified = Files.getLastModifiedTime(dicomFile).toMillis();
+    String tsuid;
+    Attributes dataset;
+    try (DicomInputStream dis = new DicomInputStream(dicomFile.toFile())) {
+      dis.setIncludeBulkData(IncludeBulkData.URI);
+      dis.setURI(dicomFile.toUri().toString());
+      dataset = dis.readDataset();
+      tsuid = dis.getTransferSyntax();
+    }
+    if (TransferSyntaxType.forUID(tsuid) != TransferSyntaxType.MPEG) {
+      throw new IOException("Not a video transfer syntax: " + tsuid);
+    }
+    if (!(dataset.getValue(Tag.PixelData) instanceof Fragments fragments)) {
+      throw new IOException("No encapsulated pixel data in " + dicomFile);
+    }
+
+    int count = Math.max(0, fragments.size() - 1);
+    long[] positions = new long[count];
+    long[] starts = new long[count + 1];
+    for (int i = 0; i < count; i++) {
+      Object fragment = fragments.get(i + 1);
+      if (fragment instanceof BulkData bulkData) {
+        positions[i] = bulkData.offset();
+        starts[i + 1] = starts[i] + Integer.toUnsignedLong(bulkData.length());
+      } else if (fragment instanceof byte[] bytes && bytes.length == 0) {
+        starts[i + 1] = starts[i];
+      } else {
+        throw new IOException("Unexpected fragment value in " + dicomFile);
+      }
+    }
+
+    try (FileChannel file = FileChannel.open(dicomFile, StandardOpenOption.READ);
+        StreamChannel stream = new StreamChannel(file, positions, starts)) {
+      if (isMPEG2(tsuid)) {
+        MPEG2GopScanner scanner = MPEG2GopScanner.scan(stream);
+        return new VideoIndex(
+            tsuid,
+            size,
+            modified,
+            scanner.getFrameCount(),
+            scanner.getFrameRate(),
+            starts[count],
+            null,
+            scanner.getKeyFrames(),
+            scanner.getKeyFrameOffsets(),
+            positions,
+            starts);
+      }
+      MP4SampleTable table = new MP4SampleTable(stream);
+      int[] syncSamples = table.getSyncSamples();
+      long[] sampleOffsets = table.getSampleOffsets();
+      long[] offsets = new long[syncSamples.length];
+      for (int i = 0; i < syncSamples.length; i++) {
+        offsets[i] = sampleOffsets[syncSamples[i]];
+      }
+      long end = 0;
+      for (int i = 0; i < sampleOffsets.length; i++) {
+        end = Math.max(end, sampleOffsets[i] + Integer.toUnsignedLong(table.getSampleSize(i)));
+      }
+      return new VideoIndex(
+          tsuid,
+          size,
+          modified,
+          table.getSampleCount(),
+          table.getFrameRate(),
+          Math.min(end, starts[count]),
+          new ByteRange(table.getMovieBoxStart(), table.getMovieBoxEnd(), 0),
+          syncSamples,
+          offsets,
+          positions,
+          starts);
+    }
+  }
+
+  private static boolean isMPEG2(String tsuid) {
+    return switch (tsuid) {
+      case UID.MPEG2MPML, UID.MPEG2MPMLF, UID.MPEG2MPHL, UID.MPEG2MPHLF -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * Writes the index in a sidecar file, replacing it atomically when the file system allows it.
+   *
+   * @param sidecar the index file
+   * @throws IOException if an I/O error occurs
+   */
+  public void save(Path sidecar) throws IOException {
+    Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(transferSyntaxUID);
+        out.writeLong(sourceSize);
+        out.writeLong(sourceModified);
+        out.writeInt(frameCount);
+        out.writeDouble(frameRate);
+        out.writeLong(dataEnd);
+        out.writeLong(headerRange == null ? -1 : headerRange.start());
+        out.writeLong(headerRange == null ? -1 : headerRange.end());
+        out.writeInt(keyFrames.length);
+        for (int i = 0; i < keyFrames.length; i++) {
+          out.writeInt(keyFrames[i]);
+          out.writeLong(keyFrameOffsets[i]);
+        }
+        out.writeInt(fragmentPositions.length);
+        for (int i = 0; i < fragmentPositions.length; i++) {
+          out.writeLong(fragmentPositions[i]);
+          out.writeLong(fragmentStarts[i + 1]);
+        }
+      }
+      try {
+        Files.move(
+            tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Reads an index written by {@link #save(Path)}.
+   *
+   * @param sidecar the index file
+   * @return the index
+   * @throws IOException if the file is not a valid index or cannot be read
+   */
+  public static VideoIndex load(Path sidecar) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a video index: " + sidecar);
+      }
+      String tsuid = in.readUTF();
+      long sourceSize = in.readLong();
+      long sourceModified = in.readLong();
+      int frameCount = in.readInt();
+      double frameRate = in.readDouble();
+      long dataEnd = in.readLong();
+      long headerStart = in.readLong();
+      long headerEnd = in.readLong();
+      int[] keyFrames = new int[checkCount(in.readInt(), frameCount)];
+      long[] keyFrameOffsets = new long[keyFrames.length];
+      for (int i = 0; i < keyFrames.length; i++) {
+        keyFrames[i] = in.readInt();
+        keyFrameOffsets[i] = in.readLong();
+      }
+      long[] positions = new long[checkCount(in.readInt(), Integer.MAX_VALUE - 8)];
+      long[] starts = new long[positions.length + 1];
+      for (int i = 0; i < positions.length; i++) {
+        positions[i] = in.readLong();
+        starts[i + 1] = in.readLong();
+      }
+      ByteRange header = headerStart < 0 ? null : new ByteRange(headerStart, headerEnd, 0);
+      return new VideoIndex(
+          tsuid,
+          sourceSize,
+          sourceModified,
+          frameCount,
+          frameRate,
+          dataEnd,
+          header,
+          keyFrames,
+          keyFrameOffsets,
+          positions,
+          starts);
+    } catch (EOFException e) {
+      throw new IOException("Truncated video index: " + sidecar, e);
+    }
+  }
+
+  private static int checkCount(int count, int max) throws IOException {
+    if (count < 0 || count > max) {
+      throw new IOException("Invalid count in video index: " + count);
+    }
+    return count;
+  }
+
+  public String getTransferSyntaxUID() {
+    return transferSyntaxUID;
+  }
+
+  /** Returns the number of frames of the video. */
+  public int getFrameCount() {
+    return frameCount;
+  }
+
+  /** Returns the number of frames per second, or 0 if unknown. */
+  public double getFrameRate() {
+    return frameRate;
+  }
+
+  /** Returns the length of the video stream. */
+  public long getStreamLength() {
+    return fragmentStarts[fragmentStarts.length - 1];
+  }
+
+  /** Returns the keyframes in ascending order. */
+  public int[] getKeyFrames() {
+    return keyFrames.clone();
+  }
+
+  /** Returns the range of the MP4 movie box, or {@code null} for an MPEG-2 stream. */
+  public ByteRange getHeaderRange() {
+    return headerRange;
+  }
+
+  /**
+   * Returns the keyframe from which a frame can be decoded.
+   *
+   * @param frame the frame index
+   * @return the last keyframe before or at {@code frame}, or -1 if there is none
+   */
+  public int getKeyFrame(int frame) {
+    Objects.checkIndex(frame, frameCount);
+    int i = keyFrameIndex(frame);
+    return i < 0 ? -1 : keyFrames[i];
+  }
+
+  /** Returns the frame displayed at the given time from the start of the video. */
+  public int getFrameAt(Duration time) {
+    Objects.requireNonNull(time, "time cannot be null");
+    if (frameRate <= 0) {
+      throw new IllegalStateException("Unknown frame rate");
+    }
+    long frame = (long) Math.floor(time.toNanos() * frameRate / 1_000_000_000.0);
+    return (int) Math.max(0, Math.min(frame, frameCount - 1L));
+  }
+
+  /**
+   * Returns the range of the stream required to decode the frames from {@code first} to {@code
+   * last}. It starts at the keyframe preceding {@code first} and ends before the keyframe following
+   * {@code last}.
+   *
+   * @param first the index of the first frame
+   * @param last the index of the last frame (inclusive)
+   * @return the range of the stream
+   */
+  public ByteRange getRange(int first, int last) {
+    Objects.checkIndex(first, frameCount);
+    Objects.checkIndex(last, frameCount);
+    if (last < first) {
+      throw new IllegalArgumentException("last frame is before the first one");
+    }
+    int i = keyFrameIndex(first);
+    long start = i < 0 ? 0 : keyFrameOffsets[i];
+    int next = Arrays.binarySearch(keyFrames, last + 1);
+    if (next < 0) {
+      next = -next - 1;
+    }
+    long end = next < keyFrames.length ? keyFrameOffsets[next] : dataEnd;
+    return new ByteRange(start, Math.max(start, end), i < 0 ? 0 : keyFrames[i]);
+  }
+
+  /**
+   * Returns the range of the stream required to decode the frames of a time window.
+   *
+   * @param from the start of the window from the start of the video
+   * @param to the end of the window (inclusive)
+   * @return the range of the stream
+   */
+  public ByteRange getRange(Duration from, Duration to) {
+    int first = getFrameAt(from);
+    return getRange(first, Math.max(first, getFrameAt(to)));
+  }
+
+  /**
+   * Reads a range of the video stream from the DICOM file that was indexed.
+   *
+   * @param file the DICOM file
+   * @param range a range of the stream
+   * @return the bytes of the range
+   * @throws IOException if an I/O error occurs
+   */
+  public byte[] read(FileChannel file, ByteRange range) throws IOException {
+    Objects.requireNonNull(range, "range cannot be null");
+    if (range.start() < 0 || range.end() > getStreamLength() || range.length() < 0) {
+      throw new IllegalArgumentException("Range out of the stream: " + range);
+    }
+    if (range.length() > Integer.MAX_VALUE - 8) {
+      throw new IOException("Range too large: " + range.length());
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) range.length());
+    try (StreamChannel stream = new StreamChannel(file, fragmentPositions, fragmentStarts)) {
+      stream.position(range.start());
+      while (buffer.hasRemaining()) {
+        if (stream.read(buffer) < 0) {
+          throw new EOFException();
+        }
+      }
+    }
+    return buffer.array();
+  }
+
+  private int keyFrameIndex(int frame) {
+    int i = Arrays.binarySearch(keyFrames, frame);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  /**
+   * Read-only view of the video stream over the fragments of a file. Closing it does not close the
+   * file.
+   */
+  private static final class StreamChannel implements SeekableByteChannel {
+    private final FileChannel file;
+    private final long[] positions;
+    private final long[] starts;
+    private long position;
+    private boolean open = true;
+
+    StreamChannel(FileChannel file, long[] positions, long[] starts) {
+      this.file = file;
+      this.positions = positions;
+      this.starts = starts;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
+      }
+      if (position >= size()) {
+        return -1;
+      }
+      int fragment = Arrays.binarySearch(starts, position);
+      if (fragment < 0) {
+        fragment = -fragment - 2;
+      }
+      while (starts[fragment + 1] == position) {
+        fragment++; // skip empty fragments
+      }
+      long available = starts[fragment + 1] - position;
+      int limit = dst.limit();
+      if (dst.remaining() > available) {
+        dst.limit(dst.position() + (int) available);
+      }
+      try {
+        int read = file.read(dst, positions[fragment] + position - starts[fragment]);
+        if (read > 0) {
+          position += read;
+        }
+        return read;
+      } finally {
+        dst.limit(limit);
+      }
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() {
+      return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) {
+      this.position = newPosition;
+      return this;
+    }
+
+    @Override
+    public long size() {
+      return starts[starts.length - 1];
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.imageio.codec.mp4;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import org.dcm4che3.imageio.codec.XPEGParserException;
+
+/**
+ * Sample table of the first video track of an MP4 file, to locate each sample (frame) in the file.
+ *
+ * <p>Only the movie box (moov) is read. In the video track, the media header (mdhd) gives the
+ * timescale and the sample table (stbl) gives the sample sizes (stsz), the sample-to-chunk mapping
+ * (stsc), the chunk offsets (stco or co64) and the sync samples (stss). As in {@link MP4Parser},
+ * the frame rate is averaged over the duration of the track.
+ *
+ * <p>Samples are numbered from 0 in decoding order. Positions are relative to the start of the MP4
+ * file, which is the position of the channel when the table is read.
+ */
+public final class MP4SampleTable {
+  private static final int MovieBoxType = 0x6d6f6f76; // moov
+  private static final int TrackBoxType = 0x7472616b; // trak
+  private static final int MediaBoxType = 0x6d646961; // mdia
+  private static final int MediaHeaderBoxType = 0x6d646864; // mdhd
+  private static final int HandlerBoxType = 0x68646c72; // hdlr
+  private static final int MediaInformationBoxType = 0x6d696e66; // minf
+  private static final int SampleTableBoxType = 0x7374626c; // stbl
+  private static final int SampleSizeBoxType = 0x7374737a; // stsz
+  private static final int SampleToChunkBoxType = 0x73747363; // stsc
+  private static final int ChunkOffsetBoxType = 0x7374636f; // stco
+  private static final int ChunkLargeOffsetBoxType = 0x636f3634; // co64
+  private static final int SyncSampleBoxType = 0x73747373; // stss
+  private static final int VideoHandlerType = 0x76696465; // vide
+
+  private final long movieBoxStart;
+  private final long movieBoxEnd;
+  private int timescale;
+  private long duration;
+  private int[] sampleSizes;
+  private long[] chunkOffsets;
+  private int[] firstChunks;
+  private int[] samplesPerChunk;
+  private int[] syncSamples;
+
+  public MP4SampleTable(SeekableByteChannel channel) throws IOException {
+    long base = channel.position();
+    long end = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(16);
+    long position = base;
+    while (true) {
+      if (end - position < 8) {
+        throw new XPEGParserException("moov box not found");
+      }
+      channel.position(position);
+      readFully(channel, header.clear().limit(8));
+      long size = header.getInt(0) & 0xffffffffL;
+      int type = header.getInt(4);
+      int headerLength = 8;
+      if (size == 1) {
+        readFully(channel, header.clear().limit(8));
+        size = header.getLong(0);
+        headerLength = 16;
+      } else if (size == 0) {
+        size = end - position;
+      }
+      if (size < headerLength || size > end - position) {
+        throw new XPEGParserException("Invalid MP4 box size: " + size);
+      }
+      if (type == MovieBoxType) {
+        if (size - headerLength > Integer.MAX_VALUE) {
+          throw new XPEGParserException("moov box too large: " + size);
+        }
+        ByteBuffer moov = ByteBuffer.allocate((int) (size - headerLength));
+        readFully(channel, moov);
+        this.movieBoxStart = position - base;
+        this.movieBoxEnd = position - base + size;
+        parseMovieBox(moov);
+        return;
+      }
+      position += size;
+    }
+  }
+
+  /** Returns the number of samples of the video track. */
+  public int getSampleCount() {
+    return sampleSizes.length;
+  }
+
+  /** Returns the size in bytes of a sample. */
+  public int getSampleSize(int sample) {
+    return sampleSizes[sample];
+  }
+
+  /** Returns the average number of frames per second, or 0 if the duration is unknown. */
+  public double getFrameRate() {
+    return duration > 0 ? sampleSizes.length * (double) timescale / duration : 0;
+  }
+
+  /** Returns the sync samples in ascending order. Without stss box, every sample is a sync one. */
+  public int[] getSyncSamples() {
+    if (syncSamples != null) {
+      return syncSamples.clone();
+    }
+    int[] all = new int[sampleSizes.length];
+    for (int i = 0; i < all.length; i++) {
+      all[i] = i;
+    }
+    return all;
+  }
+
+  /** Returns the position of each sample in the file. */
+  public long[] getSampleOffsets() throws XPEGParserException {
+    long[] offsets = new long[sampleSizes.length];
+    int sample = 0;
+    for (int e = 0; e < firstChunks.length && sample < offsets.length; e++) {
+      int lastChunk = e + 1 < firstChunks.length ? firstChunks[e + 1] - 1 : chunkOffsets.length;
+      for (int chunk = firstChunks[e] - 1; chunk < lastChunk && sample < offsets.length; chunk++) {
+        if (chunk < 0 || chunk >= chunkOffsets.length) {
+          throw new XPEGParserException("Invalid chunk index: " + (chunk + 1));
+        }
+        long offset = chunkOffsets[chunk];
+        for (int i = 0; i < samplesPerChunk[e] && sample < offsets.length; i++) {
+          offsets[sample] = offset;
+          offset += sampleSizes[sample++] & 0xffffffffL;
+        }
+      }
+    }
+    if (sample < offsets.length) {
+      throw new XPEGParserException("Samples without chunk: " + (offsets.length - sample));
+    }
+    return offsets;
+  }
+
+  /** Returns the position of the movie box, which holds the decoder configuration. */
+  public long getMovieBoxStart() {
+    return movieBoxStart;
+  }
+
+  /** Returns the position after the movie box. */
+  public long getMovieBoxEnd() {
+    return movieBoxEnd;
+  }
+
+  private void parseMovieBox(ByteBuffer moov) throws XPEGParserException {
+    for (ByteBuffer trak : boxes(moov, TrackBoxType)) {
+      ByteBuffer mdia = box(trak, MediaBoxType);
+      ByteBuffer hdlr = box(mdia, HandlerBoxType);
+      if (hdlr.remaining() >= 12 && hdlr.getInt(8) == VideoHandlerType) {
+        parseMediaHeaderBox(box(mdia, MediaHeaderBoxType));
+        parseSampleTableBox(box(box(mdia, MediaInformationBoxType), SampleTableBoxType));
+        return;
+      }
+    }
+    throw new XPEGParserException("No video track");
+  }
+
+  private void parseMediaHeaderBox(ByteBuffer mdhd) throws XPEGParserException {
+    checkLength(mdhd, 20);
+    if ((mdhd.get(0) & 0xff) == 1) {
+      checkLength(mdhd, 32);
+      timescale = mdhd.getInt(20);
+      duration = mdhd.getLong(24);
+    } else {
+      timescale = mdhd.getInt(12);
+      duration = mdhd.getInt(16) & 0xffffffffL;
+    }
+  }
+
+  private void parseSampleTableBox(ByteBuffer stbl) throws XPEGParserException {
+    ByteBuffer stsz = box(stbl, SampleSizeBoxType);
+    checkLength(stsz, 12);
+    int sampleSize = stsz.getInt(4);
+    sampleSizes = new int[checkCount(stsz, 8, sampleSize == 0 ? 4 : 0)];
+    for (int i = 0; i < sampleSizes.length; i++) {
+      sampleSizes[i] = sampleSize == 0 ? stsz.getInt(12 + i * 4) : sampleSize;
+    }
+
+    ByteBuffer stsc = box(stbl, SampleToChunkBoxType);
+    firstChunks = new int[checkCount(stsc, 4, 12)];
+    samplesPerChunk = new int[firstChunks.length];
+    for (int i = 0; i < firstChunks.length; i++) {
+      firstChunks[i] = stsc.getInt(8 + i * 12);
+      samplesPerChunk[i] = stsc.getInt(12 + i * 12);
+    }
+
+    List<ByteBuffer> co64 = boxes(stbl, ChunkLargeOffsetBoxType);
+    if (co64.isEmpty()) {
+      ByteBuffer stco = box(stbl, ChunkOffsetBoxType);
+      chunkOffsets = new long[checkCount(stco, 4, 4)];
+      for (int i = 0; i < chunkOffsets.length; i++) {
+        chunkOffsets[i] = stco.getInt(8 + i * 4) & 0xffffffffL;
+      }
+    } else {
+      ByteBuffer offsets = co64.get(0);
+      chunkOffsets = new long[checkCount(offsets, 4, 8)];
+      for (int i = 0; i < chunkOffsets.length; i++) {
+        chunkOffsets[i] = offsets.getLong(8 + i * 8);
+      }
+    }
+
+    List<ByteBuffer> stss = boxes(stbl, SyncSampleBoxType);
+    if (!stss.isEmpty()) {
+      ByteBuffer sync = stss.get(0);
+      syncSamples = new int[checkCount(sync, 4, 4)];
+      for (int i = 0; i < syncSamples.length; i++) {
+        // Sample numbers start at 1 and are in strictly increasing order
+        long sample = (sync.getInt(8 + i * 4) & 0xffffffffL) - 1;
+        if (sample < 0 || sample >= sampleSizes.length) {
+          throw new XPEGParserException("Invalid sync sample: " + (sample + 1));
+        }
+        if (i > 0 && sample <= syncSamples[i - 1]) {
+          throw new XPEGParserException("Sync samples not in increasing order: " + (sample + 1));
+        }
+        syncSamples[i] = (int) sample;
+      }
+    }
+  }
+
+  /** Reads the entry count at {@code index} and checks that the entries fit in the box. */
+  private static int checkCount(ByteBuffer box, int index, int entryLength)
+      throws XPEGParserException {
+    checkLength(box, index + 4);
+    long count = box.getInt(index) & 0xffffffffL;
+    checkLength(box, index + 4 + count * entryLength);
+    if (count > Integer.MAX_VALUE - 8) {
+      throw new XPEGParserException("Too many entries: " + count);
+    }
+    return (int) count;
+  }
+
+  private static void checkLength(ByteBuffer box, long length) throws XPEGParserException {
+    if (box.remaining() < length) {
+      throw new XPEGParserException("MP4 box too short: " + box.remaining());
+    }
+  }
+
+  private static ByteBuffer box(ByteBuffer parent, int type) throws XPEGParserException {
+    List<ByteBuffer> found = boxes(parent, type);
+    if (found.isEmpty()) {
+      throw new XPEGParserException(
+          String.format(
+              "%c%c%c%c box not found",
+              (type >> 24) & 0xff, (type >> 16) & 0xff, (type >> 8) & 0xff, type & 0xff));
+    }
+    return found.get(0);
+  }
+
+  /** Returns the payloads of the child boxes of the given type. */
+  private static List<ByteBuffer> boxes(ByteBuffer parent, int type) throws XPEGParserException {
+    List<ByteBuffer> found = new ArrayList<>();
+    int position = parent.position();
+    int limit = parent.limit();
+    while (limit - position >= 8) {
+      long size = parent.getInt(position) & 0xffffffffL;
+      int headerLength = 8;
+      if (size == 1) {
+        if (limit - position < 16) {
+          break;
+        }
+        size = parent.getLong(position + 8);
+        headerLength = 16;
+      } else if (size == 0) {
+        size = limit - position;
+      }
+      if (size < headerLength || size > limit - position) {
+        throw new XPEGParserException("Invalid MP4 box size: " + size);
+      }
+      if (parent.getInt(position + 4) == type) {
+        found.add(parent.slice(position + headerLength, (int) size - headerLength));
+      }
+      position += (int) size;
+    }
+    return found;
+  }
+
+  private static void readFully(SeekableByteChannel channel, ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new EOFException();
+      }
+    }
+    buffer.flip();
+  }
+}
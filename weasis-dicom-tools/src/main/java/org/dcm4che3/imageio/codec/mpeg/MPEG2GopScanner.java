@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.imageio.codec.mpeg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Finds the random access points of an MPEG-2 stream (elementary or program stream).
+ *
+ * <p>The stream is scanned once for start codes. A decoder can start at a sequence header or at a
+ * GOP header, so the first picture following one of them is a keyframe. In a program stream, the
+ * keyframe starts at the last pack header before this header to keep the packets whole. The frame
+ * count is the number of picture start codes and the frame rate is read in the first sequence
+ * header.
+ *
+ * <p>Pictures are numbered from 0 in decoding order. Positions are relative to the position of the
+ * channel when the stream is scanned.
+ */
+public final class MPEG2GopScanner {
+
+  private static final int PICTURE_START_CODE = 0x00;
+  private static final int SEQUENCE_HEADER_CODE = 0xB3;
+  private static final int GOP_START_CODE = 0xB8;
+  private static final int PACK_START_CODE = 0xBA;
+  private static final int SEQUENCE_HEADER_BYTES = 4;
+  private static final int BUFFER_SIZE = 65536;
+
+  // Indexed by the frame_rate_code of the sequence header (ISO/IEC 13818-2, table 6-4)
+  private static final double[] FRAME_RATES = {
+    0, 24000 / 1001.0, 24, 25, 30000 / 1001.0, 30, 50, 60000 / 1001.0, 60
+  };
+
+  private int frameCount;
+  private double frameRate;
+  private int keyFrameCount;
+  private int[] keyFrames = new int[16];
+  private long[] keyFrameOffsets = new long[16];
+
+  private long lastPack = -1;
+  private long lastPicture = -1;
+  private long accessPoint = -1;
+  private int headerBytes;
+  private int header;
+
+  private MPEG2GopScanner() {}
+
+  /**
+   * Scans the stream from the position of the channel to its end.
+   *
+   * @param channel the MPEG-2 stream
+   * @return the scanner holding the keyframes
+   * @throws IOException if an I/O error occurs
+   */
+  public static MPEG2GopScanner scan(SeekableByteChannel channel) throws IOException {
+    MPEG2GopScanner scanner = new MPEG2GopScanner();
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    byte[] bytes = buffer.array();
+    long position = 0;
+    int last = -1;
+    int read;
+    while ((read = channel.read(buffer)) >= 0) {
+      for (int i = 0; i < read; i++) {
+        int b = bytes[i] & 0xFF;
+        if (scanner.headerBytes > 0) {
+          scanner.header = (scanner.header << 8) | b;
+          if (--scanner.headerBytes == 0) {
+            scanner.readFrameRate(scanner.header & 0x0F);
+          }
+        }
+        last = (last << 8) | b;
+        if ((last & 0xFFFFFF00) == 0x00000100) {
+          scanner.startCode(b, position + i - 3);
+        }
+      }
+      position += read;
+      buffer.clear();
+    }
+    return scanner;
+  }
+
+  /** Returns the number of pictures. */
+  public int getFrameCount() {
+    return frameCount;
+  }
+
+  /** Returns the number of frames per second, or 0 without valid sequence header. */
+  public double getFrameRate() {
+    return frameRate;
+  }
+
+  /** Returns the keyframes in ascending order. */
+  public int[] getKeyFrames() {
+    return Arrays.copyOf(keyFrames, keyFrameCount);
+  }
+
+  /** Returns the position where the decoding of each keyframe can start. */
+  public long[] getKeyFrameOffsets() {
+    return Arrays.copyOf(keyFrameOffsets, keyFrameCount);
+  }
+
+  private void startCode(int code, long codePosition) {
+    switch (code) {
+      case PACK_START_CODE -> lastPack = codePosition;
+      case SEQUENCE_HEADER_CODE -> {
+        accessPoint = lastPack > lastPicture ? lastPack : codePosition;
+        if (frameRate == 0) {
+          headerBytes = SEQUENCE_HEADER_BYTES;
+          header = 0;
+        }
+      }
+      case GOP_START_CODE -> {
+        if (accessPoint < 0) {
+          accessPoint = lastPack > lastPicture ? lastPack : codePosition;
+        }
+      }
+      case PICTURE_START_CODE -> {
+        if (accessPoint >= 0) {
+          addKeyFrame(frameCount, accessPoint);
+          accessPoint = -1;
+        }
+        lastPicture = codePosition;
+        frameCount++;
+      }
+      default -> {
+        // Other start codes (slices, extensions, user data, PES packets) do not matter
+      }
+    }
+  }
+
+  private void addKeyFrame(int frame, long offset) {
+    if (keyFrameCount == keyFrames.length) {
+      keyFrames = Arrays.copyOf(keyFrames, keyFrameCount * 2);
+      keyFrameOffsets = Arrays.copyOf(keyFrameOffsets, keyFrameCount * 2);
+    }
+    keyFrames[keyFrameCount] = frame;
+    keyFrameOffsets[keyFrameCount++] = offset;
+  }
+
+  private void readFrameRate(int frameRateCode) {
+    if (frameRateCode > 0 && frameRateCode < FRAME_RATES.length) {
+      frameRate = FRAME_RATES[frameRateCode];
+    }
+  }
+}
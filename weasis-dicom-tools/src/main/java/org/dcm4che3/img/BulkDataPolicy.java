@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img;
+
+import java.util.Arrays;
+import java.util.List;
+import org.dcm4che3.data.ItemPointer;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.BulkDataDescriptor;
+import org.dcm4che3.util.TagUtils;
+
+/**
+ * Decides which elements are kept as bulk data references instead of being read in memory when a
+ * header is parsed.
+ *
+ * <p>An element is bulk data when it is:
+ *
+ * <ul>
+ *   <li>the Waveform Data of an item of the Waveform Sequence;
+ *   <li>one of the bulk tags (pixel data, LUT data, overlay data...) at the top level of the
+ *       dataset;
+ *   <li>a private element longer than the private threshold;
+ *   <li>an OB, OD, OF, OL, OW or UN element longer than the binary threshold.
+ * </ul>
+ *
+ * <p>The policy is called for every element of the header: the bulk tags are held in a sorted
+ * {@code int} array searched by dichotomy, without boxing. A policy is immutable and can be shared.
+ */
+public final class BulkDataPolicy implements BulkDataDescriptor {
+
+  /** Length above which a private element is bulk data by default. */
+  public static final long DEFAULT_PRIVATE_THRESHOLD = 1000;
+
+  /** Length above which a binary element is bulk data by default. */
+  public static final long DEFAULT_BINARY_THRESHOLD = 64;
+
+  private static final int[] DEFAULT_BULK_TAGS = {
+    Tag.PixelDataProviderURL,
+    Tag.AudioSampleData,
+    Tag.CurveData,
+    Tag.SpectroscopyData,
+    Tag.RedPaletteColorLookupTableData,
+    Tag.GreenPaletteColorLookupTableData,
+    Tag.BluePaletteColorLookupTableData,
+    Tag.AlphaPaletteColorLookupTableData,
+    Tag.LargeRedPaletteColorLookupTableData,
+    Tag.LargeGreenPaletteColorLookupTableData,
+    Tag.LargeBluePaletteColorLookupTableData,
+    Tag.SegmentedRedPaletteColorLookupTableData,
+    Tag.SegmentedGreenPaletteColorLookupTableData,
+    Tag.SegmentedBluePaletteColorLookupTableData,
+    Tag.SegmentedAlphaPaletteColorLookupTableData,
+    Tag.OverlayData,
+    Tag.EncapsulatedDocument,
+    Tag.FloatPixelData,
+    Tag.DoubleFloatPixelData,
+    Tag.PixelData
+  };
+
+  /** The policy used by default by {@link DicomImageReader}. */
+  public static final BulkDataPolicy DEFAULT = builder().build();
+
+  /**
+   * The policy used by {@link DicomImageReader} when the bulk data references of a stream cannot
+   * be read from their URI, such as an archive entry or a remote resource: only the pixel data is
+   * kept as a reference, read from the {@link org.dcm4che3.img.stream.PixelDataSource}, and the
+   * other elements are read in memory.
+   */
+  public static final BulkDataPolicy PIXEL_DATA_ONLY =
+      builder()
+          .bulkTags(Tag.FloatPixelData, Tag.DoubleFloatPixelData, Tag.PixelData)
+          .privateThreshold(Long.MAX_VALUE)
+          .binaryThreshold(Long.MAX_VALUE)
+          .build();
+
+  private final int[] bulkTags;
+  private final long privateThreshold;
+  private final long binaryThreshold;
+
+  private BulkDataPolicy(Builder builder) {
+    this.bulkTags = sortedTags(builder.bulkTags);
+    this.privateThreshold = builder.privateThreshold;
+    this.binaryThreshold = builder.binaryThreshold;
+  }
+
+  /**
+   * Returns a policy keeping in memory the private elements up to 64 KB, for forwarding instances
+   * whose private attributes are edited or read by the receiver.
+   */
+  public static BulkDataPolicy forForwarding() {
+    return builder().privateThreshold(64 * 1024).build();
+  }
+
+  /**
+   * Returns a policy keeping as references all the non-empty binary and private elements, for
+   * indexing instances from their attributes only.
+   */
+  public static BulkDataPolicy forIndexing() {
+    return builder().privateThreshold(0).binaryThreshold(0).build();
+  }
+
+  @Override
+  public boolean isBulkData(
+      List<ItemPointer> itemPointer, String privateCreator, int tag, VR vr, int length) {
+    int tagNormalized = TagUtils.normalizeRepeatingGroup(tag);
+
+    if (tagNormalized == Tag.WaveformData) {
+      return itemPointer.size() == 1 && itemPointer.get(0).sequenceTag == Tag.WaveformSequence;
+    }
+
+    if (Arrays.binarySearch(bulkTags, tagNormalized) >= 0) {
+      return itemPointer.isEmpty();
+    }
+
+    if (TagUtils.isPrivateTag(tag)) {
+      return length > privateThreshold;
+    }
+
+    return switch (vr) {
+      case OB, OD, OF, OL, OW, UN -> length > binaryThreshold;
+      default -> false;
+    };
+  }
+
+  /** Returns the sorted bulk tags, with their repeating groups normalized. */
+  public int[] getBulkTags() {
+    return bulkTags.clone();
+  }
+
+  public long getPrivateThreshold() {
+    return privateThreshold;
+  }
+
+  public long getBinaryThreshold() {
+    return binaryThreshold;
+  }
+
+  /** Creates a builder initialized with the default values. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static int[] sortedTags(int[] tags) {
+    return Arrays.stream(tags).map(TagUtils::normalizeRepeatingGroup).sorted().distinct().toArray();
+  }
+
+  /** Builder for BulkDataPolicy. */
+  public static final class Builder {
+    private int[] bulkTags = DEFAULT_BULK_TAGS;
+    private long privateThreshold = DEFAULT_PRIVATE_THRESHOLD;
+    private long binaryThreshold = DEFAULT_BINARY_THRESHOLD;
+
+    private Builder() {}
+
+    /**
+     * Replaces the bulk tags.
+     *
+     * @param tags the tags kept as references at the top level of the dataset
+     */
+    public Builder bulkTags(int... tags) {
+      this.bulkTags = tags.clone();
+      return this;
+    }
+
+    /**
+     * Adds bulk tags to the current ones.
+     *
+     * @param tags the tags to add
+     */
+    public Builder addBulkTags(int... tags) {
+      int[] merged = Arrays.copyOf(bulkTags, bulkTags.length + tags.length);
+      System.arraycopy(tags, 0, merged, bulkTags.length, tags.length);
+      this.bulkTags = merged;
+      return this;
+    }
+
+    /**
+     * Sets the length above which a private element is bulk data.
+     *
+     * @param threshold the length in bytes, or {@link Long#MAX_VALUE} to read all the private
+     *     elements in memory
+     */
+    public Builder privateThreshold(long threshold) {
+      this.privateThreshold = requireNonNegative(threshold);
+      return this;
+    }
+
+    /**
+     * Sets the length above which an OB, OD, OF, OL, OW or UN element is bulk data.
+     *
+     * @param threshold the length in bytes, or {@link Long#MAX_VALUE} to read all these elements
+     *     in memory
+     */
+    public Builder binaryThreshold(long threshold) {
+      this.binaryThreshold = requireNonNegative(threshold);
+      return this;
+    }
+
+    public BulkDataPolicy build() {
+      return new BulkDataPolicy(this);
+    }
+
+    private static long requireNonNegative(long threshold) {
+      if (threshold < 0) {
+        throw new IllegalArgumentException("threshold cannot be negative");
+      }
+      return threshold;
+    }
+  }
+}
@@ -9,21 +9,25 @@
  */
 package org.dcm4che3.img;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.Raster;
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.lang.ref.Reference;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
@@ -40,15 +44,15 @@ import org.dcm4che3.img.lut.ModalityLutModule;
 import org.dcm4che3.img.stream.BytesWithImageDescriptor;
 import org.dcm4che3.img.stream.DicomFileInputStream;
 import org.dcm4che3.img.stream.ExtendSegmentedInputImageStream;
+import org.dcm4che3.img.stream.FrameBufferArena;
 import org.dcm4che3.img.stream.ImageDescriptor;
-import org.dcm4che3.img.stream.SeekableInMemoryByteChannel;
+import org.dcm4che3.img.stream.PixelDataSource;
 import org.dcm4che3.img.util.Editable;
 import org.dcm4che3.img.util.PaletteColorUtils;
 import org.dcm4che3.img.util.PixelDataUtils;
 import org.dcm4che3.img.util.SupplierEx;
 import org.dcm4che3.io.BulkDataDescriptor;
 import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
-import org.dcm4che3.util.TagUtils;
 import org.opencv.core.Core.MinMaxLocResult;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
@@ -92,31 +96,16 @@ public class DicomImageReader extends ImageReader {
 
   /** DICOM tags that should be treated as bulk data (not loaded into memory) */
   public static final Set<Integer> BULK_TAGS =
-      Set.of(
-          Tag.PixelDataProviderURL,
-          Tag.AudioSampleData,
-          Tag.CurveData,
-          Tag.SpectroscopyData,
-          Tag.RedPaletteColorLookupTableData,
-          Tag.GreenPaletteColorLookupTableData,
-          Tag.BluePaletteColorLookupTableData,
-          Tag.AlphaPaletteColorLookupTableData,
-          Tag.LargeRedPaletteColorLookupTableData,
-          Tag.LargeGreenPaletteColorLookupTableData,
-          Tag.LargeBluePaletteColorLookupTableData,
-          Tag.SegmentedRedPaletteColorLookupTableData,
-          Tag.SegmentedGreenPaletteColorLookupTableData,
-          Tag.SegmentedBluePaletteColorLookupTableData,
-          Tag.SegmentedAlphaPaletteColorLookupTableData,
-          Tag.OverlayData,
-          Tag.EncapsulatedDocument,
-          Tag.FloatPixelData,
-          Tag.DoubleFloatPixelData,
-          Tag.PixelData);
-
-  public static final BulkDataDescriptor BULK_DATA_DESCRIPTOR = DicomImageReader::shouldBeBulkData;
+      Arrays.stream(BulkDataPolicy.DEFAULT.getBulkTags())
+          .boxed()
+          .collect(Collectors.toUnmodifiableSet());
+
+  public static final BulkDataDescriptor BULK_DATA_DESCRIPTOR = BulkDataPolicy.DEFAULT;
 
   private final List<Integer> fragmentsPositions = new ArrayList<>();
+  private final FrameBufferArena bufferArena = new FrameBufferArena();
+  private TileCache tileCache;
+  private BulkDataPolicy bulkDataPolicy = BulkDataPolicy.DEFAULT;
 
   private BytesWithImageDescriptor bdis;
   private DicomFileInputStream dis;
@@ -154,9 +143,29 @@ public class DicomImageReader extends ImageReader {
     super.setInput(dicomStream, seekForwardOnly, ignoreMetadata);
     this.dis = dicomStream;
     dis.setIncludeBulkData(IncludeBulkData.URI);
-    dis.setBulkDataDescriptor(BULK_DATA_DESCRIPTOR);
+    // The other bulk data of an archive entry, a buffer or a remote resource is read in memory:
+    // its reference could only be read from the source, not from the URI
+    dis.setBulkDataDescriptor(
+        dis.isBulkDataURIResolvable() ? bulkDataPolicy : BulkDataPolicy.PIXEL_DATA_ONLY);
     // Avoid copying pixel data to temporary file
-    dis.setURI(dis.getPath().toUri().toString());
+    dis.setURI(dis.getSourceURI());
+  }
+
+  /** Returns the policy selecting the elements read as bulk data references. */
+  public BulkDataPolicy getBulkDataPolicy() {
+    return bulkDataPolicy;
+  }
+
+  /**
+   * Sets the policy selecting the elements read as bulk data references, applied to the next
+   * {@link DicomFileInputStream} given to {@link #setInput(Object)} whose metadata is not already
+   * read. The pixel data must remain bulk data. A stream whose bulk data cannot be read from its
+   * URI uses {@link BulkDataPolicy#PIXEL_DATA_ONLY} instead.
+   *
+   * @param bulkDataPolicy the policy
+   */
+  public void setBulkDataPolicy(BulkDataPolicy bulkDataPolicy) {
+    this.bulkDataPolicy = Objects.requireNonNull(bulkDataPolicy, "bulkDataPolicy cannot be null");
   }
 
   /** Gets the image descriptor containing DICOM image metadata. */
@@ -308,6 +317,110 @@ public class DicomImageReader extends ImageReader {
     return applyImageTransformations(rawImage, frameIndex, param);
   }
 
+  /**
+   * Returns the tiles of a frame intersecting a region, decoded one by one when iterating. This
+   * allows to display a viewport of a large image, like a whole slide or a mammography, without
+   * holding the whole frame in memory when the pixel data is native and stored in a local file.
+   *
+   * <p>The frame is divided in a grid of tiles of {@code tileSize << resolution} full resolution
+   * pixels, and each tile is reduced by a factor of 2 at each resolution level. The palette color
+   * lookup table is applied, but not the other transformations of {@link #getPlanarImage(int,
+   * DicomImageReadParam)}. The tiles are taken from the {@link #getTileCache() tile cache} when
+   * there is one. The reader must not be used for another input while iterating, and an I/O
+   * error is thrown as an {@link java.io.UncheckedIOException}.
+   *
+   * @param frameIndex the zero-based frame index
+   * @param viewport the region of the frame in full resolution pixels, or null for the whole frame
+   * @param tileSize the width and height of the tiles at their resolution level
+   * @param resolution the resolution level, 0 for full resolution
+   * @return the tiles, row by row
+   */
+  public Iterator<ImageTile> getTiles(
+      int frameIndex, Rectangle viewport, int tileSize, int resolution) {
+    checkFrameIndex(frameIndex);
+    if (tileSize < 1) {
+      throw new IllegalArgumentException("tileSize must be positive");
+    }
+    if (resolution < 0 || resolution > 30) {
+      throw new IllegalArgumentException("Invalid resolution level: " + resolution);
+    }
+    return new FrameTileIterator(this, frameIndex, viewport, tileSize, resolution);
+  }
+
+  /** Returns the cache of the tiles returned by {@link #getTiles}, or null if there is none. */
+  public TileCache getTileCache() {
+    return tileCache;
+  }
+
+  /**
+   * Sets the cache of the tiles returned by {@link #getTiles}, which can be shared by several
+   * readers.
+   *
+   * @param tileCache the cache, or null to disable caching
+   */
+  public void setTileCache(TileCache tileCache) {
+    this.tileCache = tileCache;
+  }
+
+  /**
+   * Reads rows of a native frame from the local file of the stream, with the palette color lookup
+   * table applied.
+   *
+   * @return the strip, or null if the pixel data cannot be read by rows and must be decoded whole
+   */
+  PlanarImage readStrip(int frameIndex, int y, int rows) throws IOException {
+    if (dis == null) {
+      return null;
+    }
+    String tsuid = dis.getMetadata().getTransferSyntaxUID();
+    PixelDataInfo pixelInfo = extractPixelDataInfo(dis.getMetadata().getDicomObject());
+    PixelDataSource source = dis.getSource();
+    ImageDescriptor desc = getImageDescriptor();
+    PhotometricInterpretation pmi = desc.getPhotometricInterpretation();
+    if (pixelInfo.bulkData == null
+        || pixelInfo.fragments != null
+        || TransferSyntaxType.forUID(tsuid) != TransferSyntaxType.NATIVE
+        || UID.DeflatedExplicitVRLittleEndian.equals(tsuid)
+        || source.getLocalFile() == null
+        || desc.getBitsAllocated() % 8 != 0
+        || pmi.isSubSampled()) {
+      return null;
+    }
+
+    int samples = desc.getSamples();
+    int planes = desc.isBanded() && samples > 1 ? samples : 1;
+    int rowLength = desc.getColumns() * desc.getBitsAllocated() / 8 * (samples / planes);
+    long frameLength =
+        pmi.frameLength(desc.getColumns(), desc.getRows(), samples, desc.getBitsAllocated());
+    long frameStart =
+        source.getLocalOffset() + pixelInfo.bulkData.offset() + frameIndex * frameLength;
+    // One segment per color plane when the samples are not interleaved
+    long[] positions = new long[planes];
+    int[] lengths = new int[planes];
+    for (int p = 0; p < planes; p++) {
+      positions[p] = frameStart + ((long) p * desc.getRows() + y) * rowLength;
+      lengths[p] = rows * rowLength;
+    }
+
+    var segmentedStream =
+        new ExtendSegmentedInputImageStream(source.getLocalFile(), positions, lengths, desc);
+    int dcmFlags = buildDecodingFlags(tsuid, desc, pixelInfo, null, frameIndex, null);
+    ImageCV strip =
+        readRawImageData(
+            segmentedStream,
+            dcmFlags,
+            desc,
+            rows,
+            pixelInfo.pixelDataVR.vr.numEndianBytes(),
+            createMatOfDouble(positions),
+            createMatOfDouble(lengths));
+    PlanarImage result = applyPaletteColorLUT(strip);
+    if (!strip.equals(result)) {
+      strip.release();
+    }
+    return result;
+  }
+
   private PlanarImage applyImageTransformations(
       PlanarImage rawImage, int frameIndex, DicomImageReadParam param) {
     PlanarImage result = rawImage;
@@ -423,10 +536,10 @@ public class DicomImageReader extends ImageReader {
     PixelDataInfo pixelInfo = extractPixelDataInfo(dcm);
     validatePixelData(pixelInfo);
 
-    ExtendSegmentedInputImageStream segmentedStream =
-        buildSegmentedImageInputStream(frameIndex, pixelInfo.fragments, pixelInfo.bulkData);
+    FrameSegments segments =
+        buildFrameSegments(frameIndex, pixelInfo.fragments, pixelInfo.bulkData);
 
-    return readImageFromSegments(segmentedStream, frameIndex, pixelInfo, param);
+    return readImageFromSegments(segments, frameIndex, pixelInfo, param);
   }
 
   protected PlanarImage getRawImageFromBytes(int frameIndex, DicomImageReadParam param)
@@ -437,20 +550,80 @@ public class DicomImageReader extends ImageReader {
 
     ImageDescriptor desc = getImageDescriptor();
     String tsuid = bdis.getTransferSyntax();
-    int dcmFlags = buildBytesDecodingFlags(tsuid, desc, frameIndex, param);
-
-    var buffer = createMatFromBytes(bdis.getBytes(frameIndex));
     TransferSyntaxType type = TransferSyntaxType.forUID(tsuid);
     boolean isRawData = type == TransferSyntaxType.NATIVE || type == TransferSyntaxType.RLE;
+    int streamVR = bdis.getPixelDataVR().numEndianBytes();
 
-    ImageCV imageCV =
-        isRawData
-            ? readRawBytesData(buffer, dcmFlags, desc)
-            : readCompressedBytesData(buffer, dcmFlags);
+    ImageCV imageCV;
+    ExtendSegmentedInputImageStream segmentedStream = bdis.getSegments(frameIndex);
+    if (segmentedStream != null) {
+      // The native decoder reads the fragments in place, without assembling the frame
+      Path file = segmentedStream.path();
+      long firstPosition = segmentedStream.segmentPositions()[0];
+      int dcmFlags = buildBytesDecodingFlags(tsuid, desc, () -> openAt(file, firstPosition), param);
+      var positions = createMatOfDouble(segmentedStream.segmentPositions());
+      var lengths = createMatOfDouble(segmentedStream.segmentLengths());
+      imageCV =
+          isRawData
+              ? readRawImageData(
+                  segmentedStream, dcmFlags, desc, desc.getRows(), streamVR, positions, lengths)
+              : readCompressedImageData(segmentedStream, dcmFlags, positions, lengths);
+    } else {
+      ByteBuffer frame = bdis.getBytes(frameIndex, bufferArena);
+      int dcmFlags =
+          buildBytesDecodingFlags(
+              tsuid, desc, () -> PixelDataSource.ofBuffer(frame, null).newChannel(), param);
+      imageCV = decodeBytes(frame, isRawData, dcmFlags, desc, streamVR);
+    }
 
     return applyReleaseImageAfterProcessing(imageCV, param);
   }
 
+  private static SeekableByteChannel openAt(Path file, long position) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return channel.position(position);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Decodes the encoded bytes of a frame. A direct buffer is shared with the decoder, and is
+   * given back to the arena of the reader once the frame is decoded and the Mat wrapping it is
+   * released. A decoded image still pointing to the buffer is copied before, as the buffer is
+   * reused by the next frame.
+   */
+  private ImageCV decodeBytes(
+      ByteBuffer frame, boolean isRawData, int dcmFlags, ImageDescriptor desc, int streamVR) {
+    Mat buffer = createMatFromBytes(frame);
+    try {
+      ImageCV image =
+          isRawData
+              ? readRawBytesData(buffer, dcmFlags, desc, streamVR)
+              : readCompressedBytesData(buffer, dcmFlags);
+      return detachFromBuffer(image, buffer);
+    } finally {
+      buffer.release();
+      // The memory of a direct buffer must not be freed while the decoder reads it
+      Reference.reachabilityFence(frame);
+      bufferArena.release(frame);
+    }
+  }
+
+  // The raw decoder may return a header on the input data, which does not own this memory
+  private static ImageCV detachFromBuffer(ImageCV image, Mat buffer) {
+    long start = buffer.dataAddr();
+    long address = image.dataAddr();
+    if (address < start || address >= start + buffer.total() * buffer.elemSize()) {
+      return image;
+    }
+    ImageCV copy = ImageCV.fromMat(image.clone());
+    image.release();
+    return copy;
+  }
+
   /** Container for pixel data information extracted from DICOM attributes. */
   private record PixelDataInfo(
       Object pixelData,
@@ -498,78 +671,127 @@ public class DicomImageReader extends ImageReader {
     }
   }
 
+  /**
+   * Positions and lengths of the segments of a frame in the {@link PixelDataSource} of the stream.
+   */
+  private record FrameSegments(long[] positions, int[] lengths) {
+    int count() {
+      return positions.length;
+    }
+
+    long[] positionsFrom(long offset) {
+      return offset == 0 ? positions : Arrays.stream(positions).map(p -> p + offset).toArray();
+    }
+  }
+
   private PlanarImage readImageFromSegments(
-      ExtendSegmentedInputImageStream segmentedStream,
-      int frameIndex,
-      PixelDataInfo pixelInfo,
-      DicomImageReadParam param)
+      FrameSegments segments, int frameIndex, PixelDataInfo pixelInfo, DicomImageReadParam param)
       throws IOException {
 
-    if (segmentedStream.getSegmentCount() <= 0) {
+    if (segments.count() <= 0) {
       return null;
     }
 
-    frameIndex = Math.min(frameIndex, segmentedStream.getSegmentCount() - 1);
+    frameIndex = Math.min(frameIndex, segments.count() - 1);
 
     String tsuid = dis.getMetadata().getTransferSyntaxUID();
-    int dcmFlags =
-        buildDecodingFlags(
-            tsuid, getImageDescriptor(), pixelInfo, segmentedStream, frameIndex, param);
+    ImageDescriptor desc = getImageDescriptor();
+    int dcmFlags = buildDecodingFlags(tsuid, desc, pixelInfo, segments, frameIndex, param);
 
-    var positions = createMatOfDouble(segmentedStream.segmentPositions());
-    var lengths = createMatOfDouble(segmentedStream.segmentLengths());
     TransferSyntaxType type = TransferSyntaxType.forUID(tsuid);
     boolean isRawData =
         pixelInfo.fragments == null
             || type == TransferSyntaxType.NATIVE
             || type == TransferSyntaxType.RLE;
 
-    ImageCV imageCV =
-        isRawData
-            ? readRawImageData(
-                segmentedStream,
-                dcmFlags,
-                getImageDescriptor(),
-                pixelInfo,
-                positions,
-                lengths,
-                tsuid)
-            : readCompressedImageData(segmentedStream, dcmFlags, positions, lengths);
+    PixelDataSource source = dis.getSource();
+    Path localFile = source.getLocalFile();
+    ImageCV imageCV;
+    if (isRawData
+        && UID.DeflatedExplicitVRLittleEndian.equals(tsuid)
+        && pixelInfo.bulkData != null) {
+      imageCV =
+          readRawBytesData(
+              geBufferData(pixelInfo.bulkData),
+              dcmFlags,
+              desc,
+              pixelInfo.pixelDataVR.vr.numEndianBytes());
+    } else if (localFile != null) {
+      // The native decoder reads the segments directly from the local file
+      var segmentedStream =
+          new ExtendSegmentedInputImageStream(
+              localFile,
+              segments.positionsFrom(source.getLocalOffset()),
+              segments.lengths(),
+              desc);
+      var positions = createMatOfDouble(segmentedStream.segmentPositions());
+      var lengths = createMatOfDouble(segmentedStream.segmentLengths());
+      imageCV =
+          isRawData
+              ? readRawImageData(
+                  segmentedStream,
+                  dcmFlags,
+                  desc,
+                  desc.getRows(),
+                  pixelInfo.pixelDataVR.vr.numEndianBytes(),
+                  positions,
+                  lengths)
+              : readCompressedImageData(segmentedStream, dcmFlags, positions, lengths);
+    } else {
+      ByteBuffer frame = readSegments(source, segments);
+      imageCV =
+          decodeBytes(frame, isRawData, dcmFlags, desc, pixelInfo.pixelDataVR.vr.numEndianBytes());
+    }
 
     return applyReleaseImageAfterProcessing(imageCV, param);
   }
 
+  /**
+   * Reads the segments of a frame with positional reads of the source, in a single buffer of the
+   * arena.
+   */
+  private ByteBuffer readSegments(PixelDataSource source, FrameSegments segments)
+      throws IOException {
+    long total = Arrays.stream(segments.lengths()).asLongStream().sum();
+    if (total > Integer.MAX_VALUE) {
+      throw new IOException("Frame too large: " + total);
+    }
+    ByteBuffer buffer = bufferArena.acquire((int) total);
+    try {
+      for (int i = 0; i < segments.count(); i++) {
+        buffer.limit(buffer.position() + segments.lengths()[i]);
+        source.readFully(buffer, segments.positions()[i]);
+      }
+    } catch (IOException | RuntimeException e) {
+      bufferArena.release(buffer);
+      throw e;
+    }
+    return buffer.flip();
+  }
+
   private ImageCV readRawImageData(
       ExtendSegmentedInputImageStream segmentedStream,
       int dcmFlags,
       ImageDescriptor desc,
-      PixelDataInfo pixelInfo,
+      int rows,
+      int streamVR,
       MatOfDouble positions,
-      MatOfDouble lengths,
-      String tsuid) {
+      MatOfDouble lengths) {
     int bitsStored = desc.getBitsStored();
     int bits = (bitsStored <= 8 && desc.getBitsAllocated() > 8) ? 9 : bitsStored;
-    int streamVR = pixelInfo.pixelDataVR.vr.numEndianBytes();
 
     var dicomParams =
         new MatOfInt(
             Imgcodecs.IMREAD_UNCHANGED,
             dcmFlags,
             desc.getColumns(),
-            desc.getRows(),
+            rows,
             Imgcodecs.DICOM_CP_UNKNOWN,
             desc.getSamples(),
             bits,
             desc.isBanded() ? Imgcodecs.ILV_NONE : Imgcodecs.ILV_SAMPLE,
             streamVR);
 
-    if (UID.DeflatedExplicitVRLittleEndian.equals(tsuid) && pixelInfo.bulkData != null) {
-      return ImageCV.fromMat(
-          Imgcodecs.dicomRawMatRead(
-              geBufferData(pixelInfo.bulkData),
-              dicomParams,
-              desc.getPhotometricInterpretation().name()));
-    }
     return ImageCV.fromMat(
         Imgcodecs.dicomRawFileRead(
             segmentedStream.path().toString(),
@@ -610,7 +832,7 @@ public class DicomImageReader extends ImageReader {
       String tsuid,
       ImageDescriptor desc,
       PixelDataInfo pixelInfo,
-      ExtendSegmentedInputImageStream segmentedStream,
+      FrameSegments segments,
       int frameIndex,
       DicomImageReadParam param) {
     TransferSyntaxType type = TransferSyntaxType.forUID(tsuid);
@@ -625,7 +847,7 @@ public class DicomImageReader extends ImageReader {
         pixelInfo.fragments == null
             || type == TransferSyntaxType.NATIVE
             || type == TransferSyntaxType.RLE;
-    if (!rawData && shouldConvertYbr2Rgb(pmi, tsuid, segmentedStream, frameIndex, param)) {
+    if (!rawData && shouldConvertYbr2Rgb(pmi, tsuid, segments, frameIndex, param)) {
       dcmFlags |= Imgcodecs.DICOM_FLAG_YBR;
       if (type == TransferSyntaxType.JPEG_LS) {
         dcmFlags |= Imgcodecs.DICOM_FLAG_FORCE_RGB_CONVERSION;
@@ -639,10 +861,9 @@ public class DicomImageReader extends ImageReader {
     return dcmFlags;
   }
 
-  private ImageCV readRawBytesData(Mat buffer, int dcmFlags, ImageDescriptor desc) {
+  private ImageCV readRawBytesData(Mat buffer, int dcmFlags, ImageDescriptor desc, int streamVR) {
     int bitsStored = desc.getBitsStored();
     int bits = (bitsStored <= 8 && desc.getBitsAllocated() > 8) ? 9 : bitsStored;
-    int streamVR = bdis.getPixelDataVR().numEndianBytes();
 
     var dicomParams =
         new MatOfInt(
@@ -665,7 +886,10 @@ public class DicomImageReader extends ImageReader {
   }
 
   private int buildBytesDecodingFlags(
-      String tsuid, ImageDescriptor desc, int frameIndex, DicomImageReadParam param) {
+      String tsuid,
+      ImageDescriptor desc,
+      SupplierEx<SeekableByteChannel, IOException> frameChannel,
+      DicomImageReadParam param) {
     TransferSyntaxType type = TransferSyntaxType.forUID(tsuid);
     PhotometricInterpretation pmi = desc.getPhotometricInterpretation();
     int dcmFlags =
@@ -673,7 +897,7 @@ public class DicomImageReader extends ImageReader {
             ? Imgcodecs.DICOM_FLAG_SIGNED
             : Imgcodecs.DICOM_FLAG_UNSIGNED;
     boolean rawData = type == TransferSyntaxType.NATIVE || type == TransferSyntaxType.RLE;
-    if (!rawData && shouldConvertYbr2Rgb(pmi, tsuid, frameIndex, param)) {
+    if (!rawData && shouldConvertYbr2Rgb(pmi, tsuid, frameChannel, param)) {
       dcmFlags |= Imgcodecs.DICOM_FLAG_YBR;
       if (type == TransferSyntaxType.JPEG_LS) {
         dcmFlags |= Imgcodecs.DICOM_FLAG_FORCE_RGB_CONVERSION;
@@ -689,14 +913,13 @@ public class DicomImageReader extends ImageReader {
   private boolean shouldConvertYbr2Rgb(
       PhotometricInterpretation pmi,
       String tsuid,
-      ExtendSegmentedInputImageStream segmentedStream,
+      FrameSegments segments,
       int frameIndex,
       DicomImageReadParam param) {
     BooleanSupplier isYbrModel =
         () -> {
-          try (SeekableByteChannel channel =
-              Files.newByteChannel(dis.getPath(), StandardOpenOption.READ)) {
-            channel.position(segmentedStream.segmentPositions()[frameIndex]);
+          try (SeekableByteChannel channel = dis.getSource().newChannel()) {
+            channel.position(segments.positions()[frameIndex]);
             return isYbrModel(channel, pmi, param);
           } catch (IOException e) {
             LOG.error("Cannot read JPEG header", e);
@@ -707,10 +930,13 @@ public class DicomImageReader extends ImageReader {
   }
 
   private boolean shouldConvertYbr2Rgb(
-      PhotometricInterpretation pmi, String tsuid, int frameIndex, DicomImageReadParam param) {
+      PhotometricInterpretation pmi,
+      String tsuid,
+      SupplierEx<SeekableByteChannel, IOException> frameChannel,
+      DicomImageReadParam param) {
     BooleanSupplier isYbrModel =
         () -> {
-          try (var channel = new SeekableInMemoryByteChannel(bdis.getBytes(frameIndex).array())) {
+          try (var channel = frameChannel.get()) {
             return isYbrModel(channel, pmi, param);
           } catch (Exception e) {
             LOG.error("Cannot read JPEG header", e);
@@ -760,20 +986,20 @@ public class DicomImageReader extends ImageReader {
     };
   }
 
-  /** Builds segmented input stream for frame data access. */
-  private ExtendSegmentedInputImageStream buildSegmentedImageInputStream(
+  /** Builds the segments of a frame for frame data access. */
+  private FrameSegments buildFrameSegments(
       int frameIndex, Fragments fragments, BulkData bulkData) throws IOException {
     ImageDescriptor desc = getImageDescriptor();
     if (bulkData != null && fragments == null) {
-      return buildBulkDataStream(frameIndex, bulkData, desc);
+      return buildBulkDataSegments(frameIndex, bulkData, desc);
     } else if (fragments != null) {
-      return buildFragmentedStream(frameIndex, fragments, desc);
+      return buildFragmentedSegments(frameIndex, fragments, desc);
     } else {
       throw new IOException("Neither fragments nor BulkData available");
     }
   }
 
-  private ExtendSegmentedInputImageStream buildBulkDataStream(
+  private FrameSegments buildBulkDataSegments(
       int frameIndex, BulkData bulkData, ImageDescriptor desc) {
     int frameLength =
         desc.getPhotometricInterpretation()
@@ -783,20 +1009,20 @@ public class DicomImageReader extends ImageReader {
     long[] offsets = {bulkData.offset() + (long) frameIndex * frameLength};
     int[] lengths = {frameLength};
 
-    return new ExtendSegmentedInputImageStream(dis.getPath(), offsets, lengths, desc);
+    return new FrameSegments(offsets, lengths);
   }
 
-  private ExtendSegmentedInputImageStream buildFragmentedStream(
+  private FrameSegments buildFragmentedSegments(
       int frameIndex, Fragments fragments, ImageDescriptor desc) throws IOException {
     int fragmentCount = fragments.size();
     int frameCount = desc.getFrames();
 
     return frameCount >= fragmentCount - 1
-        ? buildSingleFragmentStream(frameIndex, fragments, fragmentCount)
-        : buildMultiFragmentStream(frameIndex, fragments, frameCount, fragmentCount);
+        ? buildSingleFragmentSegments(frameIndex, fragments, fragmentCount)
+        : buildMultiFragmentSegments(frameIndex, fragments, frameCount, fragmentCount);
   }
 
-  private ExtendSegmentedInputImageStream buildSingleFragmentStream(
+  private FrameSegments buildSingleFragmentSegments(
       int frameIndex, Fragments fragments, int fragmentCount) {
     int index = Math.min(frameIndex + 1, fragmentCount - 1);
     BulkData bulkData = (BulkData) fragments.get(index);
@@ -804,19 +1030,18 @@ public class DicomImageReader extends ImageReader {
     long[] offsets = {bulkData.offset()};
     int[] lengths = {bulkData.length()};
 
-    return new ExtendSegmentedInputImageStream(
-        dis.getPath(), offsets, lengths, getImageDescriptor());
+    return new FrameSegments(offsets, lengths);
   }
 
-  private ExtendSegmentedInputImageStream buildMultiFragmentStream(
+  private FrameSegments buildMultiFragmentSegments(
       int frameIndex, Fragments fragments, int frameCount, int fragmentCount) throws IOException {
 
     return frameCount == 1
-        ? buildAllFragmentsStream(frameIndex, fragments, fragmentCount)
-        : buildPerFrameFragmentStream(frameIndex, fragments, frameCount, fragmentCount);
+        ? buildAllFragmentsSegments(frameIndex, fragments, fragmentCount)
+        : buildPerFrameFragmentSegments(frameIndex, fragments, frameCount, fragmentCount);
   }
 
-  private ExtendSegmentedInputImageStream buildAllFragmentsStream(
+  private FrameSegments buildAllFragmentsSegments(
       int frameIndex, Fragments fragments, int fragmentCount) {
     long[] offsets = new long[fragmentCount - 1];
     int[] lengths = new int[offsets.length];
@@ -827,11 +1052,10 @@ public class DicomImageReader extends ImageReader {
       lengths[i] = bulkData.length();
     }
 
-    return new ExtendSegmentedInputImageStream(
-        dis.getPath(), offsets, lengths, getImageDescriptor());
+    return new FrameSegments(offsets, lengths);
   }
 
-  private ExtendSegmentedInputImageStream buildPerFrameFragmentStream(
+  private FrameSegments buildPerFrameFragmentSegments(
       int frameIndex, Fragments fragments, int frameCount, int fragmentCount) throws IOException {
     if (fragmentsPositions.isEmpty()) {
       identifyFrameFragments(fragments, fragmentCount);
@@ -857,13 +1081,11 @@ public class DicomImageReader extends ImageReader {
       lengths[i] = bulkData.length();
     }
 
-    return new ExtendSegmentedInputImageStream(
-        dis.getPath(), offsets, lengths, getImageDescriptor());
+    return new FrameSegments(offsets, lengths);
   }
 
   private void identifyFrameFragments(Fragments fragments, int fragmentCount) throws IOException {
-    Path path = dis.getPath();
-    try (SeekableByteChannel channel = Files.newByteChannel(path, StandardOpenOption.READ)) {
+    try (SeekableByteChannel channel = dis.getSource().newChannel()) {
       for (int i = 1; i < fragmentCount; i++) {
         BulkData bulkData = (BulkData) fragments.get(i);
         channel.position(bulkData.offset());
@@ -902,6 +1124,7 @@ public class DicomImageReader extends ImageReader {
   @Override
   public void dispose() {
     resetInternalState();
+    bufferArena.clear();
   }
 
   // Static utility methods
@@ -953,35 +1176,29 @@ public class DicomImageReader extends ImageReader {
 
   // Private utility methods for resource management
 
-  private static boolean shouldBeBulkData(
-      List<ItemPointer> itemPointer,
-      String privateCreator,
-      int tag,
-      org.dcm4che3.data.VR vr,
-      long length) {
-    int tagNormalized = TagUtils.normalizeRepeatingGroup(tag);
-
-    if (tagNormalized == Tag.WaveformData) {
-      return itemPointer.size() == 1 && itemPointer.get(0).sequenceTag == Tag.WaveformSequence;
-    }
-
-    if (BULK_TAGS.contains(tagNormalized)) {
-      return itemPointer.isEmpty();
+  /**
+   * Creates a Mat of one row with the remaining bytes of a buffer. The Mat shares the memory of a
+   * direct buffer, which must then remain reachable while the Mat is used; the bytes of a heap
+   * buffer are copied.
+   */
+  private static Mat createMatFromBytes(ByteBuffer byteBuffer) {
+    ByteBuffer data = byteBuffer.slice();
+    int length = data.remaining();
+    if (data.isDirect()) {
+      return new Mat(1, length, CvType.CV_8UC1, data);
     }
-
-    if (TagUtils.isPrivateTag(tag)) {
-      return length > 1000; // Don't read private values larger than 1KB into memory
+    Mat buffer = new Mat(1, length, CvType.CV_8UC1);
+    if (data.hasArray()) {
+      buffer.put(0, 0, data.array(), data.arrayOffset(), length);
+    } else {
+      // Read-only heap buffer
+      byte[] chunk = new byte[Math.min(length, 64 * 1024)];
+      for (int offset = 0; offset < length; offset += chunk.length) {
+        int n = Math.min(chunk.length, length - offset);
+        data.get(offset, chunk, 0, n);
+        buffer.put(0, offset, chunk, 0, n);
+      }
     }
-
-    return switch (vr) {
-      case OB, OD, OF, OL, OW, UN -> length > 64;
-      default -> false;
-    };
-  }
-
-  private static Mat createMatFromBytes(ByteBuffer byteBuffer) {
-    Mat buffer = new Mat(1, byteBuffer.limit(), CvType.CV_8UC1);
-    buffer.put(0, 0, byteBuffer.array());
     return buffer;
   }
 
@@ -82,12 +82,34 @@ public final class DicomMetaData extends IIOMetadata {
    * @throws NullPointerException if dcmStream is null
    */
   public DicomMetaData(DicomInputStream dcmStream) throws IOException {
+    this(dcmStream, false);
+  }
+
+  /**
+   * Creates DICOM metadata by reading from a DICOM input stream, optionally releasing the per-frame
+   * functional groups.
+   *
+   * <p>The functional groups are always flattened into the {@link ImageDescriptor}. When {@code
+   * releaseFunctionalGroups} is true, the Per-frame Functional Groups Sequence is then removed from
+   * the dataset returned by {@link #getDicomObject()}, which saves the heap of its items for
+   * enhanced objects with many frames.
+   *
+   * @param dcmStream the DICOM input stream to read from
+   * @param releaseFunctionalGroups true to remove the per-frame functional groups from the dataset
+   * @throws IOException if an I/O error occurs while reading the stream
+   * @throws NullPointerException if dcmStream is null
+   */
+  public DicomMetaData(DicomInputStream dcmStream, boolean releaseFunctionalGroups)
+      throws IOException {
     Objects.requireNonNull(dcmStream, "DICOM input stream cannot be null");
 
     this.fileMetaInformation = dcmStream.readFileMetaInformation();
     this.dcm = dcmStream.readDataset();
     this.desc = new ImageDescriptor(dcm);
     this.transferSyntaxUID = resolveTransferSyntax(dcmStream);
+    if (releaseFunctionalGroups && desc.getFunctionalGroups() != null) {
+      dcm.remove(Tag.PerFrameFunctionalGroupsSequence);
+    }
   }
 
   /**
@@ -109,6 +131,23 @@ public final class DicomMetaData extends IIOMetadata {
         Objects.requireNonNull(transferSyntaxUID, "Transfer syntax UID cannot be null");
   }
 
+  /**
+   * Creates DICOM metadata from File Meta Information, DICOM attributes and transfer syntax already
+   * parsed, for instance restored from a {@link DicomMetaDataCache}.
+   *
+   * @param fileMetaInformation the File Meta Information, may be null
+   * @param dcm the DICOM dataset attributes
+   * @param transferSyntaxUID the transfer syntax UID
+   * @throws NullPointerException if dcm or transferSyntaxUID is null
+   */
+  public DicomMetaData(Attributes fileMetaInformation, Attributes dcm, String transferSyntaxUID) {
+    this.fileMetaInformation = fileMetaInformation;
+    this.dcm = Objects.requireNonNull(dcm, "DICOM attributes cannot be null");
+    this.desc = new ImageDescriptor(dcm);
+    this.transferSyntaxUID =
+        Objects.requireNonNull(transferSyntaxUID, "Transfer syntax UID cannot be null");
+  }
+
   private String resolveTransferSyntax(DicomInputStream dcmStream) {
     return Optional.ofNullable(fileMetaInformation)
         .map(fmi -> fmi.getString(Tag.TransferSyntaxUID, dcmStream.getTransferSyntax()))
@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.BulkData;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.data.Value;
+import org.dcm4che3.img.stream.DicomFileInputStream;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the parsed metadata of DICOM files, to open a {@link DicomFileInputStream} again without
+ * parsing its header.
+ *
+ * <p>The metadata is read as {@link DicomImageReader} reads it: the pixel data and the other bulk
+ * data are kept as references (offset and length) to the file. The File Meta Information, the
+ * dataset and these references are stored in a compact binary encoding, and a new {@link
+ * DicomMetaData} is decoded on each hit, so the returned attributes can be modified without
+ * affecting the cache.
+ *
+ * <p>Entries are keyed by the absolute path of the file, its size and its last modified time: a
+ * modified file is parsed again. The memory tier keeps the most recently used encodings within a
+ * budget of bytes. The optional disk tier stores each encoding in a file of the cache directory
+ * named by a hash of the path; it survives the application and is checked against the size and
+ * last modified time of the file before use. All the methods are thread-safe.
+ */
+public final class DicomMetaDataCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DicomMetaDataCache.class);
+
+  /** The extension of the files of the disk tier. */
+  public static final String FILE_EXTENSION = ".dmc";
+
+  private static final int MAGIC = 0x444D4443; // DMDC
+  private static final int VERSION = 1;
+
+  private static final int VALUE = 0;
+  private static final int NULL = 1;
+  private static final int SEQUENCE = 2;
+  private static final int FRAGMENTS = 3;
+  private static final int BULK_DATA = 4;
+
+  private record Key(Path path, long size, long modified) {}
+
+  private record Entry(Key key, byte[] data) {}
+
+  private final long maxMemorySize;
+  private final Path directory;
+  // Access order: the first entry is the least recently used
+  private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private long memorySize;
+
+  /**
+   * Creates a cache held only in memory.
+   *
+   * @param maxMemorySize the maximum size of the encoded metadata kept in memory, in bytes
+   */
+  public DicomMetaDataCache(long maxMemorySize) {
+    this(maxMemorySize, null);
+  }
+
+  /**
+   * Creates a cache held in memory and in a directory.
+   *
+   * @param maxMemorySize the maximum size of the encoded metadata kept in memory, in bytes
+   * @param directory the directory of the disk tier, created when needed, or null for none
+   */
+  public DicomMetaDataCache(long maxMemorySize, Path directory) {
+    if (maxMemorySize < 0) {
+      throw new IllegalArgumentException("maxMemorySize cannot be negative");
+    }
+    this.maxMemorySize = maxMemorySize;
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the metadata of a DICOM file, parsing the file only when it is not in the cache or has
+   * been modified since.
+   *
+   * @param file the DICOM file
+   * @return the metadata of the file, with bulk data referencing the file
+   * @throws IOException if the file cannot be read or is not a DICOM file
+   */
+  public DicomMetaData get(Path file) throws IOException {
+    Key key = keyOf(file);
+    byte[] data = fromMemory(key);
+    if (data == null && directory != null) {
+      data = fromDisk(key);
+      if (data != null) {
+        toMemory(key, data);
+      }
+    }
+    if (data != null) {
+      try {
+        return decode(key.path(), data);
+      } catch (IOException | RuntimeException e) {
+        LOGGER.debug("Cannot decode the cached metadata of {}", key.path(), e);
+        invalidate(key.path());
+      }
+    }
+
+    DicomMetaData metadata = parse(key.path());
+    data = encode(metadata);
+    toMemory(key, data);
+    if (directory != null) {
+      try {
+        toDisk(key, data);
+      } catch (IOException e) {
+        LOGGER.warn("Cannot write the cached metadata of {}", key.path(), e);
+      }
+    }
+    return metadata;
+  }
+
+  /**
+   * Opens a DICOM file with its cached metadata.
+   *
+   * @param file the DICOM file
+   * @return the stream to give to {@link DicomImageReader#setInput(Object)}
+   * @throws IOException if the file cannot be read or is not a DICOM file
+   */
+  public DicomFileInputStream open(Path file) throws IOException {
+    return new DicomFileInputStream(file, get(file));
+  }
+
+  /**
+   * Removes the metadata of a file from both tiers.
+   *
+   * @param file the DICOM file
+   */
+  public void invalidate(Path file) {
+    Path path = normalize(file);
+    synchronized (this) {
+      Entry entry = entries.remove(path);
+      if (entry != null) {
+        memorySize -= entry.data().length;
+      }
+    }
+    if (directory != null) {
+      try {
+        Files.deleteIfExists(diskFile(path));
+      } catch (IOException e) {
+        LOGGER.warn("Cannot delete the cached metadata of {}", path, e);
+      }
+    }
+  }
+
+  /** Removes all the entries of the memory tier. The disk tier is kept. */
+  public synchronized void clear() {
+    entries.clear();
+    memorySize = 0;
+  }
+
+  /** Returns the number of entries in the memory tier. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** Returns the size of the entries in the memory tier, in bytes. */
+  public synchronized long getMemorySize() {
+    return memorySize;
+  }
+
+  public long getMaxMemorySize() {
+    return maxMemorySize;
+  }
+
+  /** Returns the directory of the disk tier, or null if the cache is held only in memory. */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  private static Path normalize(Path file) {
+    return Objects.requireNonNull(file, "file cannot be null").toAbsolutePath().normalize();
+  }
+
+  private static Key keyOf(Path file) throws IOException {
+    Path path = normalize(file);
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    return new Key(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+  }
+
+  private synchronized byte[] fromMemory(Key key) {
+    Entry entry = entries.get(key.path());
+    if (entry == null) {
+      return null;
+    }
+    if (!entry.key().equals(key)) {
+      entries.remove(key.path());
+      memorySize -= entry.data().length;
+      return null;
+    }
+    return entry.data();
+  }
+
+  private synchronized void toMemory(Key key, byte[] data) {
+    Entry previous = entries.remove(key.path());
+    if (previous != null) {
+      memorySize -= previous.data().length;
+    }
+    if (data.length > maxMemorySize) {
+      return;
+    }
+    entries.put(key.path(), new Entry(key, data));
+    memorySize += data.length;
+    var it = entries.values().iterator();
+    while (memorySize > maxMemorySize && it.hasNext()) {
+      memorySize -= it.next().data().length;
+      it.remove();
+    }
+  }
+
+  private Path diskFile(Path path) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(path.toString().getBytes(StandardCharsets.UTF_8));
+      return directory.resolve(HexFormat.of().formatHex(hash) + FILE_EXTENSION);
+    } catch (NoSuchAlgorithmException e) {
+      // SHA-256 is required on every Java platform
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private byte[] fromDisk(Key key) {
+    Path file = diskFile(key.path());
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC
+          || in.readInt() != VERSION
+          || !in.readUTF().equals(key.path().toString())
+          || in.readLong() != key.size()
+          || in.readLong() != key.modified()) {
+        return null;
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      LOGGER.debug("Cannot read the cached metadata {}", file, e);
+      return null;
+    }
+  }
+
+  private void toDisk(Key key, byte[] data) throws IOException {
+    Files.createDirectories(directory);
+    Path file = diskFile(key.path());
+    Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(key.path().toString());
+        out.writeLong(key.size());
+        out.writeLong(key.modified());
+        out.write(data);
+      }
+      try {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static DicomMetaData parse(Path path) throws IOException {
+    try (DicomInputStream dis = new DicomInputStream(path.toFile())) {
+      dis.setIncludeBulkData(IncludeBulkData.URI);
+      dis.setBulkDataDescriptor(DicomImageReader.BULK_DATA_DESCRIPTOR);
+      // Reference the pixel data in the file instead of copying it to a temporary file
+      dis.setURI(path.toUri().toString());
+      return new DicomMetaData(dis);
+    }
+  }
+
+  static byte[] encode(DicomMetaData metadata) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeUTF(metadata.getTransferSyntaxUID());
+      Attributes fmi = metadata.getFileMetaInformation();
+      out.writeBoolean(fmi != null);
+      if (fmi != null) {
+        writeDataset(out, fmi);
+      }
+      Attributes dcm = metadata.getDicomObject();
+      out.writeBoolean(dcm.bigEndian());
+      writeDataset(out, dcm);
+    }
+    return bytes.toByteArray();
+  }
+
+  static DicomMetaData decode(Path path, byte[] data) throws IOException {
+    String uri = path.toUri().toString();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      String tsuid = in.readUTF();
+      Attributes fmi = in.readBoolean() ? readDataset(in, false, uri) : null;
+      boolean bigEndian = in.readBoolean();
+      Attributes dcm = readDataset(in, bigEndian, uri);
+      return new DicomMetaData(fmi, dcm, tsuid);
+    }
+  }
+
+  private static void writeDataset(DataOutputStream out, Attributes attrs) throws IOException {
+    out.writeInt(attrs.size());
+    try {
+      attrs.accept(
+          (a, tag, vr, value) -> {
+            out.writeInt(tag);
+            out.writeShort(vr.code());
+            writeValue(out, a, vr, value);
+            return true;
+          },
+          false);
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException("Cannot encode the attributes", e);
+    }
+  }
+
+  private static void writeValue(DataOutputStream out, Attributes attrs, VR vr, Object value)
+      throws IOException {
+    if (value instanceof Sequence seq) {
+      out.writeByte(SEQUENCE);
+      out.writeInt(seq.size());
+      for (Attributes item : seq) {
+        writeDataset(out, item);
+      }
+    } else if (value instanceof Fragments fragments) {
+      out.writeByte(FRAGMENTS);
+      out.writeInt(fragments.size());
+      for (Object fragment : fragments) {
+        writeValue(out, attrs, vr, fragment);
+      }
+    } else if (value instanceof BulkData bulkData) {
+      out.writeByte(BULK_DATA);
+      out.writeLong(bulkData.offset());
+      out.writeInt(bulkData.length());
+    } else if (value == Value.NULL || value == null) {
+      out.writeByte(NULL);
+    } else {
+      // Strings already decoded by a getter are encoded again with the character set of the item
+      byte[] b =
+          value instanceof byte[] raw ? raw : vr.toBytes(value, attrs.getSpecificCharacterSet());
+      out.writeByte(VALUE);
+      out.writeInt(b.length);
+      out.write(b);
+    }
+  }
+
+  private static Attributes readDataset(DataInputStream in, boolean bigEndian, String uri)
+      throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      throw new IOException("Invalid number of attributes: " + size);
+    }
+    Attributes attrs = new Attributes(bigEndian, size);
+    for (int i = 0; i < size; i++) {
+      int tag = in.readInt();
+      VR vr = VR.valueOf(in.readUnsignedShort());
+      int kind = in.readUnsignedByte();
+      switch (kind) {
+        case SEQUENCE -> {
+          int count = readCount(in);
+          Sequence seq = attrs.newSequence(tag, count);
+          for (int j = 0; j < count; j++) {
+            seq.add(readDataset(in, bigEndian, uri));
+          }
+        }
+        case FRAGMENTS -> {
+          int count = readCount(in);
+          Fragments fragments = attrs.newFragments(tag, vr, count);
+          for (int j = 0; j < count; j++) {
+            fragments.add(readFragment(in, bigEndian, uri));
+          }
+        }
+        case BULK_DATA -> attrs.setValue(tag, vr, readBulkData(in, bigEndian, uri));
+        case NULL -> attrs.setNull(tag, vr);
+        case VALUE -> attrs.setBytes(tag, vr, readBytes(in));
+        default -> throw new IOException("Invalid value kind: " + kind);
+      }
+    }
+    return attrs;
+  }
+
+  private static Object readFragment(DataInputStream in, boolean bigEndian, String uri)
+      throws IOException {
+    int kind = in.readUnsignedByte();
+    return switch (kind) {
+      case BULK_DATA -> readBulkData(in, bigEndian, uri);
+      case VALUE -> readBytes(in);
+      case NULL -> Value.NULL;
+      default -> throw new IOException("Invalid fragment kind: " + kind);
+    };
+  }
+
+  private static BulkData readBulkData(DataInputStream in, boolean bigEndian, String uri)
+      throws IOException {
+    long offset = in.readLong();
+    int length = in.readInt();
+    return new BulkData(uri, offset, length, bigEndian);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] b = new byte[readCount(in)];
+    in.readFully(b);
+    return b;
+  }
+
+  private static int readCount(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    if (count < 0 || count > in.available()) {
+      throw new IOException("Invalid count: " + count);
+    }
+    return count;
+  }
+}
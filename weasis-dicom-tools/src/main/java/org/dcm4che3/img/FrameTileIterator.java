@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.dcm4che3.img.stream.ImageDescriptor;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.weasis.opencv.data.ImageCV;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Iterates over the tiles of a frame intersecting a region, row by row, decoding only what the
+ * tiles need.
+ *
+ * <p>Native pixel data stored in a local file is read by strips: the rows of a row of tiles are
+ * read from the file and shared by the tiles of this row. Other pixel data, in particular
+ * compressed data, is decoded whole once and the tiles are cut from it. The tiles found in the
+ * {@link TileCache} of the reader are not decoded again.
+ */
+final class FrameTileIterator implements Iterator<ImageTile> {
+
+  private final DicomImageReader reader;
+  private final int frameIndex;
+  private final int resolution;
+  private final int tileSize;
+  private final int span;
+  private final int width;
+  private final int height;
+  private final int tilesPerRow;
+  private final int firstTileX;
+  private final int lastTileX;
+  private final int lastTileY;
+  private final TileCache cache;
+  private final String sopInstanceUID;
+
+  private int tileX;
+  private int tileY;
+  private boolean readByStrips = true;
+  private PlanarImage strip;
+  private int stripTileY = -1;
+  private PlanarImage frame;
+
+  FrameTileIterator(
+      DicomImageReader reader, int frameIndex, Rectangle viewport, int tileSize, int resolution) {
+    ImageDescriptor desc = reader.getImageDescriptor();
+    this.reader = reader;
+    this.frameIndex = frameIndex;
+    this.resolution = resolution;
+    this.tileSize = tileSize;
+    this.span = (int) Math.min((long) tileSize << resolution, Integer.MAX_VALUE);
+    this.width = desc.getColumns();
+    this.height = desc.getRows();
+    this.tilesPerRow = ceilDiv(width, span);
+    this.cache = reader.getTileCache();
+    this.sopInstanceUID = desc.getSopInstanceUID();
+
+    Rectangle bounds = new Rectangle(width, height);
+    Rectangle area = viewport == null ? bounds : viewport.intersection(bounds);
+    if (area.isEmpty()) {
+      this.firstTileX = 0;
+      this.lastTileX = -1;
+      this.lastTileY = -1;
+    } else {
+      this.firstTileX = area.x / span;
+      this.lastTileX = (area.x + area.width - 1) / span;
+      this.lastTileY = (area.y + area.height - 1) / span;
+      this.tileY = area.y / span;
+    }
+    this.tileX = firstTileX;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return tileY <= lastTileY;
+  }
+
+  @Override
+  public ImageTile next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    int x = tileX * span;
+    int y = tileY * span;
+    var region = new Rectangle(x, y, Math.min(span, width - x), Math.min(span, height - y));
+    int index = tileY * tilesPerRow + tileX;
+
+    TileCache.Key key =
+        cache == null || sopInstanceUID == null
+            ? null
+            : new TileCache.Key(sopInstanceUID, frameIndex, resolution, tileSize, index);
+    PlanarImage image = key == null ? null : cache.get(key);
+    if (image == null) {
+      image = decode(region);
+      if (key != null) {
+        cache.put(key, image);
+      }
+    }
+
+    if (++tileX > lastTileX) {
+      tileX = firstTileX;
+      tileY++;
+      if (!hasNext()) {
+        releaseSources();
+      }
+    }
+    return new ImageTile(index, region, image);
+  }
+
+  private PlanarImage decode(Rectangle region) {
+    try {
+      PlanarImage source;
+      int sourceY;
+      if (readByStrips && stripTileY != tileY) {
+        releaseStrip();
+        strip = reader.readStrip(frameIndex, region.y, region.height);
+        stripTileY = tileY;
+        readByStrips = strip != null;
+      }
+      if (strip != null) {
+        source = strip;
+        sourceY = region.y;
+      } else {
+        if (frame == null) {
+          frame = reader.getPlanarImage(frameIndex, null);
+        }
+        source = frame;
+        sourceY = 0;
+      }
+
+      var rect = new Rect(region.x, region.y - sourceY, region.width, region.height);
+      Mat tile = new Mat(source.toMat(), rect).clone();
+      if (resolution > 0) {
+        int scale = 1 << resolution;
+        var size = new Size(ceilDiv(region.width, scale), ceilDiv(region.height, scale));
+        Mat reduced = new Mat();
+        Imgproc.resize(tile, reduced, size, 0, 0, Imgproc.INTER_AREA);
+        tile.release();
+        tile = reduced;
+      }
+      return ImageCV.fromMat(tile);
+    } catch (IOException e) {
+      releaseSources();
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void releaseStrip() {
+    if (strip != null) {
+      strip.release();
+      strip = null;
+    }
+  }
+
+  private void releaseSources() {
+    releaseStrip();
+    if (frame != null) {
+      frame.release();
+      frame = null;
+    }
+  }
+
+  private static int ceilDiv(int value, int divisor) {
+    return (int) ((value + (long) divisor - 1) / divisor);
+  }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img;
+
+import java.awt.Rectangle;
+import java.util.Objects;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * A tile of a frame returned by {@link DicomImageReader#getTiles(int, Rectangle, int, int)}.
+ *
+ * @param index the index of the tile in the grid of the resolution level, row by row
+ * @param region the region of the frame covered by the tile, in full resolution pixels
+ * @param image the pixels of the tile, reduced by a factor of 2 at each resolution level
+ */
+public record ImageTile(int index, Rectangle region, PlanarImage image) {
+
+  public ImageTile {
+    Objects.requireNonNull(region, "region cannot be null");
+    Objects.requireNonNull(image, "image cannot be null");
+  }
+}
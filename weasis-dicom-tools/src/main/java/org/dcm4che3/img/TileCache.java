@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.opencv.core.Mat;
+import org.weasis.opencv.data.PlanarImage;
+
+/**
+ * Cache of the decoded tiles of large frames, shared by the {@link DicomImageReader} instances
+ * given to {@link DicomImageReader#setTileCache(TileCache)}.
+ *
+ * <p>Tiles are keyed by the SOP Instance UID, the frame, the resolution level, the tile size and
+ * the index of the tile in the grid of this size. The most recently used tiles are kept within a
+ * budget of bytes. A cached tile is shared by all the readers and must not be released or
+ * modified. All the methods are thread-safe.
+ */
+public final class TileCache {
+
+  /**
+   * Key of a tile.
+   *
+   * @param sopInstanceUID the SOP Instance UID of the image
+   * @param frame the zero-based frame index
+   * @param resolution the resolution level, 0 for full resolution
+   * @param tileSize the width and height of the tiles in pixels of the resolution level
+   * @param tileIndex the index of the tile in the grid of the tile size at the resolution level
+   */
+  public record Key(
+      String sopInstanceUID, int frame, int resolution, int tileSize, int tileIndex) {
+
+    public Key {
+      Objects.requireNonNull(sopInstanceUID, "sopInstanceUID cannot be null");
+    }
+  }
+
+  private final long maxMemorySize;
+  // Access order: the first entry is the least recently used
+  private final LinkedHashMap<Key, PlanarImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+  private long memorySize;
+
+  /**
+   * Creates a cache.
+   *
+   * @param maxMemorySize the maximum size of the pixels of the cached tiles, in bytes
+   */
+  public TileCache(long maxMemorySize) {
+    if (maxMemorySize < 0) {
+      throw new IllegalArgumentException("maxMemorySize cannot be negative");
+    }
+    this.maxMemorySize = maxMemorySize;
+  }
+
+  /**
+   * Returns a cached tile.
+   *
+   * @param key the key of the tile
+   * @return the tile, or null if it is not in the cache
+   */
+  public synchronized PlanarImage get(Key key) {
+    return tiles.get(key);
+  }
+
+  /**
+   * Adds a tile, removing the least recently used tiles beyond the budget. A tile larger than the
+   * budget is not kept.
+   *
+   * @param key the key of the tile
+   * @param tile the decoded tile
+   */
+  public synchronized void put(Key key, PlanarImage tile) {
+    Objects.requireNonNull(key, "key cannot be null");
+    Objects.requireNonNull(tile, "tile cannot be null");
+    long size = sizeOf(tile);
+    if (size > maxMemorySize) {
+      return;
+    }
+    PlanarImage previous = tiles.put(key, tile);
+    if (previous != null) {
+      memorySize -= sizeOf(previous);
+    }
+    memorySize += size;
+    Iterator<Map.Entry<Key, PlanarImage>> it = tiles.entrySet().iterator();
+    while (memorySize > maxMemorySize && it.hasNext()) {
+      memorySize -= sizeOf(it.next().getValue());
+      it.remove();
+    }
+  }
+
+  /**
+   * Removes all the tiles of an image.
+   *
+   * @param sopInstanceUID the SOP Instance UID of the image
+   */
+  public synchronized void invalidate(String sopInstanceUID) {
+    Iterator<Map.Entry<Key, PlanarImage>> it = tiles.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Key, PlanarImage> entry = it.next();
+      if (entry.getKey().sopInstanceUID().equals(sopInstanceUID)) {
+        memorySize -= sizeOf(entry.getValue());
+        it.remove();
+      }
+    }
+  }
+
+  /** Removes all the tiles. */
+  public synchronized void clear() {
+    tiles.clear();
+    memorySize = 0;
+  }
+
+  /** Returns the number of cached tiles. */
+  public synchronized int size() {
+    return tiles.size();
+  }
+
+  /** Returns the size of the pixels of the cached tiles, in bytes. */
+  public synchronized long getMemorySize() {
+    return memorySize;
+  }
+
+  public long getMaxMemorySize() {
+    return maxMemorySize;
+  }
+
+  private static long sizeOf(PlanarImage tile) {
+    Mat mat = tile.toMat();
+    return mat.total() * mat.elemSize();
+  }
+}
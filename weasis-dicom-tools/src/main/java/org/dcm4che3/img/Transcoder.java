@@ -28,6 +28,7 @@ import org.opencv.imgcodecs.Imgcodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.util.FileUtil;
+import org.weasis.core.util.StringUtil;
 import org.weasis.opencv.data.PlanarImage;
 import org.weasis.opencv.op.ImageIOHandler;
 
@@ -118,6 +119,24 @@ public final class Transcoder {
     }
   }
 
+  /**
+   * Receives a DICOM file written by {@link #dcm2dcm(Path, Path, DicomTranscodeParam, String,
+   * WrittenFileHandler)} with its attributes, for instance to add it to a DICOMDIR.
+   */
+  @FunctionalInterface
+  public interface WrittenFileHandler {
+
+    /**
+     * Handles a written file.
+     *
+     * @param file the written file
+     * @param fmi the File Meta Information of the file
+     * @param dataset the dataset written in the file
+     * @throws IOException if the file cannot be handled
+     */
+    void handle(Path file, Attributes fmi, Attributes dataset) throws IOException;
+  }
+
   // FIXME: Move to a dedicated service or utility class
   public static final DicomImageReaderSpi dicomImageReaderSpi = new DicomImageReaderSpi();
 
@@ -182,10 +201,43 @@ public final class Transcoder {
    */
   public static Path dcm2dcm(Path srcPath, Path dstPath, DicomTranscodeParam params)
       throws IOException {
-    var outPath = adaptFileExtension(FileUtil.getOutputPath(srcPath, dstPath), ".dcm");
+    return dcm2dcm(srcPath, dstPath, params, ".dcm", null);
+  }
+
+  /**
+   * Converts a DICOM image to another DICOM format and gives the created file with its attributes
+   * to a handler.
+   *
+   * <p>The handler receives the attributes that have been written, so that a DICOMDIR can record
+   * the file without reading it again. The File IDs of a media have no extension: a null {@code
+   * fileExtension} keeps the output file name as it is.
+   *
+   * @param srcPath path to a single DICOM file to read; must exist and be a regular file (not a
+   *     directory). Its filename is also used as the base name when {@code dstPath} is a directory
+   * @param dstPath the destination path (file or directory)
+   * @param params the DICOM conversion parameters including target transfer syntax
+   * @param fileExtension the extension given to the output file, such as ".dcm", or null to keep
+   *     the file name
+   * @param handler receives the created file once it is written, may be null
+   * @return the created output file path
+   * @throws IOException if conversion fails due to I/O errors or format incompatibility, or if the
+   *     handler fails
+   */
+  public static Path dcm2dcm(
+      Path srcPath,
+      Path dstPath,
+      DicomTranscodeParam params,
+      String fileExtension,
+      WrittenFileHandler handler)
+      throws IOException {
+    var outPath = FileUtil.getOutputPath(srcPath, dstPath);
+    if (StringUtil.hasText(fileExtension)) {
+      outPath = adaptFileExtension(outPath, fileExtension);
+    }
 
+    DicomTranscodeContext context;
     try (var outputStream = Files.newOutputStream(outPath)) {
-      dcm2dcm(srcPath, outputStream, params);
+      context = transcode(srcPath, outputStream, params);
     } catch (Exception e) {
       FileUtil.delete(outPath);
       if (e instanceof IOException ioException) {
@@ -194,6 +246,10 @@ public final class Transcoder {
       throw new IOException("Transcoding failed", e);
     }
 
+    if (handler != null) {
+      var fmi = context.dataSet.createFileMetaInformation(context.actualTsuid);
+      handler.handle(outPath, fmi, context.dataSet);
+    }
     return outPath;
   }
 
@@ -211,6 +267,11 @@ public final class Transcoder {
    */
   public static void dcm2dcm(Path srcPath, OutputStream outputStream, DicomTranscodeParam params)
       throws IOException {
+    transcode(srcPath, outputStream, params);
+  }
+
+  private static DicomTranscodeContext transcode(
+      Path srcPath, OutputStream outputStream, DicomTranscodeParam params) throws IOException {
     DicomImageReader reader = new DicomImageReader(dicomImageReaderSpi);
     try {
       reader.setInput(new DicomFileInputStream(srcPath), false, false);
@@ -221,6 +282,7 @@ public final class Transcoder {
       } catch (Exception e) {
         throw new IOException("Transcoding failed", e);
       }
+      return context;
     } finally {
       reader.dispose();
     }
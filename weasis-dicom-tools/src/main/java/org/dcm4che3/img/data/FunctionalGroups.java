@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.data;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.data.Tag;
+
+/**
+ * Per-frame values of the shared and per-frame functional groups of an enhanced multi-frame
+ * object, flattened into primitive arrays.
+ *
+ * <p>The Shared and Per-frame Functional Groups Sequences are read once. Each value is kept in a
+ * column of doubles: a value defined only in the shared group is stored once for all the frames,
+ * otherwise the column holds one entry per frame, with {@code NaN} for a frame without value. A
+ * per-frame lookup is then an array read, and the items of the sequences can be released.
+ *
+ * <p>The columns are the image position and orientation (Plane Position and Plane Orientation), the
+ * pixel spacing (Pixel Measures), the rescale slope and intercept (Pixel Value Transformation), the
+ * first window center and width (Frame VOI LUT) and the frame acquisition duration in milliseconds
+ * (Frame Content).
+ */
+public final class FunctionalGroups {
+
+  private final int frames;
+  private final Column position;
+  private final Column orientation;
+  private final Column pixelSpacing;
+  private final Column rescaleSlope;
+  private final Column rescaleIntercept;
+  private final Column windowCenter;
+  private final Column windowWidth;
+  private final Column frameTime;
+  private final String rescaleType;
+  private final String voiLutFunction;
+
+  private FunctionalGroups(int frames, Attributes shared, Sequence perFrame) {
+    this.frames = frames;
+    this.position =
+        column(shared, perFrame, Tag.PlanePositionSequence, Tag.ImagePositionPatient, 3);
+    this.orientation =
+        column(shared, perFrame, Tag.PlaneOrientationSequence, Tag.ImageOrientationPatient, 6);
+    this.pixelSpacing = column(shared, perFrame, Tag.PixelMeasuresSequence, Tag.PixelSpacing, 2);
+    this.rescaleSlope =
+        column(shared, perFrame, Tag.PixelValueTransformationSequence, Tag.RescaleSlope, 1);
+    this.rescaleIntercept =
+        column(shared, perFrame, Tag.PixelValueTransformationSequence, Tag.RescaleIntercept, 1);
+    this.windowCenter = column(shared, perFrame, Tag.FrameVOILUTSequence, Tag.WindowCenter, 1);
+    this.windowWidth = column(shared, perFrame, Tag.FrameVOILUTSequence, Tag.WindowWidth, 1);
+    this.frameTime =
+        column(shared, perFrame, Tag.FrameContentSequence, Tag.FrameAcquisitionDuration, 1);
+    this.rescaleType =
+        firstString(shared, perFrame, Tag.PixelValueTransformationSequence, Tag.RescaleType);
+    this.voiLutFunction =
+        firstString(shared, perFrame, Tag.FrameVOILUTSequence, Tag.VOILUTFunction);
+  }
+
+  /**
+   * Flattens the functional groups of a DICOM dataset.
+   *
+   * @param dcm the DICOM dataset
+   * @return the functional groups, or {@code null} if the dataset has neither shared nor per-frame
+   *     functional groups
+   */
+  public static FunctionalGroups read(Attributes dcm) {
+    Objects.requireNonNull(dcm, "DICOM attributes cannot be null");
+    Attributes shared = dcm.getNestedDataset(Tag.SharedFunctionalGroupsSequence);
+    Sequence perFrame = dcm.getSequence(Tag.PerFrameFunctionalGroupsSequence);
+    if (shared == null && (perFrame == null || perFrame.isEmpty())) {
+      return null;
+    }
+    int frames = Math.max(dcm.getInt(Tag.NumberOfFrames, 1), 1);
+    if (perFrame != null) {
+      frames = Math.max(frames, perFrame.size());
+    }
+    return new FunctionalGroups(frames, shared, perFrame);
+  }
+
+  public int getFrames() {
+    return frames;
+  }
+
+  /** Returns the Image Position (Patient) of a frame, or {@code null} if not defined. */
+  public double[] getImagePosition(int frame) {
+    return values(position, frame);
+  }
+
+  /** Returns the Image Orientation (Patient) of a frame, or {@code null} if not defined. */
+  public double[] getImageOrientation(int frame) {
+    return values(orientation, frame);
+  }
+
+  /** Returns the Pixel Spacing (row, column) of a frame, or {@code null} if not defined. */
+  public double[] getPixelSpacing(int frame) {
+    return values(pixelSpacing, frame);
+  }
+
+  public OptionalDouble getRescaleSlope(int frame) {
+    return value(rescaleSlope, frame);
+  }
+
+  public OptionalDouble getRescaleIntercept(int frame) {
+    return value(rescaleIntercept, frame);
+  }
+
+  public Optional<String> getRescaleType() {
+    return Optional.ofNullable(rescaleType);
+  }
+
+  public OptionalDouble getWindowCenter(int frame) {
+    return value(windowCenter, frame);
+  }
+
+  public OptionalDouble getWindowWidth(int frame) {
+    return value(windowWidth, frame);
+  }
+
+  public Optional<String> getVoiLutFunction() {
+    return Optional.ofNullable(voiLutFunction);
+  }
+
+  /** Returns the Frame Acquisition Duration of a frame in milliseconds. */
+  public OptionalDouble getFrameTime(int frame) {
+    return value(frameTime, frame);
+  }
+
+  /** Returns true if a rescale slope or intercept is defined for at least one frame. */
+  public boolean hasRescale() {
+    return rescaleSlope != null || rescaleIntercept != null;
+  }
+
+  /** Returns true if a window center and width are defined for at least one frame. */
+  public boolean hasWindow() {
+    return windowCenter != null && windowWidth != null;
+  }
+
+  private OptionalDouble value(Column column, int frame) {
+    Objects.checkIndex(frame, frames);
+    if (column == null) {
+      return OptionalDouble.empty();
+    }
+    double value = column.values()[column.offset(frame)];
+    return Double.isNaN(value) ? OptionalDouble.empty() : OptionalDouble.of(value);
+  }
+
+  private double[] values(Column column, int frame) {
+    Objects.checkIndex(frame, frames);
+    if (column == null) {
+      return null;
+    }
+    int offset = column.offset(frame);
+    if (Double.isNaN(column.values()[offset])) {
+      return null;
+    }
+    return Arrays.copyOfRange(column.values(), offset, offset + column.width());
+  }
+
+  /**
+   * Values of one attribute for all the frames.
+   *
+   * @param values the values, {@code width} per frame, or only {@code width} if shared
+   * @param width the number of values per frame
+   * @param shared true if the same values apply to all the frames
+   */
+  private record Column(double[] values, int width, boolean shared) {
+    int offset(int frame) {
+      return shared ? 0 : frame * width;
+    }
+  }
+
+  private Column column(Attributes shared, Sequence perFrame, int groupTag, int tag, int width) {
+    double[] sharedValues = groupValues(shared, groupTag, tag, width);
+    boolean inFrames = false;
+    if (perFrame != null) {
+      for (Attributes item : perFrame) {
+        Attributes group = item.getNestedDataset(groupTag);
+        if (group != null && group.containsValue(tag)) {
+          inFrames = true;
+          break;
+        }
+      }
+    }
+    if (!inFrames) {
+      return sharedValues == null ? null : new Column(sharedValues, width, true);
+    }
+
+    double[] values = new double[frames * width];
+    Arrays.fill(values, Double.NaN);
+    for (int i = 0; i < perFrame.size(); i++) {
+      double[] frameValues = groupValues(perFrame.get(i), groupTag, tag, width);
+      if (frameValues == null) {
+        frameValues = sharedValues;
+      }
+      if (frameValues != null) {
+        System.arraycopy(frameValues, 0, values, i * width, width);
+      }
+    }
+    if (sharedValues != null) {
+      for (int i = perFrame.size(); i < frames; i++) {
+        System.arraycopy(sharedValues, 0, values, i * width, width);
+      }
+    }
+    return new Column(values, width, false);
+  }
+
+  private static double[] groupValues(Attributes group, int groupTag, int tag, int width) {
+    Attributes item = group == null ? null : group.getNestedDataset(groupTag);
+    if (item == null) {
+      return null;
+    }
+    double[] values = item.getDoubles(tag);
+    if (values == null || values.length < width) {
+      return null;
+    }
+    return values.length == width ? values : Arrays.copyOf(values, width);
+  }
+
+  private static String firstString(Attributes shared, Sequence perFrame, int groupTag, int tag) {
+    Attributes item = shared == null ? null : shared.getNestedDataset(groupTag);
+    if (item == null && perFrame != null && !perFrame.isEmpty()) {
+      item = perFrame.get(0).getNestedDataset(groupTag);
+    }
+    return item == null ? null : item.getString(tag);
+  }
+}
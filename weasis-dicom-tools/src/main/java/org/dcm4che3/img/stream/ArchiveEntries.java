@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Locates the data of an entry in a ZIP or TAR archive, to read a stored entry in place.
+ *
+ * <p>The ZIP central directory gives the position of the local header of the entry, and the data
+ * follows this header. ZIP64 archives are not supported. A TAR archive is a sequence of 512-byte
+ * headers each followed by the data of its entry; GNU long names and PAX paths are supported.
+ */
+final class ArchiveEntries {
+
+  private static final int ZIP_END_SIGNATURE = 0x06054b50;
+  private static final int ZIP_CENTRAL_SIGNATURE = 0x02014b50;
+  private static final int ZIP_LOCAL_SIGNATURE = 0x04034b50;
+  private static final int ZIP_END_LENGTH = 22;
+  private static final int ZIP_MAX_COMMENT = 0xFFFF;
+  private static final int ZIP_CENTRAL_LENGTH = 46;
+  private static final int ZIP_LOCAL_LENGTH = 30;
+
+  private static final int TAR_BLOCK = 512;
+
+  private ArchiveEntries() {}
+
+  static PixelDataSource zipEntry(Path archive, String entryName) throws IOException {
+    Objects.requireNonNull(archive, "archive cannot be null");
+    Objects.requireNonNull(entryName, "entryName cannot be null");
+    String uri = "jar:" + archive.toUri() + "!/" + entryName;
+    try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+      ByteBuffer central = readCentralDirectory(channel, archive);
+      while (central.remaining() >= ZIP_CENTRAL_LENGTH) {
+        if (central.getInt(central.position()) != ZIP_CENTRAL_SIGNATURE) {
+          throw new IOException("Invalid ZIP central directory: " + archive);
+        }
+        int start = central.position();
+        int method = central.getShort(start + 10) & 0xFFFF;
+        long compressedSize = central.getInt(start + 20) & 0xFFFFFFFFL;
+        int nameLength = central.getShort(start + 28) & 0xFFFF;
+        int extraLength = central.getShort(start + 30) & 0xFFFF;
+        int commentLength = central.getShort(start + 32) & 0xFFFF;
+        long localHeader = central.getInt(start + 42) & 0xFFFFFFFFL;
+        byte[] name = new byte[nameLength];
+        central.get(start + ZIP_CENTRAL_LENGTH, name);
+        central.position(start + ZIP_CENTRAL_LENGTH + nameLength + extraLength + commentLength);
+        if (entryName.equals(new String(name, StandardCharsets.UTF_8))) {
+          if (method == ZipEntry.STORED) {
+            long dataOffset = localDataOffset(channel, localHeader, archive);
+            return FileRegionSource.open(archive, dataOffset, compressedSize, uri);
+          }
+          return inflate(archive, entryName, uri);
+        }
+      }
+    }
+    throw new IOException("No entry " + entryName + " in " + archive);
+  }
+
+  private static ByteBuffer readCentralDirectory(FileChannel channel, Path archive)
+      throws IOException {
+    long size = channel.size();
+    int tailLength = (int) Math.min(size, ZIP_END_LENGTH + ZIP_MAX_COMMENT);
+    ByteBuffer tail = read(channel, size - tailLength, tailLength);
+    for (int i = tailLength - ZIP_END_LENGTH; i >= 0; i--) {
+      if (tail.getInt(i) == ZIP_END_SIGNATURE) {
+        long centralLength = tail.getInt(i + 12) & 0xFFFFFFFFL;
+        long centralOffset = tail.getInt(i + 16) & 0xFFFFFFFFL;
+        if (centralOffset == 0xFFFFFFFFL || centralOffset + centralLength > size) {
+          throw new IOException("Unsupported ZIP64 or invalid archive: " + archive);
+        }
+        return read(channel, centralOffset, (int) centralLength);
+      }
+    }
+    throw new IOException("Not a ZIP archive: " + archive);
+  }
+
+  private static long localDataOffset(FileChannel channel, long localHeader, Path archive)
+      throws IOException {
+    ByteBuffer header = read(channel, localHeader, ZIP_LOCAL_LENGTH);
+    if (header.getInt(0) != ZIP_LOCAL_SIGNATURE) {
+      throw new IOException("Invalid ZIP local header: " + archive);
+    }
+    int nameLength = header.getShort(26) & 0xFFFF;
+    int extraLength = header.getShort(28) & 0xFFFF;
+    return localHeader + ZIP_LOCAL_LENGTH + nameLength + extraLength;
+  }
+
+  private static PixelDataSource inflate(Path archive, String entryName, String uri)
+      throws IOException {
+    try (ZipFile zip = new ZipFile(archive.toFile())) {
+      ZipEntry entry = zip.getEntry(entryName);
+      if (entry == null) {
+        throw new IOException("No entry " + entryName + " in " + archive);
+      }
+      if (entry.getSize() > Integer.MAX_VALUE) {
+        throw new IOException("Compressed entry too large: " + entryName);
+      }
+      try (InputStream in = zip.getInputStream(entry)) {
+        return new BufferSource(ByteBuffer.wrap(in.readAllBytes()), uri, null, 0);
+      }
+    }
+  }
+
+  static PixelDataSource tarEntry(Path archive, String entryName) throws IOException {
+    Objects.requireNonNull(archive, "archive cannot be null");
+    Objects.requireNonNull(entryName, "entryName cannot be null");
+    try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long position = 0;
+      String longName = null;
+      while (position + TAR_BLOCK <= size) {
+        ByteBuffer header = read(channel, position, TAR_BLOCK);
+        if (header.get(0) == 0) {
+          break; // End of archive
+        }
+        long dataOffset = position + TAR_BLOCK;
+        long dataLength = tarSize(header);
+        byte type = header.get(156);
+        String name = longName != null ? longName : tarName(header);
+        longName = null;
+        if (type == 'L') {
+          longName = cString(read(channel, dataOffset, (int) dataLength), (int) dataLength);
+        } else if (type == 'x') {
+          longName = paxPath(read(channel, dataOffset, (int) dataLength));
+        } else if ((type == '0' || type == 0) && entryName.equals(name)) {
+          String uri = archive.toUri() + "#" + entryName;
+          return FileRegionSource.open(archive, dataOffset, dataLength, uri);
+        }
+        position = dataOffset + (dataLength + TAR_BLOCK - 1) / TAR_BLOCK * TAR_BLOCK;
+      }
+    }
+    throw new IOException("No entry " + entryName + " in " + archive);
+  }
+
+  private static String tarName(ByteBuffer header) {
+    String name = cString(header.slice(0, 100), 100);
+    boolean ustar = "ustar".equals(cString(header.slice(257, 6), 5));
+    String prefix = ustar ? cString(header.slice(345, 155), 155) : "";
+    return prefix.isEmpty() ? name : prefix + "/" + name;
+  }
+
+  private static long tarSize(ByteBuffer header) throws IOException {
+    if ((header.get(124) & 0x80) != 0) {
+      // Base-256 encoding of large sizes
+      long size = 0;
+      for (int i = 125; i < 136; i++) {
+        size = (size << 8) | (header.get(i) & 0xFF);
+      }
+      return size;
+    }
+    String octal = cString(header.slice(124, 12), 12).trim();
+    try {
+      return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid TAR entry size: " + octal);
+    }
+  }
+
+  private static String paxPath(ByteBuffer records) {
+    String text = StandardCharsets.UTF_8.decode(records).toString();
+    // Records are "<length> <keyword>=<value>\n"
+    for (String record : text.split("\n")) {
+      int space = record.indexOf(' ');
+      if (space > 0 && record.startsWith("path=", space + 1)) {
+        return record.substring(space + 6);
+      }
+    }
+    return null;
+  }
+
+  private static String cString(ByteBuffer buffer, int maxLength) {
+    int length = 0;
+    while (length < maxLength && buffer.get(length) != 0) {
+      length++;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(0, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of archive at " + position);
+      }
+    }
+    return buffer.flip();
+  }
+}
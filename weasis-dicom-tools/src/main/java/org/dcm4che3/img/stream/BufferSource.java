@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Source reading a buffer: a region of a file mapped in memory, or an archive entry inflated in
+ * memory.
+ */
+final class BufferSource implements PixelDataSource {
+
+  private final ByteBuffer buffer;
+  private final String uri;
+  private final Path file;
+  private final long offset;
+
+  BufferSource(ByteBuffer buffer, String uri, Path file, long offset) {
+    this.buffer = Objects.requireNonNull(buffer, "buffer cannot be null").asReadOnlyBuffer();
+    this.uri = uri;
+    this.file = file;
+    this.offset = offset;
+  }
+
+  static BufferSource map(Path file, long offset, long length) throws IOException {
+    Objects.requireNonNull(file, "file cannot be null");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (offset < 0 || offset > size || length > size - offset) {
+        throw new IOException("Region outside of " + file + ": " + offset + "+" + length);
+      }
+      long regionLength = length < 0 ? size - offset : length;
+      if (regionLength > Integer.MAX_VALUE) {
+        throw new IOException("Region too large to be mapped: " + regionLength);
+      }
+      // The mapping remains valid after the channel is closed
+      ByteBuffer mapped = channel.map(MapMode.READ_ONLY, offset, regionLength);
+      return new BufferSource(mapped, file.toUri().toString(), file, offset);
+    }
+  }
+
+  @Override
+  public String getURI() {
+    return uri;
+  }
+
+  @Override
+  public long size() {
+    return buffer.capacity();
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) {
+    if (position >= buffer.capacity()) {
+      return -1;
+    }
+    int n = (int) Math.min(dst.remaining(), buffer.capacity() - position);
+    dst.put(buffer.slice((int) position, n));
+    return n;
+  }
+
+  @Override
+  public Path getLocalFile() {
+    return file;
+  }
+
+  @Override
+  public long getLocalOffset() {
+    return offset;
+  }
+
+  @Override
+  public void close() {
+    // The buffer is released by the garbage collector
+  }
+
+  @Override
+  public String toString() {
+    return "BufferSource{" + uri + "}";
+  }
+}
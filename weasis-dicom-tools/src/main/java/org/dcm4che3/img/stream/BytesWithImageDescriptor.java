@@ -60,6 +60,41 @@ public interface BytesWithImageDescriptor extends ImageReaderDescriptor {
    */
   ByteBuffer getBytes(int frame) throws IOException;
 
+  /**
+   * Retrieves the raw pixel data for the specified frame, using a buffer of an arena when the
+   * frame must be assembled.
+   *
+   * <p>The returned buffer can be a heap or a direct buffer, read-only or not. A direct buffer is
+   * passed to the decoder without copy. The caller gives the buffer back with {@link
+   * FrameBufferArena#release(ByteBuffer)} once the frame is decoded; this has no effect on a buffer
+   * that does not come from the arena.
+   *
+   * <p>The default implementation ignores the arena and returns {@link #getBytes(int)}.
+   *
+   * @param frame the zero-based frame index to retrieve
+   * @param arena the arena providing the buffers of the assembled frames
+   * @return a ByteBuffer containing the frame's pixel data, positioned at the start of the data
+   * @throws IOException if an I/O error occurs while reading the pixel data
+   */
+  default ByteBuffer getBytes(int frame, FrameBufferArena arena) throws IOException {
+    return getBytes(frame);
+  }
+
+  /**
+   * Returns the segments of a local file holding the encoded bytes of a frame as-is, for instance
+   * the fragments of a frame spooled to a file. The decoder then reads the segments in place and
+   * {@link #getBytes(int)} is not called for this frame.
+   *
+   * <p>The default implementation returns {@code null}.
+   *
+   * @param frame the zero-based frame index
+   * @return the segments of the frame, or {@code null} if the frame is not stored in a local file
+   * @throws IOException if an I/O error occurs while locating the frame
+   */
+  default ExtendSegmentedInputImageStream getSegments(int frame) throws IOException {
+    return null;
+  }
+
   /**
    * Returns the DICOM transfer syntax UID used for encoding the pixel data.
    *
@@ -21,7 +21,8 @@ import org.slf4j.LoggerFactory;
 import org.weasis.core.util.StringUtil;
 
 /**
- * A specialized {@link DicomInputStream} that reads DICOM data from a file path.
+ * A specialized {@link DicomInputStream} that reads DICOM data from a file path or from a {@link
+ * PixelDataSource}.
  *
  * <p>This class extends the standard DICOM input stream functionality by providing file-based
  * access and caching of metadata for improved performance. It implements the {@link
@@ -37,6 +38,8 @@ public class DicomFileInputStream extends DicomInputStream implements ImageReade
 
   private final Path path;
   private final AtomicReference<DicomMetaData> metadata = new AtomicReference<>();
+  private final String sourceURI;
+  private PixelDataSource source;
 
   /**
    * Constructs a new DICOM file input stream from the specified file path.
@@ -62,6 +65,40 @@ public class DicomFileInputStream extends DicomInputStream implements ImageReade
   public DicomFileInputStream(Path path, DicomMetaData metadata) throws IOException {
     super(Files.newInputStream(Objects.requireNonNull(path, "Path cannot be null")));
     this.path = path;
+    this.sourceURI = null;
+    this.metadata.set(metadata);
+  }
+
+  /**
+   * Constructs a new DICOM input stream reading a pixel data source, such as an archive entry or a
+   * remote resource. The source is closed with this stream.
+   *
+   * @param source the source of the DICOM file
+   * @throws IOException if an I/O error occurs while reading the source
+   * @throws NullPointerException if the source is null
+   */
+  public DicomFileInputStream(PixelDataSource source) throws IOException {
+    this(source, null);
+  }
+
+  /**
+   * Constructs a new DICOM input stream reading a pixel data source with metadata already parsed.
+   * The source is closed with this stream.
+   *
+   * @param source the source of the DICOM file
+   * @param metadata the DICOM metadata to associate with this stream, may be null
+   * @throws IOException if an I/O error occurs while reading the source
+   * @throws NullPointerException if the source is null
+   */
+  public DicomFileInputStream(PixelDataSource source, DicomMetaData metadata)
+      throws IOException {
+    super(Objects.requireNonNull(source, "Source cannot be null").openStream());
+    this.path = null;
+    // The bulk data references require a URI, otherwise the pixel data is copied to a file
+    String uri = source.getURI();
+    this.sourceURI =
+        uri != null ? uri : "source:" + Integer.toHexString(System.identityHashCode(source));
+    this.source = source;
     this.metadata.set(metadata);
   }
 
@@ -79,12 +116,48 @@ public class DicomFileInputStream extends DicomInputStream implements ImageReade
   /**
    * Returns the file path associated with this input stream.
    *
-   * @return the file path, never null
+   * @return the file path, or null if the stream reads a {@link PixelDataSource}
    */
   public Path getPath() {
     return path;
   }
 
+  /**
+   * Returns the source of the bytes of the file, to read the pixel data at the offsets of the bulk
+   * data references. For a stream opened from a path, a file source is opened on the first call.
+   *
+   * @return the source, closed with this stream
+   * @throws IOException if the file cannot be opened
+   */
+  public synchronized PixelDataSource getSource() throws IOException {
+    if (source == null) {
+      source = PixelDataSource.ofFile(path);
+    }
+    return source;
+  }
+
+  /** Returns the URI of the file or of the source, used by the bulk data references. */
+  public String getSourceURI() {
+    return path != null ? path.toUri().toString() : sourceURI;
+  }
+
+  /**
+   * Returns whether the bulk data references of this stream can be read from their URI alone: the
+   * stream reads a local file from its first byte. The references into an archive entry, a region
+   * of a file, a buffer or a remote resource are only valid through {@link #getSource()}.
+   *
+   * @return true if the URI of the bulk data designates the bytes of this stream
+   */
+  public synchronized boolean isBulkDataURIResolvable() {
+    if (path != null) {
+      return true;
+    }
+    Path file = source == null ? null : source.getLocalFile();
+    return file != null
+        && source.getLocalOffset() == 0
+        && file.toUri().toString().equals(sourceURI);
+  }
+
   /**
    * Returns the DICOM metadata for this file, creating and caching it if necessary.
    *
@@ -124,6 +197,22 @@ public class DicomFileInputStream extends DicomInputStream implements ImageReade
     }
   }
 
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      PixelDataSource s;
+      synchronized (this) {
+        s = source;
+        source = null;
+      }
+      if (s != null) {
+        s.close();
+      }
+    }
+  }
+
   private static Path createPath(String pathString) {
     if (!StringUtil.hasText(pathString)) {
       throw new IllegalArgumentException("Path string cannot be null or empty");
@@ -133,6 +222,6 @@ public class DicomFileInputStream extends DicomInputStream implements ImageReade
 
   @Override
   public String toString() {
-    return "DicomFileInputStream{path=" + path + "}";
+    return "DicomFileInputStream{path=" + (path != null ? path : getSourceURI()) + "}";
   }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Source reading a region of a local file with positional reads of a {@link FileChannel}: a whole
+ * file, or an entry stored as-is in an archive.
+ */
+final class FileRegionSource implements PixelDataSource {
+
+  private final Path file;
+  private final FileChannel channel;
+  private final long offset;
+  private final long length;
+  private final String uri;
+
+  private FileRegionSource(Path file, FileChannel channel, long offset, long length, String uri) {
+    this.file = file;
+    this.channel = channel;
+    this.offset = offset;
+    this.length = length;
+    this.uri = uri;
+  }
+
+  /**
+   * Opens a region of a file.
+   *
+   * @param file the file
+   * @param offset the position of the region in the file
+   * @param length the length of the region, or -1 for the end of the file
+   * @param uri the URI of the source
+   */
+  static FileRegionSource open(Path file, long offset, long length, String uri)
+      throws IOException {
+    Objects.requireNonNull(file, "file cannot be null");
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (offset < 0 || offset > size || length > size - offset) {
+        throw new IOException("Region outside of " + file + ": " + offset + "+" + length);
+      }
+      long regionLength = length < 0 ? size - offset : length;
+      return new FileRegionSource(file, channel, offset, regionLength, uri);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public String getURI() {
+    return uri;
+  }
+
+  @Override
+  public long size() {
+    return length;
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    if (position >= length) {
+      return -1;
+    }
+    int max = (int) Math.min(dst.remaining(), length - position);
+    int limit = dst.limit();
+    dst.limit(dst.position() + max);
+    try {
+      return channel.read(dst, offset + position);
+    } finally {
+      dst.limit(limit);
+    }
+  }
+
+  @Override
+  public Path getLocalFile() {
+    return file;
+  }
+
+  @Override
+  public long getLocalOffset() {
+    return offset;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  @Override
+  public String toString() {
+    return "FileRegionSource{" + uri + "}";
+  }
+}
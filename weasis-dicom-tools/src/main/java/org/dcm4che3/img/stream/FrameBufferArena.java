@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Reusable direct buffers holding the encoded bytes of frames before they are decoded.
+ *
+ * <p>Each {@link org.dcm4che3.img.DicomImageReader} owns an arena. A buffer is taken with {@link
+ * #acquire(int)}, filled, handed to the native decoder without copy, and given back with {@link
+ * #release(ByteBuffer)} once the frame is decoded. The buffers are grouped by capacities in powers
+ * of two, so that frames of similar sizes reuse the same buffers, and the released buffers are
+ * kept up to a budget of bytes.
+ *
+ * <p>Only the buffers lent by the arena are taken back: releasing any other buffer, for instance a
+ * buffer provided by a {@link BytesWithImageDescriptor}, has no effect. All the methods are
+ * thread-safe.
+ */
+public final class FrameBufferArena {
+
+  /** The default budget of the released buffers kept for reuse, in bytes. */
+  public static final long DEFAULT_MAX_RETAINED_SIZE = 64L * 1024 * 1024;
+
+  private static final int MIN_CLASS = 12; // 4 KB
+  private static final int MAX_CLASS = 30; // 1 GB
+
+  private final long maxRetainedSize;
+  private final ArrayDeque<ByteBuffer>[] classes;
+  private final Set<ByteBuffer> lent = Collections.newSetFromMap(new IdentityHashMap<>());
+  private long retainedSize;
+
+  /** Creates an arena keeping at most {@link #DEFAULT_MAX_RETAINED_SIZE} bytes of buffers. */
+  public FrameBufferArena() {
+    this(DEFAULT_MAX_RETAINED_SIZE);
+  }
+
+  /**
+   * Creates an arena.
+   *
+   * @param maxRetainedSize the maximum number of bytes of the released buffers kept for reuse
+   */
+  @SuppressWarnings("unchecked")
+  public FrameBufferArena(long maxRetainedSize) {
+    if (maxRetainedSize < 0) {
+      throw new IllegalArgumentException("maxRetainedSize cannot be negative");
+    }
+    this.maxRetainedSize = maxRetainedSize;
+    this.classes = new ArrayDeque[MAX_CLASS + 1];
+  }
+
+  public long getMaxRetainedSize() {
+    return maxRetainedSize;
+  }
+
+  /** Returns the number of bytes of the released buffers ready to be reused. */
+  public synchronized long getRetainedSize() {
+    return retainedSize;
+  }
+
+  /** Returns the number of buffers acquired and not yet released. */
+  public synchronized int getLentCount() {
+    return lent.size();
+  }
+
+  /**
+   * Takes a direct buffer of at least a given capacity, reused or newly allocated.
+   *
+   * @param length the number of bytes needed
+   * @return a direct buffer with a position of 0 and a limit of {@code length}
+   */
+  public synchronized ByteBuffer acquire(int length) {
+    if (length < 0) {
+      throw new IllegalArgumentException("length cannot be negative");
+    }
+    int sizeClass = sizeClass(length);
+    ByteBuffer buffer = null;
+    if (sizeClass <= MAX_CLASS && classes[sizeClass] != null) {
+      buffer = classes[sizeClass].pollFirst();
+    }
+    if (buffer == null) {
+      int capacity = sizeClass <= MAX_CLASS ? 1 << sizeClass : length;
+      buffer = ByteBuffer.allocateDirect(capacity);
+    } else {
+      retainedSize -= buffer.capacity();
+    }
+    lent.add(buffer);
+    buffer.clear().limit(length);
+    return buffer;
+  }
+
+  /**
+   * Gives back a buffer taken from this arena. The buffer must not be used after this call.
+   *
+   * @param buffer the buffer, may be null or a buffer not lent by this arena
+   */
+  public synchronized void release(ByteBuffer buffer) {
+    if (buffer == null || !lent.remove(buffer)) {
+      return;
+    }
+    int capacity = buffer.capacity();
+    int sizeClass = sizeClass(capacity);
+    if (sizeClass > MAX_CLASS
+        || capacity != 1 << sizeClass
+        || retainedSize + capacity > maxRetainedSize) {
+      return;
+    }
+    if (classes[sizeClass] == null) {
+      classes[sizeClass] = new ArrayDeque<>();
+    }
+    classes[sizeClass].offerFirst(buffer);
+    retainedSize += capacity;
+  }
+
+  /**
+   * Drops the released buffers. The buffers currently lent remain valid and are dropped when they
+   * are released.
+   */
+  public synchronized void clear() {
+    for (int i = 0; i < classes.length; i++) {
+      classes[i] = null;
+    }
+    retainedSize = 0;
+    lent.clear();
+  }
+
+  private static int sizeClass(int length) {
+    if (length <= 1 << MIN_CLASS) {
+      return MIN_CLASS;
+    }
+    return Integer.SIZE - Integer.numberOfLeadingZeros(length - 1);
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.Objects;
+
+/**
+ * Source reading a remote resource with HTTP range requests.
+ *
+ * <p>A small read fetches a whole block of the buffer size of the pool and keeps it, so that the
+ * next small reads, typically the header and the JPEG markers, are served without request. A read
+ * of at least one block is fetched directly into the destination buffer.
+ */
+final class HttpRangeSource implements PixelDataSource {
+
+  private static final int HTTP_PARTIAL_CONTENT = 206;
+  private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+  private final HttpClient client;
+  private final URI uri;
+  private final ReadAheadBufferPool pool;
+  private volatile long size = -1;
+  // Last fetched block, guarded by this
+  private ByteBuffer block;
+  private long blockStart;
+  private volatile boolean closed;
+
+  HttpRangeSource(HttpClient client, URI uri, ReadAheadBufferPool pool) {
+    this.client = Objects.requireNonNull(client, "client cannot be null");
+    this.uri = Objects.requireNonNull(uri, "uri cannot be null");
+    this.pool = Objects.requireNonNull(pool, "pool cannot be null");
+  }
+
+  @Override
+  public String getURI() {
+    return uri.toString();
+  }
+
+  @Override
+  public long size() throws IOException {
+    long length = size;
+    if (length < 0) {
+      HttpRequest request =
+          HttpRequest.newBuilder(uri).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+      HttpResponse<Void> response = send(request, HttpResponse.BodyHandlers.discarding());
+      if (response.statusCode() / 100 != 2) {
+        throw new IOException("HTTP " + response.statusCode() + " for HEAD " + uri);
+      }
+      length = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+      if (length < 0) {
+        throw new IOException("Unknown length of " + uri);
+      }
+      size = length;
+    }
+    return length;
+  }
+
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    ensureOpen();
+    if (!dst.hasRemaining()) {
+      return 0;
+    }
+    if (dst.remaining() >= pool.getBufferSize()) {
+      return fetch(dst, position);
+    }
+    synchronized (this) {
+      // Checked again as the source may have been closed meanwhile: no block after close
+      ensureOpen();
+      if (block == null || position < blockStart || position >= blockStart + block.limit()) {
+        if (block == null) {
+          block = pool.acquire();
+        }
+        block.clear();
+        blockStart = position;
+        if (fetch(block, position) < 0) {
+          block.limit(0);
+          return -1;
+        }
+        block.flip();
+      }
+      int offset = (int) (position - blockStart);
+      int n = Math.min(dst.remaining(), block.limit() - offset);
+      dst.put(block.slice(offset, n));
+      return n;
+    }
+  }
+
+  private void ensureOpen() throws ClosedChannelException {
+    if (closed) {
+      throw new ClosedChannelException();
+    }
+  }
+
+  private int fetch(ByteBuffer dst, long position) throws IOException {
+    long known = size;
+    if (known >= 0 && position >= known) {
+      return -1;
+    }
+    long last = position + dst.remaining() - 1;
+    HttpRequest request =
+        HttpRequest.newBuilder(uri).header("Range", "bytes=" + position + "-" + last).build();
+    HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream in = response.body()) {
+      if (response.statusCode() == HTTP_RANGE_NOT_SATISFIABLE) {
+        return -1;
+      }
+      if (response.statusCode() != HTTP_PARTIAL_CONTENT) {
+        throw new IOException(
+            "HTTP " + response.statusCode() + " instead of a range of " + uri + " at " + position);
+      }
+      updateSize(response.headers());
+      byte[] chunk = new byte[8192];
+      int total = 0;
+      int read;
+      while (dst.hasRemaining()
+          && (read = in.read(chunk, 0, Math.min(chunk.length, dst.remaining()))) > 0) {
+        dst.put(chunk, 0, read);
+        total += read;
+      }
+      return total == 0 ? -1 : total;
+    }
+  }
+
+  // Content-Range: bytes <first>-<last>/<length>
+  private void updateSize(HttpHeaders headers) {
+    if (size >= 0) {
+      return;
+    }
+    headers
+        .firstValue("Content-Range")
+        .ifPresent(
+            range -> {
+              int slash = range.lastIndexOf('/');
+              if (slash > 0 && !range.endsWith("*")) {
+                try {
+                  size = Long.parseLong(range.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                  // Keep the length unknown
+                }
+              }
+            });
+  }
+
+  private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+      throws IOException {
+    try {
+      return client.send(request, handler);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted request to " + uri);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    pool.release(block);
+    block = null;
+  }
+
+  @Override
+  public String toString() {
+    return "HttpRangeSource{" + uri + "}";
+  }
+}
@@ -9,13 +9,18 @@
  */
 package org.dcm4che3.img.stream;
 
-import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.BulkData;
 import org.dcm4che3.data.Fragments;
@@ -32,6 +37,7 @@ import org.dcm4che3.net.DataWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.util.FileUtil;
+import org.weasis.core.util.StreamUtil;
 import org.weasis.core.util.StringUtil;
 import org.weasis.dicom.param.AttributeEditorContext;
 import org.weasis.opencv.data.PlanarImage;
@@ -361,6 +367,26 @@ public final class ImageAdapter {
     return new ImageBytesDescriptor(dataValue, pixelDataVR, imageDescriptor, syntax.original);
   }
 
+  /**
+   * Creates a BytesWithImageDescriptor giving access to the frames of a dataset, for instance a
+   * DICOM instance received in memory by a DICOMweb client. The pixel data can be read in memory,
+   * referenced as bulk data or encapsulated.
+   *
+   * @param data the DICOM attributes containing image data
+   * @param tsuid the transfer syntax UID of the dataset
+   * @return a BytesWithImageDescriptor instance, or null if the dataset has no pixel data
+   */
+  public static BytesWithImageDescriptor bytesWithImageDescriptor(Attributes data, String tsuid) {
+    Objects.requireNonNull(data, "data cannot be null");
+    Objects.requireNonNull(tsuid, "tsuid cannot be null");
+    var pixelDataVR = new VR.Holder();
+    Object dataValue = data.getValue(Tag.PixelData, pixelDataVR);
+    if (dataValue == null) {
+      return null;
+    }
+    return new ImageBytesDescriptor(dataValue, pixelDataVR, new ImageDescriptor(data), tsuid);
+  }
+
   private static boolean isTranscodingApplicable(
       Object pixData, AdaptTransferSyntax syntax, AttributeEditorContext context) {
 
@@ -417,14 +443,21 @@ public final class ImageAdapter {
 
     @Override
     public ByteBuffer getBytes(int frame) throws IOException {
+      return getBytes(frame, null);
+    }
+
+    @Override
+    public ByteBuffer getBytes(int frame, FrameBufferArena arena) throws IOException {
       if (imageDescriptor.getBitsStored() < 1) {
         return ByteBuffer.wrap(EMPTY_BYTES);
       }
 
       if (pixdata instanceof BulkData bulkData) {
         return getBytesFromBulkData(bulkData, frame);
+      } else if (pixdata instanceof byte[] bytes) {
+        return getBytesFromArray(bytes, frame);
       } else if (pixdata instanceof Fragments fragments) {
-        return getBytesFromFragments(fragments, frame);
+        return getBytesFromFragments(fragments, frame, arena);
       }
 
       throw new IOException("Neither fragments nor BulkData!");
@@ -438,11 +471,17 @@ public final class ImageAdapter {
       }
 
       validateFrameAccess(frame, frameLength);
+      // Share the bytes read once for all the frames
+      return multiFrameBuffer[0].slice(frame * frameLength, frameLength).asReadOnlyBuffer();
+    }
 
-      var frameData = new byte[frameLength];
-      multiFrameBuffer[0].position(frame * frameLength);
-      multiFrameBuffer[0].get(frameData, 0, frameLength);
-      return ByteBuffer.wrap(frameData);
+    private ByteBuffer getBytesFromArray(byte[] bytes, int frame) throws IOException {
+      int frameLength = calculateFrameLength();
+      if (multiFrameBuffer[0] == null) {
+        multiFrameBuffer[0] = ByteBuffer.wrap(bytes);
+      }
+      validateFrameAccess(frame, frameLength);
+      return ByteBuffer.wrap(bytes, frame * frameLength, frameLength).slice();
     }
 
     /** Calculates the length of a single frame in bytes */
@@ -462,44 +501,48 @@ public final class ImageAdapter {
       }
     }
 
-    private ByteBuffer getBytesFromFragments(Fragments fragments, int frame) throws IOException {
-      int numberOfFrames = imageDescriptor.getFrames();
-
-      return numberOfFrames == 1
-          ? getSingleFrameFromFragments(fragments)
-          : getMultiFrameFromFragments(fragments, frame, numberOfFrames);
+    private ByteBuffer getBytesFromFragments(
+        Fragments fragments, int frame, FrameBufferArena arena) throws IOException {
+      FragmentRange range = fragmentRange(fragments, frame);
+      return collectFragments(fragments, range, arena);
     }
 
-    private ByteBuffer getSingleFrameFromFragments(Fragments fragments) throws IOException {
-      int nbFragments = fragments.size();
-      int totalLength = calculateTotalFragmentLength(fragments, nbFragments);
-
-      try (var out = new ByteArrayOutputStream(totalLength)) {
-        writeFragmentsToStream(fragments, 1, nbFragments, out);
-        return ByteBuffer.wrap(out.toByteArray());
+    @Override
+    public ExtendSegmentedInputImageStream getSegments(int frame) throws IOException {
+      if (!(pixdata instanceof Fragments fragments) || imageDescriptor.getBitsStored() < 1) {
+        return null;
       }
+      FragmentRange range = fragmentRange(fragments, frame);
+      int count = range.end() - range.start();
+      long[] positions = new long[count];
+      int[] lengths = new int[count];
+      Path file = null;
+      for (int i = 0; i < count; i++) {
+        if (!(fragments.get(range.start() + i) instanceof BulkData bulkData)
+            || bulkData.length() <= 0) {
+          return null;
+        }
+        Path fragmentFile = localFile(bulkData);
+        if (fragmentFile == null || (file != null && !file.equals(fragmentFile))) {
+          return null;
+        }
+        file = fragmentFile;
+        positions[i] = bulkData.offset();
+        lengths[i] = bulkData.length();
+      }
+      return file == null
+          ? null
+          : new ExtendSegmentedInputImageStream(file, positions, lengths, imageDescriptor);
     }
 
-    private int calculateTotalFragmentLength(Fragments fragments, int nbFragments) {
-      return fragments.stream()
-          .skip(1)
-          .limit(nbFragments - 1L)
-          .mapToInt(obj -> ((BulkData) obj).length())
-          .sum();
-    }
+    /** Range of the fragments of a frame, the first fragment being the offset table */
+    private record FragmentRange(int start, int end) {}
 
-    /** Writes fragments to output stream */
-    private void writeFragmentsToStream(
-        Fragments fragments, int start, int end, ByteArrayOutputStream out) throws IOException {
-      for (int i = start; i < end; i++) {
-        var bulkData = (BulkData) fragments.get(i);
-        var bytes = bulkData.toBytes(pixeldataVR.vr, isBigEndian());
-        out.write(bytes);
+    private FragmentRange fragmentRange(Fragments fragments, int frame) throws IOException {
+      int numberOfFrames = imageDescriptor.getFrames();
+      if (numberOfFrames == 1) {
+        return new FragmentRange(1, fragments.size());
       }
-    }
-
-    private ByteBuffer getMultiFrameFromFragments(
-        Fragments fragments, int frame, int numberOfFrames) throws IOException {
       if (fragmentsPositions.isEmpty()) {
         initializeFragmentPositions(fragments);
       }
@@ -512,7 +555,96 @@ public final class ImageAdapter {
                 + fragmentsPositions.size());
       }
 
-      return extractFrameFromFragments(fragments, frame);
+      int start = fragmentsPositions.get(frame);
+      int end =
+          (frame + 1) >= fragmentsPositions.size()
+              ? fragments.size()
+              : fragmentsPositions.get(frame + 1);
+      return new FragmentRange(start, end);
+    }
+
+    /**
+     * Gathers the fragments of a frame in a single buffer of the arena, or in a heap buffer
+     * without arena. The fragments of a local file are read in place with positional reads, one
+     * channel being opened per file.
+     */
+    private ByteBuffer collectFragments(
+        Fragments fragments, FragmentRange range, FrameBufferArena arena) throws IOException {
+      int totalLength = calculateFragmentRangeLength(fragments, range.start(), range.end());
+      ByteBuffer buffer =
+          arena == null ? ByteBuffer.allocate(totalLength) : arena.acquire(totalLength);
+      int limit = buffer.limit();
+      Path channelFile = null;
+      FileChannel channel = null;
+      try {
+        for (int i = range.start(); i < range.end(); i++) {
+          Object fragment = fragments.get(i);
+          Path file = fragment instanceof BulkData bulkData ? localFile(bulkData) : null;
+          if (file == null) {
+            buffer.put(fragmentBytes(fragment));
+            continue;
+          }
+          if (!file.equals(channelFile)) {
+            StreamUtil.safeClose(channel);
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            channelFile = file;
+          }
+          BulkData bulkData = (BulkData) fragment;
+          readFully(channel, buffer.limit(buffer.position() + bulkData.length()), bulkData);
+          buffer.limit(limit);
+        }
+      } catch (IOException | RuntimeException e) {
+        if (arena != null) {
+          arena.release(buffer);
+        }
+        throw e;
+      } finally {
+        StreamUtil.safeClose(channel);
+      }
+      return buffer.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer dst, BulkData bulkData)
+        throws IOException {
+      long position = bulkData.offset();
+      while (dst.hasRemaining()) {
+        int n = channel.read(dst, position);
+        if (n < 0) {
+          throw new EOFException("Unexpected end of fragment " + bulkData.getURI());
+        }
+        position += n;
+      }
+    }
+
+    /**
+     * Returns the local file holding the bytes of a fragment as-is, or null if the fragment is not
+     * in a local file or its bytes must be swapped.
+     */
+    private Path localFile(BulkData bulkData) {
+      if (isBigEndian() && pixeldataVR.vr.numEndianBytes() > 1) {
+        return null;
+      }
+      String uri = bulkData.uriWithoutQuery();
+      if (uri == null || !uri.startsWith("file:")) {
+        return null;
+      }
+      try {
+        return Path.of(URI.create(uri));
+      } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+        return null;
+      }
+    }
+
+    // Fragments are BulkData when read from a file, byte arrays when read in memory
+    private static int fragmentLength(Object fragment) {
+      return fragment instanceof byte[] bytes ? bytes.length : ((BulkData) fragment).length();
+    }
+
+    private byte[] fragmentBytes(Object fragment) throws IOException {
+      if (fragment instanceof byte[] bytes) {
+        return bytes;
+      }
+      return ((BulkData) fragment).toBytes(pixeldataVR.vr, isBigEndian());
     }
 
     private void initializeFragmentPositions(Fragments fragments) {
@@ -533,17 +665,23 @@ public final class ImageAdapter {
 
     private void initializeJPEGFragmentPositions(Fragments fragments, int nbFragments) {
       for (int i = 1; i < nbFragments; i++) {
-        var bulkData = (BulkData) fragments.get(i);
-        if (isValidJPEGFragment(bulkData)) {
+        if (isValidJPEGFragment(fragments.get(i))) {
           fragmentsPositions.add(i);
         }
       }
     }
 
-    private boolean isValidJPEGFragment(BulkData bulkData) {
+    /** Parses the JPEG header at the beginning of a fragment, read in place when possible. */
+    private boolean isValidJPEGFragment(Object fragment) {
       try {
-        var bytes = bulkData.toBytes(pixeldataVR.vr, isBigEndian());
-        try (var channel = new SeekableInMemoryByteChannel(bytes)) {
+        Path file = fragment instanceof BulkData bulkData ? localFile(bulkData) : null;
+        if (file != null) {
+          try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new JPEGParser(channel.position(((BulkData) fragment).offset()));
+            return true;
+          }
+        }
+        try (var channel = new SeekableInMemoryByteChannel(fragmentBytes(fragment))) {
           new JPEGParser(channel);
           return true;
         }
@@ -552,25 +690,10 @@ public final class ImageAdapter {
       }
     }
 
-    private ByteBuffer extractFrameFromFragments(Fragments fragments, int frame)
-        throws IOException {
-      int start = fragmentsPositions.get(frame);
-      int end =
-          (frame + 1) >= fragmentsPositions.size()
-              ? fragments.size()
-              : fragmentsPositions.get(frame + 1);
-      int totalLength = calculateFragmentRangeLength(fragments, start, end);
-
-      try (var out = new ByteArrayOutputStream(totalLength)) {
-        writeFragmentsToStream(fragments, start, end, out);
-        return ByteBuffer.wrap(out.toByteArray());
-      }
-    }
-
     private int calculateFragmentRangeLength(Fragments fragments, int start, int end) {
       int length = 0;
       for (int i = start; i < end; i++) {
-        length += ((BulkData) fragments.get(i)).length();
+        length += fragmentLength(fragments.get(i));
       }
       return length;
     }
@@ -9,20 +9,24 @@
  */
 package org.dcm4che3.img.stream;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
 import org.dcm4che3.image.PhotometricInterpretation;
 import org.dcm4che3.img.data.EmbeddedOverlay;
+import org.dcm4che3.img.data.FunctionalGroups;
 import org.dcm4che3.img.data.OverlayData;
 import org.dcm4che3.img.lut.ModalityLutModule;
 import org.dcm4che3.img.lut.VoiLutModule;
 import org.dcm4che3.img.util.DicomUtils;
 import org.dcm4che3.img.util.PaletteColorUtils;
+import org.dcm4che3.img.util.SupplierEx;
 import org.opencv.core.Core.MinMaxLocResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,13 +39,21 @@ import org.weasis.opencv.data.LookupTableCV;
  * <p>This class encapsulates all essential image characteristics including dimensions, pixel
  * representation, color space information, and specialized DICOM attributes. It provides
  * thread-safe access to both basic image properties and advanced features like LUT transformations,
- * overlay data, and frame-specific metadata.
+ * overlay data, and frame-specific metadata. The frame-specific values are the only mutable state:
+ * they are held in atomic arrays and the LUTs of the functional groups are computed once per frame
+ * on first access.
+ *
+ * <p>The overlays and the palette color lookup table are only needed for rendering. They are
+ * decoded on first access and then cached, so that building a descriptor to transcode or to read
+ * the pixel metadata does not decode the overlay planes. Their attributes are copied by the
+ * constructor: later changes of the dataset do not modify the descriptor.
  *
  * <p><strong>Key Features:</strong>
  *
  * <ul>
- *   <li>Immutable design ensuring thread safety
+ *   <li>Immutable image properties, atomic frame-specific values
  *   <li>Support for multi-frame images with per-frame metadata
+ *   <li>Per-frame rescale and windowing from the functional groups of enhanced objects
  *   <li>Comprehensive overlay and embedded overlay handling
  *   <li>LUT (Look-Up Table) support for modality and VOI transformations
  *   <li>Anatomical region and modality-specific metadata
@@ -52,6 +64,18 @@ import org.weasis.opencv.data.LookupTableCV;
 public final class ImageDescriptor {
   private static final Logger LOGGER = LoggerFactory.getLogger(ImageDescriptor.class);
 
+  private static final int[] PALETTE_TAGS = {
+    Tag.RedPaletteColorLookupTableDescriptor,
+    Tag.GreenPaletteColorLookupTableDescriptor,
+    Tag.BluePaletteColorLookupTableDescriptor,
+    Tag.RedPaletteColorLookupTableData,
+    Tag.GreenPaletteColorLookupTableData,
+    Tag.BluePaletteColorLookupTableData,
+    Tag.SegmentedRedPaletteColorLookupTableData,
+    Tag.SegmentedGreenPaletteColorLookupTableData,
+    Tag.SegmentedBluePaletteColorLookupTableData
+  };
+
   // Image dimension properties
   private final int rows;
   private final int columns;
@@ -67,18 +91,19 @@ public final class ImageDescriptor {
   private final int pixelRepresentation;
   private final int planarConfiguration;
   private final String pixelPresentation;
-  private final LookupTableCV paletteColorLookupTable;
+  private final SupplierEx<LookupTableCV, RuntimeException> paletteColorLookupTable;
 
   // DICOM metadata
   private final String sopClassUID;
+  private final String sopInstanceUID;
   private final String seriesInstanceUID;
   private final String modality;
   private final String stationName;
   private final AnatomicRegion anatomicRegion;
 
-  // Overlay and presentation data
-  private final List<EmbeddedOverlay> embeddedOverlay;
-  private final List<OverlayData> overlayData;
+  // Overlay and presentation data, overlays are loaded on first access
+  private final SupplierEx<List<EmbeddedOverlay>, RuntimeException> embeddedOverlay;
+  private final SupplierEx<List<OverlayData>, RuntimeException> overlayData;
   private final String presentationLUTShape;
 
   // Pixel padding and LUT modules
@@ -88,9 +113,11 @@ public final class ImageDescriptor {
   private final VoiLutModule voiLUT;
 
   // Frame-specific data collections
-  private final List<MinMaxLocResult> minMaxPixelValues;
-  private final List<VoiLutModule> voiLutPerFrame;
-  private final List<ModalityLutModule> modalityLutPerFrame;
+  private final FunctionalGroups functionalGroups;
+  // Per-frame values, set by the readers and computed on first access from several threads
+  private final AtomicReferenceArray<MinMaxLocResult> minMaxPixelValues;
+  private final AtomicReferenceArray<VoiLutModule> voiLutPerFrame;
+  private final AtomicReferenceArray<ModalityLutModule> modalityLutPerFrame;
 
   /**
    * Creates an image descriptor from DICOM attributes.
@@ -129,21 +156,23 @@ public final class ImageDescriptor {
     this.pixelRepresentation = pixelAttributes.pixelRepresentation();
     this.planarConfiguration = pixelAttributes.planarConfiguration();
     this.pixelPresentation = pixelAttributes.pixelPresentation();
-    this.paletteColorLookupTable = createPaletteColorLookupTable(dcm);
+    var palette = new Attributes(dcm, PALETTE_TAGS);
+    this.paletteColorLookupTable = lazy(() -> createPaletteColorLookupTable(palette));
 
     // Initialize DICOM metadata
     var metadata = createDicomMetadata(dcm);
     this.sopClassUID = metadata.sopClassUID();
+    this.sopInstanceUID = metadata.sopInstanceUID();
     this.seriesInstanceUID = metadata.seriesInstanceUID();
     this.modality = metadata.modality();
     this.stationName = metadata.stationName();
     this.anatomicRegion = metadata.anatomicRegion();
 
     // Initialize overlay and presentation data
-    var overlayContainer = createOverlayData(dcm);
-    this.embeddedOverlay = overlayContainer.embeddedOverlays();
-    this.overlayData = overlayContainer.overlays();
-    this.presentationLUTShape = overlayContainer.presentationLUTShape();
+    var overlays = selectOverlayAttributes(dcm);
+    this.embeddedOverlay = lazy(() -> EmbeddedOverlay.getEmbeddedOverlay(overlays));
+    this.overlayData = lazy(() -> OverlayData.getOverlayData(overlays, 0xffff));
+    this.presentationLUTShape = dcm.getString(Tag.PresentationLUTShape);
 
     // Initialize pixel padding and LUT modules
     var lutData = createLutData(dcm);
@@ -153,9 +182,29 @@ public final class ImageDescriptor {
     this.voiLUT = lutData.voiLUT();
 
     // Initialize frame-specific collections
-    this.minMaxPixelValues = createNullFilledList(frames);
-    this.voiLutPerFrame = createNullFilledList(frames);
-    this.modalityLutPerFrame = createNullFilledList(frames);
+    this.functionalGroups = FunctionalGroups.read(dcm);
+    this.minMaxPixelValues = new AtomicReferenceArray<>(frames);
+    this.voiLutPerFrame = new AtomicReferenceArray<>(frames);
+    this.modalityLutPerFrame = new AtomicReferenceArray<>(frames);
+  }
+
+  // The overlay groups 6000-601E and the pixel attributes checked by the embedded overlays
+  private static Attributes selectOverlayAttributes(Attributes dcm) {
+    int[] selection =
+        Arrays.stream(dcm.tags())
+            .filter(
+                tag ->
+                    (tag >>> 16 & 0xFFE1) == 0x6000
+                        || tag == Tag.BitsAllocated
+                        || tag == Tag.BitsStored)
+            .toArray();
+    return new Attributes(dcm, selection);
+  }
+
+  /** Returns a supplier computing its value once, on first call. */
+  private static <T> SupplierEx<T, RuntimeException> lazy(
+      SupplierEx<T, RuntimeException> supplier) {
+    return supplier.memoized();
   }
 
   private LookupTableCV createPaletteColorLookupTable(Attributes dcm) {
@@ -200,20 +249,13 @@ public final class ImageDescriptor {
   private DicomMetadata createDicomMetadata(Attributes dcm) {
     return new DicomMetadata(
         dcm.getString(Tag.SOPClassUID),
+        dcm.getString(Tag.SOPInstanceUID),
         dcm.getString(Tag.SeriesInstanceUID),
         dcm.getString(Tag.Modality),
         dcm.getString(Tag.StationName),
         AnatomicRegion.read(dcm));
   }
 
-  private OverlayDataContainer createOverlayData(Attributes dcm) {
-    var lutShape = dcm.getString(Tag.PresentationLUTShape);
-    var embeddedOverlays = EmbeddedOverlay.getEmbeddedOverlay(dcm);
-    var overlays = OverlayData.getOverlayData(dcm, 0xffff);
-
-    return new OverlayDataContainer(embeddedOverlays, overlays, lutShape);
-  }
-
   private LutDataContainer createLutData(Attributes dcm) {
     var paddingValue = DicomUtils.getIntegerFromDicomElement(dcm, Tag.PixelPaddingValue, null);
     var paddingRangeLimit =
@@ -222,10 +264,6 @@ public final class ImageDescriptor {
         paddingValue, paddingRangeLimit, new ModalityLutModule(dcm), new VoiLutModule(dcm));
   }
 
-  private static <T> List<T> createNullFilledList(int size) {
-    return new ArrayList<>(Collections.nCopies(size, null));
-  }
-
   // === Basic Image Properties ===
 
   public int getRows() {
@@ -290,8 +328,9 @@ public final class ImageDescriptor {
     return planarConfiguration != 0;
   }
 
+  /** Returns the palette color lookup table, read from the dataset on first call. */
   public LookupTableCV getPaletteColorLookupTable() {
-    return paletteColorLookupTable;
+    return paletteColorLookupTable.get();
   }
 
   /** Returns true if the image uses a palette color lookup table. */
@@ -325,6 +364,10 @@ public final class ImageDescriptor {
     return sopClassUID;
   }
 
+  public String getSopInstanceUID() {
+    return sopInstanceUID;
+  }
+
   public String getSeriesInstanceUID() {
     return seriesInstanceUID;
   }
@@ -343,18 +386,18 @@ public final class ImageDescriptor {
 
   // === Overlay and Presentation Data ===
 
-  /** Returns an immutable list of embedded overlays. */
+  /** Returns an immutable list of embedded overlays, read from the dataset on first call. */
   public List<EmbeddedOverlay> getEmbeddedOverlay() {
-    return Collections.unmodifiableList(embeddedOverlay);
+    return Collections.unmodifiableList(embeddedOverlay.get());
   }
 
-  /** Returns an immutable list of overlay data objects. */
+  /** Returns an immutable list of overlay data objects, read from the dataset on first call. */
   public List<OverlayData> getOverlayData() {
-    return Collections.unmodifiableList(overlayData);
+    return Collections.unmodifiableList(overlayData.get());
   }
 
   public boolean isMultiframeWithEmbeddedOverlays() {
-    return isMultiframe() && !embeddedOverlay.isEmpty();
+    return isMultiframe() && !embeddedOverlay.get().isEmpty();
   }
 
   public String getPresentationLUTShape() {
@@ -381,6 +424,15 @@ public final class ImageDescriptor {
 
   // === Frame-Specific Data Management ===
 
+  /**
+   * Returns the per-frame values of the functional groups of an enhanced multi-frame object.
+   *
+   * @return the functional groups, or null if the dataset has none
+   */
+  public FunctionalGroups getFunctionalGroups() {
+    return functionalGroups;
+  }
+
   /**
    * Returns the min/max pixel values for the specified frame.
    *
@@ -407,9 +459,18 @@ public final class ImageDescriptor {
    * Returns the VOI LUT module for the specified frame.
    *
    * @param frame the frame index (0-based)
-   * @return the frame-specific VOI LUT or the base VOI LUT if not set
+   * @return the frame-specific VOI LUT, the one of the functional groups, or the base VOI LUT if
+   *     not set
    */
   public VoiLutModule getVoiLutForFrame(int frame) {
+    if (isValidFrameIndex(frame)
+        && voiLutPerFrame.get(frame) == null
+        && functionalGroups != null
+        && functionalGroups.hasWindow()) {
+      // Keep the LUT set concurrently by another thread or by setVoiLutForFrame()
+      createVoiLutFromGroups(frame)
+          .ifPresent(lut -> voiLutPerFrame.compareAndSet(frame, null, lut));
+    }
     return getLutModule(voiLutPerFrame, voiLUT, frame);
   }
 
@@ -429,9 +490,17 @@ public final class ImageDescriptor {
    * Returns the modality LUT module for the specified frame.
    *
    * @param frame the frame index (0-based)
-   * @return the frame-specific modality LUT or the base modality LUT if not set
+   * @return the frame-specific modality LUT, the one of the functional groups, or the base modality
+   *     LUT if not set
    */
   public ModalityLutModule getModalityLutForFrame(int frame) {
+    if (isValidFrameIndex(frame)
+        && modalityLutPerFrame.get(frame) == null
+        && functionalGroups != null
+        && functionalGroups.hasRescale()) {
+      createModalityLutFromGroups(frame)
+          .ifPresent(lut -> modalityLutPerFrame.compareAndSet(frame, null, lut));
+    }
     return getLutModule(modalityLutPerFrame, modalityLUT, frame);
   }
 
@@ -447,15 +516,48 @@ public final class ImageDescriptor {
     }
   }
 
+  private Optional<ModalityLutModule> createModalityLutFromGroups(int frame) {
+    var slope = functionalGroups.getRescaleSlope(frame);
+    var intercept = functionalGroups.getRescaleIntercept(frame);
+    if (slope.isEmpty() && intercept.isEmpty()) {
+      return Optional.empty();
+    }
+    var attributes = new Attributes(4);
+    if (modality != null) {
+      attributes.setString(Tag.Modality, VR.CS, modality);
+    }
+    slope.ifPresent(v -> attributes.setDouble(Tag.RescaleSlope, VR.DS, v));
+    intercept.ifPresent(v -> attributes.setDouble(Tag.RescaleIntercept, VR.DS, v));
+    functionalGroups
+        .getRescaleType()
+        .ifPresent(type -> attributes.setString(Tag.RescaleType, VR.LO, type));
+    return Optional.of(new ModalityLutModule(attributes));
+  }
+
+  private Optional<VoiLutModule> createVoiLutFromGroups(int frame) {
+    var center = functionalGroups.getWindowCenter(frame);
+    var width = functionalGroups.getWindowWidth(frame);
+    if (center.isEmpty() || width.isEmpty()) {
+      return Optional.empty();
+    }
+    var attributes = new Attributes(3);
+    attributes.setDouble(Tag.WindowCenter, VR.DS, center.getAsDouble());
+    attributes.setDouble(Tag.WindowWidth, VR.DS, width.getAsDouble());
+    functionalGroups
+        .getVoiLutFunction()
+        .ifPresent(function -> attributes.setString(Tag.VOILUTFunction, VR.CS, function));
+    return Optional.of(new VoiLutModule(attributes));
+  }
+
   private boolean isValidFrameIndex(int frame) {
     return frame >= 0 && frame < frames;
   }
 
-  private static <T> T getLutModule(List<T> list, T baseLut, int frame) {
-    if (frame < 0 || frame >= list.size()) {
+  private static <T> T getLutModule(AtomicReferenceArray<T> array, T baseLut, int frame) {
+    if (frame < 0 || frame >= array.length()) {
       return baseLut;
     }
-    T frameLut = list.get(frame);
+    T frameLut = array.get(frame);
     return frameLut != null ? frameLut : baseLut;
   }
 
@@ -490,16 +592,12 @@ public final class ImageDescriptor {
 
   private record DicomMetadata(
       String sopClassUID,
+      String sopInstanceUID,
       String seriesInstanceUID,
       String modality,
       String stationName,
       AnatomicRegion anatomicRegion) {}
 
-  private record OverlayDataContainer(
-      List<EmbeddedOverlay> embeddedOverlays,
-      List<OverlayData> overlays,
-      String presentationLUTShape) {}
-
   private record LutDataContainer(
       Integer pixelPaddingValue,
       Integer pixelPaddingRangeLimit,
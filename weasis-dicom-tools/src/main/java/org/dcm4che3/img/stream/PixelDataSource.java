@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Random access to the bytes of a DICOM file, wherever they are stored.
+ *
+ * <p>A source is read with positional reads: the header is parsed from {@link #openStream()} and
+ * the pixel data fragments are then read at the offsets recorded in the bulk data references,
+ * which are relative to the beginning of the source. When the bytes are stored as-is in a local
+ * file (a plain file, a mapped region, a stored ZIP entry or a TAR entry), {@link #getLocalFile()}
+ * and {@link #getLocalOffset()} let the native decoder read the fragments from this file without
+ * copying them.
+ *
+ * <p>The implementations are thread-safe for reading.
+ *
+ * @see DicomFileInputStream#DicomFileInputStream(PixelDataSource)
+ */
+public interface PixelDataSource extends Closeable {
+
+  /**
+   * Returns the URI identifying the source, used as the URI of the bulk data references.
+   *
+   * @return the URI of the source
+   */
+  String getURI();
+
+  /**
+   * Returns the number of bytes of the source.
+   *
+   * @return the size in bytes
+   * @throws IOException if the size cannot be read
+   */
+  long size() throws IOException;
+
+  /**
+   * Reads bytes at a position of the source, without changing any shared state.
+   *
+   * @param dst the buffer receiving the bytes, up to its remaining capacity
+   * @param position the position in the source
+   * @return the number of bytes read, or -1 if the position is at or after the end of the source
+   * @throws IOException if an I/O error occurs
+   */
+  int read(ByteBuffer dst, long position) throws IOException;
+
+  /**
+   * Returns the local file holding the bytes of the source as-is, or {@code null} if the bytes
+   * are not stored contiguously in a local file.
+   */
+  default Path getLocalFile() {
+    return null;
+  }
+
+  /** Returns the position of the first byte of the source in {@link #getLocalFile()}. */
+  default long getLocalOffset() {
+    return 0;
+  }
+
+  /**
+   * Fills the remaining capacity of a buffer with the bytes at a position of the source.
+   *
+   * @param dst the buffer to fill
+   * @param position the position in the source
+   * @throws EOFException if the end of the source is reached before the buffer is full
+   * @throws IOException if an I/O error occurs
+   */
+  default void readFully(ByteBuffer dst, long position) throws IOException {
+    long pos = position;
+    while (dst.hasRemaining()) {
+      int read = read(dst, pos);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of " + getURI() + " at " + pos);
+      }
+      pos += read;
+    }
+  }
+
+  /**
+   * Opens a sequential stream from the beginning of the source, reading ahead with the buffers of
+   * the shared pool.
+   *
+   * @return a stream that does not close the source
+   */
+  default InputStream openStream() {
+    return new SourceInputStream(this, ReadAheadBufferPool.shared());
+  }
+
+  /**
+   * Opens a read-only channel over the source. Closing the channel does not close the source.
+   *
+   * @return a channel positioned at the beginning of the source
+   */
+  default SeekableByteChannel newChannel() {
+    return new SourceChannel(this);
+  }
+
+  /**
+   * Returns a source reading a local file.
+   *
+   * @param file the file
+   * @return the source, to be closed
+   * @throws IOException if the file cannot be opened
+   */
+  static PixelDataSource ofFile(Path file) throws IOException {
+    return FileRegionSource.open(file, 0, -1, file.toUri().toString());
+  }
+
+  /**
+   * Returns a source reading a region of a local file mapped in memory.
+   *
+   * @param file the file
+   * @param offset the position of the region in the file
+   * @param length the length of the region, or -1 for the end of the file
+   * @return the source, to be closed
+   * @throws IOException if the file cannot be mapped
+   */
+  static PixelDataSource ofMappedRegion(Path file, long offset, long length) throws IOException {
+    return BufferSource.map(file, offset, length);
+  }
+
+  /**
+   * Returns a source reading the remaining bytes of a buffer in memory, heap or direct. The
+   * content of the buffer is shared, not copied, and the position of the buffer is not changed.
+   *
+   * @param buffer the buffer
+   * @param uri the URI identifying the source, may be null
+   * @return the source
+   */
+  static PixelDataSource ofBuffer(ByteBuffer buffer, String uri) {
+    return new BufferSource(buffer.slice(), uri, null, 0);
+  }
+
+  /**
+   * Returns a source reading an entry of a ZIP archive. A stored entry is read in place; a
+   * compressed entry is inflated once in memory.
+   *
+   * @param archive the ZIP file
+   * @param entryName the name of the entry
+   * @return the source, to be closed
+   * @throws IOException if the archive cannot be read or has no such entry
+   */
+  static PixelDataSource ofZipEntry(Path archive, String entryName) throws IOException {
+    return ArchiveEntries.zipEntry(archive, entryName);
+  }
+
+  /**
+   * Returns a source reading an entry of a TAR archive in place.
+   *
+   * @param archive the TAR file
+   * @param entryName the name of the entry
+   * @return the source, to be closed
+   * @throws IOException if the archive cannot be read or has no such entry
+   */
+  static PixelDataSource ofTarEntry(Path archive, String entryName) throws IOException {
+    return ArchiveEntries.tarEntry(archive, entryName);
+  }
+
+  /**
+   * Returns a source reading a resource with HTTP range requests.
+   *
+   * @param client the HTTP client
+   * @param uri the URI of the resource, whose server must support range requests
+   * @return the source
+   */
+  static PixelDataSource ofHttp(HttpClient client, URI uri) {
+    return new HttpRangeSource(client, uri, ReadAheadBufferPool.shared());
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct buffers of the same size, shared by the {@link PixelDataSource} readers to read
+ * ahead without allocating a buffer for each stream or request.
+ *
+ * <p>A buffer is taken with {@link #acquire()} and given back with {@link #release(ByteBuffer)}.
+ * The pool allocates a new buffer when it is empty and keeps at most a given number of released
+ * buffers. Only the buffers lent by the pool are taken back. All the methods are thread-safe.
+ */
+public final class ReadAheadBufferPool {
+
+  /** The size of the buffers of the shared pool. */
+  public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+  private static final ReadAheadBufferPool SHARED =
+      new ReadAheadBufferPool(DEFAULT_BUFFER_SIZE, 16);
+
+  private final int bufferSize;
+  private final int maxPooled;
+  private final ConcurrentLinkedDeque<ByteBuffer> buffers = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger pooled = new AtomicInteger();
+  private final Set<ByteBuffer> lent =
+      Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+  /**
+   * Creates a pool.
+   *
+   * @param bufferSize the capacity of the buffers in bytes
+   * @param maxPooled the maximum number of released buffers kept for reuse
+   */
+  public ReadAheadBufferPool(int bufferSize, int maxPooled) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("bufferSize must be positive");
+    }
+    if (maxPooled < 0) {
+      throw new IllegalArgumentException("maxPooled cannot be negative");
+    }
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+  }
+
+  /** Returns the pool shared by default by all the sources. */
+  public static ReadAheadBufferPool shared() {
+    return SHARED;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /** Returns the number of released buffers ready to be reused. */
+  public int getPooledCount() {
+    return pooled.get();
+  }
+
+  /** Returns the number of buffers acquired and not yet released. */
+  public int getLentCount() {
+    return lent.size();
+  }
+
+  /**
+   * Takes a cleared buffer from the pool, or allocates a new one.
+   *
+   * @return a direct buffer of {@link #getBufferSize()} bytes
+   */
+  public ByteBuffer acquire() {
+    ByteBuffer buffer = buffers.pollFirst();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(bufferSize);
+    } else {
+      pooled.decrementAndGet();
+    }
+    lent.add(buffer);
+    return buffer.clear();
+  }
+
+  /**
+   * Gives a buffer back to the pool. Buffers not lent by this pool, or already released, are
+   * ignored. The buffer must not be used after this call.
+   *
+   * @param buffer the buffer, may be null
+   */
+  public void release(ByteBuffer buffer) {
+    if (buffer == null || !lent.remove(buffer)) {
+      return;
+    }
+    if (pooled.incrementAndGet() > maxPooled) {
+      pooled.decrementAndGet();
+      return;
+    }
+    buffers.offerFirst(buffer.clear());
+  }
+}
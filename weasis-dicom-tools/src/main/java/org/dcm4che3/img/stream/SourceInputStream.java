@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Sequential stream over a {@link PixelDataSource}, filled by positional reads of one pooled
+ * buffer. Skipped bytes are not read, so the pixel data skipped by the DICOM parser is never
+ * fetched.
+ */
+final class SourceInputStream extends InputStream {
+
+  private final PixelDataSource source;
+  private final ReadAheadBufferPool pool;
+  private ByteBuffer buffer;
+  // Position in the source of the byte following the buffered bytes
+  private long position;
+  private boolean eof;
+  private boolean closed;
+
+  SourceInputStream(PixelDataSource source, ReadAheadBufferPool pool) {
+    this.source = source;
+    this.pool = pool;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return fill() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    if (len == 0) {
+      return 0;
+    }
+    ensureOpen();
+    if (!buffer.hasRemaining() && len >= buffer.capacity() && !eof) {
+      // Large read: no need to go through the buffer
+      int read = source.read(ByteBuffer.wrap(b, off, len), position);
+      if (read < 0) {
+        eof = true;
+        return -1;
+      }
+      position += read;
+      return read;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int n = Math.min(len, buffer.remaining());
+    buffer.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0) {
+      return 0;
+    }
+    ensureOpen();
+    int buffered = (int) Math.min(n, buffer.remaining());
+    buffer.position(buffer.position() + buffered);
+    long rest = n - buffered;
+    if (rest > 0) {
+      long skipped = Math.min(rest, Math.max(0, source.size() - position));
+      position += skipped;
+      return buffered + skipped;
+    }
+    return buffered;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return buffer == null ? 0 : buffer.remaining();
+  }
+
+  @Override
+  public void close() {
+    if (buffer != null) {
+      pool.release(buffer);
+      buffer = null;
+    }
+    closed = true;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (buffer == null) {
+      buffer = pool.acquire().limit(0);
+    }
+  }
+
+  private boolean fill() throws IOException {
+    ensureOpen();
+    while (!buffer.hasRemaining()) {
+      if (eof) {
+        return false;
+      }
+      buffer.clear();
+      int read = source.read(buffer, position);
+      buffer.flip();
+      if (read < 0) {
+        eof = true;
+      } else {
+        position += read;
+      }
+    }
+    return true;
+  }
+}
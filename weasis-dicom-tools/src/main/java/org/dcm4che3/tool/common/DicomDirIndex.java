@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.common;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.media.DicomDirReader;
+import org.dcm4che3.media.RecordType;
+import org.dcm4che3.tool.common.DicomIndexer.InstanceRecord;
+import org.dcm4che3.tool.common.DicomIndexer.PatientRecord;
+import org.dcm4che3.tool.common.DicomIndexer.SeriesRecord;
+import org.dcm4che3.tool.common.DicomIndexer.StudyRecord;
+import org.weasis.core.util.StringUtil;
+
+/**
+ * The content of a file-set, read from the directory records of its DICOMDIR alone.
+ *
+ * <p>Only the DICOMDIR is read: opening a media with thousands of images costs the read of one
+ * file. The instances are given as the records of {@link DicomIndexer}, so they can be added to the
+ * manifest model with {@link InstanceRecord#addTo} like the files of an indexed tree. The records
+ * not in use and the instance records that do not reference a file are ignored.
+ *
+ * @param filesetInfo the identification of the file-set
+ * @param instances the records of the referenced files, in the order of the directory
+ */
+public record DicomDirIndex(FilesetInfo filesetInfo, List<InstanceRecord> instances) {
+
+  public DicomDirIndex {
+    Objects.requireNonNull(filesetInfo, "filesetInfo cannot be null");
+    instances = List.copyOf(instances);
+  }
+
+  /**
+   * Reads a DICOMDIR.
+   *
+   * @param dicomdir the DICOMDIR file, at the root of the file-set
+   * @return the content of the file-set
+   * @throws IOException if the DICOMDIR cannot be read
+   */
+  public static DicomDirIndex read(Path dicomdir) throws IOException {
+    Objects.requireNonNull(dicomdir, "dicomdir cannot be null");
+    Path directory = dicomdir.toAbsolutePath().normalize().getParent();
+    try (var reader = new DicomDirReader(dicomdir.toFile())) {
+      List<InstanceRecord> instances = new ArrayList<>();
+      for (Attributes patientRec = reader.readFirstRootDirectoryRecord();
+          patientRec != null;
+          patientRec = reader.readNextDirectoryRecord(patientRec)) {
+        if (isInUse(patientRec, RecordType.PATIENT)) {
+          readStudies(reader, patientRec, toPatient(patientRec), directory, instances);
+        }
+      }
+      return new DicomDirIndex(toFilesetInfo(reader, directory), instances);
+    }
+  }
+
+  private static void readStudies(
+      DicomDirReader reader,
+      Attributes patientRec,
+      PatientRecord patient,
+      Path directory,
+      List<InstanceRecord> instances)
+      throws IOException {
+    for (Attributes studyRec = reader.readLowerDirectoryRecord(patientRec);
+        studyRec != null;
+        studyRec = reader.readNextDirectoryRecord(studyRec)) {
+      String studyUID = studyRec.getString(Tag.StudyInstanceUID);
+      if (!isInUse(studyRec, RecordType.STUDY) || !StringUtil.hasText(studyUID)) {
+        continue;
+      }
+      var study =
+          new StudyRecord(
+              studyUID,
+              studyRec.getString(Tag.StudyID),
+              studyRec.getString(Tag.StudyDate),
+              studyRec.getString(Tag.StudyTime),
+              studyRec.getString(Tag.StudyDescription),
+              studyRec.getString(Tag.AccessionNumber),
+              studyRec.getString(Tag.ReferringPhysicianName),
+              patient);
+      readSeries(reader, studyRec, study, directory, instances);
+    }
+  }
+
+  private static void readSeries(
+      DicomDirReader reader,
+      Attributes studyRec,
+      StudyRecord study,
+      Path directory,
+      List<InstanceRecord> instances)
+      throws IOException {
+    for (Attributes seriesRec = reader.readLowerDirectoryRecord(studyRec);
+        seriesRec != null;
+        seriesRec = reader.readNextDirectoryRecord(seriesRec)) {
+      String seriesUID = seriesRec.getString(Tag.SeriesInstanceUID);
+      if (!isInUse(seriesRec, RecordType.SERIES) || !StringUtil.hasText(seriesUID)) {
+        continue;
+      }
+      var series =
+          new SeriesRecord(
+              seriesUID,
+              seriesRec.getString(Tag.Modality),
+              seriesRec.getString(Tag.SeriesNumber),
+              seriesRec.getString(Tag.SeriesDescription),
+              study);
+      for (Attributes rec = reader.readLowerDirectoryRecord(seriesRec);
+          rec != null;
+          rec = reader.readNextDirectoryRecord(rec)) {
+        InstanceRecord instance = toInstance(rec, series, directory);
+        if (instance != null) {
+          instances.add(instance);
+        }
+      }
+    }
+  }
+
+  private static PatientRecord toPatient(Attributes rec) {
+    return new PatientRecord(
+        rec.getString(Tag.PatientID),
+        rec.getString(Tag.IssuerOfPatientID),
+        rec.getString(Tag.PatientName),
+        rec.getString(Tag.PatientBirthDate),
+        rec.getString(Tag.PatientBirthTime),
+        rec.getString(Tag.PatientSex));
+  }
+
+  private static InstanceRecord toInstance(Attributes rec, SeriesRecord series, Path directory) {
+    String iuid = rec.getString(Tag.ReferencedSOPInstanceUIDInFile);
+    String[] fileIDs = rec.getStrings(Tag.ReferencedFileID);
+    if (!isInUse(rec, null) || !StringUtil.hasText(iuid) || fileIDs == null) {
+      return null;
+    }
+    int instanceNumber = rec.getInt(Tag.InstanceNumber, Integer.MIN_VALUE);
+    return new InstanceRecord(
+        toPath(directory, fileIDs),
+        iuid,
+        rec.getString(Tag.ReferencedSOPClassUIDInFile),
+        rec.getString(Tag.ReferencedTransferSyntaxUIDInFile),
+        instanceNumber == Integer.MIN_VALUE ? null : instanceNumber,
+        series);
+  }
+
+  private static FilesetInfo toFilesetInfo(DicomDirReader reader, Path directory) {
+    Attributes fsInfo = reader.getFileSetInformation();
+    String[] descriptor = fsInfo.getStrings(Tag.FileSetDescriptorFileID);
+    return new FilesetInfo(
+        reader.getFileSetUID(),
+        reader.getFileSetID(),
+        descriptor == null ? null : toPath(directory, descriptor),
+        fsInfo.getString(Tag.SpecificCharacterSetOfFileSetDescriptorFile));
+  }
+
+  private static Path toPath(Path directory, String[] fileIDs) {
+    Path path = directory;
+    for (String id : fileIDs) {
+      path = path.resolve(id);
+    }
+    return path;
+  }
+
+  // A record is in use unless its Record In-use Flag is 0
+  private static boolean isInUse(Attributes rec, RecordType type) {
+    return rec.getInt(Tag.RecordInUseFlag, 0xFFFF) != 0
+        && (type == null || type.name().equals(rec.getString(Tag.DirectoryRecordType)));
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.media.DicomDirWriter;
+import org.dcm4che3.media.RecordFactory;
+import org.dcm4che3.media.RecordType;
+import org.dcm4che3.util.UIDUtils;
+import org.weasis.core.util.StringUtil;
+
+/**
+ * Writes the DICOMDIR of a file-set while its files are written, one record per file, so that
+ * exporting to a media does not need to read the files again.
+ *
+ * <p>The patient, study and series records are created with the first instance referencing them and
+ * are found again in memory: the records already written are never read back, except for the
+ * existing records of a DICOMDIR opened to be completed. Each record is appended to the DICOMDIR
+ * when it is added; the offsets of the directory are updated by {@link #commit()} and {@link
+ * #close()}. The path of a file relative to the DICOMDIR must be a valid File ID of a media: at
+ * most 8 components of 1 to 8 characters A-Z, 0-9 or _, without extension. All the methods are
+ * thread-safe, so the recorder can be shared by the associations of a {@link
+ * org.dcm4che3.tool.storescp.StoreSCP}. The files written by the {@link
+ * org.dcm4che3.img.Transcoder} are recorded by giving {@code recorder::add} as handler.
+ */
+public final class DicomDirRecorder implements Closeable {
+
+  private static final Pattern FILE_ID_COMPONENT = Pattern.compile("[A-Z0-9_]{1,8}");
+  private static final int MAX_FILE_ID_COMPONENTS = 8;
+
+  private final Path directory;
+  private final DicomDirWriter writer;
+  private final boolean created;
+  private final RecordFactory recordFactory = new RecordFactory();
+  private final Map<String, Attributes> patients = new HashMap<>();
+  private final Map<String, Attributes> studies = new HashMap<>();
+  private final Map<String, Attributes> series = new HashMap<>();
+  private final Set<String> createdSeries = new HashSet<>();
+  private final Set<String> instances = new HashSet<>();
+
+  private DicomDirRecorder(Path dicomdir, DicomDirWriter writer, boolean created) {
+    this.directory = dicomdir.toAbsolutePath().normalize().getParent();
+    this.writer = writer;
+    this.created = created;
+  }
+
+  /**
+   * Opens a DICOMDIR to add records, creating it if it does not exist.
+   *
+   * @param dicomdir the DICOMDIR file, at the root of the file-set
+   * @param filesetInfo the identification of the file-set when the DICOMDIR is created, may be
+   *     null to generate a File-set UID
+   * @return the recorder, to be closed when all the files have been added
+   * @throws IOException if the DICOMDIR cannot be created or opened
+   */
+  public static DicomDirRecorder open(Path dicomdir, FilesetInfo filesetInfo) throws IOException {
+    Objects.requireNonNull(dicomdir, "dicomdir cannot be null");
+    boolean create = !Files.exists(dicomdir);
+    if (create) {
+      FilesetInfo info = filesetInfo == null ? new FilesetInfo(null, null) : filesetInfo;
+      String uid = info.getFilesetUID();
+      DicomDirWriter.createEmptyDirectory(
+          dicomdir.toFile(),
+          StringUtil.hasText(uid) ? uid : UIDUtils.createUID(),
+          info.getFilesetID(),
+          info.getDescriptorFile().map(Path::toFile).orElse(null),
+          info.getDescriptorFileCharset().orElse(null));
+    }
+    return new DicomDirRecorder(dicomdir, DicomDirWriter.open(dicomdir.toFile()), create);
+  }
+
+  /**
+   * Adds the records of a file of the file-set.
+   *
+   * @param file the file, in the directory of the DICOMDIR or in one of its subdirectories, whose
+   *     path relative to this directory is a valid File ID
+   * @param fmi the File Meta Information of the file
+   * @param dataset the dataset of the file, at least up to the Instance Number
+   * @return true if the record of the instance has been added, false if the instance was already
+   *     referenced or has no SOP, series or study UID
+   * @throws IOException if the records cannot be written
+   * @throws IllegalArgumentException if the file is not in the file-set or its relative path is
+   *     not a valid File ID, see {@link #isValidFileIDComponent(String)}
+   */
+  public synchronized boolean add(Path file, Attributes fmi, Attributes dataset)
+      throws IOException {
+    Objects.requireNonNull(file, "file cannot be null");
+    Objects.requireNonNull(fmi, "fmi cannot be null");
+    Objects.requireNonNull(dataset, "dataset cannot be null");
+    String[] fileIDs = toFileIDs(file);
+    String iuid = fmi.getString(Tag.MediaStorageSOPInstanceUID);
+    String studyUID = dataset.getString(Tag.StudyInstanceUID);
+    String seriesUID = dataset.getString(Tag.SeriesInstanceUID);
+    if (!StringUtil.hasText(iuid)
+        || !StringUtil.hasText(studyUID)
+        || !StringUtil.hasText(seriesUID)
+        || !instances.add(iuid)) {
+      return false;
+    }
+
+    Attributes ds = dataset;
+    String patientID = ds.getString(Tag.PatientID);
+    if (!StringUtil.hasText(patientID)) {
+      // The patient record requires a Patient ID
+      ds = new Attributes(dataset);
+      patientID = studyUID;
+      ds.setString(Tag.PatientID, VR.LO, patientID);
+    }
+
+    Attributes patientRec = patients.get(patientID);
+    if (patientRec == null) {
+      patientRec = created ? null : writer.findPatientRecord(patientID);
+      if (patientRec == null) {
+        patientRec = recordFactory.createRecord(RecordType.PATIENT, null, ds, null, null);
+        writer.addRootDirectoryRecord(patientRec);
+      }
+      patients.put(patientID, patientRec);
+    }
+
+    Attributes studyRec = studies.get(studyUID);
+    if (studyRec == null) {
+      studyRec = created ? null : writer.findStudyRecord(patientRec, studyUID);
+      if (studyRec == null) {
+        studyRec = recordFactory.createRecord(RecordType.STUDY, null, ds, null, null);
+        writer.addLowerDirectoryRecord(patientRec, studyRec);
+      }
+      studies.put(studyUID, studyRec);
+    }
+
+    Attributes seriesRec = series.get(seriesUID);
+    if (seriesRec == null) {
+      seriesRec = created ? null : writer.findSeriesRecord(studyRec, seriesUID);
+      if (seriesRec == null) {
+        seriesRec = recordFactory.createRecord(RecordType.SERIES, null, ds, null, null);
+        writer.addLowerDirectoryRecord(studyRec, seriesRec);
+        createdSeries.add(seriesUID);
+      }
+      series.put(seriesUID, seriesRec);
+    }
+
+    if (!createdSeries.contains(seriesUID)
+        && writer.findLowerInstanceRecord(seriesRec, false, iuid) != null) {
+      return false;
+    }
+    writer.addLowerDirectoryRecord(seriesRec, recordFactory.createRecord(ds, fmi, fileIDs));
+    return true;
+  }
+
+  /** Returns the directory of the DICOMDIR, the root of the file-set, absolute and normalized. */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Updates the offsets of the directory, making the records added so far readable.
+   *
+   * @throws IOException if the DICOMDIR cannot be written
+   */
+  public synchronized void commit() throws IOException {
+    writer.commit();
+  }
+
+  /** Commits the records and closes the DICOMDIR. */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      writer.commit();
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Returns whether a name can be a component of a File ID: 1 to 8 characters among the uppercase
+   * letters, the digits and the underscore.
+   *
+   * @param name the name of a file or of a directory
+   * @return true if the name is a valid File ID component
+   */
+  public static boolean isValidFileIDComponent(String name) {
+    return name != null && FILE_ID_COMPONENT.matcher(name).matches();
+  }
+
+  // The File ID is the path of the file relative to the directory of the DICOMDIR
+  private String[] toFileIDs(Path file) {
+    Path relative = directory.relativize(file.toAbsolutePath().normalize());
+    if (relative.getNameCount() == 0 || relative.startsWith("..")) {
+      throw new IllegalArgumentException(file + " is not in the file-set of " + directory);
+    }
+    if (relative.getNameCount() > MAX_FILE_ID_COMPONENTS) {
+      throw new IllegalArgumentException(
+          relative + " has more than " + MAX_FILE_ID_COMPONENTS + " File ID components");
+    }
+    String[] fileIDs = new String[relative.getNameCount()];
+    for (int i = 0; i < fileIDs.length; i++) {
+      fileIDs[i] = relative.getName(i).toString();
+      if (!isValidFileIDComponent(fileIDs[i])) {
+        throw new IllegalArgumentException(
+            relative + " is not a valid File ID: each component must have 1 to 8 characters A-Z,"
+                + " 0-9 or _");
+      }
+    }
+    return fileIDs;
+  }
+}
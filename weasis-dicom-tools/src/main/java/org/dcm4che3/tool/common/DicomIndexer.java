@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.common;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.img.BulkDataPolicy;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.util.StringUtil;
+import org.weasis.dicom.mf.AbstractQueryResult;
+import org.weasis.dicom.mf.QueryResultBuilder;
+import org.weasis.dicom.mf.SopInstance;
+
+/**
+ * Indexes the DICOM files of directory trees from the beginning of their header only.
+ *
+ * <p>Each file is parsed up to a stop tag, by default just past the Instance Number, the last
+ * attribute needed by the records: the rest of the dataset and the pixel data are never read. The
+ * binary and private elements met before the stop tag are skipped without being read. The trees
+ * are walked by a work-stealing pool, each directory and each file being a task, so that indexing
+ * a large export is bound by the storage rather than by the parsing. The symbolic links are
+ * followed, but a directory reached by several paths is indexed once, which also ends the links
+ * looping back to a parent directory.
+ *
+ * <p>Each indexed file gives an {@link InstanceRecord} referencing its series, study and patient
+ * records. The parent records are shared by all the instances of an indexing run, the first file
+ * read giving their attributes. The records can be added to the manifest model with {@link
+ * InstanceRecord#addTo(AbstractQueryResult)}. A {@code DicomIndexer} is immutable and can be
+ * shared.
+ */
+public final class DicomIndexer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DicomIndexer.class);
+
+  /** The stop tag by default, just past the attributes of the records. */
+  public static final int DEFAULT_STOP_TAG = Tag.InstanceNumber + 1;
+
+  private static final BulkDataPolicy SKIPPED_ELEMENTS = BulkDataPolicy.forIndexing();
+
+  /**
+   * The patient of indexed instances.
+   *
+   * @param patientID the Patient ID, may be null
+   * @param issuerOfPatientID the Issuer of Patient ID, may be null
+   * @param patientName the Patient's Name
+   * @param patientBirthDate the Patient's Birth Date
+   * @param patientBirthTime the Patient's Birth Time
+   * @param patientSex the Patient's Sex
+   */
+  public record PatientRecord(
+      String patientID,
+      String issuerOfPatientID,
+      String patientName,
+      String patientBirthDate,
+      String patientBirthTime,
+      String patientSex) {}
+
+  /**
+   * The study of indexed instances.
+   *
+   * @param studyInstanceUID the Study Instance UID
+   * @param studyID the Study ID
+   * @param studyDate the Study Date
+   * @param studyTime the Study Time
+   * @param studyDescription the Study Description
+   * @param accessionNumber the Accession Number
+   * @param referringPhysicianName the Referring Physician's Name
+   * @param patient the patient of the study
+   */
+  public record StudyRecord(
+      String studyInstanceUID,
+      String studyID,
+      String studyDate,
+      String studyTime,
+      String studyDescription,
+      String accessionNumber,
+      String referringPhysicianName,
+      PatientRecord patient) {
+
+    public StudyRecord {
+      Objects.requireNonNull(studyInstanceUID, "studyInstanceUID cannot be null");
+      Objects.requireNonNull(patient, "patient cannot be null");
+    }
+  }
+
+  /**
+   * The series of indexed instances.
+   *
+   * @param seriesInstanceUID the Series Instance UID
+   * @param modality the Modality
+   * @param seriesNumber the Series Number
+   * @param seriesDescription the Series Description
+   * @param study the study of the series
+   */
+  public record SeriesRecord(
+      String seriesInstanceUID,
+      String modality,
+      String seriesNumber,
+      String seriesDescription,
+      StudyRecord study) {
+
+    public SeriesRecord {
+      Objects.requireNonNull(seriesInstanceUID, "seriesInstanceUID cannot be null");
+      Objects.requireNonNull(study, "study cannot be null");
+    }
+  }
+
+  /**
+   * An indexed file.
+   *
+   * @param path the file
+   * @param sopInstanceUID the SOP Instance UID
+   * @param sopClassUID the SOP Class UID
+   * @param transferSyntaxUID the Transfer Syntax UID of the file
+   * @param instanceNumber the Instance Number, may be null
+   * @param series the series of the instance
+   */
+  public record InstanceRecord(
+      Path path,
+      String sopInstanceUID,
+      String sopClassUID,
+      String transferSyntaxUID,
+      Integer instanceNumber,
+      SeriesRecord series) {
+
+    public InstanceRecord {
+      Objects.requireNonNull(path, "path cannot be null");
+      Objects.requireNonNull(sopInstanceUID, "sopInstanceUID cannot be null");
+      Objects.requireNonNull(series, "series cannot be null");
+    }
+
+    /**
+     * Adds the instance to the manifest model with its patient, study and series, completing the
+     * nodes already in the model. The file is referenced as the direct download file of the SOP
+     * instance.
+     *
+     * @param result the query result
+     * @return the SOP instance, or null if the patient has no Patient ID
+     */
+    public SopInstance addTo(AbstractQueryResult result) {
+      SopInstance sop = QueryResultBuilder.addInstance(result, toAttributes());
+      if (sop == null) {
+        LOGGER.warn("Cannot add {} to the manifest: no Patient ID", path);
+        return null;
+      }
+      sop.setTransferSyntaxUID(transferSyntaxUID);
+      sop.setDirectDownloadFile(path.toString());
+      return sop;
+    }
+
+    /** Returns the attributes of the instance and of its series, study and patient. */
+    public Attributes toAttributes() {
+      StudyRecord study = series.study();
+      PatientRecord patient = study.patient();
+      var attrs = new Attributes(20);
+      attrs.setString(Tag.PatientName, VR.PN, patient.patientName());
+      attrs.setString(Tag.PatientID, VR.LO, patient.patientID());
+      attrs.setString(Tag.IssuerOfPatientID, VR.LO, patient.issuerOfPatientID());
+      attrs.setString(Tag.PatientBirthDate, VR.DA, patient.patientBirthDate());
+      attrs.setString(Tag.PatientBirthTime, VR.TM, patient.patientBirthTime());
+      attrs.setString(Tag.PatientSex, VR.CS, patient.patientSex());
+      attrs.setString(Tag.StudyInstanceUID, VR.UI, study.studyInstanceUID());
+      attrs.setString(Tag.StudyID, VR.SH, study.studyID());
+      attrs.setString(Tag.StudyDate, VR.DA, study.studyDate());
+      attrs.setString(Tag.StudyTime, VR.TM, study.studyTime());
+      attrs.setString(Tag.StudyDescription, VR.LO, study.studyDescription());
+      attrs.setString(Tag.AccessionNumber, VR.SH, study.accessionNumber());
+      attrs.setString(Tag.ReferringPhysicianName, VR.PN, study.referringPhysicianName());
+      attrs.setString(Tag.SeriesInstanceUID, VR.UI, series.seriesInstanceUID());
+      attrs.setString(Tag.Modality, VR.CS, series.modality());
+      attrs.setString(Tag.SeriesNumber, VR.IS, series.seriesNumber());
+      attrs.setString(Tag.SeriesDescription, VR.LO, series.seriesDescription());
+      attrs.setString(Tag.SOPClassUID, VR.UI, sopClassUID);
+      attrs.setString(Tag.SOPInstanceUID, VR.UI, sopInstanceUID);
+      if (instanceNumber != null) {
+        attrs.setInt(Tag.InstanceNumber, VR.IS, instanceNumber);
+      }
+      return attrs;
+    }
+  }
+
+  private final int stopTag;
+  private final int parallelism;
+
+  private DicomIndexer(Builder builder) {
+    this.stopTag = builder.stopTag;
+    this.parallelism = builder.parallelism;
+  }
+
+  /** Creates a builder initialized with the default values. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getStopTag() {
+    return stopTag;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Indexes files and directory trees.
+   *
+   * @param paths the files or directories to index
+   * @return the records of the DICOM files, in no particular order
+   */
+  public List<InstanceRecord> index(Collection<Path> paths) {
+    var records = new ConcurrentLinkedQueue<InstanceRecord>();
+    index(paths, records::add);
+    return new ArrayList<>(records);
+  }
+
+  /**
+   * Indexes files and directory trees, giving the records as soon as the files are read. The files
+   * that are not readable DICOM files or have no SOP, series or study UID are ignored.
+   *
+   * @param paths the files or directories to index
+   * @param consumer receives the record of each DICOM file, called concurrently by the threads of
+   *     the pool
+   */
+  public void index(Collection<Path> paths, Consumer<InstanceRecord> consumer) {
+    Objects.requireNonNull(paths, "paths cannot be null");
+    Objects.requireNonNull(consumer, "consumer cannot be null");
+    var run = new IndexRun(consumer);
+    var pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new IndexTask(run, List.copyOf(paths)));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Reads the header of a file.
+   *
+   * @param file the file
+   * @return the record of the file, or null if it has no SOP, series or study UID
+   * @throws IOException if the file is not a readable DICOM file
+   */
+  public InstanceRecord read(Path file) throws IOException {
+    return read(file, new IndexRun(r -> {}));
+  }
+
+  private InstanceRecord read(Path file, IndexRun run) throws IOException {
+    Attributes fmi;
+    Attributes ds;
+    String tsuid;
+    try (var in = new DicomInputStream(Files.newInputStream(file))) {
+      in.setIncludeBulkData(IncludeBulkData.NO);
+      in.setBulkDataDescriptor(SKIPPED_ELEMENTS);
+      fmi = in.readFileMetaInformation();
+      ds = in.readDataset(stopTag);
+      tsuid = in.getTransferSyntax();
+    }
+
+    String iuid = ds.getString(Tag.SOPInstanceUID);
+    String seriesUID = ds.getString(Tag.SeriesInstanceUID);
+    String studyUID = ds.getString(Tag.StudyInstanceUID);
+    if (!StringUtil.hasText(iuid)
+        || !StringUtil.hasText(seriesUID)
+        || !StringUtil.hasText(studyUID)) {
+      return null;
+    }
+    String cuid = ds.getString(Tag.SOPClassUID);
+    if (cuid == null && fmi != null) {
+      cuid = fmi.getString(Tag.MediaStorageSOPClassUID);
+    }
+    int instanceNumber = ds.getInt(Tag.InstanceNumber, Integer.MIN_VALUE);
+    return new InstanceRecord(
+        file,
+        iuid,
+        cuid,
+        tsuid,
+        instanceNumber == Integer.MIN_VALUE ? null : instanceNumber,
+        run.series(seriesUID, studyUID, ds));
+  }
+
+  // The parent records shared by the instances of an indexing run
+  private static final class IndexRun {
+    private final Consumer<InstanceRecord> consumer;
+    private final ConcurrentHashMap<String, PatientRecord> patients = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StudyRecord> studies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SeriesRecord> series = new ConcurrentHashMap<>();
+    // The file keys, or the real paths, of the directories already walked
+    private final Set<Object> directories = ConcurrentHashMap.newKeySet();
+
+    IndexRun(Consumer<InstanceRecord> consumer) {
+      this.consumer = consumer;
+    }
+
+    boolean enterDirectory(Path directory) throws IOException {
+      Object key = Files.readAttributes(directory, BasicFileAttributes.class).fileKey();
+      return directories.add(key == null ? directory.toRealPath() : key);
+    }
+
+    SeriesRecord series(String seriesUID, String studyUID, Attributes ds) {
+      SeriesRecord record = series.get(seriesUID);
+      if (record == null) {
+        record =
+            series.computeIfAbsent(
+                seriesUID,
+                uid ->
+                    new SeriesRecord(
+                        uid,
+                        ds.getString(Tag.Modality),
+                        ds.getString(Tag.SeriesNumber),
+                        ds.getString(Tag.SeriesDescription),
+                        study(studyUID, ds)));
+      }
+      return record;
+    }
+
+    private StudyRecord study(String studyUID, Attributes ds) {
+      return studies.computeIfAbsent(
+          studyUID,
+          uid ->
+              new StudyRecord(
+                  uid,
+                  ds.getString(Tag.StudyID),
+                  ds.getString(Tag.StudyDate),
+                  ds.getString(Tag.StudyTime),
+                  ds.getString(Tag.StudyDescription),
+                  ds.getString(Tag.AccessionNumber),
+                  ds.getString(Tag.ReferringPhysicianName),
+                  patient(ds)));
+    }
+
+    private PatientRecord patient(Attributes ds) {
+      String patientID = ds.getString(Tag.PatientID);
+      String issuer = ds.getString(Tag.IssuerOfPatientID);
+      String key = (patientID == null ? "" : patientID) + '\\' + (issuer == null ? "" : issuer);
+      return patients.computeIfAbsent(
+          key,
+          k ->
+              new PatientRecord(
+                  patientID,
+                  issuer,
+                  ds.getString(Tag.PatientName),
+                  ds.getString(Tag.PatientBirthDate),
+                  ds.getString(Tag.PatientBirthTime),
+                  ds.getString(Tag.PatientSex)));
+    }
+  }
+
+  // A task indexing files or the entries of a directory, forking a task per entry
+  private final class IndexTask extends RecursiveAction {
+    private final IndexRun run;
+    private final List<Path> paths;
+
+    IndexTask(IndexRun run, List<Path> paths) {
+      this.run = run;
+      this.paths = paths;
+    }
+
+    @Override
+    protected void compute() {
+      if (paths.size() == 1) {
+        indexPath(paths.get(0));
+      } else {
+        List<IndexTask> tasks = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+          tasks.add(new IndexTask(run, List.of(path)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+      }
+    }
+
+    private void indexPath(Path path) {
+      if (Files.isDirectory(path)) {
+        List<Path> entries = new ArrayList<>();
+        try {
+          if (!run.enterDirectory(path)) {
+            LOGGER.debug("Ignore {}: directory already indexed", path);
+            return;
+          }
+          try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            stream.forEach(entries::add);
+          }
+        } catch (IOException e) {
+          LOGGER.error("Failed to list directory {}", path, e);
+        }
+        if (!entries.isEmpty()) {
+          new IndexTask(run, entries).compute();
+        }
+      } else if (Files.isRegularFile(path)) {
+        InstanceRecord record;
+        try {
+          record = read(path, run);
+        } catch (IOException | RuntimeException e) {
+          LOGGER.debug("Ignore {}: not a readable DICOM file", path, e);
+          return;
+        }
+        if (record == null) {
+          LOGGER.debug("Ignore {}: missing SOP, series or study UID", path);
+        } else {
+          run.consumer.accept(record);
+        }
+      }
+    }
+  }
+
+  /** Builder for DicomIndexer. */
+  public static final class Builder {
+    private int stopTag = DEFAULT_STOP_TAG;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private Builder() {}
+
+    /**
+     * Sets the tag where the parsing of a header stops, this element and the next ones at the top
+     * level of the dataset being not read.
+     *
+     * @param stopTag the stop tag, e.g. {@link Tag#PixelData} to read the whole header
+     */
+    public Builder stopTag(int stopTag) {
+      this.stopTag = stopTag;
+      return this;
+    }
+
+    /**
+     * Sets the number of threads reading the files. On network storage, more threads than
+     * processors can keep more reads in flight.
+     *
+     * @param parallelism the number of threads, at least 1
+     */
+    public Builder parallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException("parallelism must be at least 1");
+      }
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    public DicomIndexer build() {
+      return new DicomIndexer(this);
+    }
+  }
+}
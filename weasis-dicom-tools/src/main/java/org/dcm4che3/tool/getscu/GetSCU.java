@@ -9,11 +9,14 @@
  */
 package org.dcm4che3.tool.getscu;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.security.GeneralSecurityException;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.dcm4che3.data.Attributes;
@@ -21,7 +24,10 @@ import org.dcm4che3.data.ElementDictionary;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.UID;
 import org.dcm4che3.data.VR;
+import org.dcm4che3.img.stream.BytesWithImageDescriptor;
+import org.dcm4che3.img.stream.ImageAdapter;
 import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
 import org.dcm4che3.io.DicomOutputStream;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Association;
@@ -49,7 +55,8 @@ import org.weasis.dicom.util.ServiceUtil;
  * A Service Class User (SCU) implementation for DICOM C-GET operations.
  *
  * <p>Supports retrieval of DICOM objects using Query/Retrieve service classes. Retrieved objects
- * are stored to a local directory with progress tracking and cancellation support.
+ * are stored to a local directory with progress tracking and cancellation support, or given in
+ * memory to an {@link InstanceHandler} (see {@link #setInstanceHandler(InstanceHandler)}).
  *
  * @author Gunter Zeilinger <gunterze@gmail.com>
  * @author Nicolas Roduit
@@ -81,6 +88,47 @@ public class GetSCU implements AutoCloseable {
     }
   }
 
+  /** Default size above which native pixel data received in memory is written to a file. */
+  public static final long DEFAULT_SPILL_THRESHOLD = 64L * 1024 * 1024;
+
+  /**
+   * A DICOM instance received in memory. The pixel data larger than the spill threshold is kept in
+   * temporary files, referenced as bulk data by the dataset: closing the instance deletes them.
+   *
+   * @param fmi the File Meta Information built from the C-STORE request
+   * @param dataset the dataset
+   * @param image the access to the frames, or null if the instance has no pixel data
+   * @param spillFiles the temporary files holding the pixel data, empty if it is in memory
+   */
+  public record ReceivedInstance(
+      Attributes fmi, Attributes dataset, BytesWithImageDescriptor image, List<Path> spillFiles)
+      implements AutoCloseable {
+
+    public ReceivedInstance {
+      spillFiles = List.copyOf(spillFiles);
+    }
+
+    @Override
+    public void close() {
+      for (Path file : spillFiles) {
+        FileUtil.delete(file);
+      }
+    }
+  }
+
+  /** Receives the instances retrieved in memory. */
+  @FunctionalInterface
+  public interface InstanceHandler {
+    /**
+     * Handles an instance while the retrieve continues. The handler owns the instance and must
+     * close it when its pixel data is no longer needed, possibly later and from another thread.
+     *
+     * @param instance the received instance
+     * @throws IOException if the instance cannot be handled. The C-STORE sub-operation fails.
+     */
+    void handle(ReceivedInstance instance) throws IOException;
+  }
+
   private static final int[] DEF_IN_FILTER = {
     Tag.SOPInstanceUID, Tag.StudyInstanceUID, Tag.SeriesInstanceUID
   };
@@ -101,6 +149,9 @@ public class GetSCU implements AutoCloseable {
   private final DicomState state;
   private DimseRSPHandler rspHandler;
   private long totalSize = 0;
+  private InstanceHandler instanceHandler;
+  private long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+  private Path spillDirectory;
 
   private final BasicCStoreSCP storageSCP =
       new BasicCStoreSCP("*") {
@@ -113,6 +164,10 @@ public class GetSCU implements AutoCloseable {
             PDVInputStream data,
             Attributes rsp)
             throws IOException {
+          if (instanceHandler != null) {
+            receive(as, pc, rq, data);
+            return;
+          }
           if (storageDir == null) {
             return;
           }
@@ -183,6 +238,81 @@ public class GetSCU implements AutoCloseable {
     return keys;
   }
 
+  private void receive(Association as, PresentationContext pc, Attributes rq, PDVInputStream data)
+      throws IOException {
+    var iuid = rq.getString(Tag.AffectedSOPInstanceUID);
+    var cuid = rq.getString(Tag.AffectedSOPClassUID);
+    var tsuid = pc.getTransferSyntax();
+    try {
+      var fmi = as.createFileMetaInformation(iuid, cuid, tsuid);
+      var dis = new DicomInputStream(data, tsuid);
+      var instance = readInstance(fmi, dis, spillDirectory, spillThreshold);
+      totalSize += dis.getPosition();
+      try {
+        instanceHandler.handle(instance);
+      } catch (Exception e) {
+        instance.close();
+        throw e;
+      }
+
+      var progress = state.getProgress();
+      if (progress != null) {
+        // No file: clears the file of the previous instance
+        progress.setProcessedFile(null);
+      }
+    } catch (Exception e) {
+      throw new DicomServiceException(Status.ProcessingFailure, e);
+    }
+    updateProgress(null);
+  }
+
+  /**
+   * Reads a DICOM instance in memory. Native pixel data larger than the spill threshold is copied
+   * to a temporary file and referenced as bulk data. Encapsulated pixel data, whose length is not
+   * known in advance, is kept in memory.
+   *
+   * @param fmi the File Meta Information of the instance
+   * @param data the dataset encoded with the transfer syntax of the File Meta Information
+   * @param spillDirectory the directory of the temporary files, null for the default one
+   * @param spillThreshold the size in bytes above which the pixel data is written to a file
+   * @return the instance
+   * @throws IOException if the dataset cannot be read
+   */
+  public static ReceivedInstance readInstance(
+      Attributes fmi, InputStream data, Path spillDirectory, long spillThreshold)
+      throws IOException {
+    var dis = new DicomInputStream(data, fmi.getString(Tag.TransferSyntaxUID));
+    return readInstance(fmi, dis, spillDirectory, spillThreshold);
+  }
+
+  private static ReceivedInstance readInstance(
+      Attributes fmi, DicomInputStream dis, Path spillDirectory, long spillThreshold)
+      throws IOException {
+    var tsuid = fmi.getString(Tag.TransferSyntaxUID);
+    try {
+      dis.setIncludeBulkData(IncludeBulkData.URI);
+      dis.setBulkDataDescriptor(
+          (itemPointer, privateCreator, tag, vr, length) ->
+              tag == Tag.PixelData && itemPointer.isEmpty() && length > spillThreshold);
+      if (spillDirectory != null) {
+        Files.createDirectories(spillDirectory);
+        dis.setBulkDataDirectory(spillDirectory.toFile());
+      }
+      dis.setConcatenateBulkDataFiles(true);
+      var dataset = dis.readDataset();
+      var image = ImageAdapter.bytesWithImageDescriptor(dataset, tsuid);
+      return new ReceivedInstance(fmi, dataset, image, spillFiles(dis));
+    } catch (IOException | RuntimeException e) {
+      spillFiles(dis).forEach(FileUtil::delete);
+      throw e;
+    }
+  }
+
+  private static List<Path> spillFiles(DicomInputStream dis) {
+    List<File> files = dis.getBulkDataFiles();
+    return files == null ? List.of() : files.stream().map(File::toPath).toList();
+  }
+
   /** Stores DICOM data to the specified path. */
   public static void storeTo(Association as, Attributes fmi, PDVInputStream data, Path path)
       throws IOException {
@@ -220,6 +350,38 @@ public class GetSCU implements AutoCloseable {
     this.storageDir = storageDir;
   }
 
+  /**
+   * Gives the retrieved instances in memory to a handler instead of writing them in the storage
+   * directory, so they can be displayed without a write and a read of every file.
+   *
+   * @param instanceHandler the handler, or null to store the instances in the storage directory
+   */
+  public void setInstanceHandler(InstanceHandler instanceHandler) {
+    this.instanceHandler = instanceHandler;
+  }
+
+  /**
+   * Sets the size above which native pixel data received in memory is written to a temporary
+   * file. The default value is {@link #DEFAULT_SPILL_THRESHOLD}.
+   *
+   * @param spillThreshold the size in bytes, 0 to always write the pixel data to a file
+   */
+  public void setSpillThreshold(long spillThreshold) {
+    if (spillThreshold < 0) {
+      throw new IllegalArgumentException("spillThreshold cannot be negative");
+    }
+    this.spillThreshold = spillThreshold;
+  }
+
+  /**
+   * Sets the directory of the temporary files holding the large pixel data.
+   *
+   * @param spillDirectory the directory, or null for the default temporary directory
+   */
+  public void setSpillDirectory(Path spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
   public final void setPriority(int priority) {
     this.priority = priority;
   }
@@ -40,6 +40,7 @@ import org.dcm4che3.net.service.BasicCStoreSCP;
 import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.net.service.DicomServiceRegistry;
 import org.dcm4che3.tool.common.CLIUtils;
+import org.dcm4che3.tool.common.DicomDirRecorder;
 import org.dcm4che3.util.AttributesFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +62,16 @@ public class StoreSCP {
   private static final String TMP_DIR = "tmp";
   private static final String REGEX_PATTERN = "\\{(.*?)\\}";
 
+  /**
+   * Storage file path format whose paths are valid File IDs of a media: the hashes of the study,
+   * series and SOP instance UIDs. It is used when the files are recorded in a DICOMDIR without a
+   * storage file path format.
+   */
+  public static final String MEDIA_FILE_PATH_FORMAT =
+      "{0020000D,hash}/{0020000E,hash}/{00080018,hash}";
+
+  private static final AttributesFormat MEDIA_FORMAT = new AttributesFormat(MEDIA_FILE_PATH_FORMAT);
+
   private final Device device = new Device("storescp");
   private final ApplicationEntity ae = new ApplicationEntity("*");
   private final Connection conn = new Connection();
@@ -70,6 +81,7 @@ public class StoreSCP {
   private AttributesFormat filePathFormat;
   private Pattern regex;
   private volatile int status = Status.Success;
+  private volatile DicomDirRecorder dicomDir;
   private int[] receiveDelays;
   private int[] responseDelays;
 
@@ -174,10 +186,19 @@ public class StoreSCP {
       Attributes fmi = as.createFileMetaInformation(iuid, cuid, tsuid);
       writeToTempFile(as, fmi, data, tempFile);
 
-      String filename = determineFilename(tempFile, fmi, iuid);
+      DicomDirRecorder recorder = dicomDir;
+      Attributes dataset =
+          recorder != null || needsAttributeParsing() ? parseAttributes(tempFile) : null;
+      // The SOP Instance UID is not a valid File ID of a media
+      AttributesFormat format =
+          filePathFormat == null && recorder != null ? MEDIA_FORMAT : filePathFormat;
+      String filename = determineFilename(format, dataset, fmi, iuid);
       Path finalFile = storageDir.resolve(filename);
 
       moveToFinalLocation(as, tempFile, finalFile);
+      if (recorder != null) {
+        recordInDicomDir(recorder, finalFile, fmi, dataset);
+      }
       notifyProgress(finalFile);
     } catch (Exception e) {
       cleanupTempFile(tempFile);
@@ -185,6 +206,16 @@ public class StoreSCP {
     }
   }
 
+  // The file is stored: a failure of the DICOMDIR must not fail the C-STORE
+  private static void recordInDicomDir(
+      DicomDirRecorder recorder, Path file, Attributes fmi, Attributes dataset) {
+    try {
+      recorder.add(file, fmi, dataset);
+    } catch (Exception e) {
+      LOGGER.error("Cannot record {} in the DICOMDIR", file, e);
+    }
+  }
+
   private Path createTempFile(String instanceUid) {
     return storageDir.resolve(TMP_DIR).resolve(instanceUid);
   }
@@ -200,15 +231,15 @@ public class StoreSCP {
     }
   }
 
-  private String determineFilename(Path tempFile, Attributes fmi, String instanceUid)
-      throws IOException {
-    if (filePathFormat == null) {
+  private static String determineFilename(
+      AttributesFormat format, Attributes dataset, Attributes fmi, String instanceUid) {
+    if (format == null) {
       return instanceUid;
     }
 
     Attributes attributes = fmi;
-    if (needsAttributeParsing()) {
-      attributes = parseAttributes(tempFile);
+    if (dataset != null) {
+      attributes = new Attributes(dataset);
       // Merge the File Meta Information (group 0002, always ISO IR 6) so the path pattern can
       // reference those tags too. The FMI carries no Specific Character Set, so merging it as-is
       // into a dataset with a non-ASCII-compatible charset (e.g. GB18030) makes dcm4che throw
@@ -220,11 +251,11 @@ public class StoreSCP {
       attributes.addAll(fmiToMerge);
     }
 
-    return filePathFormat.format(attributes);
+    return format.format(attributes);
   }
 
   private boolean needsAttributeParsing() {
-    if (regex == null) {
+    if (filePathFormat == null || regex == null) {
       return false;
     }
 
@@ -303,6 +334,31 @@ public class StoreSCP {
     }
   }
 
+  /**
+   * Sets the DICOMDIR where the received files are recorded as they are stored. The storage
+   * directory must be the directory of the DICOMDIR or one of its subdirectories. The DICOMDIR is
+   * not closed by this SCP.
+   *
+   * <p>The paths of the files relative to the DICOMDIR must be valid File IDs: without storage
+   * file path format, the files are stored with {@link #MEDIA_FILE_PATH_FORMAT}.
+   *
+   * @param dicomDir the DICOMDIR of the stored files, or null to record nothing
+   * @throws IllegalArgumentException if the storage directory is not in the file-set of the
+   *     DICOMDIR
+   */
+  public void setDicomDir(DicomDirRecorder dicomDir) {
+    if (dicomDir != null
+        && !storageDir.toAbsolutePath().normalize().startsWith(dicomDir.getDirectory())) {
+      throw new IllegalArgumentException(
+          storageDir + " is not in the file-set of " + dicomDir.getDirectory());
+    }
+    this.dicomDir = dicomDir;
+  }
+
+  public DicomDirRecorder getDicomDir() {
+    return dicomDir;
+  }
+
   public void setStatus(int status) {
     this.status = status;
   }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.storescu;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.dicom.util.ServiceUtil;
+
+/**
+ * Reads the headers of DICOM files with several threads. A walker thread lists the files and
+ * submits the header reads to a thread pool; {@link #next()} returns the results in the order of
+ * the walk, as soon as they are available, so the caller can index the first files while the
+ * others are still being read.
+ *
+ * <p>The number of files read in advance is bounded, so scanning a large tree does not keep all
+ * the results in memory when the consumer (e.g. the network) is slower.
+ */
+final class ParallelScanner implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelScanner.class);
+  private static final int QUEUE_SIZE_PER_THREAD = 64;
+  private static final Future<ScannedFile> END = CompletableFuture.completedFuture(null);
+
+  /**
+   * The header of a scanned file.
+   *
+   * @param path the file
+   * @param dsPos the position of the dataset, after the File Meta Information
+   * @param fmi the File Meta Information, or null if the file is not a readable DICOM file
+   */
+  record ScannedFile(Path path, long dsPos, Attributes fmi) {}
+
+  private final ExecutorService executor;
+  private final BlockingQueue<Future<ScannedFile>> queue;
+  private final ScanIndex index;
+  private final Thread walker;
+
+  /**
+   * Starts scanning.
+   *
+   * @param fnames the files or directories to scan
+   * @param threads the number of threads reading the headers
+   * @param index the persistent index of the previous scans, may be null
+   */
+  ParallelScanner(List<String> fnames, int threads, ScanIndex index) {
+    int nbThreads = Math.max(1, threads);
+    this.index = index;
+    this.queue = new LinkedBlockingQueue<>(nbThreads * QUEUE_SIZE_PER_THREAD);
+    this.executor =
+        Executors.newFixedThreadPool(nbThreads, ServiceUtil.getThreadFactory("storescu-scan"));
+    this.walker = ServiceUtil.getThreadFactory("storescu-walk").newThread(() -> walk(fnames));
+    walker.start();
+  }
+
+  /**
+   * Returns the next scanned file in the order of the walk, waiting for its header to be read.
+   *
+   * @return the scanned file, or null when all the files have been returned
+   * @throws InterruptedException if the current thread is interrupted while waiting
+   */
+  ScannedFile next() throws InterruptedException {
+    while (true) {
+      Future<ScannedFile> future = queue.take();
+      if (future == END) {
+        return null;
+      }
+      try {
+        return future.get();
+      } catch (ExecutionException e) {
+        LOG.error("Failed to scan file", e.getCause());
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    walker.interrupt();
+    executor.shutdownNow();
+  }
+
+  private void walk(List<String> fnames) {
+    try {
+      for (String fname : fnames) {
+        walkPath(Paths.get(fname));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (RejectedExecutionException e) {
+      return; // closed before the end of the walk
+    }
+    try {
+      queue.put(END);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void walkPath(Path path) throws InterruptedException {
+    if (Files.isDirectory(path) && Files.isReadable(path)) {
+      try (var stream = Files.newDirectoryStream(path)) {
+        for (Path entry : stream) {
+          walkPath(entry);
+        }
+      } catch (IOException e) {
+        LOG.error("Failed to scan directory {}", path, e);
+      }
+    } else {
+      queue.put(executor.submit(() -> scan(path)));
+    }
+  }
+
+  private ScannedFile scan(Path file) {
+    try {
+      if (index == null) {
+        return readHeader(file);
+      }
+      var fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+      long size = fileAttributes.size();
+      long lastModified = fileAttributes.lastModifiedTime().toMillis();
+      ScanIndex.Entry entry = index.get(file, size, lastModified);
+      if (entry != null) {
+        return new ScannedFile(file, entry.dsPos(), toFileMetaInformation(entry));
+      }
+      ScannedFile scanned = readHeader(file);
+      if (scanned.fmi() != null) {
+        Attributes fmi = scanned.fmi();
+        index.put(
+            file,
+            new ScanIndex.Entry(
+                size,
+                lastModified,
+                scanned.dsPos(),
+                fmi.getString(Tag.MediaStorageSOPInstanceUID),
+                fmi.getString(Tag.MediaStorageSOPClassUID),
+                fmi.getString(Tag.TransferSyntaxUID)));
+      }
+      return scanned;
+    } catch (Exception e) {
+      LOG.error("Failed to scan file {}", file, e);
+      return new ScannedFile(file, -1, null);
+    }
+  }
+
+  /**
+   * Reads the File Meta Information of a file. When it is missing or incomplete, it is built from
+   * the beginning of the dataset.
+   *
+   * @param file the file
+   * @return the scanned file, with a null File Meta Information if it has no SOP UIDs
+   * @throws IOException if the file cannot be read
+   */
+  static ScannedFile readHeader(Path file) throws IOException {
+    try (var in = new DicomInputStream(Files.newInputStream(file))) {
+      in.setIncludeBulkData(IncludeBulkData.NO);
+      var fmi = in.readFileMetaInformation();
+      long dsPos = in.getPosition();
+      if (isInvalidFileMetaInformation(fmi)) {
+        var ds = in.readDataset(Tag.SOPInstanceUID + 1);
+        fmi = ds.createFileMetaInformation(in.getTransferSyntax());
+      }
+      boolean valid =
+          fmi.containsValue(Tag.MediaStorageSOPClassUID)
+              && fmi.containsValue(Tag.MediaStorageSOPInstanceUID);
+      return new ScannedFile(file, dsPos, valid ? fmi : null);
+    }
+  }
+
+  static boolean isInvalidFileMetaInformation(Attributes fmi) {
+    return fmi == null
+        || !fmi.containsValue(Tag.TransferSyntaxUID)
+        || !fmi.containsValue(Tag.MediaStorageSOPClassUID)
+        || !fmi.containsValue(Tag.MediaStorageSOPInstanceUID);
+  }
+
+  private static Attributes toFileMetaInformation(ScanIndex.Entry entry) {
+    Attributes fmi = new Attributes(3);
+    fmi.setString(Tag.MediaStorageSOPClassUID, VR.UI, entry.cuid());
+    fmi.setString(Tag.MediaStorageSOPInstanceUID, VR.UI, entry.iuid());
+    fmi.setString(Tag.TransferSyntaxUID, VR.UI, entry.tsuid());
+    return fmi;
+  }
+}
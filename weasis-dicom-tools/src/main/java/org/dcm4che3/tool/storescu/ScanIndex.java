@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.storescu;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.dcm4che3.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent index of the DICOM files found by a scan of {@link StoreSCU}. When the same files are
+ * scanned again, the header of a file is not read if its size and its last modification time have
+ * not changed.
+ *
+ * <p>The index is a UTF-8 text file with one line per file: size, last modification time, position
+ * of the dataset, SOP Instance UID, SOP Class UID, transfer syntax UID and path, separated by tabs.
+ * {@link #save()} only keeps the files found by the last scan.
+ */
+public final class ScanIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(ScanIndex.class);
+  private static final int FIELDS = 7;
+
+  /**
+   * The indexed information of a DICOM file.
+   *
+   * @param size the file size
+   * @param lastModified the last modification time in milliseconds
+   * @param dsPos the position of the dataset, after the File Meta Information
+   * @param iuid the SOP Instance UID
+   * @param cuid the SOP Class UID
+   * @param tsuid the transfer syntax UID
+   */
+  public record Entry(
+      long size, long lastModified, long dsPos, String iuid, String cuid, String tsuid) {}
+
+  private final Path indexFile;
+  private final Map<String, Entry> previous;
+  private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+  private ScanIndex(Path indexFile, Map<String, Entry> previous) {
+    this.indexFile = indexFile;
+    this.previous = previous;
+  }
+
+  /**
+   * Opens an index. The entries of an existing index file are loaded; malformed lines are ignored.
+   *
+   * @param indexFile the index file, created by {@link #save()} if it does not exist
+   * @return the index
+   * @throws IOException if the existing index file cannot be read
+   */
+  public static ScanIndex open(Path indexFile) throws IOException {
+    Objects.requireNonNull(indexFile, "indexFile cannot be null");
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+    if (Files.isRegularFile(indexFile)) {
+      try (var reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          readLine(line, entries);
+        }
+      }
+    }
+    return new ScanIndex(indexFile, entries);
+  }
+
+  private static void readLine(String line, Map<String, Entry> entries) {
+    String[] fields = StringUtils.split(line, '\t');
+    if (fields.length != FIELDS) {
+      return;
+    }
+    try {
+      Entry entry =
+          new Entry(
+              Long.parseLong(fields[0]),
+              Long.parseLong(fields[1]),
+              Long.parseLong(fields[2]),
+              fields[3],
+              fields[4],
+              fields[5]);
+      entries.put(fields[6], entry);
+    } catch (NumberFormatException e) {
+      LOG.debug("Ignore malformed index line: {}", line);
+    }
+  }
+
+  /**
+   * Returns the entry of a file if it has not changed since it was indexed.
+   *
+   * @param file the file
+   * @param size the current size of the file
+   * @param lastModified the current last modification time of the file in milliseconds
+   * @return the entry, or null if the file is not indexed or has changed
+   */
+  public Entry get(Path file, long size, long lastModified) {
+    String key = toKey(file);
+    Entry entry = previous.get(key);
+    if (entry == null || entry.size() != size || entry.lastModified() != lastModified) {
+      return null;
+    }
+    current.put(key, entry);
+    return entry;
+  }
+
+  /**
+   * Adds or replaces the entry of a file.
+   *
+   * @param file the file
+   * @param entry the indexed information
+   */
+  public void put(Path file, Entry entry) {
+    current.put(toKey(file), Objects.requireNonNull(entry));
+  }
+
+  /** Returns the number of files found by the last scan. */
+  public int size() {
+    return current.size();
+  }
+
+  /**
+   * Writes the files found by the last scan to the index file. The file is replaced atomically
+   * when the file system supports it.
+   *
+   * @throws IOException if the index file cannot be written
+   */
+  public void save() throws IOException {
+    Path parent = indexFile.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path tmp = Files.createTempFile(parent, indexFile.getFileName().toString(), ".tmp");
+    try {
+      try (var writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (Map.Entry<String, Entry> e : current.entrySet()) {
+          Entry entry = e.getValue();
+          writer.write(
+              String.join(
+                  "\t",
+                  Long.toString(entry.size()),
+                  Long.toString(entry.lastModified()),
+                  Long.toString(entry.dsPos()),
+                  entry.iuid(),
+                  entry.cuid(),
+                  entry.tsuid(),
+                  e.getKey()));
+          writer.write('\n');
+        }
+      }
+      moveToIndexFile(tmp);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private void moveToIndexFile(Path tmp) throws IOException {
+    try {
+      Files.move(
+          tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static String toKey(Path file) {
+    return file.toAbsolutePath().normalize().toString();
+  }
+}
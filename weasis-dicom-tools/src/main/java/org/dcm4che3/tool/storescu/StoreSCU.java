@@ -11,6 +11,7 @@ package org.dcm4che3.tool.storescu;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -18,8 +19,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import javax.xml.parsers.ParserConfigurationException;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -40,6 +44,7 @@ import org.dcm4che3.net.Status;
 import org.dcm4che3.net.pdu.AAssociateRQ;
 import org.dcm4che3.net.pdu.PresentationContext;
 import org.dcm4che3.tool.common.CLIUtils;
+import org.dcm4che3.tool.storescu.ParallelScanner.ScannedFile;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.util.TagUtils;
 import org.slf4j.Logger;
@@ -60,7 +65,8 @@ import org.xml.sax.SAXException;
  * <p>This class provides functionality to:
  *
  * <ul>
- *   <li>Scan files and directories for DICOM objects
+ *   <li>Scan files and directories for DICOM objects, optionally with several threads and a
+ *       persistent {@link ScanIndex}
  *   <li>Establish associations with remote DICOM nodes
  *   <li>Send DICOM objects using C-STORE operations
  *   <li>Handle transfer syntax negotiation and SOP class relationships
@@ -105,7 +111,10 @@ public class StoreSCU implements AutoCloseable {
   private Path tmpFile;
   private Association as;
   private long totalSize = 0;
-  private int filesScanned;
+  private volatile int filesScanned;
+  private int filesNotSent;
+  private long openTime;
+  private TransferJournal journal;
 
   private RSPHandlerFactory rspHandlerFactory = this::createDefaultRspHandler;
 
@@ -212,6 +221,16 @@ public class StoreSCU implements AutoCloseable {
     this.tmpDir = tmpDir;
   }
 
+  /**
+   * Sets the journal recording the status of each file. The files already stored according to the
+   * journal are not sent again.
+   *
+   * @param journal the transfer journal, may be null
+   */
+  public void setJournal(TransferJournal journal) {
+    this.journal = journal;
+  }
+
   public final void enableSOPClassRelationshipExtNeg(boolean enable) {
     relExtNeg = enable;
   }
@@ -261,16 +280,10 @@ public class StoreSCU implements AutoCloseable {
   }
 
   private void scanFile(Path file, Writer writer, boolean printout) {
-    try (var in = new DicomInputStream(Files.newInputStream(file))) {
-      in.setIncludeBulkData(IncludeBulkData.NO);
-      var fmi = in.readFileMetaInformation();
-      long dsPos = in.getPosition();
-      if (isInvalidFileMetaInformation(fmi)) {
-        var ds = in.readDataset(Tag.SOPInstanceUID + 1);
-        fmi = ds.createFileMetaInformation(in.getTransferSyntax());
-      }
-
-      boolean success = addFile(writer, file, dsPos, fmi);
+    try {
+      var scanned = ParallelScanner.readHeader(file);
+      boolean success =
+          scanned.fmi() != null && addFile(writer, file, scanned.dsPos(), scanned.fmi());
       if (success) {
         filesScanned++;
       }
@@ -281,13 +294,6 @@ public class StoreSCU implements AutoCloseable {
     }
   }
 
-  private boolean isInvalidFileMetaInformation(Attributes fmi) {
-    return fmi == null
-        || !fmi.containsValue(Tag.TransferSyntaxUID)
-        || !fmi.containsValue(Tag.MediaStorageSOPClassUID)
-        || !fmi.containsValue(Tag.MediaStorageSOPInstanceUID);
-  }
-
   private void printProgress(boolean printout, boolean success) {
     if (printout) {
       System.out.print(success ? '.' : 'I');
@@ -300,6 +306,226 @@ public class StoreSCU implements AutoCloseable {
     LOG.error("Failed to scan file {}", file, e);
   }
 
+  /**
+   * Scans the specified files/directories for DICOM objects with several threads. The headers are
+   * read concurrently, but the files are indexed in the same order as {@link #scanFiles(List,
+   * boolean)}.
+   *
+   * @param fnames list of file or directory paths to scan
+   * @param threads the number of threads reading the file headers
+   * @param index the persistent index of the previous scans, may be null
+   * @throws IOException if file operations fail
+   */
+  public void scanFiles(List<String> fnames, int threads, ScanIndex index) throws IOException {
+    tmpFile = createTempFile();
+
+    try (var writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8);
+        var scanner = new ParallelScanner(fnames, threads, index)) {
+      ScannedFile scanned;
+      while ((scanned = scanner.next()) != null) {
+        indexScannedFile(writer, scanned);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Scan interrupted");
+    }
+    saveIndex(index);
+  }
+
+  /**
+   * Scans the specified files/directories with several threads and sends the DICOM objects while
+   * the scan is still running.
+   *
+   * <p>The presentation contexts must be negotiated when the association is opened, so the
+   * association is opened once {@code openThreshold} files are indexed (or when the scan is
+   * complete). The following files are sent immediately when their SOP class and transfer syntax
+   * were proposed; the others are sent on a new association at the end of the scan, with the
+   * presentation contexts of all the scanned files.
+   *
+   * <p>When no DICOM file is found, no association is opened. The files that cannot be sent
+   * because the association is closed or the transfer is cancelled are reported to the progress as
+   * failed and counted by {@link #getFilesNotSent()}.
+   *
+   * @param fnames list of file or directory paths to scan
+   * @param threads the number of threads reading the file headers
+   * @param index the persistent index of the previous scans, may be null
+   * @param openThreshold the number of indexed files required to open the association
+   * @throws IOException if file operations or network communication fails
+   * @throws InterruptedException if the current thread is interrupted
+   * @throws IncompatibleConnectionException if the connection parameters are incompatible
+   * @throws GeneralSecurityException if the TLS configuration fails
+   */
+  public void scanAndSendFiles(
+      List<String> fnames, int threads, ScanIndex index, int openThreshold)
+      throws IOException,
+          InterruptedException,
+          IncompatibleConnectionException,
+          GeneralSecurityException {
+    tmpFile = createTempFile();
+    var pending = new ArrayList<String[]>();
+    var deferred = new ArrayList<String[]>();
+    Set<String> proposed = Set.of();
+
+    try (var writer = Files.newBufferedWriter(tmpFile, StandardCharsets.UTF_8);
+        var scanner = new ParallelScanner(fnames, threads, index)) {
+      ScannedFile scanned;
+      while ((scanned = scanner.next()) != null && !isProgressCancelled()) {
+        String[] fileInfo = indexScannedFile(writer, scanned);
+        if (fileInfo == null) {
+          continue;
+        }
+        if (as == null) {
+          pending.add(fileInfo);
+          if (pending.size() >= Math.max(1, openThreshold)) {
+            proposed = openWithProposedContexts();
+            sendOrDefer(pending, proposed, deferred);
+            pending.clear();
+          }
+        } else {
+          sendOrDefer(List.<String[]>of(fileInfo), proposed, deferred);
+        }
+      }
+    }
+    saveIndex(index);
+
+    if (filesScanned == 0) {
+      return;
+    }
+    if (as == null) {
+      if (isProgressCancelled()) {
+        reportNotSent(pending);
+        return;
+      }
+      proposed = openWithProposedContexts();
+      sendOrDefer(pending, proposed, deferred);
+    }
+    if (isProgressCancelled()) {
+      LOG.info("Aborting C-Store: cancel by progress");
+      as.abort();
+      reportNotSent(deferred);
+      return;
+    }
+    waitForOutstandingResponses();
+    sendDeferredFiles(deferred);
+  }
+
+  private String[] indexScannedFile(Writer writer, ScannedFile scanned) {
+    if (scanned.fmi() == null) {
+      return null;
+    }
+    try {
+      if (addFile(writer, scanned.path(), scanned.dsPos(), scanned.fmi())) {
+        filesScanned++;
+        var fmi = scanned.fmi();
+        return new String[] {
+          fmi.getString(Tag.MediaStorageSOPInstanceUID),
+          fmi.getString(Tag.MediaStorageSOPClassUID),
+          fmi.getString(Tag.TransferSyntaxUID),
+          Long.toString(scanned.dsPos()),
+          scanned.path().toString()
+        };
+      }
+    } catch (IOException e) {
+      handleScanError(scanned.path(), e);
+    }
+    return null;
+  }
+
+  private void saveIndex(ScanIndex index) {
+    if (index != null) {
+      try {
+        index.save();
+      } catch (IOException e) {
+        LOG.warn("Cannot save the scan index", e);
+      }
+    }
+  }
+
+  private Set<String> openWithProposedContexts()
+      throws IOException,
+          InterruptedException,
+          IncompatibleConnectionException,
+          GeneralSecurityException {
+    var proposed = new HashSet<String>();
+    for (PresentationContext pc : rq.getPresentationContexts()) {
+      for (String tsuid : pc.getTransferSyntaxes()) {
+        proposed.add(pc.getAbstractSyntax() + '\t' + tsuid);
+      }
+    }
+    open();
+    return proposed;
+  }
+
+  private void sendOrDefer(List<String[]> files, Set<String> proposed, List<String[]> deferred) {
+    for (int i = 0; i < files.size(); i++) {
+      if (!as.isReadyForDataTransfer() || isProgressCancelled()) {
+        reportNotSent(files.subList(i, files.size()));
+        return;
+      }
+      String[] fileInfo = files.get(i);
+      if (proposed.contains(fileInfo[1] + '\t' + fileInfo[2])) {
+        sendFileFromInfo(fileInfo);
+      } else {
+        deferred.add(fileInfo);
+      }
+    }
+  }
+
+  private void sendDeferredFiles(List<String[]> deferred)
+      throws IOException,
+          InterruptedException,
+          IncompatibleConnectionException,
+          GeneralSecurityException {
+    if (deferred.isEmpty()) {
+      return;
+    }
+    if (!as.isReadyForDataTransfer()) {
+      reportNotSent(deferred);
+      return;
+    }
+    LOG.info(
+        "Send {} files on a new association with the presentation contexts of all the files",
+        deferred.size());
+    as.release();
+    as.waitForSocketClose();
+    open();
+    for (int i = 0; i < deferred.size(); i++) {
+      if (!as.isReadyForDataTransfer()) {
+        reportNotSent(deferred.subList(i, deferred.size()));
+        break;
+      }
+      if (isProgressCancelled()) {
+        LOG.info("Aborting C-Store: cancel by progress");
+        as.abort();
+        reportNotSent(deferred.subList(i, deferred.size()));
+        return;
+      }
+      sendFileFromInfo(deferred.get(i));
+    }
+    waitForOutstandingResponses();
+  }
+
+  // Reports as failed the scanned files that will not be sent
+  private void reportNotSent(List<String[]> files) {
+    if (files.isEmpty()) {
+      return;
+    }
+    boolean cancelled = isProgressCancelled();
+    if (filesNotSent == 0) {
+      LOG.warn("Files not sent: {}", cancelled ? "cancel by progress" : "association closed");
+    }
+    int status = cancelled ? Status.Cancel : Status.UnableToProcess;
+    var progress = state.getProgress();
+    for (String[] fileInfo : files) {
+      filesNotSent++;
+      if (progress != null) {
+        progress.setProcessedFile(Path.of(fileInfo[4]));
+      }
+      ServiceUtil.notifyProgression(
+          state, fileInfo[0], fileInfo[1], status, ProgressStatus.FAILED, filesScanned);
+    }
+  }
+
   /**
    * Sends all scanned files to the remote DICOM node.
    *
@@ -330,9 +556,12 @@ public class StoreSCU implements AutoCloseable {
   private void sendFileFromInfo(String[] fileInfo) {
     try {
       var file = Path.of(fileInfo[4]);
+      var iuid = fileInfo[0];
+      if (journal != null && !journal.shouldSend(iuid, file)) {
+        return;
+      }
       var dsPos = Long.parseLong(fileInfo[3]);
       var cuid = fileInfo[1];
-      var iuid = fileInfo[0];
       var tsuid = fileInfo[2];
 
       send(file, dsPos, cuid, iuid, tsuid);
@@ -353,6 +582,26 @@ public class StoreSCU implements AutoCloseable {
     }
   }
 
+  /**
+   * Returns the DICOM instances found by the last scan.
+   *
+   * @return the SOP Instance UID and the file of each instance, in the order they are sent
+   * @throws IOException if the scan result cannot be read
+   */
+  public List<TransferJournal.Instance> getScannedInstances() throws IOException {
+    var instances = new ArrayList<TransferJournal.Instance>(filesScanned);
+    if (tmpFile != null) {
+      try (var reader = Files.newBufferedReader(tmpFile, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          var fileInfo = StringUtils.split(line, '\t');
+          instances.add(new TransferJournal.Instance(fileInfo[0], Path.of(fileInfo[4])));
+        }
+      }
+    }
+    return instances;
+  }
+
   /** Adds a file to the association request and temporary file list. */
   public boolean addFile(Writer writer, Path path, long endFmi, Attributes fmi) throws IOException {
     var cuid = fmi.getString(Tag.MediaStorageSOPClassUID);
@@ -523,11 +772,17 @@ public class StoreSCU implements AutoCloseable {
           IncompatibleConnectionException,
           GeneralSecurityException {
     as = ae.connect(remote, rq);
+    if (openTime == 0) {
+      openTime = System.currentTimeMillis();
+    }
   }
 
   private void onCStoreRSP(Attributes cmd, Path file) {
     int status = cmd.getInt(Tag.Status, -1);
     state.setStatus(status);
+    if (journal != null) {
+      journal.record(file, cmd.getString(Tag.AffectedSOPInstanceUID), status);
+    }
     var progressStatus = determineProgressStatus(status, file, cmd);
     updateTotalSize(status, file);
 
@@ -589,10 +844,29 @@ public class StoreSCU implements AutoCloseable {
     return filesScanned;
   }
 
+  /**
+   * Returns the number of scanned files that have not been sent by {@link #scanAndSendFiles}
+   * because the association was closed or the transfer was cancelled.
+   *
+   * @return the number of files reported as failed without a C-STORE request
+   */
+  public int getFilesNotSent() {
+    return filesNotSent;
+  }
+
   public long getTotalSize() {
     return totalSize;
   }
 
+  /**
+   * Returns the time when the first association was established.
+   *
+   * @return the time in milliseconds, or 0 if no association has been opened
+   */
+  public long getOpenTime() {
+    return openTime;
+  }
+
   public DicomState getState() {
     return state;
   }
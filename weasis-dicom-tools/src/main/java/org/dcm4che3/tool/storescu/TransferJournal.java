@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.storescu;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.util.StringUtils;
+import org.dcm4che3.util.TagUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Journal of the C-STORE-RSP status of each file sent by {@link StoreSCU}, used to resume an
+ * interrupted transfer without sending again the stored instances.
+ *
+ * <p>Each response is appended to a UTF-8 text file (status in hexadecimal, SOP Instance UID and
+ * path separated by tabs) and flushed, so the journal survives a crash of the process. When an
+ * existing journal is opened, the last status of each instance is loaded and the file is
+ * compacted.
+ *
+ * <p>The status is kept by SOP Instance UID: an instance already stored is not sent again when its
+ * file has been moved or copied, and the copies of an instance are tracked once. The path is only
+ * the key of the files without SOP Instance UID.
+ *
+ * <p>A file is sent when its instance has no successful status. Within the same run, a file that
+ * failed with a permanent error (e.g. the dataset does not match the SOP class) is not sent again;
+ * only transient failures (out of resources, processing failure) and files without response are
+ * retried.
+ */
+public final class TransferJournal implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(TransferJournal.class);
+  private static final int FIELDS = 3;
+
+  /**
+   * The outcome of a list of files.
+   *
+   * @param completed the number of files stored successfully
+   * @param warning the number of files stored with a warning status
+   * @param failed the number of files whose last status is a failure
+   * @param unsent the number of files without response
+   * @param toSend the number of files that would be sent by the next attempt
+   * @param lastFailure the last failure status, or -1 if there is no failure
+   */
+  public record Summary(
+      int completed, int warning, int failed, int unsent, int toSend, int lastFailure) {
+
+    /** Returns the number of files that are not stored. */
+    public int notStored() {
+      return failed + unsent;
+    }
+  }
+
+  /**
+   * An instance to transfer.
+   *
+   * @param iuid the SOP Instance UID, may be null
+   * @param file the file of the instance
+   */
+  public record Instance(String iuid, Path file) {
+
+    public Instance {
+      Objects.requireNonNull(file, "file cannot be null");
+    }
+  }
+
+  private record Entry(int status, String iuid, String path) {}
+
+  private final Path journalFile;
+  private final Map<String, Entry> previous;
+  private final Map<String, Entry> current = new ConcurrentHashMap<>();
+  private final BufferedWriter writer;
+
+  private TransferJournal(Path journalFile, Map<String, Entry> previous) throws IOException {
+    this.journalFile = journalFile;
+    this.previous = previous;
+    this.writer =
+        Files.newBufferedWriter(
+            journalFile,
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Opens a journal, loading the status of the previous runs if the file exists.
+   *
+   * @param journalFile the journal file, created if it does not exist
+   * @return the journal, to be closed at the end of the transfer
+   * @throws IOException if the journal cannot be read or written
+   */
+  public static TransferJournal open(Path journalFile) throws IOException {
+    Objects.requireNonNull(journalFile, "journalFile cannot be null");
+    Map<String, Entry> entries = new ConcurrentHashMap<>();
+    if (Files.isRegularFile(journalFile)) {
+      try (var reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          readLine(line, entries);
+        }
+      }
+      compact(journalFile, entries);
+    } else {
+      Path parent = journalFile.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+    }
+    return new TransferJournal(journalFile, entries);
+  }
+
+  private static void readLine(String line, Map<String, Entry> entries) {
+    String[] fields = StringUtils.split(line, '\t');
+    if (fields.length != FIELDS) {
+      return; // Last line of a crashed run
+    }
+    try {
+      var entry = new Entry(Integer.parseInt(fields[0], 16), fields[1], fields[2]);
+      entries.put(toKey(entry.iuid(), entry.path()), entry);
+    } catch (NumberFormatException e) {
+      LOG.debug("Ignore malformed journal line: {}", line);
+    }
+  }
+
+  private static void compact(Path journalFile, Map<String, Entry> entries) throws IOException {
+    Path tmp =
+        Files.createTempFile(
+            journalFile.toAbsolutePath().getParent(), journalFile.getFileName().toString(), ".tmp");
+    try {
+      try (var out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (Entry entry : entries.values()) {
+          writeLine(out, entry);
+        }
+      }
+      Files.move(tmp, journalFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static void writeLine(BufferedWriter out, Entry entry) throws IOException {
+    out.write(TagUtils.shortToHexString(entry.status()));
+    out.write('\t');
+    out.write(entry.iuid() == null ? "" : entry.iuid());
+    out.write('\t');
+    out.write(entry.path());
+    out.write('\n');
+  }
+
+  /**
+   * Returns whether a file must be sent.
+   *
+   * @param iuid the SOP Instance UID of the file, may be null
+   * @param file the file
+   * @return false if the instance is already stored or if it failed with a permanent error in
+   *     this run
+   */
+  public boolean shouldSend(String iuid, Path file) {
+    String key = toKey(iuid, file);
+    Entry entry = current.get(key);
+    if (entry != null) {
+      return isTransientFailure(entry.status());
+    }
+    entry = previous.get(key);
+    return entry == null || !isStored(entry.status());
+  }
+
+  /**
+   * Records the C-STORE-RSP status of a file.
+   *
+   * @param file the file
+   * @param iuid the SOP Instance UID, may be null
+   * @param status the status of the response
+   */
+  public void record(Path file, String iuid, int status) {
+    Entry entry = new Entry(status, iuid, toPath(file));
+    current.put(toKey(iuid, entry.path()), entry);
+    synchronized (writer) {
+      try {
+        writeLine(writer, entry);
+        writer.flush();
+      } catch (IOException e) {
+        LOG.warn("Cannot write the transfer journal {}", journalFile, e);
+      }
+    }
+  }
+
+  /**
+   * Returns the outcome of the instances, from the responses of this run and of the previous runs.
+   * The copies of an instance are counted once.
+   *
+   * @param instances the instances to transfer
+   * @return the summary
+   */
+  public Summary summarize(Collection<Instance> instances) {
+    int completed = 0;
+    int warning = 0;
+    int failed = 0;
+    int unsent = 0;
+    int toSend = 0;
+    int lastFailure = -1;
+    Set<String> keys = new HashSet<>();
+    for (Instance instance : instances) {
+      String key = toKey(instance.iuid(), instance.file());
+      if (!keys.add(key)) {
+        continue;
+      }
+      Entry entry = current.getOrDefault(key, previous.get(key));
+      if (shouldSend(instance.iuid(), instance.file())) {
+        toSend++;
+      }
+      if (entry == null) {
+        unsent++;
+      } else if (entry.status() == Status.Success) {
+        completed++;
+      } else if (isStored(entry.status())) {
+        warning++;
+      } else {
+        failed++;
+        lastFailure = entry.status();
+      }
+    }
+    return new Summary(completed, warning, failed, unsent, toSend, lastFailure);
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (writer) {
+      writer.close();
+    }
+  }
+
+  /**
+   * Returns whether a status means that the instance has been stored.
+   *
+   * @param status the C-STORE-RSP status
+   * @return true for success and warning statuses
+   */
+  public static boolean isStored(int status) {
+    return status == Status.Success
+        || status == Status.CoercionOfDataElements
+        || status == Status.ElementsDiscarded
+        || status == Status.DataSetDoesNotMatchSOPClassWarning;
+  }
+
+  /**
+   * Returns whether a failure may succeed when the instance is sent again later.
+   *
+   * @param status the C-STORE-RSP status
+   * @return true for the "out of resources" statuses and processing failure
+   */
+  public static boolean isTransientFailure(int status) {
+    return (status & 0xFF00) == Status.OutOfResources || status == Status.ProcessingFailure;
+  }
+
+  private static String toKey(String iuid, Path file) {
+    return toKey(iuid, toPath(file));
+  }
+
+  // An absolute path cannot be mistaken for a UID, made of digits and dots
+  private static String toKey(String iuid, String path) {
+    return iuid == null || iuid.isEmpty() ? path : iuid;
+  }
+
+  private static String toPath(Path file) {
+    return file.toAbsolutePath().normalize().toString();
+  }
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.img.stream.ImageAdapter;
+import org.dcm4che3.img.stream.ImageAdapter.AdaptTransferSyntax;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.net.DataWriter;
+import org.dcm4che3.net.InputStreamDataWriter;
+import org.dcm4che3.net.Priority;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.util.UIDUtils;
+import org.weasis.core.util.FileUtil;
+import org.weasis.dicom.op.CStore;
+import org.weasis.dicom.param.AttributeEditorContext;
+import org.weasis.dicom.param.DeviceOpService;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomProgress;
+import org.weasis.dicom.param.DicomState;
+import org.weasis.dicom.param.ListenerParams;
+import org.weasis.dicom.tool.DicomListener;
+import org.weasis.dicom.util.StoreFromStreamSCU;
+
+/**
+ * Self-contained loopback benchmark for the DIMSE storage path.
+ *
+ * <p>It starts an in-process {@link DicomListener} ({@code StoreSCP}) on {@code localhost} and
+ * pushes a corpus through it, so neither a network nor an external PACS is needed. Every run
+ * produces four CSV rows:
+ *
+ * <ul>
+ *   <li><b>{@code cstore,native}</b> &mdash; {@link CStore#process} with an SCP that accepts every
+ *       transfer syntax, so files are streamed as stored.
+ *   <li><b>{@code cstore,transcode}</b> &mdash; {@link CStore#process} with an SCP that only
+ *       accepts Explicit VR Little Endian, so {@code StoreSCU} must decompress every compressed
+ *       instance (raw instances are still sent as stored: use a compressed corpus for this row).
+ *   <li><b>{@code stream,native}</b> &mdash; {@link StoreFromStreamSCU} (the forward leg of {@code
+ *       CGetForward}) writing each dataset as-is.
+ *   <li><b>{@code stream,transcode}</b> &mdash; {@link StoreFromStreamSCU} re-encoding each image
+ *       to {@code dst-ts} through {@link ImageAdapter}, as {@code CGetForward} does.
+ * </ul>
+ *
+ * <p>Reported columns: association setup time, transfer time, instances/s and MB/s (computed on
+ * the <i>source</i> bytes, so native and transcode rows stay comparable), and p50/p99 per-instance
+ * latency. For the {@code stream} rows the latency is measured from the {@code cstore()} call to
+ * its C-STORE-RSP. {@code CStore} does not expose the send time, so for the {@code cstore} rows it
+ * is the interval between consecutive C-STORE-RSPs, i.e. the per-instance service time of the
+ * pipelined sender.
+ *
+ * <pre>
+ * Usage: DimseBenchmark &lt;sample-dir | synthetic:N[:ROWSxCOLS]&gt; [warmup] [iterations] [dst-ts]
+ *   sample-dir   directory of DICOM files (recursive), or a single file
+ *   synthetic:N  N generated 16-bit MONOCHROME2 instances (default 512x512)
+ *   warmup       untimed passes per row (default 1)
+ *   iterations   timed passes per row, median reported (default 3)
+ *   dst-ts       destination syntax of the stream,transcode row (default JPEG Lossless SV1)
+ * </pre>
+ *
+ * @since Oct 2026
+ */
+// Standalone CLI: stdout is the CSV data channel and stderr carries diagnostics, so the
+// console-output and printStackTrace rules do not apply here.
+@SuppressWarnings({"java:S106", "java:S1148"})
+public class DimseBenchmark {
+
+  private static final String SCU_AET = "BENCH-SCU";
+  private static final String SCP_AET = "BENCH-SCP";
+  private static final String SYNTHETIC_PREFIX = "synthetic:";
+  private static final int DEFAULT_SYNTHETIC_SIZE = 512;
+
+  private static final String CSV_HEADER =
+      "path,mode,dst_ts,instances,failed,src_mb,assoc_med_ms,transfer_med_ms,"
+          + "inst_per_s,mb_per_s,lat_p50_ms,lat_p99_ms";
+
+  /** Which SCU implementation pushes the corpus. */
+  private enum Scu {
+    CSTORE("cstore"),
+    STREAM("stream");
+
+    final String label;
+
+    Scu(String label) {
+      this.label = label;
+    }
+  }
+
+  /** One pre-scanned instance of the corpus (scan time is never part of the timings). */
+  private record Instance(
+      Path path, String cuid, String iuid, String tsuid, long dsPos, long size) {}
+
+  /** Timings and outcome of one pass over the corpus. */
+  private record Pass(long assocNs, long transferNs, int failed, long[] latenciesNs) {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println(
+          "Usage: DimseBenchmark <sample-dir | synthetic:N[:ROWSxCOLS]> [warmup] [iterations]"
+              + " [dst-ts]");
+      System.exit(2);
+    }
+    int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+    int iters = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+    String dstTs = args.length > 3 ? args[3] : UID.JPEGLosslessSV1;
+
+    Path workDir = Files.createTempDirectory("dimsebench-");
+    boolean failed = false;
+    try {
+      List<Instance> corpus = loadCorpus(args[0], workDir.resolve("corpus"));
+      if (corpus.isEmpty()) {
+        System.err.println("No DICOM files in " + args[0]);
+        System.exit(1);
+      }
+      long srcBytes = corpus.stream().mapToLong(Instance::size).sum();
+      System.err.printf(
+          "# java=%s  os=%s/%s  cores=%d%n",
+          System.getProperty("java.version"),
+          System.getProperty("os.name"),
+          System.getProperty("os.arch"),
+          Runtime.getRuntime().availableProcessors());
+      System.err.printf(
+          "# corpus=%s  instances=%d  size=%s  warmup=%d  iterations=%d  dst-ts=%s%n",
+          args[0],
+          corpus.size(),
+          FileUtil.humanReadableByte(srcBytes, false),
+          warmup,
+          iters,
+          dstTs);
+      System.out.println(CSV_HEADER);
+
+      Path storage = workDir.resolve("received");
+      failed |= runRow(Scu.CSTORE, null, corpus, storage, warmup, iters);
+      failed |= runRow(Scu.CSTORE, UID.ExplicitVRLittleEndian, corpus, storage, warmup, iters);
+      failed |= runRow(Scu.STREAM, null, corpus, storage, warmup, iters);
+      failed |= runRow(Scu.STREAM, dstTs, corpus, storage, warmup, iters);
+    } finally {
+      FileUtil.delete(workDir);
+    }
+    // StoreFromStreamSCU keeps a non-daemon close scheduler alive; exit explicitly.
+    System.exit(failed ? 1 : 0);
+  }
+
+  /** Runs warm-up and timed passes of one row and prints it; returns true when the row failed. */
+  private static boolean runRow(
+      Scu scu, String dstTs, List<Instance> corpus, Path storage, int warmup, int iters) {
+    String mode = dstTs == null ? "native" : "transcode";
+    String label = scu.label + "," + mode + "," + (dstTs == null ? "" : dstTs);
+    DicomListener listener = new DicomListener(storage);
+    Path tcFile = null;
+    try {
+      DicomNode scpNode = new DicomNode(SCP_AET, "localhost", freePort());
+      tcFile = scu == Scu.CSTORE ? writeTransferCapabilities(storage, dstTs) : null;
+      listener.start(
+          scpNode,
+          new ListenerParams(null, true, null, tcFile == null ? null : tcFile.toUri().toURL()));
+
+      long[] assoc = new long[iters];
+      long[] transfer = new long[iters];
+      List<long[]> latencies = new ArrayList<>();
+      int failedInstances = 0;
+      for (int i = -warmup; i < iters; i++) {
+        Pass pass =
+            scu == Scu.CSTORE
+                ? cstorePass(corpus, scpNode)
+                : streamPass(corpus, scpNode, dstTs);
+        if (i >= 0) {
+          assoc[i] = pass.assocNs();
+          transfer[i] = pass.transferNs();
+          latencies.add(pass.latenciesNs());
+          failedInstances = Math.max(failedInstances, pass.failed());
+        }
+      }
+      System.out.println(buildRow(label, corpus, assoc, transfer, failedInstances, latencies));
+      return failedInstances > 0;
+    } catch (Exception e) {
+      System.out.printf("%s,ERROR:%s%n", label, sanitize(e.toString()));
+      System.err.println("FAILED " + label + System.lineSeparator() + stackTrace(e));
+      return true;
+    } finally {
+      listener.stop();
+      if (tcFile != null) {
+        FileUtil.delete(tcFile);
+      }
+    }
+  }
+
+  /**
+   * Restricts the SCP to {@code dstTs} for every SOP Class (forces {@code StoreSCU} to transcode),
+   * or returns null to accept everything.
+   */
+  private static Path writeTransferCapabilities(Path storage, String dstTs) throws IOException {
+    if (dstTs == null) {
+      return null;
+    }
+    Files.createDirectories(storage);
+    Path file = Files.createTempFile(storage.getParent(), "tc-", ".properties");
+    Files.writeString(file, "*=" + dstTs + System.lineSeparator());
+    return file;
+  }
+
+  private static Pass cstorePass(List<Instance> corpus, DicomNode scpNode) {
+    List<String> files = corpus.stream().map(i -> i.path().toString()).toList();
+    long[] rspTimes = new long[corpus.size()];
+    AtomicInteger received = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    DicomProgress progress = new DicomProgress();
+    progress.addProgressListener(
+        p -> {
+          int idx = received.getAndIncrement();
+          if (idx < rspTimes.length) {
+            rspTimes[idx] = System.nanoTime();
+          }
+          if (isFailure(p.getAttributes())) {
+            failed.incrementAndGet();
+          }
+        });
+
+    DicomState state = CStore.process(new DicomNode(SCU_AET), scpNode, files, progress);
+    if (state.getStartConnectionDateTime() == null || state.getProcessTime() == null) {
+      throw new IllegalStateException(state.getMessage());
+    }
+    long assocNs =
+        Duration.between(state.getStartConnectionDateTime(), state.getStartTransferDateTime())
+            .toNanos();
+    int n = Math.min(received.get(), rspTimes.length);
+    long[] intervals = new long[Math.max(0, n - 1)];
+    for (int i = 1; i < n; i++) {
+      intervals[i - 1] = rspTimes[i] - rspTimes[i - 1];
+    }
+    int missing = corpus.size() - n;
+    return new Pass(
+        assocNs, state.getProcessTime().toNanos(), failed.get() + missing, intervals);
+  }
+
+  private static Pass streamPass(List<Instance> corpus, DicomNode scpNode, String dstTs)
+      throws Exception {
+    Map<String, Long> sentAt = new ConcurrentHashMap<>();
+    long[] latencies = new long[corpus.size()];
+    AtomicInteger received = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    DicomProgress progress = new DicomProgress();
+    progress.addProgressListener(
+        p -> {
+          Attributes cmd = p.getAttributes();
+          Long t0 = cmd == null ? null : sentAt.remove(cmd.getString(Tag.AffectedSOPInstanceUID));
+          int idx = received.getAndIncrement();
+          if (t0 != null && idx < latencies.length) {
+            latencies[idx] = System.nanoTime() - t0;
+          }
+          if (isFailure(cmd)) {
+            failed.incrementAndGet();
+          }
+        });
+
+    var scu = new StoreFromStreamSCU(null, new DicomNode(SCU_AET), scpNode, progress);
+    var service = new DeviceOpService(scu.getDevice());
+    // Offer every (SOP Class, syntax) pair up front, as a well-behaved forwarder does, so the
+    // association is not torn down and renegotiated in the middle of the timed transfer.
+    for (Instance inst : corpus) {
+      scu.addData(inst.cuid(), requestedSyntax(inst, dstTs));
+    }
+    long t0 = System.nanoTime();
+    long assocNs = -1;
+    try {
+      for (Instance inst : corpus) {
+        String requested = requestedSyntax(inst, dstTs);
+        scu.prepareTransfer(service, inst.iuid(), inst.cuid(), requested);
+        if (assocNs < 0) {
+          assocNs = System.nanoTime() - t0;
+          t0 = System.nanoTime();
+        }
+        try {
+          sendStream(scu, inst, requested, sentAt);
+        } finally {
+          scu.removeIUIDProcessed(inst.iuid());
+        }
+      }
+    } finally {
+      scu.close(true); // drains the outstanding C-STORE-RSPs before releasing
+      service.stop();
+    }
+    long transferNs = System.nanoTime() - t0;
+    int n = Math.min(received.get(), latencies.length);
+    return new Pass(
+        assocNs, transferNs, failed.get() + corpus.size() - n, Arrays.copyOf(latencies, n));
+  }
+
+  private static String requestedSyntax(Instance inst, String dstTs) {
+    return dstTs == null ? inst.tsuid() : dstTs;
+  }
+
+  private static void sendStream(
+      StoreFromStreamSCU scu, Instance inst, String requested, Map<String, Long> sentAt)
+      throws IOException, InterruptedException {
+    var syntax =
+        new AdaptTransferSyntax(inst.tsuid(), scu.selectTransferSyntax(inst.cuid(), requested));
+    if (syntax.getRequested().equals(inst.tsuid())) {
+      try (InputStream in = Files.newInputStream(inst.path())) {
+        in.skipNBytes(inst.dsPos());
+        sentAt.put(inst.iuid(), System.nanoTime());
+        scu.cstore(
+            inst.cuid(), inst.iuid(), Priority.NORMAL, new InputStreamDataWriter(in), inst.tsuid());
+      }
+      return;
+    }
+
+    // Same steps as the CGetForward re-encoding path: the timer covers read, decode and encode.
+    sentAt.put(inst.iuid(), System.nanoTime());
+    Attributes data;
+    try (DicomInputStream dis = new DicomInputStream(inst.path().toFile())) {
+      dis.setIncludeBulkData(IncludeBulkData.URI);
+      data = dis.readDataset();
+    }
+    var context =
+        new AttributeEditorContext(
+            inst.tsuid(), scu.getLocalDicomNode(), scu.getRemoteDicomNode());
+    var desc = ImageAdapter.imageTranscode(data, syntax, context);
+    DataWriter dataWriter =
+        ImageAdapter.buildDataWriter(data, syntax, context.getEditable(), desc);
+    scu.cstore(inst.cuid(), inst.iuid(), Priority.NORMAL, dataWriter, syntax.getSuitable());
+  }
+
+  private static boolean isFailure(Attributes cmd) {
+    if (cmd == null) {
+      return true;
+    }
+    int status = cmd.getInt(Tag.Status, -1);
+    // 0000H success, Bxxx warnings (coercion, elements discarded, SOP Class mismatch).
+    return status != Status.Success && (status & 0xF000) != 0xB000;
+  }
+
+  /* ---------------------------------------------------------------------------------------- */
+  /* Corpus                                                                                   */
+  /* ---------------------------------------------------------------------------------------- */
+
+  private static List<Instance> loadCorpus(String arg, Path syntheticDir) throws IOException {
+    List<Path> candidates = new ArrayList<>();
+    if (arg.startsWith(SYNTHETIC_PREFIX)) {
+      candidates.addAll(generateSynthetic(arg.substring(SYNTHETIC_PREFIX.length()), syntheticDir));
+    } else {
+      Path dir = Path.of(arg);
+      if (Files.isDirectory(dir)) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+          walk.filter(Files::isRegularFile).sorted().forEach(candidates::add);
+        }
+      } else {
+        candidates.add(dir);
+      }
+    }
+
+    List<Instance> corpus = new ArrayList<>(candidates.size());
+    Set<String> iuids = new LinkedHashSet<>();
+    for (Path f : candidates) {
+      Instance inst = scan(f);
+      // Duplicate SOP Instance UIDs overwrite each other on the SCP and break latency pairing.
+      if (inst == null || !iuids.add(inst.iuid())) {
+        System.err.println("# skip (not DICOM or duplicate instance): " + f);
+      } else {
+        corpus.add(inst);
+      }
+    }
+    return corpus;
+  }
+
+  private static Instance scan(Path f) {
+    try (DicomInputStream dis = new DicomInputStream(Files.newInputStream(f))) {
+      dis.setIncludeBulkData(IncludeBulkData.NO);
+      Attributes fmi = dis.readFileMetaInformation();
+      if (fmi == null
+          || !fmi.containsValue(Tag.MediaStorageSOPClassUID)
+          || !fmi.containsValue(Tag.MediaStorageSOPInstanceUID)) {
+        return null;
+      }
+      return new Instance(
+          f,
+          fmi.getString(Tag.MediaStorageSOPClassUID),
+          fmi.getString(Tag.MediaStorageSOPInstanceUID),
+          fmi.getString(Tag.TransferSyntaxUID, UID.ExplicitVRLittleEndian),
+          dis.getPosition(),
+          Files.size(f));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /** Writes {@code N[:ROWSxCOLS]} Secondary Capture instances with a noisy gradient. */
+  private static List<Path> generateSynthetic(String spec, Path dir) throws IOException {
+    String[] parts = spec.split(":");
+    int count = Integer.parseInt(parts[0]);
+    int rows = DEFAULT_SYNTHETIC_SIZE;
+    int cols = DEFAULT_SYNTHETIC_SIZE;
+    if (parts.length > 1) {
+      String[] dim = parts[1].toLowerCase(Locale.ROOT).split("x");
+      rows = Integer.parseInt(dim[0]);
+      cols = Integer.parseInt(dim[1]);
+    }
+    Files.createDirectories(dir);
+    // Fixed seed: the corpus, and therefore the compression ratio of transcode rows, is
+    // reproducible between runs.
+    Random random = new Random(42);
+    String studyUID = UIDUtils.createUID();
+    String seriesUID = UIDUtils.createUID();
+    List<Path> files = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Attributes ds = syntheticDataset(rows, cols, i, studyUID, seriesUID, random);
+      Path file = dir.resolve(String.format(Locale.ROOT, "IMG%06d.dcm", i));
+      try (DicomOutputStream dos = new DicomOutputStream(file.toFile())) {
+        dos.writeDataset(ds.createFileMetaInformation(UID.ExplicitVRLittleEndian), ds);
+      }
+      files.add(file);
+    }
+    return files;
+  }
+
+  private static Attributes syntheticDataset(
+      int rows, int cols, int index, String studyUID, String seriesUID, Random random) {
+    Attributes ds = new Attributes();
+    ds.setString(Tag.SOPClassUID, VR.UI, UID.SecondaryCaptureImageStorage);
+    ds.setString(Tag.SOPInstanceUID, VR.UI, UIDUtils.createUID());
+    ds.setString(Tag.StudyInstanceUID, VR.UI, studyUID);
+    ds.setString(Tag.SeriesInstanceUID, VR.UI, seriesUID);
+    ds.setString(Tag.PatientID, VR.LO, "DIMSEBENCH");
+    ds.setString(Tag.PatientName, VR.PN, "Benchmark^Dimse");
+    ds.setString(Tag.Modality, VR.CS, "OT");
+    ds.setInt(Tag.InstanceNumber, VR.IS, index + 1);
+    ds.setInt(Tag.Rows, VR.US, rows);
+    ds.setInt(Tag.Columns, VR.US, cols);
+    ds.setInt(Tag.SamplesPerPixel, VR.US, 1);
+    ds.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+    ds.setInt(Tag.BitsAllocated, VR.US, 16);
+    ds.setInt(Tag.BitsStored, VR.US, 12);
+    ds.setInt(Tag.HighBit, VR.US, 11);
+    ds.setInt(Tag.PixelRepresentation, VR.US, 0);
+
+    byte[] pixels = new byte[rows * cols * 2];
+    int p = 0;
+    for (int y = 0; y < rows; y++) {
+      for (int x = 0; x < cols; x++) {
+        int v = ((x + y + index) * 4095 / Math.max(1, rows + cols) + random.nextInt(32)) & 0x0FFF;
+        pixels[p++] = (byte) v;
+        pixels[p++] = (byte) (v >> 8);
+      }
+    }
+    ds.setBytes(Tag.PixelData, VR.OW, pixels);
+    return ds;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  /* ---------------------------------------------------------------------------------------- */
+  /* Report                                                                                   */
+  /* ---------------------------------------------------------------------------------------- */
+
+  private static String buildRow(
+      String label,
+      List<Instance> corpus,
+      long[] assoc,
+      long[] transfer,
+      int failed,
+      List<long[]> latencies) {
+    long srcBytes = corpus.stream().mapToLong(Instance::size).sum();
+    double transferS = median(transfer) / 1e9;
+    long[] pooled = latencies.stream().flatMapToLong(Arrays::stream).toArray();
+    return String.join(
+        ",",
+        label,
+        Integer.toString(corpus.size()),
+        Integer.toString(failed),
+        fmt(srcBytes / 1e6),
+        fmt(ns2ms(median(assoc))),
+        fmt(ns2ms(median(transfer))),
+        fmt(transferS > 0 ? corpus.size() / transferS : 0),
+        fmt(transferS > 0 ? srcBytes / 1e6 / transferS : 0),
+        fmt(ns2ms(percentile(pooled, 0.50))),
+        fmt(ns2ms(percentile(pooled, 0.99))));
+  }
+
+  private static long median(long[] a) {
+    return percentile(a, 0.50);
+  }
+
+  private static long percentile(long[] a, double q) {
+    if (a.length == 0) return 0L;
+    long[] s = a.clone();
+    Arrays.sort(s);
+    int idx = (int) Math.ceil(q * s.length) - 1;
+    return s[Math.min(s.length - 1, Math.max(0, idx))];
+  }
+
+  private static double ns2ms(long ns) {
+    return ns / 1e6;
+  }
+
+  private static String fmt(double d) {
+    return String.format(Locale.ROOT, "%.3f", d);
+  }
+
+  private static String sanitize(String s) {
+    return s.replace(',', ';').replace('\n', ' ');
+  }
+
+  /** Full stack trace as a string, so a failed row is diagnosable without a logging framework. */
+  private static String stackTrace(Throwable t) {
+    StringWriter sw = new StringWriter();
+    t.printStackTrace(new PrintWriter(sw));
+    return sw.toString();
+  }
+
+  private DimseBenchmark() {}
+}
@@ -9,27 +9,37 @@
  */
 package org.weasis.dicom.mf;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.util.StringUtil;
 
 /**
  * Manifest generation for DICOM archive queries. A single tree traversal feeds a {@link
- * ManifestSerializer}, so the same content can be emitted as XML (version 2.5) or as JSON.
+ * ManifestSerializer}, so the same content can be emitted as XML (version 2.5), as JSON or as CBOR.
+ *
+ * <p>For large manifests, prefer {@link #writeManifest(OutputStream, ManifestFormat, boolean)}
+ * which streams the document, optionally gzip-compressed, without building it in memory.
  */
 public class ArcQuery implements XmlManifest {
   private static final Logger LOGGER = LoggerFactory.getLogger(ArcQuery.class);
 
   private static final String ATTR_HTTP_TAG_KEY = "key";
   private static final String ATTR_HTTP_TAG_VALUE = "value";
+  private static final int BUFFER_SIZE = 8192;
 
   private final List<QueryResult> queryList;
   private final String manifestUID;
@@ -71,9 +81,17 @@ public class ArcQuery implements XmlManifest {
     }
   }
 
-  /** Generates a manifest string in the requested format, or null if generation fails. */
+  /**
+   * Generates a manifest string in the requested format, or null if generation fails.
+   *
+   * @throws IllegalArgumentException if the format is binary (CBOR)
+   */
   public String manifest(String version, ManifestFormat format) {
-    return format == ManifestFormat.JSON ? jsonManifest(version) : xmlManifest(version);
+    return switch (format) {
+      case XML -> xmlManifest(version);
+      case JSON -> jsonManifest(version);
+      case CBOR -> throw new IllegalArgumentException("CBOR manifest cannot be a String");
+    };
   }
 
   @Override
@@ -83,9 +101,16 @@ public class ArcQuery implements XmlManifest {
     writeModernManifest(new XmlManifestSerializer(writer, getCharsetEncoding()));
   }
 
-  /** Writes the manifest to {@code writer} in the requested format. */
+  /**
+   * Writes the manifest to {@code writer} in the requested format.
+   *
+   * @throws IllegalArgumentException if the format is binary (CBOR)
+   */
   public void writeManifest(Writer writer, String version, ManifestFormat format)
       throws IOException {
+    if (format == ManifestFormat.CBOR) {
+      throw new IllegalArgumentException("CBOR manifest cannot be written to a Writer");
+    }
     if (format == ManifestFormat.JSON) {
       // JSON has no legacy variant: always emit the modern structure.
       writeModernManifest(new JsonManifestSerializer(writer));
@@ -94,6 +119,38 @@ public class ArcQuery implements XmlManifest {
     }
   }
 
+  /**
+   * Streams the manifest to {@code out} in the requested format. XML uses the {@link
+   * #getCharsetEncoding() charset encoding}, JSON is always UTF-8. The stream is not closed, but
+   * everything is flushed and the gzip trailer is written before returning.
+   *
+   * @param out the destination stream
+   * @param format the manifest format
+   * @param gzip true to compress the manifest with gzip (e.g. for {@code Content-Encoding: gzip})
+   */
+  public void writeManifest(OutputStream out, ManifestFormat format, boolean gzip)
+      throws IOException {
+    Objects.requireNonNull(out, "Output stream cannot be null");
+    Objects.requireNonNull(format, "Format cannot be null");
+    GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+    var stream = new BufferedOutputStream(gzip ? gzipStream : out, BUFFER_SIZE);
+    if (format == ManifestFormat.CBOR) {
+      writeModernManifest(new CborManifestSerializer(stream));
+    } else {
+      Charset charset =
+          format == ManifestFormat.JSON
+              ? StandardCharsets.UTF_8
+              : Charset.forName(getCharsetEncoding());
+      var writer = new OutputStreamWriter(stream, charset);
+      writeManifest(writer, null, format);
+      writer.flush();
+    }
+    stream.flush();
+    if (gzipStream != null) {
+      gzipStream.finish();
+    }
+  }
+
   public static boolean hasContent(QueryResult archive) {
     return !archive.getPatients().isEmpty() || !archive.getViewerMessages().isEmpty();
   }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.mf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.weasis.core.util.StringUtil;
+
+/**
+ * Emits a manifest as CBOR (RFC 8949) with the same structure as {@link JsonManifestSerializer}:
+ * any CBOR decoder produces the tree of the JSON manifest. Maps and arrays are written with
+ * indefinite lengths, so the document is streamed without buffering a level.
+ *
+ * <p>The encoded element and attribute names, a small fixed set, are cached.
+ */
+public class CborManifestSerializer implements ManifestSerializer {
+
+  private static final int MAJOR_TEXT = 0x60;
+  private static final int START_ARRAY = 0x9F;
+  private static final int START_MAP = 0xBF;
+  private static final int BREAK = 0xFF;
+  private static final int FALSE = 0xF4;
+  private static final int TRUE = 0xF5;
+
+  private final OutputStream out;
+  private final Map<String, byte[]> names = new HashMap<>();
+  // true when the enclosing container is an array (its items are anonymous)
+  private final Deque<Boolean> arrayContext = new ArrayDeque<>();
+
+  public CborManifestSerializer(OutputStream out) {
+    this.out = Objects.requireNonNull(out, "Output stream cannot be null");
+  }
+
+  @Override
+  public void beginDocument() throws IOException {
+    out.write(START_MAP);
+    arrayContext.push(Boolean.FALSE);
+  }
+
+  @Override
+  public void endDocument() throws IOException {
+    endElement();
+    out.flush();
+  }
+
+  @Override
+  public void beginObject(String name) throws IOException {
+    startObject(name);
+  }
+
+  @Override
+  public void endObject() throws IOException {
+    endElement();
+  }
+
+  @Override
+  public void beginLeaf(String name) throws IOException {
+    startObject(name);
+  }
+
+  @Override
+  public void endLeaf() throws IOException {
+    endElement();
+  }
+
+  @Override
+  public void attribute(String name, String value) throws IOException {
+    if (StringUtil.hasText(name) && StringUtil.hasText(value)) {
+      writeName(name);
+      writeText(value.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Override
+  public void attribute(String name, boolean value) throws IOException {
+    if (StringUtil.hasText(name)) {
+      writeName(name);
+      out.write(value ? TRUE : FALSE);
+    }
+  }
+
+  @Override
+  public void schema(String namespace) {
+    // No namespaces in CBOR.
+  }
+
+  @Override
+  public void beginArray(String name) throws IOException {
+    writeName(name);
+    out.write(START_ARRAY);
+    arrayContext.push(Boolean.TRUE);
+  }
+
+  @Override
+  public void endArray() throws IOException {
+    endElement();
+  }
+
+  private void startObject(String name) throws IOException {
+    if (!Boolean.TRUE.equals(arrayContext.peek())) {
+      writeName(name);
+    }
+    out.write(START_MAP);
+    arrayContext.push(Boolean.FALSE);
+  }
+
+  private void endElement() throws IOException {
+    out.write(BREAK);
+    arrayContext.pop();
+  }
+
+  private void writeName(String name) throws IOException {
+    writeText(names.computeIfAbsent(name, n -> n.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private void writeText(byte[] utf8) throws IOException {
+    int length = utf8.length;
+    if (length < 24) {
+      out.write(MAJOR_TEXT | length);
+    } else if (length < 0x100) {
+      out.write(MAJOR_TEXT | 24);
+      out.write(length);
+    } else if (length < 0x10000) {
+      out.write(MAJOR_TEXT | 25);
+      out.write(length >>> 8);
+      out.write(length);
+    } else {
+      out.write(MAJOR_TEXT | 26);
+      out.write(length >>> 24);
+      out.write(length >>> 16);
+      out.write(length >>> 8);
+      out.write(length);
+    }
+    out.write(utf8);
+  }
+}
@@ -12,5 +12,10 @@ package org.weasis.dicom.mf;
 /** Output format of a generated manifest. */
 public enum ManifestFormat {
   XML,
-  JSON
+  JSON,
+  /**
+   * Binary CBOR (RFC 8949) with the structure of the JSON manifest; only available as a stream,
+   * see {@link ArcQuery#writeManifest(java.io.OutputStream, ManifestFormat, boolean)}.
+   */
+  CBOR
 }
@@ -13,8 +13,8 @@ import java.io.IOException;
 
 /**
  * Format-agnostic writer for a manifest document. The manifest tree is walked once and emitted
- * through this interface, so a single traversal can produce either XML or JSON (see {@link
- * XmlManifestSerializer} and {@link JsonManifestSerializer}).
+ * through this interface, so a single traversal can produce XML, JSON or CBOR (see {@link
+ * XmlManifestSerializer}, {@link JsonManifestSerializer} and {@link CborManifestSerializer}).
  *
  * <p>Contract: {@code beginDocument} first, then a single root object. Inside an object, emit
  * {@link #attribute(String, String) attributes} before any nested object, array or leaf. Repeated
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.mf;
+
+import java.util.Objects;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.weasis.core.util.StringUtil;
+
+/**
+ * Fills the manifest model from the datasets returned by a query (C-FIND or QIDO-RS): each method
+ * creates the node of a level from its attributes, or completes the existing one, and attaches it
+ * to its parent.
+ *
+ * <p>The nodes of the model are not thread-safe: the datasets of a query result must be added by
+ * one thread at a time.
+ */
+public final class QueryResultBuilder {
+
+  private QueryResultBuilder() {
+    // Utility class
+  }
+
+  /**
+   * Adds the patient and the study of a study-level dataset.
+   *
+   * @param result the query result
+   * @param dataset the study attributes, including the patient attributes
+   * @return the study, or null if the dataset has no Patient ID or no Study Instance UID
+   */
+  public static Study addStudy(AbstractQueryResult result, Attributes dataset) {
+    Objects.requireNonNull(result, "result cannot be null");
+    String patientID = dataset.getString(Tag.PatientID);
+    String studyUID = dataset.getString(Tag.StudyInstanceUID);
+    if (!StringUtil.hasText(patientID) || !StringUtil.hasText(studyUID)) {
+      return null;
+    }
+
+    String issuer = dataset.getString(Tag.IssuerOfPatientID);
+    Patient patient = result.getPatient(patientID, issuer);
+    if (patient == null) {
+      patient = new Patient(patientID, issuer);
+      patient.setPatientName(dataset.getString(Tag.PatientName));
+      patient.setPatientBirthDate(dataset.getString(Tag.PatientBirthDate));
+      patient.setPatientBirthTime(dataset.getString(Tag.PatientBirthTime));
+      patient.setPatientSex(dataset.getString(Tag.PatientSex));
+      result.addPatient(patient);
+    }
+
+    Study study = patient.getStudy(studyUID);
+    if (study == null) {
+      study = new Study(studyUID);
+      study.setStudyID(dataset.getString(Tag.StudyID));
+      study.setStudyDescription(dataset.getString(Tag.StudyDescription));
+      study.setStudyDate(dataset.getString(Tag.StudyDate));
+      study.setStudyTime(dataset.getString(Tag.StudyTime));
+      study.setAccessionNumber(dataset.getString(Tag.AccessionNumber));
+      study.setReferringPhysicianName(dataset.getString(Tag.ReferringPhysicianName));
+      patient.addStudy(study);
+    }
+    return study;
+  }
+
+  /**
+   * Adds the series of a series-level or instance-level dataset to a study.
+   *
+   * @param study the parent study
+   * @param dataset the series attributes
+   * @return the series, or null if the dataset has no Series Instance UID
+   */
+  public static Series addSeries(Study study, Attributes dataset) {
+    Objects.requireNonNull(study, "study cannot be null");
+    String seriesUID = dataset.getString(Tag.SeriesInstanceUID);
+    if (!StringUtil.hasText(seriesUID)) {
+      return null;
+    }
+
+    Series series = study.getSeries(seriesUID);
+    if (series == null) {
+      series = new Series(seriesUID);
+      study.addSeries(series);
+    }
+    if (series.getModality() == null) {
+      series.setModality(dataset.getString(Tag.Modality));
+    }
+    if (series.getSeriesDescription() == null) {
+      series.setSeriesDescription(dataset.getString(Tag.SeriesDescription));
+    }
+    if (series.getSeriesNumber() == null) {
+      series.setSeriesNumber(dataset.getString(Tag.SeriesNumber));
+    }
+    return series;
+  }
+
+  /**
+   * Adds the SOP instance of an instance-level dataset to a series.
+   *
+   * @param series the parent series
+   * @param dataset the instance attributes
+   * @return the SOP instance, or null if the dataset has no SOP Instance UID
+   */
+  public static SopInstance addSopInstance(Series series, Attributes dataset) {
+    Objects.requireNonNull(series, "series cannot be null");
+    String sopUID = dataset.getString(Tag.SOPInstanceUID);
+    if (!StringUtil.hasText(sopUID)) {
+      return null;
+    }
+
+    Integer instanceNumber = getInteger(dataset, Tag.InstanceNumber);
+    SopInstance sop = series.getSopInstance(sopUID, instanceNumber);
+    if (sop == null) {
+      sop = new SopInstance(sopUID, dataset.getString(Tag.SOPClassUID), instanceNumber);
+      series.addSopInstance(sop);
+    }
+    return sop;
+  }
+
+  /**
+   * Adds the SOP instance of an instance-level dataset with its patient, study and series.
+   *
+   * @param result the query result
+   * @param dataset the instance attributes, including the patient, study and series attributes
+   * @return the SOP instance, or null if the dataset has no Patient ID or no UID of one of the
+   *     levels
+   */
+  public static SopInstance addInstance(AbstractQueryResult result, Attributes dataset) {
+    Study study = addStudy(result, dataset);
+    Series series = study == null ? null : addSeries(study, dataset);
+    return series == null ? null : addSopInstance(series, dataset);
+  }
+
+  private static Integer getInteger(Attributes dataset, int tag) {
+    int value = dataset.getInt(tag, Integer.MIN_VALUE);
+    return value == Integer.MIN_VALUE ? null : value;
+  }
+}
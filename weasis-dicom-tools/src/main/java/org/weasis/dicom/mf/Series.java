@@ -10,9 +10,8 @@
 package org.weasis.dicom.mf;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -55,6 +54,8 @@ public class Series implements ManifestNode, Comparable<Series> {
   private String wadoTransferSyntaxUID;
   private int wadoCompression = MIN_COMPRESSION;
   private String thumbnail;
+  // Instances in manifest order, sorted once and reused until the series changes
+  private SopInstance[] sortedInstances;
 
   /**
    * Creates a series with the specified instance UID.
@@ -152,6 +153,7 @@ public class Series implements ManifestNode, Comparable<Series> {
    */
   public void addSopInstance(SopInstance sopInstance) {
     SopInstance.addSopInstance(sopInstanceMap, sopInstance);
+    sortedInstances = null;
   }
 
   /**
@@ -162,6 +164,7 @@ public class Series implements ManifestNode, Comparable<Series> {
    * @return the removed SOP instance, or null if not found
    */
   public SopInstance removeSopInstance(String sopUID, Integer instanceNumber) {
+    sortedInstances = null;
     return SopInstance.removeSopInstance(sopInstanceMap, sopUID, instanceNumber);
   }
 
@@ -245,16 +248,25 @@ public class Series implements ManifestNode, Comparable<Series> {
     if (sopInstanceMap.isEmpty()) {
       return;
     }
-    var sortedInstances = new ArrayList<>(sopInstanceMap.values());
-    Collections.sort(sortedInstances);
-
     serializer.beginArray(ManifestNode.Level.INSTANCE.getTagName());
-    for (SopInstance instance : sortedInstances) {
+    for (SopInstance instance : getSortedInstances()) {
       instance.write(serializer);
     }
     serializer.endArray();
   }
 
+  // The order only depends on the immutable UID and instance number, so the sorted array stays
+  // valid until an instance is added or removed (also through the entry set, hence the size check)
+  private SopInstance[] getSortedInstances() {
+    SopInstance[] sorted = sortedInstances;
+    if (sorted == null || sorted.length != sopInstanceMap.size()) {
+      sorted = sopInstanceMap.values().toArray(SopInstance[]::new);
+      Arrays.sort(sorted);
+      sortedInstances = sorted;
+    }
+    return sorted;
+  }
+
   // Returns compression rate as string, null if not set
   private String getCompressionRateString() {
     return wadoCompression > MIN_COMPRESSION ? String.valueOf(wadoCompression) : null;
@@ -181,8 +181,8 @@ public final class CFind {
   }
 
   private static DicomState executeQuery(FindSCU findSCU) throws Exception {
+    var service = new DeviceOpService(findSCU.getDevice());
     try {
-      var service = new DeviceOpService(findSCU.getDevice());
       service.start();
       var startTime = System.currentTimeMillis();
       findSCU.open();
@@ -203,6 +203,8 @@ public final class CFind {
       LOGGER.error("C-FIND query execution failed", e);
       ServiceUtil.forceGettingAttributes(findSCU.getState(), findSCU);
       return DicomState.buildMessage(findSCU.getState(), null, e);
+    } finally {
+      service.stop();
     }
   }
 
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.op;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.dicom.mf.ArcQuery;
+import org.weasis.dicom.mf.DefaultQueryResult;
+import org.weasis.dicom.mf.Patient;
+import org.weasis.dicom.mf.QueryResultBuilder;
+import org.weasis.dicom.mf.Series;
+import org.weasis.dicom.mf.Study;
+import org.weasis.dicom.mf.ViewerMessage;
+import org.weasis.dicom.mf.WadoParameters;
+import org.weasis.dicom.param.AdvancedParams;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomParam;
+import org.weasis.dicom.param.DicomState;
+import org.weasis.dicom.util.ServiceUtil;
+
+/**
+ * Builds a Weasis manifest from hierarchical C-FIND queries: a study-level query, then a
+ * series-level query per study and an instance-level query per series.
+ *
+ * <p>The series-level and instance-level queries run concurrently, each on its own association,
+ * with at most {@link #getMaxAssociations()} associations open at the same time. An instance-level
+ * query is sent as soon as its series is known, without waiting for the other studies. The
+ * responses are merged into the manifest model by the calling thread, which also notifies the
+ * {@link SeriesListener} of every completed series.
+ *
+ * <p>A failed query does not stop the build: it is reported as a {@link ViewerMessage} of the
+ * query result and its branch of the hierarchy is left incomplete.
+ */
+public final class CFindManifestBuilder {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CFindManifestBuilder.class);
+
+  /** Default maximum number of concurrent associations. */
+  public static final int DEFAULT_MAX_ASSOCIATIONS = 4;
+
+  private static final DicomParam[] STUDY_RETURN_KEYS = {
+    CFind.PatientID,
+    CFind.IssuerOfPatientID,
+    CFind.PatientName,
+    CFind.PatientBirthDate,
+    CFind.PatientSex,
+    CFind.StudyInstanceUID,
+    CFind.StudyID,
+    CFind.StudyDescription,
+    CFind.StudyDate,
+    CFind.StudyTime,
+    CFind.AccessionNumber,
+    CFind.ReferringPhysicianName
+  };
+
+  /** Receives the series of the manifest as soon as their instances are known. */
+  @FunctionalInterface
+  public interface SeriesListener {
+    void seriesCompleted(Patient patient, Study study, Series series);
+  }
+
+  /** Executes a C-FIND query at the given level. */
+  @FunctionalInterface
+  interface QueryExecutor {
+    DicomState query(QueryRetrieveLevel level, DicomParam... keys);
+  }
+
+  private final QueryExecutor executor;
+  private int maxAssociations = DEFAULT_MAX_ASSOCIATIONS;
+  private SeriesListener seriesListener;
+
+  /**
+   * Creates a manifest builder querying the called node.
+   *
+   * @param params optional advanced parameters (proxy, authentication, connection and TLS)
+   * @param callingNode the calling DICOM node configuration
+   * @param calledNode the called DICOM node configuration
+   * @throws IllegalArgumentException if callingNode or calledNode is null
+   */
+  public CFindManifestBuilder(AdvancedParams params, DicomNode callingNode, DicomNode calledNode) {
+    if (callingNode == null || calledNode == null) {
+      throw new IllegalArgumentException("callingNode and calledNode cannot be null");
+    }
+    this.executor =
+        (level, keys) -> CFind.process(params, callingNode, calledNode, 0, level, keys);
+  }
+
+  CFindManifestBuilder(QueryExecutor executor) {
+    this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+  }
+
+  public int getMaxAssociations() {
+    return maxAssociations;
+  }
+
+  /**
+   * Sets the maximum number of associations used concurrently for the lower-level queries.
+   *
+   * @param maxAssociations the number of associations, at least 1
+   * @return this builder
+   */
+  public CFindManifestBuilder setMaxAssociations(int maxAssociations) {
+    if (maxAssociations < 1) {
+      throw new IllegalArgumentException("maxAssociations must be at least 1");
+    }
+    this.maxAssociations = maxAssociations;
+    return this;
+  }
+
+  /**
+   * Sets the listener notified, on the calling thread, of each series whose instances have been
+   * merged into the manifest.
+   *
+   * @param seriesListener the listener, or null to remove it
+   * @return this builder
+   */
+  public CFindManifestBuilder setSeriesListener(SeriesListener seriesListener) {
+    this.seriesListener = seriesListener;
+    return this;
+  }
+
+  /**
+   * Builds the manifest of the studies matching the keys.
+   *
+   * @param wadoParameters the WADO parameters of the manifest
+   * @param studyKeys the study-level matching keys (e.g. Patient ID or Accession Number)
+   * @return the manifest, ready to be serialized
+   * @throws InterruptedException if the calling thread is interrupted while waiting for the queries
+   */
+  public ArcQuery build(WadoParameters wadoParameters, DicomParam... studyKeys)
+      throws InterruptedException {
+    var result = new DefaultQueryResult(wadoParameters);
+    fill(result, studyKeys);
+    return new ArcQuery(List.of(result));
+  }
+
+  /**
+   * Queries the studies matching the keys and adds them, with their series and instances, to the
+   * query result.
+   *
+   * @param result the query result to fill
+   * @param studyKeys the study-level matching keys (e.g. Patient ID or Accession Number)
+   * @return the number of studies matching the keys
+   * @throws InterruptedException if the calling thread is interrupted while waiting for the queries
+   */
+  public int fill(DefaultQueryResult result, DicomParam... studyKeys) throws InterruptedException {
+    Objects.requireNonNull(result, "result cannot be null");
+    DicomState studyState = executor.query(QueryRetrieveLevel.STUDY, mergeKeys(studyKeys));
+    if (isFailed(studyState)) {
+      addFailure(result, "Cannot query the studies", studyState, ViewerMessage.Level.ERROR);
+    }
+
+    List<Attributes> studies = studyState.getDicomRSP();
+    ExecutorService service =
+        Executors.newFixedThreadPool(
+            maxAssociations, ServiceUtil.getThreadFactory("CFindManifest"));
+    try {
+      CompletionService<LevelResponse> completion = new ExecutorCompletionService<>(service);
+      int pending = 0;
+      for (Attributes dataset : studies) {
+        Study study = QueryResultBuilder.addStudy(result, dataset);
+        if (study != null) {
+          Patient patient =
+              result.getPatient(
+                  dataset.getString(Tag.PatientID), dataset.getString(Tag.IssuerOfPatientID));
+          completion.submit(() -> querySeries(patient, study));
+          pending++;
+        }
+      }
+
+      while (pending > 0) {
+        LevelResponse response = take(completion);
+        pending--;
+        if (isFailed(response.state())) {
+          addFailure(result, response.description(), response.state(), ViewerMessage.Level.WARN);
+        }
+        if (response.series() == null) {
+          pending += mergeSeries(response, completion);
+        } else {
+          mergeInstances(response);
+        }
+      }
+    } finally {
+      service.shutdownNow();
+    }
+    return studies.size();
+  }
+
+  private int mergeSeries(LevelResponse response, CompletionService<LevelResponse> completion) {
+    int submitted = 0;
+    for (Attributes dataset : response.state().getDicomRSP()) {
+      Series series = QueryResultBuilder.addSeries(response.study(), dataset);
+      if (series != null) {
+        completion.submit(() -> queryInstances(response.patient(), response.study(), series));
+        submitted++;
+      }
+    }
+    return submitted;
+  }
+
+  private void mergeInstances(LevelResponse response) {
+    for (Attributes dataset : response.state().getDicomRSP()) {
+      QueryResultBuilder.addSopInstance(response.series(), dataset);
+    }
+    if (seriesListener != null) {
+      seriesListener.seriesCompleted(response.patient(), response.study(), response.series());
+    }
+  }
+
+  private LevelResponse querySeries(Patient patient, Study study) {
+    DicomState state =
+        executor.query(
+            QueryRetrieveLevel.SERIES,
+            new DicomParam(Tag.StudyInstanceUID, study.getStudyInstanceUID()),
+            CFind.SeriesInstanceUID,
+            CFind.Modality,
+            CFind.SeriesNumber,
+            CFind.SeriesDescription);
+    return new LevelResponse(patient, study, null, state);
+  }
+
+  private LevelResponse queryInstances(Patient patient, Study study, Series series) {
+    DicomState state =
+        executor.query(
+            QueryRetrieveLevel.IMAGE,
+            new DicomParam(Tag.StudyInstanceUID, study.getStudyInstanceUID()),
+            new DicomParam(Tag.SeriesInstanceUID, series.getSeriesInstanceUID()),
+            CFind.SOPInstanceUID,
+            CFind.InstanceNumber,
+            CFind.SopClassUID);
+    return new LevelResponse(patient, study, series, state);
+  }
+
+  private static LevelResponse take(CompletionService<LevelResponse> completion)
+      throws InterruptedException {
+    try {
+      return completion.take().get();
+    } catch (ExecutionException e) {
+      // Queries report their errors in DicomState; anything else is a programming error
+      throw new IllegalStateException("C-FIND query failed", e.getCause());
+    }
+  }
+
+  private static DicomParam[] mergeKeys(DicomParam... studyKeys) {
+    Map<Integer, DicomParam> keys = new LinkedHashMap<>();
+    for (DicomParam param : STUDY_RETURN_KEYS) {
+      keys.put(param.getTag(), param);
+    }
+    if (studyKeys != null) {
+      for (DicomParam param : studyKeys) {
+        keys.put(param.getTag(), param);
+      }
+    }
+    return keys.values().toArray(DicomParam[]::new);
+  }
+
+  private static boolean isFailed(DicomState state) {
+    return state.getStatus() != Status.Success;
+  }
+
+  private static void addFailure(
+      DefaultQueryResult result, String title, DicomState state, ViewerMessage.Level level) {
+    String message =
+        Objects.requireNonNullElse(state.getMessage(), "DICOM status: " + state.getStatus());
+    LOGGER.warn("{}: {}", title, message);
+    result.addViewerMessage(new ViewerMessage(title, message, level));
+  }
+
+  private record LevelResponse(Patient patient, Study study, Series series, DicomState state) {
+
+    String description() {
+      return series == null
+          ? "Cannot query the series of the study " + study.getStudyInstanceUID()
+          : "Cannot query the instances of the series " + series.getSeriesInstanceUID();
+    }
+  }
+}
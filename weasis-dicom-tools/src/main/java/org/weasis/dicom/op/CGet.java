@@ -20,6 +20,7 @@ import org.dcm4che3.net.Status;
 import org.dcm4che3.tool.common.CLIUtils;
 import org.dcm4che3.tool.getscu.GetSCU;
 import org.dcm4che3.tool.getscu.GetSCU.InformationModel;
+import org.dcm4che3.tool.getscu.GetSCU.InstanceHandler;
 import org.dcm4che3.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +41,7 @@ import org.weasis.dicom.util.ServiceUtil;
  *
  * <p>The C-GET service allows a DICOM SCU (Service Class User) to retrieve DICOM objects from a
  * remote DICOM SCP (Service Class Provider). Retrieved objects are stored in a specified output
- * directory.
+ * directory, or read in memory and given to an {@link InstanceHandler}.
  */
 public final class CGet {
 
@@ -117,7 +118,45 @@ public final class CGet {
 
     try {
       return executeGetOperation(
-          options, callingNode, calledNode, progress, outputDir, sopClassURL, keys);
+          options, callingNode, calledNode, progress, outputDir, sopClassURL, null, 0, keys);
+    } catch (Exception e) {
+      LOGGER.error("DICOM C-GET operation failed", e);
+      return createErrorState(e);
+    }
+  }
+
+  /**
+   * Performs a DICOM C-GET operation reading the retrieved objects in memory instead of writing
+   * them to files. Each instance is given to the handler while the retrieve continues, so its
+   * frames can be decoded by {@link org.dcm4che3.img.DicomImageReader} without a file round trip.
+   *
+   * @param params the advanced parameters (may be null for defaults)
+   * @param callingNode the calling DICOM node configuration
+   * @param calledNode the called DICOM node configuration
+   * @param progress the progress handler for monitoring operation status
+   * @param handler the handler of the retrieved instances, called from the association thread
+   * @param spillThreshold the size in bytes above which native pixel data is written to a
+   *     temporary file (see {@link GetSCU#setSpillThreshold(long)})
+   * @param keys the query parameters and return keys
+   * @return the DICOM state containing response status and progress information
+   * @throws NullPointerException if a node or the handler is null
+   */
+  public static DicomState processInMemory(
+      AdvancedParams params,
+      DicomNode callingNode,
+      DicomNode calledNode,
+      DicomProgress progress,
+      InstanceHandler handler,
+      long spillThreshold,
+      DicomParam... keys) {
+    Objects.requireNonNull(callingNode, "callingNode cannot be null");
+    Objects.requireNonNull(calledNode, "calledNode cannot be null");
+    Objects.requireNonNull(handler, "handler cannot be null");
+    var options = Objects.requireNonNullElse(params, new AdvancedParams());
+
+    try {
+      return executeGetOperation(
+          options, callingNode, calledNode, progress, null, null, handler, spillThreshold, keys);
     } catch (Exception e) {
       LOGGER.error("DICOM C-GET operation failed", e);
       return createErrorState(e);
@@ -138,6 +177,8 @@ public final class CGet {
       DicomProgress progress,
       Path outputDir,
       URL sopClassURL,
+      InstanceHandler handler,
+      long spillThreshold,
       DicomParam... keys)
       throws Exception {
 
@@ -146,6 +187,10 @@ public final class CGet {
 
     try {
       configureGetSCU(getSCU, options, callingNode, calledNode, outputDir, sopClassURL);
+      if (handler != null) {
+        getSCU.setInstanceHandler(handler);
+        getSCU.setSpillThreshold(spillThreshold);
+      }
       addQueryKeys(getSCU, keys);
 
       service.start();
@@ -0,0 +1,480 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.op;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.util.StringUtil;
+import org.weasis.dicom.op.CFindManifestBuilder.QueryExecutor;
+import org.weasis.dicom.param.AdvancedParams;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomParam;
+import org.weasis.dicom.param.DicomProgress;
+import org.weasis.dicom.param.DicomState;
+import org.weasis.dicom.util.ServiceUtil;
+
+/**
+ * Retrieves a study with concurrent C-GET requests, so that a viewer can display each series
+ * before the whole study has arrived.
+ *
+ * <p>The instances of the study are listed with an instance-level C-FIND. The representative
+ * instance of each series (the middle one in instance number order) is retrieved first, then the
+ * other instances by batches of at most {@link #getBatchSize()} SOP Instance UIDs. The requests run
+ * on up to {@link #getMaxAssociations()} associations at the same time and are started in this
+ * order, so all the representative instances are requested before the bulk of the study.
+ *
+ * <p>With an {@link InstanceCache}, only the instances missing from the cache are requested: the
+ * cached ones are exported to the output directory, and the retrieved ones are added to the cache.
+ *
+ * <p>The {@link SeriesProgressListener} receives the progress of each series. It is called from
+ * the retrieving threads and must be thread-safe.
+ */
+public final class CGetStudyRetriever {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CGetStudyRetriever.class);
+
+  /** Default maximum number of concurrent associations. */
+  public static final int DEFAULT_MAX_ASSOCIATIONS = 4;
+
+  /** Default maximum number of SOP Instance UIDs in a C-GET request. */
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  /** Progress of the retrieval of a series. */
+  public record SeriesProgress(
+      String seriesInstanceUID, int total, int completed, int failed, boolean representative) {
+
+    /** Returns true when every instance of the series has been processed. */
+    public boolean isDone() {
+      return completed + failed >= total;
+    }
+  }
+
+  /** Receives the progress of each series of the study. */
+  @FunctionalInterface
+  public interface SeriesProgressListener {
+
+    /**
+     * Called when instances of a series have been retrieved or have failed.
+     *
+     * @param progress the progress of the series
+     */
+    void seriesProgress(SeriesProgress progress);
+  }
+
+  /** Executes a C-GET request. */
+  @FunctionalInterface
+  interface RetrieveExecutor {
+    DicomState retrieve(DicomProgress progress, DicomParam... keys);
+  }
+
+  private final QueryExecutor finder;
+  private final RetrieveExecutor retriever;
+  private final Path outputDir;
+  private final Set<DicomProgress> activeRequests = ConcurrentHashMap.newKeySet();
+  private int maxAssociations = DEFAULT_MAX_ASSOCIATIONS;
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private SeriesProgressListener listener;
+  private InstanceCache cache;
+  private String cacheTransferSyntax;
+  private volatile boolean cancelled;
+
+  /**
+   * Creates a retriever storing the instances in the output directory.
+   *
+   * @param params optional advanced parameters (proxy, authentication, connection and TLS)
+   * @param callingNode the calling DICOM node configuration
+   * @param calledNode the called DICOM node configuration
+   * @param outputDir the directory where retrieved DICOM files will be stored
+   */
+  public CGetStudyRetriever(
+      AdvancedParams params, DicomNode callingNode, DicomNode calledNode, Path outputDir) {
+    Objects.requireNonNull(callingNode, "callingNode cannot be null");
+    Objects.requireNonNull(calledNode, "calledNode cannot be null");
+    Objects.requireNonNull(outputDir, "outputDir cannot be null");
+    this.finder = (level, keys) -> CFind.process(params, callingNode, calledNode, 0, level, keys);
+    this.retriever =
+        (progress, keys) ->
+            CGet.process(params, callingNode, calledNode, progress, outputDir, keys);
+    this.outputDir = outputDir;
+  }
+
+  CGetStudyRetriever(QueryExecutor finder, RetrieveExecutor retriever, Path outputDir) {
+    this.finder = Objects.requireNonNull(finder, "finder cannot be null");
+    this.retriever = Objects.requireNonNull(retriever, "retriever cannot be null");
+    this.outputDir = outputDir;
+  }
+
+  public int getMaxAssociations() {
+    return maxAssociations;
+  }
+
+  /**
+   * Sets the maximum number of associations used at the same time.
+   *
+   * @param maxAssociations the number of associations, at least 1
+   * @return this retriever
+   */
+  public CGetStudyRetriever setMaxAssociations(int maxAssociations) {
+    if (maxAssociations < 1) {
+      throw new IllegalArgumentException("maxAssociations must be at least 1");
+    }
+    this.maxAssociations = maxAssociations;
+    return this;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the maximum number of SOP Instance UIDs of a C-GET request. Smaller batches spread a large
+   * series over more associations.
+   *
+   * @param batchSize the number of instances, at least 1
+   * @return this retriever
+   */
+  public CGetStudyRetriever setBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be at least 1");
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Sets the listener receiving the progress of each series.
+   *
+   * @param listener the listener, or null to remove it
+   * @return this retriever
+   */
+  public CGetStudyRetriever setSeriesProgressListener(SeriesProgressListener listener) {
+    this.listener = listener;
+    return this;
+  }
+
+  /**
+   * Sets the cache of the instances already retrieved, served in any transfer syntax.
+   *
+   * @param cache the cache, or null to retrieve all the instances
+   * @return this retriever
+   */
+  public CGetStudyRetriever setCache(InstanceCache cache) {
+    return setCache(cache, null);
+  }
+
+  /**
+   * Sets the cache of the instances already retrieved. Only the instances cached in the given
+   * transfer syntax are served from the cache, the others are retrieved.
+   *
+   * @param cache the cache, or null to retrieve all the instances
+   * @param transferSyntaxUID the transfer syntax of the instances to serve, or null for any
+   * @return this retriever
+   */
+  public CGetStudyRetriever setCache(InstanceCache cache, String transferSyntaxUID) {
+    this.cache = cache;
+    this.cacheTransferSyntax = transferSyntaxUID;
+    return this;
+  }
+
+  /** Cancels the current retrieval: pending requests are skipped and running ones cancelled. */
+  public void cancel() {
+    cancelled = true;
+    activeRequests.forEach(DicomProgress::cancel);
+  }
+
+  /**
+   * Retrieves all the instances of a study.
+   *
+   * @param studyInstanceUID the Study Instance UID
+   * @return the state of the retrieval: success when all the instances have been retrieved
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  public DicomState retrieve(String studyInstanceUID) throws InterruptedException {
+    if (!StringUtil.hasText(studyInstanceUID)) {
+      throw new IllegalArgumentException("studyInstanceUID cannot be empty");
+    }
+    cancelled = false;
+    long startTime = System.currentTimeMillis();
+    DicomState findState =
+        finder.query(
+            QueryRetrieveLevel.IMAGE,
+            new DicomParam(Tag.StudyInstanceUID, studyInstanceUID),
+            CFind.SeriesInstanceUID,
+            CFind.SOPInstanceUID,
+            CFind.InstanceNumber);
+    if (findState.getStatus() != Status.Success) {
+      return findState;
+    }
+
+    List<SeriesRetrieval> seriesList = groupBySeries(findState.getDicomRSP());
+    if (cache != null) {
+      seriesList.forEach(this::serveFromCache);
+    }
+    List<Request> requests = new ArrayList<>();
+    for (SeriesRetrieval series : seriesList) {
+      Request representative = series.representativeRequest();
+      if (representative != null) {
+        requests.add(representative);
+      }
+    }
+    for (SeriesRetrieval series : seriesList) {
+      requests.addAll(series.bulkRequests(batchSize));
+    }
+
+    ExecutorService service =
+        Executors.newFixedThreadPool(maxAssociations, ServiceUtil.getThreadFactory("CGetStudy"));
+    try {
+      List<Future<?>> futures = new ArrayList<>(requests.size());
+      for (Request request : requests) {
+        futures.add(service.submit(() -> execute(studyInstanceUID, request)));
+      }
+      for (Future<?> future : futures) {
+        waitFor(future);
+      }
+    } catch (InterruptedException e) {
+      cancel();
+      throw e;
+    } finally {
+      service.shutdownNow();
+    }
+    return buildState(seriesList, startTime);
+  }
+
+  private static List<SeriesRetrieval> groupBySeries(List<Attributes> instances) {
+    Map<String, List<Attributes>> bySeries = new LinkedHashMap<>();
+    for (Attributes instance : instances) {
+      String seriesUID = instance.getString(Tag.SeriesInstanceUID);
+      if (StringUtil.hasText(seriesUID) && instance.containsValue(Tag.SOPInstanceUID)) {
+        bySeries.computeIfAbsent(seriesUID, k -> new ArrayList<>()).add(instance);
+      }
+    }
+    Comparator<Attributes> byInstanceNumber =
+        Comparator.comparingInt(a -> a.getInt(Tag.InstanceNumber, Integer.MAX_VALUE));
+    List<SeriesRetrieval> seriesList = new ArrayList<>(bySeries.size());
+    bySeries.forEach(
+        (uid, list) -> {
+          list.sort(byInstanceNumber);
+          seriesList.add(
+              new SeriesRetrieval(
+                  uid, list.stream().map(a -> a.getString(Tag.SOPInstanceUID)).toList()));
+        });
+    return seriesList;
+  }
+
+  private void serveFromCache(SeriesRetrieval series) {
+    String representative = series.representative();
+    int cached = 0;
+    boolean cachedRepresentative = false;
+    for (Iterator<String> it = series.missing.iterator(); it.hasNext(); ) {
+      String iuid = it.next();
+      if (exportFromCache(iuid)) {
+        it.remove();
+        cached++;
+        cachedRepresentative |= iuid.equals(representative);
+      }
+    }
+    if (cached > 0) {
+      series.update(cached, 0, cachedRepresentative, listener);
+    }
+  }
+
+  private boolean exportFromCache(String iuid) {
+    try {
+      return outputDir == null
+          ? cache.contains(iuid, cacheTransferSyntax)
+          : cache.export(iuid, cacheTransferSyntax, outputDir.resolve(iuid));
+    } catch (IOException e) {
+      LOGGER.warn("Cannot export {} from the cache", iuid, e);
+      return false;
+    }
+  }
+
+  private void addToCache(List<String> sopInstanceUIDs) {
+    if (cache == null || outputDir == null) {
+      return;
+    }
+    for (String iuid : sopInstanceUIDs) {
+      Path file = outputDir.resolve(iuid);
+      if (Files.isRegularFile(file)) {
+        try {
+          cache.put(file);
+        } catch (IOException e) {
+          LOGGER.warn("Cannot add {} to the cache", file, e);
+        }
+      }
+    }
+  }
+
+  private void execute(String studyInstanceUID, Request request) {
+    SeriesRetrieval series = request.series();
+    if (cancelled) {
+      series.fail(request.sopInstanceUIDs().size(), request.representative(), listener);
+      return;
+    }
+    var progress = new DicomProgress();
+    var completed = new AtomicInteger();
+    var failed = new AtomicInteger();
+    // The SCP reports cumulative counts: only forward what changed since the previous response
+    progress.addProgressListener(
+        p -> {
+          int done =
+              Math.max(0, p.getNumberOfCompletedSuboperations())
+                  + Math.max(0, p.getNumberOfWarningSuboperations());
+          int errors = Math.max(0, p.getNumberOfFailedSuboperations());
+          int newCompleted = Math.max(0, done - completed.get());
+          int newFailed = Math.max(0, errors - failed.get());
+          if (newCompleted > 0 || newFailed > 0) {
+            completed.addAndGet(newCompleted);
+            failed.addAndGet(newFailed);
+            series.update(newCompleted, newFailed, request.representative(), listener);
+          }
+        });
+    activeRequests.add(progress);
+    if (cancelled) {
+      progress.cancel();
+    }
+    try {
+      DicomState state =
+          retriever.retrieve(
+              progress,
+              new DicomParam(Tag.QueryRetrieveLevel, QueryRetrieveLevel.IMAGE.name()),
+              new DicomParam(Tag.StudyInstanceUID, studyInstanceUID),
+              new DicomParam(Tag.SeriesInstanceUID, series.seriesInstanceUID()),
+              new DicomParam(
+                  Tag.SOPInstanceUID, request.sopInstanceUIDs().toArray(String[]::new)));
+      // Some SCPs omit the sub-operation counts in the final response
+      int missing = request.sopInstanceUIDs().size() - completed.get() - failed.get();
+      if (missing > 0 && state.getStatus() == Status.Success) {
+        series.update(missing, 0, request.representative(), listener);
+      } else if (missing > 0) {
+        LOGGER.warn(
+            "C-GET of series {} ended with status {}: {}",
+            series.seriesInstanceUID(),
+            Integer.toHexString(state.getStatus()),
+            state.getMessage());
+        series.fail(missing, request.representative(), listener);
+      }
+      addToCache(request.sopInstanceUIDs());
+    } finally {
+      activeRequests.remove(progress);
+    }
+  }
+
+  private static void waitFor(Future<?> future) throws InterruptedException {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      // Requests report their errors in DicomState; anything else is a programming error
+      throw new IllegalStateException("C-GET request failed", e.getCause());
+    }
+  }
+
+  private DicomState buildState(List<SeriesRetrieval> seriesList, long startTime) {
+    int completed = 0;
+    int failed = 0;
+    for (SeriesRetrieval series : seriesList) {
+      completed += series.completed.get();
+      failed += series.failed.get();
+    }
+    int status;
+    if (cancelled) {
+      status = Status.Cancel;
+    } else if (failed == 0) {
+      status = Status.Success;
+    } else {
+      status = completed > 0 ? Status.OneOrMoreFailures : Status.UnableToProcess;
+    }
+    String message =
+        MessageFormat.format(
+            "DICOM C-GET retrieved {0} instances of {1} series in {2}ms, {3} failed.",
+            completed, seriesList.size(), System.currentTimeMillis() - startTime, failed);
+    return new DicomState(status, message, null);
+  }
+
+  private record Request(
+      SeriesRetrieval series, List<String> sopInstanceUIDs, boolean representative) {}
+
+  private static final class SeriesRetrieval {
+    private final String seriesInstanceUID;
+    private final List<String> sopInstanceUIDs;
+    // Instances to retrieve, all of them without cache
+    private final List<String> missing;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    SeriesRetrieval(String seriesInstanceUID, List<String> sopInstanceUIDs) {
+      this.seriesInstanceUID = seriesInstanceUID;
+      this.sopInstanceUIDs = sopInstanceUIDs;
+      this.missing = new ArrayList<>(sopInstanceUIDs);
+    }
+
+    String seriesInstanceUID() {
+      return seriesInstanceUID;
+    }
+
+    String representative() {
+      return sopInstanceUIDs.get((sopInstanceUIDs.size() - 1) / 2);
+    }
+
+    Request representativeRequest() {
+      String representative = representative();
+      return missing.contains(representative)
+          ? new Request(this, List.of(representative), true)
+          : null;
+    }
+
+    List<Request> bulkRequests(int batchSize) {
+      List<String> others = new ArrayList<>(missing);
+      others.remove(representative());
+      List<Request> requests = new ArrayList<>();
+      for (int i = 0; i < others.size(); i += batchSize) {
+        requests.add(
+            new Request(this, others.subList(i, Math.min(i + batchSize, others.size())), false));
+      }
+      return requests;
+    }
+
+    void update(int newCompleted, int newFailed, boolean representative, SeriesProgressListener l) {
+      int done = completed.addAndGet(newCompleted);
+      int errors = failed.addAndGet(newFailed);
+      if (l != null) {
+        l.seriesProgress(
+            new SeriesProgress(
+                seriesInstanceUID, sopInstanceUIDs.size(), done, errors, representative));
+      }
+    }
+
+    void fail(int count, boolean representative, SeriesProgressListener l) {
+      update(0, count, representative, l);
+    }
+  }
+}
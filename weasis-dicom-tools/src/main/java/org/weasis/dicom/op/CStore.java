@@ -12,16 +12,23 @@ package org.weasis.dicom.op;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.security.GeneralSecurityException;
 import java.text.MessageFormat;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Connection;
 import org.dcm4che3.net.Device;
+import org.dcm4che3.net.IncompatibleConnectionException;
 import org.dcm4che3.net.Status;
+import org.dcm4che3.tool.storescu.ScanIndex;
 import org.dcm4che3.tool.storescu.StoreSCU;
+import org.dcm4che3.tool.storescu.TransferJournal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.weasis.core.util.FileUtil;
@@ -44,6 +51,9 @@ public final class CStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CStore.class);
   private static final String DEVICE_NAME = "storescu";
+  // Files indexed before opening the association: their presentation contexts are proposed
+  private static final int PIPELINE_OPEN_THRESHOLD = 100;
+  private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
 
   private CStore() {
     // Utility class - prevent instantiation
@@ -157,7 +167,13 @@ public final class CStore {
       throws Exception {
 
     try (var storeSCU = createStoreSCU(options, storeOptions, callingNode, calledNode, progress)) {
-      return performStore(storeSCU, files);
+      if (storeOptions.getJournal() != null) {
+        return performJournaledStore(storeSCU, files, storeOptions);
+      }
+      if (storeOptions.getScanThreads() > 1) {
+        return performPipelinedStore(storeSCU, files, storeOptions);
+      }
+      return performStore(storeSCU, files, storeOptions);
     }
   }
 
@@ -210,8 +226,13 @@ public final class CStore {
     storeSCU.setPriority(options.getPriority());
   }
 
-  private static DicomState performStore(StoreSCU storeSCU, List<String> files) throws Exception {
-    storeSCU.scanFiles(files, false);
+  private static DicomState performStore(
+      StoreSCU storeSCU, List<String> files, CstoreParams storeOptions) throws Exception {
+    if (storeOptions.getScanIndex() == null) {
+      storeSCU.scanFiles(files, false);
+    } else {
+      storeSCU.scanFiles(files, 1, ScanIndex.open(storeOptions.getScanIndex()));
+    }
 
     int filesScanned = storeSCU.getFilesScanned();
     if (filesScanned == 0) {
@@ -227,6 +248,165 @@ public final class CStore {
     }
   }
 
+  /**
+   * Scans the files with several threads and sends them while the scan is running: the
+   * association is opened as soon as the first files are indexed.
+   */
+  private static DicomState performPipelinedStore(
+      StoreSCU storeSCU, List<String> files, CstoreParams storeOptions) throws Exception {
+    var index =
+        storeOptions.getScanIndex() == null ? null : ScanIndex.open(storeOptions.getScanIndex());
+    var service = new DeviceOpService(storeSCU.getApplicationEntity().getDevice());
+    service.start();
+    try {
+      long startTime = System.currentTimeMillis();
+      storeSCU.scanAndSendFiles(
+          files, storeOptions.getScanThreads(), index, PIPELINE_OPEN_THRESHOLD);
+      if (storeSCU.getFilesScanned() == 0) {
+        return new DicomState(Status.UnableToProcess, "No DICOM files found", null);
+      }
+      long transferTime = System.currentTimeMillis();
+
+      ServiceUtil.forceGettingAttributes(storeSCU.getState(), storeSCU);
+
+      long connectTime = Math.max(startTime, storeSCU.getOpenTime());
+      return createSuccessState(storeSCU, startTime, connectTime, transferTime);
+    } finally {
+      service.stop();
+    }
+  }
+
+  /**
+   * Sends the files that are not stored according to the journal, then retries the transient
+   * failures and the files without response on a new association until all the files are stored
+   * or the retries are exhausted.
+   */
+  private static DicomState performJournaledStore(
+      StoreSCU storeSCU, List<String> files, CstoreParams storeOptions) throws Exception {
+    var index =
+        storeOptions.getScanIndex() == null ? null : ScanIndex.open(storeOptions.getScanIndex());
+    storeSCU.scanFiles(files, storeOptions.getScanThreads(), index);
+    if (storeSCU.getFilesScanned() == 0) {
+      return new DicomState(Status.UnableToProcess, "No DICOM files found", null);
+    }
+
+    try (var journal = TransferJournal.open(storeOptions.getJournal())) {
+      storeSCU.setJournal(journal);
+      var scannedInstances = storeSCU.getScannedInstances();
+      var summary = journal.summarize(scannedInstances);
+      if (summary.toSend() == 0) {
+        LOGGER.info("All the files are already stored according to {}", storeOptions.getJournal());
+        return createJournaledState(storeSCU, summary, null, 0, 0, 0);
+      }
+
+      var service = new DeviceOpService(storeSCU.getApplicationEntity().getDevice());
+      service.start();
+      try {
+        long startTime = System.currentTimeMillis();
+        long connectTime = startTime;
+        Exception lastError = null;
+        for (int attempt = 0; attempt <= storeOptions.getMaxRetries(); attempt++) {
+          if (attempt > 0) {
+            waitBeforeRetry(storeOptions.getRetryDelay(), attempt, summary);
+          }
+          try {
+            storeSCU.open();
+            connectTime = System.currentTimeMillis();
+            storeSCU.sendFiles();
+            lastError = null;
+          } catch (IOException | IncompatibleConnectionException | GeneralSecurityException e) {
+            LOGGER.warn("C-STORE attempt {} failed: {}", attempt + 1, e.getMessage());
+            lastError = e;
+          } finally {
+            releaseAssociation(storeSCU);
+          }
+          summary = journal.summarize(scannedInstances);
+          if (summary.toSend() == 0 || isCancelled(storeSCU)) {
+            break;
+          }
+        }
+        long transferTime = System.currentTimeMillis();
+        return createJournaledState(
+            storeSCU, summary, lastError, startTime, connectTime, transferTime);
+      } finally {
+        storeSCU.setJournal(null);
+        service.stop();
+      }
+    }
+  }
+
+  private static void waitBeforeRetry(
+      Duration retryDelay, int attempt, TransferJournal.Summary summary)
+      throws InterruptedException {
+    Duration delay = retryDelay.multipliedBy(1L << Math.min(attempt - 1, 16));
+    if (delay.compareTo(MAX_RETRY_DELAY) > 0) {
+      delay = MAX_RETRY_DELAY;
+    }
+    LOGGER.info("Retry {} of {} files in {}ms", attempt, summary.toSend(), delay.toMillis());
+    Thread.sleep(delay.toMillis());
+  }
+
+  private static void releaseAssociation(StoreSCU storeSCU) throws InterruptedException {
+    try {
+      storeSCU.close();
+    } catch (IOException e) {
+      LOGGER.debug("Cannot release the association", e);
+    }
+  }
+
+  private static boolean isCancelled(StoreSCU storeSCU) {
+    var progress = storeSCU.getState().getProgress();
+    return progress != null && progress.isCancelled();
+  }
+
+  /**
+   * Builds the state of a journaled transfer. The sub-operation counts are those of all the files,
+   * including the ones stored by a previous run, because the counts of the last association only
+   * cover the retried files.
+   */
+  private static DicomState createJournaledState(
+      StoreSCU storeSCU,
+      TransferJournal.Summary summary,
+      Exception lastError,
+      long startTime,
+      long connectTime,
+      long transferTime) {
+    var state = storeSCU.getState();
+    int status;
+    if (summary.notStored() == 0) {
+      status = Status.Success;
+    } else {
+      status = summary.lastFailure() == -1 ? Status.UnableToProcess : summary.lastFailure();
+    }
+    state.setStatus(status);
+    var progress = state.getProgress();
+    if (progress != null) {
+      var attributes = Objects.requireNonNullElseGet(progress.getAttributes(), Attributes::new);
+      attributes.setInt(Tag.Status, VR.US, status);
+      attributes.setInt(Tag.NumberOfCompletedSuboperations, VR.US, summary.completed());
+      attributes.setInt(Tag.NumberOfWarningSuboperations, VR.US, summary.warning());
+      attributes.setInt(Tag.NumberOfFailedSuboperations, VR.US, summary.failed());
+      attributes.setInt(Tag.NumberOfRemainingSuboperations, VR.US, summary.unsent());
+      progress.setAttributes(attributes);
+    }
+
+    var associateRQ = storeSCU.getAAssociateRQ();
+    String timeMsg =
+        MessageFormat.format(
+            "DICOM C-STORE from {0} to {1}: {2} stored, {3} not stored. Total size {4}",
+            associateRQ.getCallingAET(),
+            associateRQ.getCalledAET(),
+            summary.completed() + summary.warning(),
+            summary.notStored(),
+            FileUtil.humanReadableByte(storeSCU.getTotalSize(), false));
+    var dcmState = DicomState.buildMessage(state, timeMsg, lastError);
+    if (startTime > 0) {
+      dcmState.addProcessTime(startTime, connectTime, transferTime);
+    }
+    dcmState.setBytesSize(storeSCU.getTotalSize());
+    return dcmState;
+  }
+
   private static DicomState executeTransfer(StoreSCU storeSCU) throws Exception {
     long startTime = System.currentTimeMillis();
     storeSCU.open();
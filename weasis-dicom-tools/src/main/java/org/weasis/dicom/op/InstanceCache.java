@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.op;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.util.StringUtil;
+
+/**
+ * Local cache of DICOM instances, keyed by SOP Instance UID and transfer syntax UID, used to avoid
+ * retrieving again the instances already received (see {@link
+ * CGetStudyRetriever#setCache(InstanceCache)}).
+ *
+ * <p>The instances are stored in the cache directory as {@code <tsuid>/<iuid>.dcm}. The index is
+ * an append-only UTF-8 text file: each line adds ({@code +}, size, Study, Series and SOP Instance
+ * UIDs, transfer syntax UID) or removes ({@code -}, SOP Instance UID, transfer syntax UID) an
+ * instance, separated by tabs. It is loaded in memory and compacted when the cache is opened and
+ * closed; the compacted index keeps the least recently used instances first.
+ *
+ * <p>When the total size of the instances exceeds the maximum size, the least recently used
+ * instances are evicted. All the methods are thread-safe.
+ */
+public final class InstanceCache implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(InstanceCache.class);
+
+  private static final String INDEX_FILE = "index.log";
+  private static final String FILE_EXTENSION = ".dcm";
+  private static final String ADD = "+";
+  private static final String REMOVE = "-";
+  private static final int ADD_FIELDS = 6;
+  private static final int REMOVE_FIELDS = 3;
+
+  /**
+   * An instance held by the cache.
+   *
+   * @param studyInstanceUID the Study Instance UID
+   * @param seriesInstanceUID the Series Instance UID
+   * @param sopInstanceUID the SOP Instance UID
+   * @param transferSyntaxUID the transfer syntax UID of the file
+   * @param size the file size
+   * @param file the file in the cache directory
+   */
+  public record CachedInstance(
+      String studyInstanceUID,
+      String seriesInstanceUID,
+      String sopInstanceUID,
+      String transferSyntaxUID,
+      long size,
+      Path file) {}
+
+  private record Key(String iuid, String tsuid) {}
+
+  private final Path directory;
+  private final long maxSize;
+  // Access order: the first entry is the least recently used
+  private final LinkedHashMap<Key, CachedInstance> entries;
+  private final Map<String, List<Key>> keysByInstance = new HashMap<>();
+  private BufferedWriter writer;
+  private long totalSize;
+
+  private InstanceCache(Path directory, long maxSize, LinkedHashMap<Key, CachedInstance> entries)
+      throws IOException {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    this.entries = entries;
+    for (Map.Entry<Key, CachedInstance> e : entries.entrySet()) {
+      keysByInstance.computeIfAbsent(e.getKey().iuid(), k -> new ArrayList<>(1)).add(e.getKey());
+      totalSize += e.getValue().size();
+    }
+    this.writer = openWriter();
+  }
+
+  /**
+   * Opens a cache, loading the index of an existing cache directory. The instances whose file is
+   * missing are dropped.
+   *
+   * @param directory the cache directory, created if it does not exist
+   * @param maxSize the maximum total size of the instances in bytes
+   * @return the cache, to be closed when it is no longer used
+   * @throws IOException if the index cannot be read or written
+   */
+  public static InstanceCache open(Path directory, long maxSize) throws IOException {
+    Objects.requireNonNull(directory, "directory cannot be null");
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    Files.createDirectories(directory);
+    var entries = new LinkedHashMap<Key, CachedInstance>(256, 0.75f, true);
+    Path indexFile = directory.resolve(INDEX_FILE);
+    if (Files.isRegularFile(indexFile)) {
+      try (var reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          readLine(directory, line, entries);
+        }
+      }
+      entries.values().removeIf(e -> !Files.isRegularFile(e.file()));
+    }
+    writeIndex(directory, entries);
+    var cache = new InstanceCache(directory, maxSize, entries);
+    synchronized (cache) {
+      cache.evict(null);
+    }
+    return cache;
+  }
+
+  private static void readLine(
+      Path directory, String line, LinkedHashMap<Key, CachedInstance> entries) {
+    String[] fields = StringUtils.split(line, '\t');
+    if (fields.length == REMOVE_FIELDS && REMOVE.equals(fields[0])) {
+      entries.remove(new Key(fields[1], fields[2]));
+    } else if (fields.length == ADD_FIELDS && ADD.equals(fields[0])) {
+      try {
+        long size = Long.parseLong(fields[1]);
+        Path file = instanceFile(directory, fields[4], fields[5]);
+        entries.put(
+            new Key(fields[4], fields[5]),
+            new CachedInstance(fields[2], fields[3], fields[4], fields[5], size, file));
+      } catch (IllegalArgumentException e) {
+        LOGGER.debug("Ignore malformed cache index line: {}", line);
+      }
+    }
+    // Otherwise the last line of a crashed run
+  }
+
+  private static void writeIndex(Path directory, Map<Key, CachedInstance> entries)
+      throws IOException {
+    Path indexFile = directory.resolve(INDEX_FILE);
+    Path tmp = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+    try {
+      try (var out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (CachedInstance instance : entries.values()) {
+          writeAdd(out, instance);
+        }
+      }
+      Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static void writeAdd(BufferedWriter out, CachedInstance instance) throws IOException {
+    out.write(
+        String.join(
+            "\t",
+            ADD,
+            Long.toString(instance.size()),
+            instance.studyInstanceUID(),
+            instance.seriesInstanceUID(),
+            instance.sopInstanceUID(),
+            instance.transferSyntaxUID()));
+    out.write('\n');
+  }
+
+  private BufferedWriter openWriter() throws IOException {
+    return Files.newBufferedWriter(
+        directory.resolve(INDEX_FILE),
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  private static Path instanceFile(Path directory, String iuid, String tsuid) {
+    if (!isValidName(iuid) || !isValidName(tsuid)) {
+      throw new IllegalArgumentException("Invalid UID: " + iuid + " or " + tsuid);
+    }
+    return directory.resolve(tsuid).resolve(iuid + FILE_EXTENSION);
+  }
+
+  // UIDs are made of digits and dots: reject anything that could escape the cache directory
+  private static boolean isValidName(String uid) {
+    return StringUtil.hasText(uid)
+        && uid.chars().allMatch(c -> c == '.' || c >= '0' && c <= '9')
+        && !uid.startsWith(".");
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the total size of the cached instances in bytes. */
+  public synchronized long getTotalSize() {
+    return totalSize;
+  }
+
+  /** Returns the number of cached instances. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Adds a DICOM file to the cache. The file is copied in the cache directory, so that the cached
+   * instance does not change when the original file is modified. An instance already cached with
+   * the same transfer syntax is replaced, unless the file is the cached file itself.
+   *
+   * @param file a DICOM file with a File Meta Information
+   * @return the cached instance
+   * @throws IOException if the file cannot be read or added
+   */
+  public CachedInstance put(Path file) throws IOException {
+    Attributes fmi;
+    Attributes dataset;
+    try (var dis = new DicomInputStream(file.toFile())) {
+      fmi = dis.readFileMetaInformation();
+      dataset = dis.readDatasetUntilPixelData();
+    }
+    if (fmi == null) {
+      throw new IOException("No File Meta Information in " + file);
+    }
+    String iuid = fmi.getString(Tag.MediaStorageSOPInstanceUID);
+    String tsuid = fmi.getString(Tag.TransferSyntaxUID);
+    Path target;
+    try {
+      target = instanceFile(directory, iuid, tsuid);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Cannot cache " + file, e);
+    }
+    var instance =
+        new CachedInstance(
+            dataset.getString(Tag.StudyInstanceUID, ""),
+            dataset.getString(Tag.SeriesInstanceUID, ""),
+            iuid,
+            tsuid,
+            Files.size(file),
+            target);
+
+    synchronized (this) {
+      checkOpen();
+      var key = new Key(iuid, tsuid);
+      if (Files.exists(target) && Files.isSameFile(file, target)) {
+        CachedInstance cached = entries.get(key);
+        if (cached != null) {
+          return cached;
+        }
+      } else {
+        remove(key);
+        Files.createDirectories(target.getParent());
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      entries.put(key, instance);
+      keysByInstance.computeIfAbsent(iuid, k -> new ArrayList<>(1)).add(key);
+      totalSize += instance.size();
+      writeAdd(writer, instance);
+      writer.flush();
+      evict(key);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns a cached instance and marks it as recently used.
+   *
+   * @param iuid the SOP Instance UID
+   * @param tsuid the transfer syntax UID
+   * @return the instance, or null if it is not cached
+   */
+  public synchronized CachedInstance get(String iuid, String tsuid) {
+    return entries.get(new Key(iuid, tsuid));
+  }
+
+  /**
+   * Returns a cached instance in any transfer syntax and marks it as recently used.
+   *
+   * @param iuid the SOP Instance UID
+   * @return the instance, or null if it is not cached
+   */
+  public synchronized CachedInstance get(String iuid) {
+    List<Key> keys = keysByInstance.get(iuid);
+    return keys == null ? null : entries.get(keys.get(0));
+  }
+
+  /**
+   * Returns whether an instance is cached in any transfer syntax. The recency is not changed.
+   *
+   * @param iuid the SOP Instance UID
+   * @return true if the instance is cached
+   */
+  public synchronized boolean contains(String iuid) {
+    return keysByInstance.containsKey(iuid);
+  }
+
+  /**
+   * Returns whether an instance is cached in a transfer syntax. The recency is not changed.
+   *
+   * @param iuid the SOP Instance UID
+   * @param tsuid the transfer syntax UID, or null for any transfer syntax
+   * @return true if the instance is cached
+   */
+  public synchronized boolean contains(String iuid, String tsuid) {
+    return tsuid == null ? contains(iuid) : entries.containsKey(new Key(iuid, tsuid));
+  }
+
+  /**
+   * Returns the cached instances of a study, without changing their recency.
+   *
+   * @param studyInstanceUID the Study Instance UID
+   * @return the instances
+   */
+  public List<CachedInstance> findStudy(String studyInstanceUID) {
+    return find(i -> i.studyInstanceUID().equals(studyInstanceUID));
+  }
+
+  /**
+   * Returns the cached instances of a series, without changing their recency.
+   *
+   * @param seriesInstanceUID the Series Instance UID
+   * @return the instances
+   */
+  public List<CachedInstance> findSeries(String seriesInstanceUID) {
+    return find(i -> i.seriesInstanceUID().equals(seriesInstanceUID));
+  }
+
+  /**
+   * Returns the cached instances matching a filter, without changing their recency.
+   *
+   * @param filter the filter
+   * @return the instances, the least recently used first
+   */
+  public synchronized List<CachedInstance> find(Predicate<CachedInstance> filter) {
+    return entries.values().stream().filter(filter).toList();
+  }
+
+  /**
+   * Copies a cached instance in any transfer syntax to a file, as if it had been retrieved there.
+   * The instance is marked as recently used.
+   *
+   * @param iuid the SOP Instance UID
+   * @param target the target file, replaced if it exists
+   * @return true if the instance is cached and has been exported
+   * @throws IOException if the file cannot be written
+   * @see #export(String, String, Path)
+   */
+  public boolean export(String iuid, Path target) throws IOException {
+    return export(iuid, null, target);
+  }
+
+  /**
+   * Copies a cached instance to a file, as if it had been retrieved there. The instance is marked
+   * as recently used.
+   *
+   * @param iuid the SOP Instance UID
+   * @param tsuid the transfer syntax UID expected in the file, or null for any transfer syntax
+   * @param target the target file, replaced if it exists
+   * @return true if the instance is cached in the transfer syntax and has been exported
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized boolean export(String iuid, String tsuid, Path target) throws IOException {
+    CachedInstance instance = tsuid == null ? get(iuid) : get(iuid, tsuid);
+    if (instance == null) {
+      return false;
+    }
+    Path parent = target.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Files.copy(instance.file(), target, StandardCopyOption.REPLACE_EXISTING);
+    return true;
+  }
+
+  /**
+   * Removes an instance from the cache and deletes its file.
+   *
+   * @param iuid the SOP Instance UID
+   * @param tsuid the transfer syntax UID
+   * @return true if the instance was cached
+   * @throws IOException if the index cannot be written
+   */
+  public synchronized boolean remove(String iuid, String tsuid) throws IOException {
+    checkOpen();
+    return remove(new Key(iuid, tsuid));
+  }
+
+  private boolean remove(Key key) throws IOException {
+    CachedInstance instance = entries.remove(key);
+    if (instance == null) {
+      return false;
+    }
+    deleteEntry(key, instance);
+    return true;
+  }
+
+  private void deleteEntry(Key key, CachedInstance instance) throws IOException {
+    List<Key> keys = keysByInstance.get(key.iuid());
+    if (keys != null) {
+      keys.remove(key);
+      if (keys.isEmpty()) {
+        keysByInstance.remove(key.iuid());
+      }
+    }
+    totalSize -= instance.size();
+    Files.deleteIfExists(instance.file());
+    writer.write(String.join("\t", REMOVE, key.iuid(), key.tsuid()));
+    writer.write('\n');
+    writer.flush();
+  }
+
+  // Evicts the least recently used instances, except the one just added
+  private void evict(Key keep) throws IOException {
+    Iterator<Map.Entry<Key, CachedInstance>> it = entries.entrySet().iterator();
+    while (totalSize > maxSize && it.hasNext()) {
+      Map.Entry<Key, CachedInstance> e = it.next();
+      if (!e.getKey().equals(keep)) {
+        it.remove();
+        LOGGER.debug("Evict {} from the cache", e.getKey().iuid());
+        deleteEntry(e.getKey(), e.getValue());
+      }
+    }
+  }
+
+  private void checkOpen() {
+    if (writer == null) {
+      throw new IllegalStateException("The cache " + directory + " is closed");
+    }
+  }
+
+  /** Closes the index, compacted in the order of recency. */
+  @Override
+  public synchronized void close() throws IOException {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+      writeIndex(directory, entries);
+    }
+  }
+}
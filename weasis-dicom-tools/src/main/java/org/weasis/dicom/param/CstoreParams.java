@@ -10,6 +10,8 @@
 package org.weasis.dicom.param;
 
 import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
@@ -26,6 +28,8 @@ import java.util.Objects;
  *   <li>Attribute editors for modifying DICOM attributes before transmission
  *   <li>SOP class negotiation extension support
  *   <li>External configuration via URL or file path
+ *   <li>Parallel scanning of the files and persistent scan index
+ *   <li>Resumable transfers with a journal and retries of the transient failures
  * </ul>
  *
  * @since 1.0
@@ -35,9 +39,60 @@ public final class CstoreParams {
       "Extended negotiation is enabled but no configuration URL provided";
   private static final List<AttributeEditor> EMPTY_EDITORS = List.of();
 
+  /**
+   * Default number of threads reading the file headers: all the files are scanned before opening
+   * the association. Sending while scanning is enabled with {@link #withScanThreads(int)}.
+   */
+  public static final int DEFAULT_SCAN_THREADS = 1;
+
+  /** Default number of retries of a journaled transfer. */
+  public static final int DEFAULT_MAX_RETRIES = 3;
+
+  /** Default delay before the first retry, doubled for each following retry. */
+  public static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(5);
+
+  private static final TransferOptions DEFAULT_TRANSFER =
+      new TransferOptions(
+          DEFAULT_SCAN_THREADS, null, null, DEFAULT_MAX_RETRIES, DEFAULT_RETRY_DELAY);
+
   private final List<AttributeEditor> editors;
   private final boolean extendNegotiation;
   private final URL extendSopClassesURL;
+  private final TransferOptions transfer;
+
+  /** The settings of the scan and of the resumable transfer, validated when created. */
+  private record TransferOptions(
+      int scanThreads, Path scanIndex, Path journal, int maxRetries, Duration retryDelay) {
+
+    TransferOptions {
+      if (scanThreads < 1) {
+        throw new IllegalArgumentException("scanThreads must be at least 1");
+      }
+      if (maxRetries < 0) {
+        throw new IllegalArgumentException("maxRetries cannot be negative");
+      }
+      Objects.requireNonNull(retryDelay, "retryDelay cannot be null");
+      if (retryDelay.isNegative()) {
+        throw new IllegalArgumentException("retryDelay cannot be negative");
+      }
+    }
+
+    TransferOptions withScanThreads(int threads) {
+      return new TransferOptions(threads, scanIndex, journal, maxRetries, retryDelay);
+    }
+
+    TransferOptions withScanIndex(Path index) {
+      return new TransferOptions(scanThreads, index, journal, maxRetries, retryDelay);
+    }
+
+    TransferOptions withJournal(Path file) {
+      return new TransferOptions(scanThreads, scanIndex, file, maxRetries, retryDelay);
+    }
+
+    TransferOptions withRetries(int retries, Duration delay) {
+      return new TransferOptions(scanThreads, scanIndex, journal, retries, delay);
+    }
+  }
 
   /**
    * Creates C-STORE parameters with all configuration options.
@@ -52,11 +107,23 @@ public final class CstoreParams {
    */
   public CstoreParams(
       List<AttributeEditor> editors, boolean extendNegotiation, URL extendSopClassesURL) {
-    validateConfiguration(extendNegotiation, extendSopClassesURL);
+    this(editors, extendNegotiation, extendSopClassesURL, DEFAULT_TRANSFER);
+  }
 
+  private CstoreParams(
+      List<AttributeEditor> editors,
+      boolean extendNegotiation,
+      URL extendSopClassesURL,
+      TransferOptions transfer) {
+    validateConfiguration(extendNegotiation, extendSopClassesURL);
     this.editors = editors != null ? List.copyOf(editors) : EMPTY_EDITORS;
     this.extendNegotiation = extendNegotiation;
     this.extendSopClassesURL = extendSopClassesURL;
+    this.transfer = transfer;
+  }
+
+  private CstoreParams with(TransferOptions transfer) {
+    return new CstoreParams(editors, extendNegotiation, extendSopClassesURL, transfer);
   }
 
   /**
@@ -104,18 +171,112 @@ public final class CstoreParams {
     return extendSopClassesURL;
   }
 
+  /**
+   * Returns the number of threads reading the file headers. With more than one thread, the files
+   * are sent while the scan is still running.
+   *
+   * @return the number of scan threads, at least 1
+   */
+  public int getScanThreads() {
+    return transfer.scanThreads();
+  }
+
+  /**
+   * Returns the persistent scan index file, which lets a new transfer of the same files skip the
+   * header of the unchanged files.
+   *
+   * @return the index file, may be null
+   */
+  public Path getScanIndex() {
+    return transfer.scanIndex();
+  }
+
+  /**
+   * Returns a copy of these parameters with another number of scan threads.
+   *
+   * @param scanThreads the number of threads reading the file headers. 1 scans all the files
+   *     before opening the association.
+   * @return the new parameters
+   * @throws IllegalArgumentException if {@code scanThreads} is lower than 1
+   */
+  public CstoreParams withScanThreads(int scanThreads) {
+    return with(transfer.withScanThreads(scanThreads));
+  }
+
+  /**
+   * Returns a copy of these parameters with a persistent scan index.
+   *
+   * @param scanIndex the index file, created if it does not exist. Null disables the index.
+   * @return the new parameters
+   */
+  public CstoreParams withScanIndex(Path scanIndex) {
+    return with(transfer.withScanIndex(scanIndex));
+  }
+
+  /**
+   * Returns the transfer journal file. With a journal, the status of each instance is recorded,
+   * a new transfer of the same files only sends the instances that are not stored yet, and the
+   * transient failures are retried on a new association.
+   *
+   * @return the journal file, may be null
+   */
+  public Path getJournal() {
+    return transfer.journal();
+  }
+
+  /**
+   * Returns the maximum number of retries of a journaled transfer.
+   *
+   * @return the number of retries, 0 to disable them
+   */
+  public int getMaxRetries() {
+    return transfer.maxRetries();
+  }
+
+  /**
+   * Returns the delay before the first retry. The delay is doubled for each following retry.
+   *
+   * @return the retry delay
+   */
+  public Duration getRetryDelay() {
+    return transfer.retryDelay();
+  }
+
+  /**
+   * Returns a copy of these parameters with a transfer journal.
+   *
+   * @param journal the journal file, created if it does not exist. Null disables the journal.
+   * @return the new parameters
+   */
+  public CstoreParams withJournal(Path journal) {
+    return with(transfer.withJournal(journal));
+  }
+
+  /**
+   * Returns a copy of these parameters with another retry policy for journaled transfers.
+   *
+   * @param maxRetries the maximum number of retries, 0 to disable them
+   * @param retryDelay the delay before the first retry, doubled for each following retry
+   * @return the new parameters
+   * @throws IllegalArgumentException if a value is negative
+   */
+  public CstoreParams withRetries(int maxRetries, Duration retryDelay) {
+    return with(transfer.withRetries(maxRetries, retryDelay));
+  }
+
   @Override
   public boolean equals(Object obj) {
     return this == obj
         || (obj instanceof CstoreParams other
             && Objects.equals(editors, other.editors)
             && extendNegotiation == other.extendNegotiation
-            && Objects.equals(extendSopClassesURL, other.extendSopClassesURL));
+            && Objects.equals(extendSopClassesURL, other.extendSopClassesURL)
+            && transfer.equals(other.transfer));
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(editors, extendNegotiation, extendSopClassesURL);
+    return Objects.hash(editors, extendNegotiation, extendSopClassesURL, transfer);
   }
 
   @Override
@@ -127,6 +288,16 @@ public final class CstoreParams {
         + extendNegotiation
         + ", extendSopClassesURL="
         + extendSopClassesURL
+        + ", scanThreads="
+        + transfer.scanThreads()
+        + ", scanIndex="
+        + transfer.scanIndex()
+        + ", journal="
+        + transfer.journal()
+        + ", maxRetries="
+        + transfer.maxRetries()
+        + ", retryDelay="
+        + transfer.retryDelay()
         + '}';
   }
 
@@ -23,6 +23,11 @@ import org.weasis.dicom.util.ServiceUtil;
 /**
  * Service for managing the lifecycle of a DICOM Device with executor services. Provides thread-safe
  * start/stop operations and proper resource cleanup.
+ *
+ * <p>Without a {@link DicomExecutionRuntime}, the service creates its own executors when it starts
+ * and shuts them down when it stops. With a runtime, it borrows an {@link OperationExecutor} view
+ * of the runtime executor and its scheduler: stopping the service only waits for the tasks of this
+ * device.
  */
 public class DeviceOpService {
 
@@ -30,24 +35,52 @@ public class DeviceOpService {
 
   private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
   protected final Device device;
+  private final DicomExecutionRuntime runtime;
   private final AtomicReference<ExecutorService> executor = new AtomicReference<>();
   private final AtomicReference<ScheduledExecutorService> scheduledExecutor =
       new AtomicReference<>();
 
   /**
-   * Creates a device operation service for the specified device.
+   * Creates a device operation service for the specified device, borrowing the {@link
+   * DicomExecutionRuntime#getShared() shared runtime} if one is installed.
    *
    * @param device the DICOM device to manage
    * @throws NullPointerException if device is null
    */
   public DeviceOpService(Device device) {
+    this(device, DicomExecutionRuntime.getShared());
+  }
+
+  /**
+   * Creates a device operation service for the specified device.
+   *
+   * @param device the DICOM device to manage
+   * @param runtime the runtime providing the executors, or null to create dedicated executors
+   * @throws NullPointerException if device is null
+   */
+  public DeviceOpService(Device device, DicomExecutionRuntime runtime) {
     this.device = Objects.requireNonNull(device, "Device cannot be null");
+    this.runtime = runtime;
   }
 
   public Device getDevice() {
     return device;
   }
 
+  /** Returns the runtime providing the executors, or null if they are dedicated to this service. */
+  public DicomExecutionRuntime getRuntime() {
+    return runtime;
+  }
+
+  /**
+   * Returns the task metrics of this service when it runs on a runtime.
+   *
+   * @return the metrics, or null if the service is not running on a runtime
+   */
+  public DicomExecutionRuntime.OperationMetrics getMetrics() {
+    return executor.get() instanceof OperationExecutor view ? view.getMetrics() : null;
+  }
+
   public boolean isRunning() {
     ExecutorService exec = executor.get();
     return exec != null && !exec.isShutdown();
@@ -77,6 +110,11 @@ public class DeviceOpService {
 
   private void createExecutorServices() {
     var deviceName = device.getDeviceName();
+    if (runtime != null) {
+      executor.set(runtime.newOperationExecutor(deviceName));
+      scheduledExecutor.set(runtime.getScheduler());
+      return;
+    }
     executor.set(
         Executors.newSingleThreadExecutor(ServiceUtil.getThreadFactory(deviceName + "-executor")));
     scheduledExecutor.set(
@@ -90,7 +128,9 @@ public class DeviceOpService {
   }
 
   private void shutdownExecutorServices() {
-    shutdownExecutor(scheduledExecutor.get(), "Scheduled executor");
+    if (runtime == null) {
+      shutdownExecutor(scheduledExecutor.get(), "Scheduled executor");
+    }
     shutdownExecutor(executor.get(), "Main executor");
   }
 
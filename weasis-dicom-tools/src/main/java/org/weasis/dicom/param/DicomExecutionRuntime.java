@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.dicom.util.ServiceUtil;
+
+/**
+ * Shared execution runtime borrowed by the {@link DeviceOpService} of DICOM operations, instead of
+ * creating and shutting down executors for every C-FIND, C-GET, C-MOVE, C-STORE or C-ECHO.
+ *
+ * <p>The runtime provides an executor for the blocking DIMSE I/O (association readers and message
+ * handling) and a scheduler for the timeouts. On Java 21 and later the executor can start a
+ * virtual thread per task; otherwise, or when virtual threads are disabled, a pool of platform
+ * threads is used. Each operation gets its own {@link OperationExecutor view} of the executor,
+ * which tracks its active and queued tasks (see {@link #getOperationMetrics()}) and can be shut
+ * down without affecting the other operations.
+ *
+ * <p>Install a runtime with {@link #setShared(DicomExecutionRuntime)} to make all the operations
+ * created afterwards borrow it.
+ */
+public final class DicomExecutionRuntime implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DicomExecutionRuntime.class);
+
+  private static final AtomicReference<DicomExecutionRuntime> SHARED = new AtomicReference<>();
+
+  /** Snapshot of the tasks of an operation, or of the whole runtime. */
+  public record OperationMetrics(String name, int activeTasks, int queuedTasks, long completed) {}
+
+  private final String name;
+  private final boolean virtualThreads;
+  private final ExecutorService executor;
+  private final ScheduledExecutorService scheduler;
+  private final ScheduledExecutorService sharedScheduler;
+  private final Set<OperationExecutor> operations = ConcurrentHashMap.newKeySet();
+
+  private DicomExecutionRuntime(Builder builder) {
+    this.name = builder.name;
+    ExecutorService virtualExecutor = builder.virtualThreads ? newVirtualThreadExecutor() : null;
+    this.virtualThreads = virtualExecutor != null;
+    if (virtualExecutor != null) {
+      this.executor = virtualExecutor;
+    } else {
+      ThreadFactory threadFactory = ServiceUtil.getThreadFactory(name + "-executor");
+      this.executor =
+          builder.maxThreads > 0
+              ? Executors.newFixedThreadPool(builder.maxThreads, threadFactory)
+              : Executors.newCachedThreadPool(threadFactory);
+    }
+    this.scheduler =
+        Executors.newScheduledThreadPool(
+            builder.schedulerThreads, ServiceUtil.getThreadFactory(name + "-scheduled"));
+    this.sharedScheduler = new SharedScheduler(scheduler);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the runtime borrowed by the operations created without an explicit runtime.
+   *
+   * @return the shared runtime, or null if the operations create their own executors
+   */
+  public static DicomExecutionRuntime getShared() {
+    return SHARED.get();
+  }
+
+  /**
+   * Sets the runtime borrowed by the operations created without an explicit runtime. The previous
+   * runtime is not closed.
+   *
+   * @param runtime the shared runtime, or null to make the operations create their own executors
+   */
+  public static void setShared(DicomExecutionRuntime runtime) {
+    SHARED.set(runtime);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** Returns true if each task runs on its own virtual thread. */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Returns the shared scheduler. Shutting it down has no effect, it is only stopped by {@link
+   * #close()}.
+   */
+  public ScheduledExecutorService getScheduler() {
+    return sharedScheduler;
+  }
+
+  /**
+   * Creates the executor view of an operation, registered until it is shut down.
+   *
+   * @param operationName the name of the operation, used in the metrics
+   * @return a new executor view
+   */
+  public OperationExecutor newOperationExecutor(String operationName) {
+    if (executor.isShutdown()) {
+      throw new IllegalStateException("Runtime " + name + " is closed");
+    }
+    var view = new OperationExecutor(operationName, executor, operations::remove);
+    operations.add(view);
+    return view;
+  }
+
+  /** Returns the metrics of the operations currently running on this runtime. */
+  public List<OperationMetrics> getOperationMetrics() {
+    return operations.stream().map(OperationExecutor::getMetrics).toList();
+  }
+
+  /** Returns the sum of the metrics of the operations currently running on this runtime. */
+  public OperationMetrics getMetrics() {
+    int active = 0;
+    int queued = 0;
+    long completed = 0;
+    for (OperationMetrics metrics : getOperationMetrics()) {
+      active += metrics.activeTasks();
+      queued += metrics.queuedTasks();
+      completed += metrics.completed();
+    }
+    return new OperationMetrics(name, active, queued, completed);
+  }
+
+  /** Stops the executor and the scheduler, and uninstalls this runtime if it is the shared one. */
+  @Override
+  public void close() {
+    SHARED.compareAndSet(this, null);
+    scheduler.shutdownNow();
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+        LOGGER.warn("Runtime {} did not terminate gracefully, forcing shutdown", name);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+
+  // Executors.newVirtualThreadPerTaskExecutor() is only available from Java 21
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      LOGGER.info("Virtual threads are not available, using platform threads");
+      return null;
+    }
+  }
+
+  /** Builder of {@link DicomExecutionRuntime}. */
+  public static final class Builder {
+    private String name = "dicom";
+    private boolean virtualThreads = true;
+    private int maxThreads;
+    private int schedulerThreads = 1;
+
+    private Builder() {}
+
+    /** Sets the prefix of the thread names. */
+    public Builder name(String name) {
+      this.name = Objects.requireNonNull(name, "name cannot be null");
+      return this;
+    }
+
+    /** Uses a virtual thread per task when the JVM supports it (default true). */
+    public Builder virtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+      return this;
+    }
+
+    /**
+     * Sets the size of the platform thread pool, used when virtual threads are disabled or not
+     * available. Each open association holds a thread, so a bounded pool also bounds the number of
+     * concurrent associations.
+     *
+     * @param maxThreads the pool size, or 0 for an unbounded pool (default)
+     */
+    public Builder maxThreads(int maxThreads) {
+      if (maxThreads < 0) {
+        throw new IllegalArgumentException("maxThreads cannot be negative");
+      }
+      this.maxThreads = maxThreads;
+      return this;
+    }
+
+    /** Sets the number of threads of the scheduler running the timeouts (default 1). */
+    public Builder schedulerThreads(int schedulerThreads) {
+      if (schedulerThreads < 1) {
+        throw new IllegalArgumentException("schedulerThreads must be at least 1");
+      }
+      this.schedulerThreads = schedulerThreads;
+      return this;
+    }
+
+    public DicomExecutionRuntime build() {
+      return new DicomExecutionRuntime(this);
+    }
+  }
+
+  // Scheduler given to the devices: they may shut down their scheduler when they stop, which
+  // must not stop the timeouts of the other operations
+  private static final class SharedScheduler implements ScheduledExecutorService {
+    private final ScheduledExecutorService delegate;
+
+    SharedScheduler(ScheduledExecutorService delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      return delegate.schedule(command, delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+      return delegate.schedule(callable, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(
+        Runnable command, long initialDelay, long period, TimeUnit unit) {
+      return delegate.scheduleAtFixedRate(command, initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(
+        Runnable command, long initialDelay, long delay, TimeUnit unit) {
+      return delegate.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+    }
+
+    @Override
+    public void shutdown() {
+      // Owned by the runtime
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+      return delegate.submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+      return delegate.submit(task, result);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+      return delegate.submit(task);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+        throws InterruptedException {
+      return delegate.invokeAll(tasks);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(
+        Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+        throws InterruptedException {
+      return delegate.invokeAll(tasks, timeout, unit);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+        throws InterruptedException, ExecutionException {
+      return delegate.invokeAny(tasks);
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+        throws InterruptedException, ExecutionException, TimeoutException {
+      return delegate.invokeAny(tasks, timeout, unit);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      delegate.execute(command);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.param;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.weasis.dicom.param.DicomExecutionRuntime.OperationMetrics;
+
+/**
+ * Executor of one operation running its tasks on the executor of a {@link DicomExecutionRuntime}.
+ * It counts the queued and active tasks of the operation, and its shutdown only concerns these
+ * tasks: {@link #shutdownNow()} drops the queued ones and interrupts the running ones.
+ */
+public final class OperationExecutor extends AbstractExecutorService {
+
+  private final String name;
+  private final Executor delegate;
+  private final Consumer<OperationExecutor> onShutdown;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicLong completed = new AtomicLong();
+  private final Set<Thread> runningThreads = ConcurrentHashMap.newKeySet();
+  private final Object terminationLock = new Object();
+  private volatile boolean shutdown;
+  private volatile boolean stopped;
+
+  OperationExecutor(String name, Executor delegate, Consumer<OperationExecutor> onShutdown) {
+    this.name = Objects.requireNonNull(name, "name cannot be null");
+    this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+    this.onShutdown = Objects.requireNonNull(onShutdown, "onShutdown cannot be null");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** Returns a snapshot of the tasks of this operation. */
+  public OperationMetrics getMetrics() {
+    return new OperationMetrics(name, active.get(), queued.get(), completed.get());
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    Objects.requireNonNull(command, "command cannot be null");
+    if (shutdown) {
+      throw new RejectedExecutionException("Operation " + name + " is shut down");
+    }
+    queued.incrementAndGet();
+    try {
+      delegate.execute(() -> run(command));
+    } catch (RejectedExecutionException e) {
+      queued.decrementAndGet();
+      signalTermination();
+      throw e;
+    }
+  }
+
+  private void run(Runnable command) {
+    if (stopped) {
+      queued.decrementAndGet();
+      signalTermination();
+      return;
+    }
+    // Count as active before leaving the queue, so the operation never looks idle in between
+    active.incrementAndGet();
+    queued.decrementAndGet();
+    Thread thread = Thread.currentThread();
+    runningThreads.add(thread);
+    try {
+      command.run();
+    } finally {
+      // Do not leak an interrupt, from shutdownNow() or from the cancellation of the task, to the
+      // next task of a pooled thread
+      synchronized (runningThreads) {
+        runningThreads.remove(thread);
+        Thread.interrupted();
+      }
+      completed.incrementAndGet();
+      active.decrementAndGet();
+      signalTermination();
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    if (!shutdown) {
+      shutdown = true;
+      onShutdown.accept(this);
+    }
+    signalTermination();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    stopped = true;
+    shutdown();
+    synchronized (runningThreads) {
+      runningThreads.forEach(Thread::interrupt);
+    }
+    return List.of();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return shutdown && queued.get() == 0 && active.get() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (terminationLock) {
+      while (!isTerminated()) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(terminationLock, remaining);
+      }
+      return true;
+    }
+  }
+
+  private void signalTermination() {
+    if (isTerminated()) {
+      synchronized (terminationLock) {
+        terminationLock.notifyAll();
+      }
+    }
+  }
+}
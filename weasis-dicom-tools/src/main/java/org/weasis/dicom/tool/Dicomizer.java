@@ -9,19 +9,27 @@
  */
 package org.weasis.dicom.tool;
 
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.stream.Stream;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.BulkData;
+import org.dcm4che3.data.Keyword;
 import org.dcm4che3.data.Sequence;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.UID;
@@ -57,6 +65,7 @@ import org.weasis.opencv.op.ImageIOHandler;
  *   <li>Clinical Document Architecture (CDA) XML files
  *   <li>JPEG images
  *   <li>MPEG2 and MPEG4 videos
+ *   <li>Sequences of JPEG or JPEG 2000 images as a single multi-frame object
  * </ul>
  *
  * The class provides methods to read input files, validate their sizes, set necessary DICOM
@@ -66,10 +75,21 @@ public final class Dicomizer {
   private static final Logger LOGGER = LoggerFactory.getLogger(Dicomizer.class);
 
   private static final long FRAGMENT_LENGTH = 4294967294L;
-  private static final int INIT_BUFFER_SIZE = 8192;
+  private static final int OUTPUT_BUFFER_SIZE = 65536;
   private static final int JPEG_HEADER_BUFFER_SIZE = 65536;
   private static final int DEFAULT_JPEG_QUALITY = 95;
   private static final String UNKNOWN = "UNKNOWN";
+  private static final List<String> FRAME_EXTENSIONS =
+      List.of(".jpg", ".jpeg", ".jp2", ".j2k", ".j2c", ".jpx");
+  private static final int[] FRAME_PARAMETER_TAGS = {
+    Tag.Rows,
+    Tag.Columns,
+    Tag.SamplesPerPixel,
+    Tag.BitsAllocated,
+    Tag.BitsStored,
+    Tag.PixelRepresentation,
+    Tag.PhotometricInterpretation
+  };
 
   public static final long MAX_FILE_SIZE = 0x7FFFFFFE;
 
@@ -279,6 +299,142 @@ public final class Dicomizer {
     }
   }
 
+  /**
+   * Encapsulates the JPEG and JPEG 2000 images of a directory into a single multi-frame DICOM file.
+   * The images are sorted by file name and must all have the same parameters (see {@link
+   * #jpegFrames(Attributes, List, Path, boolean)}).
+   *
+   * @param attrs the DICOM attributes to populate
+   * @param frameDir the directory containing the images (.jpg, .jpeg, .jp2, .j2k, .j2c, .jpx)
+   * @param dcmFile the path to the output DICOM file
+   * @param noAPPn if true, strips APPn segments from the JPEG data
+   * @throws IOException if an I/O error occurs or if the images do not have the same parameters
+   */
+  public static void jpegFrames(Attributes attrs, Path frameDir, Path dcmFile, boolean noAPPn)
+      throws IOException {
+    if (frameDir == null || !Files.isDirectory(frameDir)) {
+      LOGGER.error("Input directory does not exist: {}", frameDir);
+      return;
+    }
+    List<Path> frameFiles;
+    try (Stream<Path> stream = Files.list(frameDir)) {
+      frameFiles =
+          stream.filter(Files::isRegularFile).filter(Dicomizer::isFrameFile).sorted().toList();
+    }
+    jpegFrames(attrs, frameFiles, dcmFile, noAPPn);
+  }
+
+  /**
+   * Encapsulates a sequence of JPEG or JPEG 2000 images into a single multi-frame DICOM file. Each
+   * image is written as one fragment and the Basic Offset Table is populated, so a viewer can read
+   * any frame without parsing the previous ones.
+   *
+   * <p>All the images must have the same dimensions, pixel description and transfer syntax. When
+   * the SOP Class UID is not set, a multi-frame Secondary Capture class matching the first image is
+   * used.
+   *
+   * @param attrs the DICOM attributes to populate
+   * @param frameFiles the images, in frame order
+   * @param dcmFile the path to the output DICOM file
+   * @param noAPPn if true, strips APPn segments from the JPEG data
+   * @throws IOException if an I/O error occurs or if the images do not have the same parameters
+   */
+  public static void jpegFrames(
+      Attributes attrs, List<Path> frameFiles, Path dcmFile, boolean noAPPn) throws IOException {
+    if (frameFiles == null || frameFiles.isEmpty()) {
+      LOGGER.error("No input image to encapsulate into {}", dcmFile);
+      return;
+    }
+    if (!frameFiles.stream().allMatch(Dicomizer::isValidInputFile)
+        || !isValidOutputFile(dcmFile)) {
+      return;
+    }
+    try {
+      FrameSequence sequence = parseFrames(frameFiles, noAPPn);
+      setupMultiFrameAttributes(attrs, sequence);
+      writeEncapsulated(
+          attrs,
+          sequence.transferSyntaxUID,
+          dcmFile,
+          (dos, out) -> writeFrameFragments(dos, out, sequence.frames));
+    } catch (IOException e) {
+      Files.deleteIfExists(dcmFile);
+      throw e;
+    } catch (Exception e) {
+      Files.deleteIfExists(dcmFile);
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Encapsulates an MPEG2 video into several DICOM video files of a fixed duration. The stream is
+   * cut at the first sequence header following each duration (at the preceding pack header for a
+   * program stream), so each file is a valid stream that starts with an intra-coded picture and
+   * lasts at least {@code segmentDuration}, except the last one.
+   *
+   * <p>The files are named after the input file with a sequence number, share the study and series
+   * of {@code attrs} and have their own SOP Instance UID and Instance Number.
+   *
+   * @param attrs the DICOM attributes to populate
+   * @param mpegFile the path to the input MPEG2 file
+   * @param outputDir the directory of the output DICOM files
+   * @param segmentDuration the minimal duration of each DICOM file
+   * @return the DICOM files in playback order, or an empty list if the input file is not readable
+   * @throws IOException if an I/O error occurs
+   */
+  public static List<Path> mpeg2Segments(
+      Attributes attrs, Path mpegFile, Path outputDir, Duration segmentDuration)
+      throws IOException {
+    Objects.requireNonNull(outputDir, "outputDir cannot be null");
+    Objects.requireNonNull(segmentDuration, "segmentDuration cannot be null");
+    if (segmentDuration.isNegative() || segmentDuration.isZero()) {
+      throw new IllegalArgumentException("segmentDuration must be positive");
+    }
+    if (!isValidInputFile(mpegFile)) {
+      return List.of();
+    }
+    Files.createDirectories(outputDir);
+    String baseName = mpegFile.getFileName().toString().replaceAll("\\.[^.]+$", "");
+    List<Path> dcmFiles = new ArrayList<>();
+    Path dcmFile = null;
+    try (FileChannel channel = FileChannel.open(mpegFile, StandardOpenOption.READ)) {
+      MPEG2Parser parser = new MPEG2Parser(channel);
+      setupParserAttributes(attrs, UID.VideoPhotographicImageStorage, parser);
+      List<Mpeg2Segmenter.Segment> segments =
+          Mpeg2Segmenter.split(channel, parser.getCodeStreamPosition(), segmentDuration);
+      for (int i = 0; i < segments.size(); i++) {
+        Mpeg2Segmenter.Segment segment = segments.get(i);
+        Attributes segmentAttrs = new Attributes(attrs);
+        if (i > 0) {
+          segmentAttrs.setString(Tag.SOPInstanceUID, VR.UI, UIDUtils.createUID());
+        }
+        segmentAttrs.setInt(Tag.InstanceNumber, VR.IS, i + 1);
+        if (segments.size() > 1 && segment.frames() > 0) {
+          segmentAttrs.setInt(Tag.NumberOfFrames, VR.IS, segment.frames());
+        }
+        PixelDataContext context =
+            new PixelDataContext(ByteUtils.EMPTY_BYTES, segment.start(), segment.length());
+        String tsuid = parser.getTransferSyntaxUID(context.codeStreamSize > FRAGMENT_LENGTH);
+        dcmFile = outputDir.resolve("%s_%03d.dcm".formatted(baseName, i + 1));
+        writeEncapsulated(
+            segmentAttrs,
+            tsuid,
+            dcmFile,
+            (dos, out) -> writePixelDataFragments(dos, channel, out, context));
+        dcmFiles.add(dcmFile);
+      }
+      return dcmFiles;
+    } catch (Exception e) {
+      if (dcmFile != null) {
+        Files.deleteIfExists(dcmFile);
+      }
+      for (Path file : dcmFiles) {
+        Files.deleteIfExists(file);
+      }
+      throw e instanceof IOException ioException ? ioException : new IOException(e);
+    }
+  }
+
   private static void buildDicomUsingParser(
       XPEGParser parser,
       Attributes attrs,
@@ -310,62 +466,211 @@ public final class Dicomizer {
   private static void writePixelData(
       XPEGParser parser, Attributes attrs, Path inputFile, Path dcmFile, boolean noAPPn)
       throws IOException {
-    try (SeekableByteChannel channel = Files.newByteChannel(inputFile);
-        DicomOutputStream dos = new DicomOutputStream(dcmFile.toFile())) {
-
+    try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
       PixelDataContext context = preparePixelDataContext(parser, channel, noAPPn);
+      String tsuid = parser.getTransferSyntaxUID(context.codeStreamSize > FRAGMENT_LENGTH);
+      writeEncapsulated(
+          attrs,
+          tsuid,
+          dcmFile,
+          (dos, out) -> writePixelDataFragments(dos, channel, out, context));
+    }
+  }
 
-      Attributes fmi =
-          attrs.createFileMetaInformation(
-              parser.getTransferSyntaxUID(context.codeStreamSize > FRAGMENT_LENGTH));
-
-      dos.writeDataset(fmi, attrs);
-      writePixelDataFragments(dos, channel, context);
+  /**
+   * Writes the dataset and the encapsulated pixel data. The DICOM headers go through a buffered
+   * {@link DicomOutputStream} while the bitstream of each fragment is copied from the input file
+   * with {@link FileChannel#transferTo}, so the video payload is never copied into the Java heap.
+   */
+  private static void writeEncapsulated(
+      Attributes attrs, String tsuid, Path dcmFile, PixelDataWriter pixelDataWriter)
+      throws IOException {
+    try (FileChannel outChannel =
+            FileChannel.open(
+                dcmFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        DicomOutputStream dos =
+            new DicomOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(outChannel), OUTPUT_BUFFER_SIZE),
+                UID.ExplicitVRLittleEndian)) {
+      dos.writeDataset(attrs.createFileMetaInformation(tsuid), attrs);
+      pixelDataWriter.write(dos, outChannel);
     }
   }
 
   private static PixelDataContext preparePixelDataContext(
       XPEGParser parser, SeekableByteChannel channel, boolean noAPPn) throws IOException {
     byte[] prefix = ByteUtils.EMPTY_BYTES;
+    long position;
     if (noAPPn && parser.getPositionAfterAPPSegments() > 0) {
-      channel.position(parser.getPositionAfterAPPSegments());
+      position = parser.getPositionAfterAPPSegments();
       prefix = new byte[] {(byte) 0xFF, (byte) JPEG.SOI};
     } else {
-      channel.position(parser.getCodeStreamPosition());
+      position = parser.getCodeStreamPosition();
     }
-    long codeStreamSize = channel.size() - channel.position() + prefix.length;
-    return new PixelDataContext(prefix, codeStreamSize);
+    long codeStreamSize = channel.size() - position + prefix.length;
+    return new PixelDataContext(prefix, position, codeStreamSize);
   }
 
   private static void writePixelDataFragments(
-      DicomOutputStream dos, SeekableByteChannel channel, PixelDataContext context)
+      DicomOutputStream dos, FileChannel in, FileChannel out, PixelDataContext context)
       throws IOException {
     dos.writeHeader(Tag.PixelData, VR.OB, -1);
     dos.writeHeader(Tag.Item, null, 0);
+    writeFragments(dos, in, out, context);
+    dos.writeHeader(Tag.SequenceDelimitationItem, null, 0);
+  }
+
+  private static void writeFragments(
+      DicomOutputStream dos, FileChannel in, FileChannel out, PixelDataContext context)
+      throws IOException {
     byte[] prefix = context.prefix;
+    long position = context.position;
     long remainingSize = context.codeStreamSize;
     do {
       long fragmentSize = Math.min(remainingSize, FRAGMENT_LENGTH);
+      long payloadSize = fragmentSize - prefix.length;
       dos.writeHeader(Tag.Item, null, (int) ((fragmentSize + 1) & ~1));
       dos.write(prefix);
-      copy(channel, fragmentSize - prefix.length, dos);
+      // The buffered headers must reach the file before the payload is appended to the channel
+      dos.flush();
+      transfer(in, position, payloadSize, out);
+      position += payloadSize;
       if ((fragmentSize & 1) != 0) dos.write(0);
       prefix = ByteUtils.EMPTY_BYTES;
       remainingSize -= fragmentSize;
     } while (remainingSize > 0);
+  }
+
+  /**
+   * Copies {@code count} bytes of {@code in} starting at {@code position} to the current position
+   * of {@code out}. A single {@link FileChannel#transferTo} call may copy fewer bytes than
+   * requested (e.g. about 2 GB on Linux), so it is repeated until the whole fragment is written.
+   */
+  private static void transfer(FileChannel in, long position, long count, FileChannel out)
+      throws IOException {
+    while (count > 0) {
+      long transferred = in.transferTo(position, count, out);
+      if (transferred <= 0) {
+        throw new EOFException(
+            "Unexpected end of file at position %d, %d bytes missing".formatted(position, count));
+      }
+      position += transferred;
+      count -= transferred;
+    }
+  }
+
+  private static boolean isFrameFile(Path file) {
+    String extension = FileUtil.getExtension(file.toString()).toLowerCase(Locale.ROOT);
+    return FRAME_EXTENSIONS.stream().anyMatch(extension::endsWith);
+  }
+
+  private static FrameSequence parseFrames(List<Path> frameFiles, boolean noAPPn)
+      throws IOException {
+    List<FrameSource> frames = new ArrayList<>(frameFiles.size());
+    Attributes imageAttributes = null;
+    String tsuid = null;
+    for (Path file : frameFiles) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        JPEGParser parser = new JPEGParser(channel);
+        Attributes frameAttributes = parser.getAttributes(new Attributes());
+        String frameTsuid = parser.getTransferSyntaxUID();
+        if (imageAttributes == null) {
+          imageAttributes = frameAttributes;
+          tsuid = frameTsuid;
+        } else {
+          checkFrameParameters(imageAttributes, tsuid, frameAttributes, frameTsuid, file);
+        }
+        PixelDataContext context = preparePixelDataContext(parser, channel, noAPPn);
+        if (context.codeStreamSize > FRAGMENT_LENGTH) {
+          throw new IOException(
+              "Frame too large %s: %s"
+                  .formatted(file, FileUtil.humanReadableByte(context.codeStreamSize, false)));
+        }
+        frames.add(new FrameSource(file, context));
+      }
+    }
+    return new FrameSequence(frames, imageAttributes, tsuid);
+  }
+
+  private static void checkFrameParameters(
+      Attributes expected, String expectedTsuid, Attributes actual, String tsuid, Path file)
+      throws IOException {
+    if (!expectedTsuid.equals(tsuid)) {
+      throw new IOException(
+          "Frame %s has transfer syntax %s instead of %s".formatted(file, tsuid, expectedTsuid));
+    }
+    for (int tag : FRAME_PARAMETER_TAGS) {
+      String expectedValue = expected.getString(tag);
+      String value = actual.getString(tag);
+      if (!Objects.equals(expectedValue, value)) {
+        throw new IOException(
+            "Frame %s has %s=%s instead of %s"
+                .formatted(file, Keyword.valueOf(tag), value, expectedValue));
+      }
+    }
+  }
+
+  private static void setupMultiFrameAttributes(Attributes attrs, FrameSequence sequence) {
+    Attributes imageAttributes = sequence.imageAttributes;
+    int nbFrames = sequence.frames.size();
+    ensureString(attrs, Tag.SOPClassUID, VR.UI, getMultiFrameSopClass(imageAttributes));
+    ensureString(attrs, Tag.ImageType, VR.CS, "ORIGINAL\\PRIMARY");
+    ensureString(attrs, Tag.ConversionType, VR.CS, "WSD");
+    commonRequiredAttributes(attrs);
+    attrs.addAll(imageAttributes);
+    attrs.setInt(Tag.NumberOfFrames, VR.IS, nbFrames);
+    if (!attrs.contains(Tag.FrameIncrementPointer)) {
+      int[] pages = new int[nbFrames];
+      for (int i = 0; i < nbFrames; i++) {
+        pages[i] = i + 1;
+      }
+      attrs.setInt(Tag.FrameIncrementPointer, VR.AT, Tag.PageNumberVector);
+      attrs.setInt(Tag.PageNumberVector, VR.IS, pages);
+    }
+  }
+
+  private static String getMultiFrameSopClass(Attributes imageAttributes) {
+    if (imageAttributes.getInt(Tag.SamplesPerPixel, 1) > 1) {
+      return UID.MultiFrameTrueColorSecondaryCaptureImageStorage;
+    }
+    return imageAttributes.getInt(Tag.BitsAllocated, 8) > 8
+        ? UID.MultiFrameGrayscaleWordSecondaryCaptureImageStorage
+        : UID.MultiFrameGrayscaleByteSecondaryCaptureImageStorage;
+  }
+
+  private static void writeFrameFragments(
+      DicomOutputStream dos, FileChannel out, List<FrameSource> frames) throws IOException {
+    dos.writeHeader(Tag.PixelData, VR.OB, -1);
+    writeBasicOffsetTable(dos, frames);
+    for (FrameSource frame : frames) {
+      try (FileChannel in = FileChannel.open(frame.file, StandardOpenOption.READ)) {
+        writeFragments(dos, in, out, frame.context);
+      }
+    }
     dos.writeHeader(Tag.SequenceDelimitationItem, null, 0);
   }
 
-  private static void copy(ByteChannel in, long len, OutputStream out) throws IOException {
-    byte[] buffer = new byte[INIT_BUFFER_SIZE];
-    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
-    while (len > 0) {
-      byteBuffer.clear();
-      byteBuffer.limit((int) Math.min(len, buffer.length));
-      int bytesRead = in.read(byteBuffer);
-      out.write(buffer, 0, bytesRead);
-      len -= bytesRead;
+  /**
+   * Writes the offsets of the frames relative to the first byte of the first fragment item. When
+   * the offsets do not fit in 32 bits, the table is left empty as allowed by the standard.
+   */
+  private static void writeBasicOffsetTable(DicomOutputStream dos, List<FrameSource> frames)
+      throws IOException {
+    byte[] table = new byte[frames.size() * 4];
+    long offset = 0;
+    for (int i = 0; i < frames.size(); i++) {
+      if (offset > 0xFFFFFFFFL) {
+        dos.writeHeader(Tag.Item, null, 0);
+        return;
+      }
+      ByteUtils.intToBytesLE((int) offset, table, i * 4);
+      offset += 8 + ((frames.get(i).context.codeStreamSize + 1) & ~1);
     }
+    dos.writeHeader(Tag.Item, null, table.length);
+    dos.write(table);
   }
 
   private static void commonRequiredAttributes(Attributes attrs) {
@@ -551,5 +856,15 @@ public final class Dicomizer {
   }
 
   private record PixelDataContext( // NOSONAR only internal use
-      byte[] prefix, long codeStreamSize) {} // NOSONAR only internal use
+      byte[] prefix, long position, long codeStreamSize) {} // NOSONAR only internal use
+
+  private record FrameSource(Path file, PixelDataContext context) {}
+
+  private record FrameSequence(
+      List<FrameSource> frames, Attributes imageAttributes, String transferSyntaxUID) {}
+
+  @FunctionalInterface
+  private interface PixelDataWriter {
+    void write(DicomOutputStream dos, FileChannel out) throws IOException;
+  }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.tool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the positions where an MPEG2 stream (elementary or program stream) can be cut into
+ * independent streams of a given duration.
+ *
+ * <p>The stream is scanned once for start codes. The duration is given by the number of picture
+ * start codes and the frame rate of the first sequence header. A segment ends before the first
+ * sequence header that follows the requested number of pictures, because a decoder can start at a
+ * sequence header. In a program stream, the cut is moved to the last pack header before this
+ * sequence header to keep the packets whole.
+ */
+final class Mpeg2Segmenter {
+
+  private static final int PICTURE_START_CODE = 0x00;
+  private static final int SEQUENCE_HEADER_CODE = 0xB3;
+  private static final int PACK_START_CODE = 0xBA;
+  private static final int SEQUENCE_HEADER_BYTES = 4;
+  private static final int BUFFER_SIZE = 65536;
+
+  // Indexed by the frame_rate_code of the sequence header (ISO/IEC 13818-2, table 6-4)
+  private static final double[] FRAME_RATES = {
+    0, 24000 / 1001.0, 24, 25, 30000 / 1001.0, 30, 50, 60000 / 1001.0, 60
+  };
+
+  /**
+   * A part of the stream.
+   *
+   * @param start the position of the first byte
+   * @param end the position after the last byte
+   * @param frames the number of pictures
+   */
+  record Segment(long start, long end, int frames) {
+    long length() {
+      return end - start;
+    }
+  }
+
+  private final double segmentSeconds;
+  private final List<Segment> segments = new ArrayList<>();
+
+  private long segmentStart;
+  private int segmentFrames;
+  private int targetFrames;
+  private long lastPack = -1;
+  private long cutCandidate = -1;
+  private int headerBytes;
+  private int header;
+
+  private Mpeg2Segmenter(long start, Duration duration) {
+    this.segmentStart = start;
+    this.segmentSeconds = duration.toMillis() / 1000.0;
+  }
+
+  /**
+   * Splits the stream into segments of at least {@code duration}, except the last one.
+   *
+   * @param channel the MPEG2 file
+   * @param start the position of the stream in the file
+   * @param duration the minimal duration of a segment
+   * @return the segments covering the stream from {@code start} to the end of the file. A stream
+   *     without a sequence header after the requested duration is returned as a single segment.
+   * @throws IOException if an I/O error occurs
+   */
+  static List<Segment> split(FileChannel channel, long start, Duration duration)
+      throws IOException {
+    Mpeg2Segmenter segmenter = new Mpeg2Segmenter(start, duration);
+    segmenter.scan(channel, start);
+    long size = channel.size();
+    segmenter.segments.add(new Segment(segmenter.segmentStart, size, segmenter.segmentFrames));
+    return segmenter.segments;
+  }
+
+  private void scan(FileChannel channel, long start) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    long position = start;
+    int last = -1;
+    int read;
+    while ((read = channel.read(buffer, position)) > 0) {
+      byte[] bytes = buffer.array();
+      for (int i = 0; i < read; i++) {
+        int b = bytes[i] & 0xFF;
+        if (headerBytes > 0) {
+          header = (header << 8) | b;
+          if (--headerBytes == 0) {
+            readFrameRate(header & 0x0F);
+          }
+        }
+        last = (last << 8) | b;
+        if ((last & 0xFFFFFF00) == 0x00000100) {
+          startCode(b, position + i - 3);
+        }
+      }
+      position += read;
+      buffer.clear();
+    }
+  }
+
+  private void startCode(int code, long codePosition) {
+    switch (code) {
+      case PACK_START_CODE -> lastPack = codePosition;
+      case SEQUENCE_HEADER_CODE -> {
+        cutCandidate = lastPack > segmentStart ? lastPack : codePosition;
+        if (targetFrames == 0) {
+          headerBytes = SEQUENCE_HEADER_BYTES;
+          header = 0;
+        }
+      }
+      case PICTURE_START_CODE -> {
+        if (targetFrames > 0 && segmentFrames >= targetFrames && cutCandidate > segmentStart) {
+          segments.add(new Segment(segmentStart, cutCandidate, segmentFrames));
+          segmentStart = cutCandidate;
+          segmentFrames = 0;
+        }
+        cutCandidate = -1;
+        segmentFrames++;
+      }
+      default -> {
+        // Other start codes (slices, extensions, user data, PES packets) do not matter
+      }
+    }
+  }
+
+  private void readFrameRate(int frameRateCode) {
+    if (frameRateCode > 0 && frameRateCode < FRAME_RATES.length) {
+      targetFrames = (int) Math.max(1, Math.round(segmentSeconds * FRAME_RATES[frameRateCode]));
+    }
+  }
+}
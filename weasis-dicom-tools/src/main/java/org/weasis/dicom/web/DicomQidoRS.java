@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.web;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonParsingException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.json.JSONReader;
+import org.dcm4che3.util.TagUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.dicom.mf.AbstractQueryResult;
+import org.weasis.dicom.mf.QueryResultBuilder;
+import org.weasis.dicom.mf.Series;
+import org.weasis.dicom.mf.Study;
+import org.weasis.dicom.util.ServiceUtil;
+
+/**
+ * DICOM Query based on ID for DICOM Objects (QIDO-RS) client. Searches studies, series and
+ * instances, requesting the results by pages ({@code limit}/{@code offset}).
+ *
+ * <p>The DICOM JSON response is parsed incrementally with the dcm4che {@link JSONReader}: each
+ * matching dataset is given to the caller as soon as it is read, without building the JSON
+ * document.
+ *
+ * <p>{@link #fillQueryResult} builds the manifest model with one request per level: the studies
+ * are searched first, then the series and the instances of all the studies are searched
+ * concurrently.
+ *
+ * @see <a href="http://dicom.nema.org/medical/dicom/current/output/html/part18.html">DICOM
+ *     PS3.18</a>
+ */
+public class DicomQidoRS implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DicomQidoRS.class);
+
+  /** Default number of results requested per page. */
+  public static final int DEFAULT_PAGE_SIZE = 1000;
+
+  private static final int[] SERIES_FIELDS = {
+    Tag.SeriesInstanceUID, Tag.Modality, Tag.SeriesDescription, Tag.SeriesNumber
+  };
+  private static final int[] INSTANCE_FIELDS = {
+    Tag.SeriesInstanceUID, Tag.SOPClassUID, Tag.SOPInstanceUID, Tag.InstanceNumber
+  };
+
+  private final DicomWadoConfig config;
+  private final HttpClient httpClient;
+  private final ExecutorService executorService;
+  private final int pageSize;
+
+  /**
+   * Creates a QIDO-RS client requesting {@link #DEFAULT_PAGE_SIZE} results per page. The
+   * configuration is the one of the DICOMweb service, shared with {@link DicomWadoRS}; the
+   * transfer syntax is ignored.
+   */
+  public DicomQidoRS(DicomWadoConfig config) {
+    this(config, DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Creates a QIDO-RS client.
+   *
+   * @param config the configuration of the DICOMweb service
+   * @param pageSize the number of results requested per page, 0 to request all the results at
+   *     once
+   */
+  public DicomQidoRS(DicomWadoConfig config, int pageSize) {
+    this.config = Objects.requireNonNull(config, "Configuration cannot be null");
+    if (pageSize < 0) {
+      throw new IllegalArgumentException("Page size cannot be negative");
+    }
+    this.pageSize = pageSize;
+    this.executorService =
+        Executors.newFixedThreadPool(
+            config.getThreadPoolSize(), ServiceUtil.getThreadFactory("DicomQido"));
+    this.httpClient =
+        HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .version(config.getHttpVersion())
+            .connectTimeout(config.getConnectTimeout())
+            .build();
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Searches studies.
+   *
+   * @param queryKeys the matching keys and the other query parameters (e.g. "PatientID"), may be
+   *     null
+   * @param consumer receives each matching study
+   * @return the number of matching studies
+   * @throws IOException if a request fails or the response is not valid DICOM JSON
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int searchStudies(Map<String, String> queryKeys, Consumer<Attributes> consumer)
+      throws IOException, InterruptedException {
+    return search("/studies", queryKeys, consumer);
+  }
+
+  /**
+   * Searches the series of a study.
+   *
+   * @param studyUID the Study Instance UID
+   * @param queryKeys the matching keys and the other query parameters, may be null
+   * @param consumer receives each matching series
+   * @return the number of matching series
+   * @throws IOException if a request fails or the response is not valid DICOM JSON
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int searchSeries(
+      String studyUID, Map<String, String> queryKeys, Consumer<Attributes> consumer)
+      throws IOException, InterruptedException {
+    Objects.requireNonNull(studyUID, "Study Instance UID cannot be null");
+    return search("/studies/" + studyUID + "/series", queryKeys, consumer);
+  }
+
+  /**
+   * Searches the instances of a study or of a series.
+   *
+   * @param studyUID the Study Instance UID
+   * @param seriesUID the Series Instance UID, null to search the instances of the whole study
+   * @param queryKeys the matching keys and the other query parameters, may be null
+   * @param consumer receives each matching instance
+   * @return the number of matching instances
+   * @throws IOException if a request fails or the response is not valid DICOM JSON
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int searchInstances(
+      String studyUID,
+      String seriesUID,
+      Map<String, String> queryKeys,
+      Consumer<Attributes> consumer)
+      throws IOException, InterruptedException {
+    Objects.requireNonNull(studyUID, "Study Instance UID cannot be null");
+    String path =
+        seriesUID == null
+            ? "/studies/" + studyUID + "/instances"
+            : "/studies/" + studyUID + "/series/" + seriesUID + "/instances";
+    return search(path, queryKeys, consumer);
+  }
+
+  /**
+   * Searches a resource, requesting the pages until a page is incomplete. A page with fewer
+   * results than the page size is followed by another one only if the server announces additional
+   * results with a {@code Warning: 299} header field. A page starting with the first result of the
+   * search ends it, as the server ignores the offset: its results are not given again.
+   *
+   * @param path the path of the resource, relative to the base URL (e.g. "/studies")
+   * @param queryKeys the matching keys and the other query parameters, may be null
+   * @param consumer receives each matching dataset
+   * @return the number of matching datasets
+   * @throws IOException if a request fails or the response is not valid DICOM JSON
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int search(String path, Map<String, String> queryKeys, Consumer<Attributes> consumer)
+      throws IOException, InterruptedException {
+    Objects.requireNonNull(path, "Path cannot be null");
+    Objects.requireNonNull(consumer, "Consumer cannot be null");
+
+    int total = 0;
+    Attributes firstResult = null;
+    while (true) {
+      var page = new PageConsumer(consumer, firstResult);
+      boolean additionalResults = searchPage(buildUri(path, queryKeys, total), page);
+      if (page.repeated) {
+        LOGGER.warn("The offset is ignored by the server, the search of {} is incomplete", path);
+        return total;
+      }
+      total += page.count;
+      if (firstResult == null) {
+        firstResult = page.first;
+      }
+      if (pageSize == 0 || page.count == 0 || (page.count != pageSize && !additionalResults)) {
+        return total;
+      }
+    }
+  }
+
+  /**
+   * Searches the studies matching the query keys with their series and instances, and adds them
+   * to the query result. The series and the instances of the studies are searched concurrently:
+   * the number of round trips does not depend on the number of series. Each result is added to
+   * the study by the worker reading it, under the lock of the study.
+   *
+   * @param result the query result to fill
+   * @param studyQueryKeys the study matching keys (e.g. "StudyInstanceUID" or "PatientID")
+   * @return the number of studies added
+   * @throws IOException if a request fails or the response is not valid DICOM JSON
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int fillQueryResult(AbstractQueryResult result, Map<String, String> studyQueryKeys)
+      throws IOException, InterruptedException {
+    Objects.requireNonNull(result, "Query result cannot be null");
+    List<Study> studies = new ArrayList<>();
+    searchStudies(
+        studyQueryKeys,
+        dataset -> {
+          Study study = QueryResultBuilder.addStudy(result, dataset);
+          if (study != null) {
+            studies.add(study);
+          }
+        });
+
+    // The series and the instances of a study are added concurrently by two workers
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (Study study : studies) {
+      String studyUID = study.getStudyInstanceUID();
+      futures.add(
+          searchAsync(
+              "/studies/" + studyUID + "/series",
+              includeFields(SERIES_FIELDS),
+              dataset -> {
+                synchronized (study) {
+                  QueryResultBuilder.addSeries(study, dataset);
+                }
+              }));
+      futures.add(
+          searchAsync(
+              "/studies/" + studyUID + "/instances",
+              includeFields(INSTANCE_FIELDS),
+              dataset -> {
+                synchronized (study) {
+                  Series series = QueryResultBuilder.addSeries(study, dataset);
+                  if (series != null) {
+                    QueryResultBuilder.addSopInstance(series, dataset);
+                  }
+                }
+              }));
+    }
+
+    for (CompletableFuture<Void> future : futures) {
+      join(future);
+    }
+    return studies.size();
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * Reads the datasets of a DICOM JSON array.
+   *
+   * @param body the response body
+   * @param consumer receives each dataset
+   * @return the number of datasets
+   * @throws IOException if the body is not valid DICOM JSON
+   */
+  static int readDatasets(InputStream body, Consumer<Attributes> consumer) throws IOException {
+    int[] count = {0};
+    try (var parser = Json.createParser(body)) {
+      new JSONReader(parser)
+          .readDatasets(
+              (fmi, dataset) -> {
+                count[0]++;
+                consumer.accept(dataset);
+              });
+    } catch (JsonParsingException e) {
+      throw new IOException("Invalid DICOM JSON response", e);
+    }
+    return count[0];
+  }
+
+  /**
+   * Requests a page of results.
+   *
+   * @return true if the server announces additional results with a {@code Warning: 299} header
+   */
+  private boolean searchPage(URI uri, Consumer<Attributes> consumer)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder()
+            .uri(uri)
+            .GET()
+            .header("Accept", MultipartConstants.DicomContentType.JSON.getMimeType())
+            .header("User-Agent", config.getUserAgent());
+    config.getHeaders().forEach(builder::header);
+
+    HttpResponse<InputStream> response =
+        httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream body = response.body()) {
+      int statusCode = response.statusCode();
+      if (statusCode >= 400) {
+        String message = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        throw new HttpException("QIDO-RS search failed", statusCode, message, null);
+      }
+      if (statusCode == 204) {
+        return false;
+      }
+      int count = readDatasets(body, consumer);
+      LOGGER.debug("{} results from {}", count, uri);
+      return response.headers().allValues("Warning").stream()
+          .anyMatch(w -> w.startsWith("299") && w.toLowerCase().contains("additional results"));
+    }
+  }
+
+  /** Counts the results of a page, ignoring a page starting again with the first result. */
+  private static final class PageConsumer implements Consumer<Attributes> {
+    private final Consumer<Attributes> consumer;
+    private final Attributes firstResult;
+    private Attributes first;
+    private boolean repeated;
+    private int count;
+
+    PageConsumer(Consumer<Attributes> consumer, Attributes firstResult) {
+      this.consumer = consumer;
+      this.firstResult = firstResult;
+    }
+
+    @Override
+    public void accept(Attributes dataset) {
+      if (first == null) {
+        first = dataset;
+        repeated = dataset.equals(firstResult);
+      }
+      if (!repeated) {
+        count++;
+        consumer.accept(dataset);
+      }
+    }
+  }
+
+  private CompletableFuture<Void> searchAsync(
+      String path, Map<String, String> queryKeys, Consumer<Attributes> consumer) {
+    return CompletableFuture.runAsync(
+        () -> {
+          try {
+            search(path, queryKeys, consumer);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+          }
+        },
+        executorService);
+  }
+
+  private static void join(CompletableFuture<Void> future)
+      throws IOException, InterruptedException {
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException io) {
+        throw io.getCause();
+      }
+      throw new IOException("QIDO-RS search failed", cause);
+    }
+  }
+
+  private static Map<String, String> includeFields(int[] tags) {
+    var fields = new StringBuilder();
+    for (int tag : tags) {
+      if (!fields.isEmpty()) {
+        fields.append(',');
+      }
+      fields.append(TagUtils.toHexString(tag));
+    }
+    Map<String, String> queryKeys = new HashMap<>();
+    queryKeys.put("includefield", fields.toString());
+    return queryKeys;
+  }
+
+  URI buildUri(String path, Map<String, String> queryKeys, int offset) {
+    Map<String, String> params = new LinkedHashMap<>();
+    if (queryKeys != null) {
+      params.putAll(queryKeys);
+    }
+    if (pageSize > 0) {
+      params.put("limit", Integer.toString(pageSize));
+      params.put("offset", Integer.toString(offset));
+    }
+
+    var uri = new StringBuilder(config.getBaseUrl()).append(path);
+    char separator = '?';
+    for (Map.Entry<String, String> param : params.entrySet()) {
+      uri.append(separator)
+          .append(URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8))
+          .append('=')
+          .append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+      separator = '&';
+    }
+    return URI.create(uri.toString());
+  }
+}
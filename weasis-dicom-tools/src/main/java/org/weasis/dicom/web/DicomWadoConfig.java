@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.web;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Configuration for DICOM WADO-RS retrieve operations. Provides builder pattern for flexible
+ * configuration.
+ */
+public final class DicomWadoConfig {
+
+  private static final String DEFAULT_USER_AGENT = "Weasis WADO-RS Client";
+  private static final int DEFAULT_THREAD_POOL_SIZE = 4;
+  private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  // Retrieve responses are plain GET downloads: several retrieves can share one HTTP/2 connection.
+  // The client falls back to HTTP/1.1 when the server does not support HTTP/2.
+  static final HttpClient.Version DEFAULT_HTTP_VERSION = HttpClient.Version.HTTP_2;
+
+  private final String baseUrl;
+  private final String transferSyntax;
+  private final String userAgent;
+  private final Map<String, String> headers;
+  private final int threadPoolSize;
+  private final Duration connectTimeout;
+  private final HttpClient.Version httpVersion;
+
+  private DicomWadoConfig(Builder builder) {
+    this.baseUrl = normalizeUrl(builder.baseUrl);
+    this.transferSyntax = builder.transferSyntax;
+    this.userAgent = builder.userAgent;
+    this.headers = Map.copyOf(builder.headers);
+    this.threadPoolSize = builder.threadPoolSize;
+    this.connectTimeout = builder.connectTimeout;
+    this.httpVersion = builder.httpVersion;
+  }
+
+  /** Returns the URL of the DICOMweb service, without the trailing "/studies". */
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  /** Returns the requested transfer syntax UID, "*" for any, or null for the server default. */
+  public String getTransferSyntax() {
+    return transferSyntax;
+  }
+
+  public String getUserAgent() {
+    return userAgent;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  /** Returns the maximum number of retrieves running concurrently. */
+  public int getThreadPoolSize() {
+    return threadPoolSize;
+  }
+
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public HttpClient.Version getHttpVersion() {
+    return httpVersion;
+  }
+
+  /** Creates a new builder instance. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static String normalizeUrl(String url) {
+    Objects.requireNonNull(url, "Base URL cannot be null");
+
+    String normalized = url.trim();
+    if (normalized.endsWith("/")) {
+      normalized = normalized.substring(0, normalized.length() - 1);
+    }
+    if (normalized.endsWith("/studies")) {
+      normalized = normalized.substring(0, normalized.length() - "/studies".length());
+    }
+    return normalized;
+  }
+
+  /** Builder for DicomWadoConfig. */
+  public static final class Builder {
+    private String baseUrl;
+    private String transferSyntax;
+    private String userAgent = DEFAULT_USER_AGENT;
+    private final Map<String, String> headers = new HashMap<>();
+    private int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+    private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private HttpClient.Version httpVersion = DEFAULT_HTTP_VERSION;
+
+    private Builder() {}
+
+    public Builder baseUrl(String baseUrl) {
+      this.baseUrl = baseUrl;
+      return this;
+    }
+
+    /**
+     * Sets the transfer syntax requested in the Accept header.
+     *
+     * @param transferSyntax the transfer syntax UID, "*" to accept the stored one, or null to let
+     *     the server choose (Explicit VR Little Endian)
+     */
+    public Builder transferSyntax(String transferSyntax) {
+      this.transferSyntax = transferSyntax;
+      return this;
+    }
+
+    public Builder userAgent(String userAgent) {
+      this.userAgent = userAgent != null ? userAgent : DEFAULT_USER_AGENT;
+      return this;
+    }
+
+    public Builder header(String name, String value) {
+      Objects.requireNonNull(name, "Header name cannot be null");
+      if (value != null) {
+        headers.put(name, value);
+      }
+      return this;
+    }
+
+    public Builder headers(Map<String, String> headers) {
+      if (headers != null) {
+        this.headers.putAll(headers);
+      }
+      return this;
+    }
+
+    public Builder threadPoolSize(int threadPoolSize) {
+      if (threadPoolSize <= 0) {
+        throw new IllegalArgumentException("Thread pool size must be positive");
+      }
+      this.threadPoolSize = threadPoolSize;
+      return this;
+    }
+
+    public Builder connectTimeout(Duration connectTimeout) {
+      this.connectTimeout = Objects.requireNonNull(connectTimeout);
+      return this;
+    }
+
+    public Builder httpVersion(HttpClient.Version httpVersion) {
+      this.httpVersion = Objects.requireNonNull(httpVersion);
+      return this;
+    }
+
+    public DicomWadoConfig build() {
+      Objects.requireNonNull(baseUrl, "Base URL is required");
+      return new DicomWadoConfig(this);
+    }
+  }
+}
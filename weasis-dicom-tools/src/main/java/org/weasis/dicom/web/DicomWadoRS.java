@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.web;
+
+import static org.weasis.dicom.web.MultipartConstants.CONTENT_TYPE;
+import static org.weasis.dicom.web.MultipartConstants.MULTIPART_RELATED;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.img.stream.BytesWithImageDescriptor;
+import org.dcm4che3.img.stream.ImageAdapter;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.weasis.core.util.StringUtil;
+import org.weasis.dicom.util.ServiceUtil;
+
+/**
+ * DICOM Web Access to DICOM Objects (WADO-RS) retrieve client. Studies, series and instances are
+ * requested as {@code multipart/related; type="application/dicom"} and the response is read part
+ * by part with a {@link MultipartReader}: each instance is given to a {@link PartHandler} while it
+ * is received, so a study is never buffered as a whole.
+ *
+ * <p>Several retrieves can run concurrently with {@link #retrieveAsync} or {@link #retrieveAll};
+ * they share the connections of one {@link HttpClient}, multiplexed when the server supports
+ * HTTP/2.
+ *
+ * @see <a href="http://dicom.nema.org/medical/dicom/current/output/html/part18.html">DICOM
+ *     PS3.18</a>
+ */
+public class DicomWadoRS implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DicomWadoRS.class);
+
+  private static final int READ_BUFFER_SIZE = 65_536;
+  private static final String DICOM_FILE_EXTENSION = ".dcm";
+
+  /**
+   * A study, a series or an instance to retrieve.
+   *
+   * @param studyUID the Study Instance UID
+   * @param seriesUID the Series Instance UID, null to retrieve the whole study
+   * @param sopInstanceUID the SOP Instance UID, null to retrieve the whole series
+   */
+  public record RetrieveTarget(String studyUID, String seriesUID, String sopInstanceUID) {
+    public RetrieveTarget {
+      if (!StringUtil.hasText(studyUID)) {
+        throw new IllegalArgumentException("Study Instance UID is required");
+      }
+      if (sopInstanceUID != null && !StringUtil.hasText(seriesUID)) {
+        throw new IllegalArgumentException("Series Instance UID is required for an instance");
+      }
+    }
+
+    public static RetrieveTarget study(String studyUID) {
+      return new RetrieveTarget(studyUID, null, null);
+    }
+
+    public static RetrieveTarget series(String studyUID, String seriesUID) {
+      return new RetrieveTarget(studyUID, seriesUID, null);
+    }
+
+    public static RetrieveTarget instance(
+        String studyUID, String seriesUID, String sopInstanceUID) {
+      return new RetrieveTarget(studyUID, seriesUID, sopInstanceUID);
+    }
+
+    /** Returns the path of the resource, relative to the base URL of the service. */
+    public String path() {
+      var path = new StringBuilder("/studies/").append(studyUID);
+      if (seriesUID != null) {
+        path.append("/series/").append(seriesUID);
+        if (sopInstanceUID != null) {
+          path.append("/instances/").append(sopInstanceUID);
+        }
+      }
+      return path.toString();
+    }
+  }
+
+  /** Receives the parts of a multipart response, in the order of the response. */
+  @FunctionalInterface
+  public interface PartHandler {
+    /**
+     * Handles a part. The content must be consumed before returning; it is not readable after.
+     * When retrieves run concurrently, the same handler is called from several threads.
+     *
+     * @param headers the headers of the part
+     * @param content the content of the part, ending at the next boundary
+     * @throws IOException if the part cannot be handled. The retrieve is stopped.
+     */
+    void handle(Map<String, String> headers, InputStream content) throws IOException;
+  }
+
+  /** Receives the DICOM instances read in memory by {@link #readInstances(InstanceHandler)}. */
+  @FunctionalInterface
+  public interface InstanceHandler {
+    /**
+     * Handles an instance.
+     *
+     * @param dataset the dataset, with the pixel data in memory
+     * @param image the access to the frames, or null if the instance has no pixel data
+     * @throws IOException if the instance cannot be handled
+     */
+    void handle(Attributes dataset, BytesWithImageDescriptor image) throws IOException;
+  }
+
+  private final DicomWadoConfig config;
+  private final HttpClient httpClient;
+  private final ExecutorService executorService;
+
+  /** Creates a WADO-RS client with the specified configuration. */
+  public DicomWadoRS(DicomWadoConfig config) {
+    this.config = Objects.requireNonNull(config, "Configuration cannot be null");
+    // Response bodies are read by the threads of this pool. The HTTP client keeps its own
+    // executor to deliver the data, otherwise the blocked readers could starve it.
+    this.executorService =
+        Executors.newFixedThreadPool(
+            config.getThreadPoolSize(), ServiceUtil.getThreadFactory("DicomWado"));
+    this.httpClient =
+        HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .version(config.getHttpVersion())
+            .connectTimeout(config.getConnectTimeout())
+            .build();
+  }
+
+  public DicomWadoConfig getConfig() {
+    return config;
+  }
+
+  /**
+   * Retrieves a study, a series or an instance in the current thread.
+   *
+   * @param target the resource to retrieve
+   * @param handler the handler of each DICOM part
+   * @return the number of parts received
+   * @throws HttpException if the server returns an error status
+   * @throws IOException if the request fails or the response is not a valid multipart
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int retrieve(RetrieveTarget target, PartHandler handler)
+      throws IOException, InterruptedException {
+    Objects.requireNonNull(target, "Target cannot be null");
+    Objects.requireNonNull(handler, "Handler cannot be null");
+
+    HttpRequest request = buildHttpRequest(target);
+    HttpResponse<InputStream> response =
+        httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream body = response.body()) {
+      int statusCode = response.statusCode();
+      if (statusCode >= 400) {
+        String message = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        throw new HttpException("WADO-RS retrieve failed", statusCode, message, null);
+      }
+      if (statusCode == 204) {
+        return 0;
+      }
+      String contentType = response.headers().firstValue(CONTENT_TYPE).orElse(null);
+      int parts = readParts(body, contentType, handler);
+      LOGGER.debug("Retrieved {} parts from {}", parts, request.uri());
+      return parts;
+    }
+  }
+
+  /**
+   * Retrieves a study, a series or an instance with a thread of the client. At most {@link
+   * DicomWadoConfig#getThreadPoolSize()} retrieves run at the same time.
+   *
+   * @param target the resource to retrieve
+   * @param handler the handler of each DICOM part, called from the threads of the client
+   * @return the future number of parts received
+   */
+  public CompletableFuture<Integer> retrieveAsync(RetrieveTarget target, PartHandler handler) {
+    Objects.requireNonNull(target, "Target cannot be null");
+    Objects.requireNonNull(handler, "Handler cannot be null");
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return retrieve(target, handler);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+          }
+        },
+        executorService);
+  }
+
+  /**
+   * Retrieves several resources concurrently and waits for all of them.
+   *
+   * @param targets the resources to retrieve
+   * @param handler the handler of each DICOM part, called concurrently
+   * @return the total number of parts received
+   * @throws IOException the first failure, when a retrieve fails
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int retrieveAll(Collection<RetrieveTarget> targets, PartHandler handler)
+      throws IOException, InterruptedException {
+    Objects.requireNonNull(targets, "Targets cannot be null");
+    List<CompletableFuture<Integer>> futures = new ArrayList<>(targets.size());
+    for (RetrieveTarget target : targets) {
+      futures.add(retrieveAsync(target, handler));
+    }
+
+    int parts = 0;
+    IOException failure = null;
+    for (CompletableFuture<Integer> future : futures) {
+      try {
+        parts += future.get();
+      } catch (ExecutionException e) {
+        IOException error = toIOException(e.getCause());
+        if (failure == null) {
+          failure = error;
+        } else {
+          failure.addSuppressed(error);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return parts;
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * Reads a multipart/related response and gives each part to the handler.
+   *
+   * @param body the response body
+   * @param contentType the Content-Type header of the response
+   * @param handler the handler of each part
+   * @return the number of parts
+   * @throws IOException if the body is not a valid multipart or if the handler fails
+   */
+  static int readParts(InputStream body, String contentType, PartHandler handler)
+      throws IOException {
+    byte[] boundary = BoundaryExtractor.extractBoundary(contentType, MULTIPART_RELATED);
+    if (boundary == null) {
+      throw MultipartStreamException.boundaryError(contentType);
+    }
+
+    int parts = 0;
+    var reader = new MultipartReader(body, boundary, READ_BUFFER_SIZE);
+    boolean nextPart = reader.skipFirstBoundary();
+    while (nextPart) {
+      Map<String, String> headers = MultipartHeaderParser.parseHeaders(reader.readHeaders());
+      try (InputStream content = reader.newPartInputStream()) {
+        handler.handle(headers, content);
+      }
+      parts++;
+      nextPart = reader.readBoundary();
+    }
+    return parts;
+  }
+
+  /**
+   * Returns a handler writing each instance in a directory. The file is named by the SOP Instance
+   * UID of its File Meta Information; a part without this UID is not kept.
+   *
+   * @param directory the destination directory, created if it does not exist
+   * @return the handler
+   */
+  public static PartHandler saveTo(Path directory) {
+    Objects.requireNonNull(directory, "Directory cannot be null");
+    return (headers, content) -> {
+      Files.createDirectories(directory);
+      Path tmp = Files.createTempFile(directory, "part-", DICOM_FILE_EXTENSION);
+      try {
+        Files.copy(content, tmp, StandardCopyOption.REPLACE_EXISTING);
+        String iuid = readSopInstanceUID(tmp);
+        if (iuid == null) {
+          Files.deleteIfExists(tmp);
+        } else {
+          Path file = directory.resolve(iuid + DICOM_FILE_EXTENSION);
+          Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } catch (IOException e) {
+        Files.deleteIfExists(tmp);
+        throw e;
+      }
+    };
+  }
+
+  /**
+   * Returns a handler reading each instance in memory, without writing it to disk.
+   *
+   * @param handler the handler of the instances
+   * @return the handler of the parts
+   */
+  public static PartHandler readInstances(InstanceHandler handler) {
+    Objects.requireNonNull(handler, "Handler cannot be null");
+    return (headers, content) -> {
+      try (var dis = new DicomInputStream(content)) {
+        dis.setIncludeBulkData(IncludeBulkData.YES);
+        Attributes dataset = dis.readDataset();
+        String tsuid = dis.getTransferSyntax();
+        handler.handle(dataset, ImageAdapter.bytesWithImageDescriptor(dataset, tsuid));
+      }
+    };
+  }
+
+  private static String readSopInstanceUID(Path file) {
+    try (var dis = new DicomInputStream(file.toFile())) {
+      Attributes fmi = dis.readFileMetaInformation();
+      return fmi == null ? null : fmi.getString(Tag.MediaStorageSOPInstanceUID);
+    } catch (IOException e) {
+      LOGGER.warn("Cannot read the File Meta Information of {}", file, e);
+      return null;
+    }
+  }
+
+  private HttpRequest buildHttpRequest(RetrieveTarget target) {
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder()
+            .uri(URI.create(config.getBaseUrl() + target.path()))
+            .GET()
+            .header("Accept", buildAcceptHeader())
+            .header("User-Agent", config.getUserAgent());
+    config.getHeaders().forEach(builder::header);
+    return builder.build();
+  }
+
+  String buildAcceptHeader() {
+    var accept =
+        new StringBuilder(MULTIPART_RELATED)
+            .append("; type=\"")
+            .append(ContentType.APPLICATION_DICOM.getType())
+            .append('"');
+    if (StringUtil.hasText(config.getTransferSyntax())) {
+      accept.append("; transfer-syntax=").append(config.getTransferSyntax());
+    }
+    return accept.toString();
+  }
+
+  private static IOException toIOException(Throwable cause) {
+    if (cause instanceof UncheckedIOException e) {
+      return e.getCause();
+    }
+    if (cause instanceof IOException e) {
+      return e;
+    }
+    return new IOException("WADO-RS retrieve failed", cause);
+  }
+}
@@ -23,6 +23,11 @@ import org.slf4j.LoggerFactory;
 /**
  * High-performance multipart stream reader for processing multipart/related HTTP content. Provides
  * boundary detection, header parsing, and streaming access to individual parts.
+ *
+ * <p>The boundary is searched with the Boyer-Moore-Horspool algorithm, which skips up to the length
+ * of the boundary at each step, and each byte of the stream is searched only once: the bytes
+ * located before the boundary, or before the last position where a boundary could start, are read
+ * in bulk without any other check.
  */
 public final class MultipartReader implements AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(MultipartReader.class);
@@ -30,7 +35,7 @@ public final class MultipartReader implements AutoCloseable {
   /** Maximum size for multipart headers (16KB) */
   public static final int MAX_HEADER_SIZE = 16_384;
 
-  private static final int DEFAULT_BUFFER_SIZE = 4_096;
+  private static final int DEFAULT_BUFFER_SIZE = 65_536;
 
   private static final int MIN_BUFFER_SIZE = 256;
   private static final int MAX_BUFFER_SIZE = 1_048_576; // 1MB
@@ -40,6 +45,8 @@ public final class MultipartReader implements AutoCloseable {
   private final StreamBuffer buffer;
   private Charset headerEncoding = StandardCharsets.UTF_8;
   private int currentBoundaryLength;
+  private final BoundarySearch boundarySearch;
+  private BoundarySearch firstBoundarySearch;
 
   /** Creates a multipart reader with default buffer size. */
   public MultipartReader(InputStream inputStream, byte[] boundary) {
@@ -54,6 +61,7 @@ public final class MultipartReader implements AutoCloseable {
     this.buffer = new StreamBuffer(inputStream, bufferSize);
     this.boundary = createBoundaryWithPrefix(boundary);
     this.currentBoundaryLength = this.boundary.length;
+    this.boundarySearch = new BoundarySearch(this.boundary, currentBoundaryLength);
   }
 
   public Charset getHeaderEncoding() {
@@ -141,6 +149,17 @@ public final class MultipartReader implements AutoCloseable {
     currentBoundaryLength -= 2;
   }
 
+  private BoundarySearch getBoundarySearch() {
+    if (currentBoundaryLength == boundary.length) {
+      return boundarySearch;
+    }
+    // The first boundary has no CRLF prefix (see adjustBoundaryForFirst)
+    if (firstBoundarySearch == null) {
+      firstBoundarySearch = new BoundarySearch(boundary, currentBoundaryLength);
+    }
+    return firstBoundarySearch;
+  }
+
   private void restoreBoundary(byte[] original, int originalLength) {
     System.arraycopy(original, 0, boundary, 0, original.length);
     currentBoundaryLength = originalLength;
@@ -263,6 +282,26 @@ public final class MultipartReader implements AutoCloseable {
       return total;
     }
 
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+      validateNotClosed();
+      Objects.requireNonNull(out, "Output stream cannot be null");
+      long total = 0;
+      while (!detector.hasReachedBoundary()) {
+        int safe = detector.getSafeAvailable();
+        if (safe > 0) {
+          // Written directly from the internal buffer, without intermediate copy
+          buffer.writeTo(out, safe);
+          detector.refresh();
+          total += safe;
+        } else {
+          buffer.fillBuffer();
+          detector.refresh();
+        }
+      }
+      return total;
+    }
+
     @Override
     public void close() throws IOException {
       if (!closed) {
@@ -300,21 +339,25 @@ public final class MultipartReader implements AutoCloseable {
   }
 
   /**
-   * Tracks the boundary's position relative to the buffer. {@link #boundaryFound} is the only flag
-   * that means "the boundary has been definitively located"; the {@link #getSafeAvailable()} value
-   * is purely a heuristic for "how many bytes can I consume without risk of missing a partial
-   * boundary at the buffer's tail".
+   * Tracks the boundary's position in the stream. {@link #boundaryFound} is the only flag that
+   * means "the boundary has been definitively located"; until then, the bytes before {@link
+   * #searchedOffset} are known not to contain the start of a boundary. Positions are absolute
+   * offsets in the stream, so they remain valid when the buffer is compacted, and a refresh only
+   * searches the bytes added since the previous one.
    */
   private class BoundaryDetector {
-    private int boundaryPosition = -1;
+    private final BoundarySearch search;
+    private long boundaryOffset = -1;
+    private long searchedOffset;
     private boolean boundaryFound;
 
     BoundaryDetector() {
+      this.search = getBoundarySearch();
       refresh();
     }
 
     boolean hasReachedBoundary() {
-      return boundaryFound && buffer.getPosition() >= boundaryPosition;
+      return boundaryFound && buffer.getStreamPosition() >= boundaryOffset;
     }
 
     /**
@@ -323,22 +366,61 @@ public final class MultipartReader implements AutoCloseable {
      * the start of a still-incomplete boundary.
      */
     int getSafeAvailable() {
-      if (boundaryFound) {
-        return Math.max(0, boundaryPosition - buffer.getPosition());
-      }
-      return Math.max(0, buffer.available() - currentBoundaryLength);
+      long end = boundaryFound ? boundaryOffset : searchedOffset;
+      return (int) Math.max(0, end - buffer.getStreamPosition());
     }
 
-    /** Re-scan after consuming bytes from the buffer or after a buffer refill. */
+    /** Searches the bytes added to the buffer since the last refresh. */
     void refresh() {
-      int found = buffer.findPattern(boundary, currentBoundaryLength);
+      if (boundaryFound) {
+        return;
+      }
+      int from = (int) Math.max(buffer.getPosition(), searchedOffset - buffer.getOffset());
+      int found = buffer.findPattern(search, from);
       if (found != -1) {
-        boundaryPosition = found;
+        boundaryOffset = buffer.getOffset() + found;
         boundaryFound = true;
       } else {
-        boundaryFound = false;
+        int nextStart = Math.max(from, buffer.getLimit() - search.length() + 1);
+        searchedOffset = buffer.getOffset() + nextStart;
+      }
+    }
+  }
+
+  /**
+   * Boyer-Moore-Horspool search of the boundary. The last byte of the window is compared first and
+   * the window is shifted by the distance between its last byte and the end of the pattern.
+   */
+  private static final class BoundarySearch {
+    private final byte[] pattern;
+    private final int[] shifts = new int[256];
+
+    BoundarySearch(byte[] boundary, int length) {
+      this.pattern = Arrays.copyOf(boundary, length);
+      Arrays.fill(shifts, length);
+      for (int i = 0; i < length - 1; i++) {
+        shifts[pattern[i] & 0xFF] = length - 1 - i;
       }
     }
+
+    int length() {
+      return pattern.length;
+    }
+
+    int find(byte[] data, int from, int to) {
+      int last = pattern.length - 1;
+      byte lastByte = pattern[last];
+      int i = from;
+      int end = to - pattern.length;
+      while (i <= end) {
+        byte b = data[i + last];
+        if (b == lastByte && Arrays.equals(data, i, i + last, pattern, 0, last)) {
+          return i;
+        }
+        i += shifts[b & 0xFF];
+      }
+      return -1;
+    }
   }
 
   /** Buffered stream wrapper with pattern matching capabilities. */
@@ -348,6 +430,8 @@ public final class MultipartReader implements AutoCloseable {
     private final int bufferSize;
     private int position = 0;
     private int limit = 0;
+    // Offset in the stream of the first byte of the buffer
+    private long offset = 0;
 
     StreamBuffer(InputStream inputStream, int bufferSize) {
       this.inputStream = inputStream;
@@ -397,29 +481,41 @@ public final class MultipartReader implements AutoCloseable {
       return limit - position;
     }
 
+    void writeTo(OutputStream out, int length) throws IOException {
+      int remaining = length;
+      while (remaining > 0) {
+        if (position >= limit) {
+          fillBuffer();
+        }
+        int available = Math.min(remaining, limit - position);
+        out.write(buffer, position, available);
+        position += available;
+        remaining -= available;
+      }
+    }
+
     int getPosition() {
       return position;
     }
 
-    int findPattern(byte[] pattern, int patternLength) {
-      for (int i = position; i <= limit - patternLength; i++) {
-        if (matchesPattern(i, pattern, patternLength)) {
-          return i;
-        }
-      }
-      return -1;
+    int getLimit() {
+      return limit;
     }
 
-    private boolean matchesPattern(int start, byte[] pattern, int patternLength) {
-      for (int i = 0; i < patternLength; i++) {
-        if (buffer[start + i] != pattern[i]) {
-          return false;
-        }
-      }
-      return true;
+    long getOffset() {
+      return offset;
+    }
+
+    long getStreamPosition() {
+      return offset + position;
+    }
+
+    int findPattern(BoundarySearch search, int from) {
+      return search.find(buffer, Math.max(from, position), limit);
     }
 
     private void fillBuffer() throws IOException {
+      offset += position;
       if (position < limit) {
         // Compact buffer by moving unused data to beginning
         int remaining = limit - position;
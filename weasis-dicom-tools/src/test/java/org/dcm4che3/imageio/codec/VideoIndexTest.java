@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.imageio.codec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.imageio.codec.VideoIndex.ByteRange;
+import org.dcm4che3.io.DicomOutputStream;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class VideoIndexTest {
+
+  // Sequence header of 320x240 at 25 frames per second, GOP header and picture header
+  private static final byte[] SEQUENCE = {0, 0, 1, (byte) 0xB3, 0x14, 0x00, (byte) 0xF0, 0x13};
+  private static final byte[] GOP = {0, 0, 1, (byte) 0xB8, 0x08, 0x00, 0x00, 0x40};
+  private static final byte[] PICTURE = {0, 0, 1, 0x00, 0x1F, (byte) 0xFF, (byte) 0xFF, 0x78};
+
+  private static final int[] SAMPLE_SIZES = {100, 50, 50, 100, 50};
+
+  @TempDir Path tempDir;
+
+  /** Frames 0 to 5 with a GOP at frame 3 and a sequence header at frame 5. */
+  private static byte[] mpeg2Stream() {
+    return concat(
+        SEQUENCE, GOP, PICTURE, PICTURE, PICTURE, GOP, PICTURE, PICTURE, SEQUENCE, PICTURE);
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      out.writeBytes(part);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] ints(int... values) {
+    ByteBuffer buffer = ByteBuffer.allocate(values.length * 4);
+    for (int value : values) {
+      buffer.putInt(value);
+    }
+    return buffer.array();
+  }
+
+  private static byte[] box(String type, byte[]... contents) {
+    byte[] payload = concat(contents);
+    return concat(ints(payload.length + 8), type.getBytes(StandardCharsets.US_ASCII), payload);
+  }
+
+  private static byte[] handler(String type) {
+    return box("hdlr", ints(0, 0), type.getBytes(StandardCharsets.US_ASCII), new byte[12]);
+  }
+
+  private static final int FTYP_LENGTH = 20;
+  private static final int SAMPLES_START = FTYP_LENGTH + 8;
+  private static final int MOOV_START = SAMPLES_START + 350;
+
+  /**
+   * MP4 file with 5 samples at 25 frames per second in 2 chunks, sync samples 0 and 3, and a sound
+   * track before the video track.
+   */
+  private static byte[] mp4File() {
+    return mp4File(1, 4);
+  }
+
+  /** MP4 file with 5 samples and the given sample numbers, starting at 1, in the stss box. */
+  private static byte[] mp4File(int... syncSampleNumbers) {
+    byte[] samples = new byte[350];
+    for (int i = 0, pos = 0; i < SAMPLE_SIZES.length; pos += SAMPLE_SIZES[i++]) {
+      Arrays.fill(samples, pos, pos + SAMPLE_SIZES[i], (byte) (i + 1));
+    }
+    byte[] stbl =
+        box(
+            "stbl",
+            box("stsz", ints(0, 0, 5), ints(SAMPLE_SIZES)),
+            box("stsc", ints(0, 2, 1, 3, 1, 2, 2, 1)),
+            box("stco", ints(0, 2, SAMPLES_START, SAMPLES_START + 200)),
+            box("stss", ints(0, syncSampleNumbers.length), ints(syncSampleNumbers)));
+    byte[] video =
+        box(
+            "trak",
+            box(
+                "mdia",
+                box("mdhd", ints(0, 0, 0, 25, 5, 0)),
+                handler("vide"),
+                box("minf", stbl)));
+    byte[] sound = box("trak", box("mdia", handler("soun")));
+    return concat(
+        box("ftyp", "isomisom".getBytes(StandardCharsets.US_ASCII), ints(0x200)),
+        box("mdat", samples),
+        box("moov", sound, video));
+  }
+
+  private Path writeVideo(String tsuid, byte[]... parts) throws IOException {
+    var dataset = new Attributes();
+    dataset.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4");
+    Fragments fragments = dataset.newFragments(Tag.PixelData, VR.OB, parts.length + 1);
+    fragments.add(new byte[0]);
+    for (byte[] part : parts) {
+      fragments.add(part);
+    }
+    var fmi =
+        Attributes.createFileMetaInformation("1.2.3.4", UID.VideoEndoscopicImageStorage, tsuid);
+    Path file = tempDir.resolve("video.dcm");
+    try (var dos = new DicomOutputStream(file.toFile())) {
+      dos.writeDataset(fmi, dataset);
+    }
+    return file;
+  }
+
+  private static byte[] read(Path file, VideoIndex index, ByteRange range) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return index.read(channel, range);
+    }
+  }
+
+  @Nested
+  class Mpeg2_stream {
+
+    @Test
+    void finds_the_sequence_and_gop_headers() throws IOException {
+      byte[] stream = mpeg2Stream();
+      Path file =
+          writeVideo(
+              UID.MPEG2MPML,
+              Arrays.copyOfRange(stream, 0, 36),
+              Arrays.copyOfRange(stream, 36, stream.length));
+
+      VideoIndex index = VideoIndex.build(file);
+
+      assertAll(
+          () -> assertEquals(6, index.getFrameCount()),
+          () -> assertEquals(25.0, index.getFrameRate()),
+          () -> assertEquals(stream.length, index.getStreamLength()),
+          () -> assertArrayEquals(new int[] {0, 3, 5}, index.getKeyFrames()),
+          () -> assertEquals(3, index.getKeyFrame(4)),
+          () -> assertNull(index.getHeaderRange()),
+          () -> assertEquals(new ByteRange(0, 64, 0), index.getRange(1, 3)),
+          () -> assertEquals(new ByteRange(40, 80, 3), index.getRange(4, 5)));
+    }
+
+    @Test
+    void reads_a_time_window_across_fragments() throws IOException {
+      byte[] stream = mpeg2Stream();
+      Path file =
+          writeVideo(
+              UID.MPEG2MPML,
+              Arrays.copyOfRange(stream, 0, 44),
+              Arrays.copyOfRange(stream, 44, stream.length));
+      VideoIndex index = VideoIndex.build(file);
+
+      ByteRange range = index.getRange(Duration.ofMillis(130), Duration.ofMillis(170));
+
+      assertEquals(new ByteRange(40, 64, 3), range);
+      assertArrayEquals(Arrays.copyOfRange(stream, 40, 64), read(file, index, range));
+      assertEquals(5, index.getFrameAt(Duration.ofHours(1)));
+    }
+  }
+
+  @Nested
+  class Mp4_file {
+
+    @Test
+    void maps_the_sync_samples_to_their_position() throws IOException {
+      byte[] mp4 = mp4File();
+      Path file = writeVideo(UID.MPEG4HP41, mp4);
+
+      VideoIndex index = VideoIndex.build(file);
+
+      assertAll(
+          () -> assertEquals(5, index.getFrameCount()),
+          () -> assertEquals(25.0, index.getFrameRate(), 1e-9),
+          () -> assertArrayEquals(new int[] {0, 3}, index.getKeyFrames()),
+          () -> assertEquals(new ByteRange(MOOV_START, mp4.length, 0), index.getHeaderRange()),
+          () -> {
+            ByteRange range = index.getRange(1, 2);
+            assertEquals(new ByteRange(SAMPLES_START, SAMPLES_START + 200, 0), range);
+          },
+          () -> {
+            ByteRange range = index.getRange(4, 4);
+            assertEquals(new ByteRange(SAMPLES_START + 200, SAMPLES_START + 350, 3), range);
+            byte[] bytes = read(file, index, range);
+            assertEquals(4, bytes[0]);
+            assertEquals(5, bytes[bytes.length - 1]);
+          });
+    }
+
+    @Test
+    void rejects_a_file_without_video_track() throws IOException {
+      byte[] mp4 = box("moov", box("trak", box("mdia", handler("soun"))));
+      Path file = writeVideo(UID.MPEG4HP41, mp4);
+
+      assertThrows(XPEGParserException.class, () -> VideoIndex.build(file));
+    }
+
+    @Test
+    void rejects_sync_samples_out_of_range_or_order() throws IOException {
+      for (int[] syncSamples : new int[][] {{0, 4}, {1, 6}, {1, -1}, {4, 1}, {1, 1}}) {
+        Path file = writeVideo(UID.MPEG4HP41, mp4File(syncSamples));
+
+        assertThrows(
+            XPEGParserException.class,
+            () -> VideoIndex.build(file),
+            () -> Arrays.toString(syncSamples));
+      }
+    }
+  }
+
+  @Nested
+  class Sidecar {
+
+    @Test
+    void stores_the_index_next_to_the_instance() throws IOException {
+      Path file = writeVideo(UID.MPEG2MPML, mpeg2Stream());
+
+      VideoIndex index = VideoIndex.of(file);
+      Path sidecar = VideoIndex.sidecarOf(file);
+      VideoIndex loaded = VideoIndex.load(sidecar);
+
+      assertTrue(Files.isRegularFile(sidecar));
+      assertEquals("video.dcm.vidx", sidecar.getFileName().toString());
+      assertEquals(UID.MPEG2MPML, loaded.getTransferSyntaxUID());
+      assertArrayEquals(index.getKeyFrames(), loaded.getKeyFrames());
+      assertEquals(index.getRange(4, 5), loaded.getRange(4, 5));
+      assertArrayEquals(
+          read(file, index, index.getRange(2, 4)), read(file, loaded, loaded.getRange(2, 4)));
+    }
+
+    @Test
+    void rebuilds_the_index_of_a_modified_instance() throws IOException {
+      Path file = writeVideo(UID.MPEG2MPML, mpeg2Stream());
+      VideoIndex.of(file);
+
+      writeVideo(UID.MPEG2MPML, concat(SEQUENCE, PICTURE, SEQUENCE, PICTURE));
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+      VideoIndex index = VideoIndex.of(file);
+
+      assertEquals(2, index.getFrameCount());
+      assertEquals(2, VideoIndex.load(VideoIndex.sidecarOf(file)).getFrameCount());
+    }
+
+    @Test
+    void rejects_an_invalid_index_and_a_non_video_instance() throws IOException {
+      Path sidecar = tempDir.resolve("bad.vidx");
+      Files.write(sidecar, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+      Path file = writeVideo(UID.JPEGBaseline8Bit, new byte[2]);
+
+      assertThrows(IOException.class, () -> VideoIndex.load(sidecar));
+      assertThrows(IOException.class, () -> VideoIndex.build(file));
+    }
+  }
+}
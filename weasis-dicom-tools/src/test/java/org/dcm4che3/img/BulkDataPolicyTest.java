@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import org.dcm4che3.data.ItemPointer;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class BulkDataPolicyTest {
+
+  private static final int PRIVATE_TAG = 0x00091010;
+
+  @Test
+  void default_policy_matches_the_reader_bulk_tags() {
+    BulkDataPolicy policy = BulkDataPolicy.DEFAULT;
+    int[] tags = policy.getBulkTags();
+
+    assertSame(policy, DicomImageReader.BULK_DATA_DESCRIPTOR);
+    assertEquals(DicomImageReader.BULK_TAGS.size(), tags.length);
+    assertTrue(Arrays.stream(tags).allMatch(DicomImageReader.BULK_TAGS::contains));
+    assertArrayEquals(Arrays.stream(tags).sorted().toArray(), tags);
+  }
+
+  @Test
+  void bulk_tags_are_bulk_data_only_at_the_top_level() {
+    BulkDataPolicy policy = BulkDataPolicy.DEFAULT;
+    var item = List.of(new ItemPointer(Tag.IconImageSequence, 0));
+
+    assertTrue(policy.isBulkData(List.of(), null, Tag.PixelData, VR.OW, 10));
+    assertFalse(policy.isBulkData(item, null, Tag.PixelData, VR.OW, 10));
+    // Repeating groups are normalized
+    assertTrue(policy.isBulkData(List.of(), null, 0x60023000, VR.OW, 10));
+
+    var waveform = List.of(new ItemPointer(Tag.WaveformSequence, 0));
+    assertTrue(policy.isBulkData(waveform, null, Tag.WaveformData, VR.OW, 10));
+    assertFalse(policy.isBulkData(List.of(), null, Tag.WaveformData, VR.OW, 10));
+  }
+
+  @Test
+  void thresholds_select_the_private_and_binary_elements() {
+    BulkDataPolicy forwarding = BulkDataPolicy.forForwarding();
+    assertFalse(forwarding.isBulkData(List.of(), null, PRIVATE_TAG, VR.LO, 2000));
+    assertTrue(forwarding.isBulkData(List.of(), null, PRIVATE_TAG, VR.OB, 70000));
+    assertTrue(forwarding.isBulkData(List.of(), null, Tag.StudyDescription, VR.OB, 100));
+
+    BulkDataPolicy indexing = BulkDataPolicy.forIndexing();
+    assertTrue(indexing.isBulkData(List.of(), null, PRIVATE_TAG, VR.LO, 2));
+    assertTrue(indexing.isBulkData(List.of(), null, Tag.StudyDescription, VR.OB, 1));
+    assertFalse(indexing.isBulkData(List.of(), null, Tag.StudyDescription, VR.OB, 0));
+    assertFalse(indexing.isBulkData(List.of(), null, Tag.PatientName, VR.PN, 50));
+  }
+
+  @Test
+  void pixel_data_only_policy_reads_the_other_elements_in_memory() {
+    BulkDataPolicy policy = BulkDataPolicy.PIXEL_DATA_ONLY;
+
+    assertTrue(policy.isBulkData(List.of(), null, Tag.PixelData, VR.OW, 10));
+    assertTrue(policy.isBulkData(List.of(), null, Tag.FloatPixelData, VR.OF, 10));
+    assertFalse(policy.isBulkData(List.of(), null, Tag.OverlayData, VR.OW, 5000));
+    assertFalse(policy.isBulkData(List.of(), null, Tag.RedPaletteColorLookupTableData, VR.OW, 512));
+    assertFalse(policy.isBulkData(List.of(), null, PRIVATE_TAG, VR.OB, 70000));
+  }
+
+  @Test
+  void builder_replaces_and_adds_bulk_tags() {
+    BulkDataPolicy policy =
+        BulkDataPolicy.builder()
+            .bulkTags(Tag.PixelData)
+            .addBulkTags(Tag.EncapsulatedDocument, Tag.PixelData)
+            .binaryThreshold(Long.MAX_VALUE)
+            .build();
+
+    assertArrayEquals(new int[] {Tag.EncapsulatedDocument, Tag.PixelData}, policy.getBulkTags());
+    assertFalse(policy.isBulkData(List.of(), null, Tag.OverlayData, VR.OW, 5000));
+    assertThrows(
+        IllegalArgumentException.class, () -> BulkDataPolicy.builder().privateThreshold(-1));
+  }
+}
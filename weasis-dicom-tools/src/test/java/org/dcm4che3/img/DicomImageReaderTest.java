@@ -14,24 +14,39 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.UID;
 import org.dcm4che3.data.VR;
 import org.dcm4che3.img.stream.BytesWithImageDescriptor;
 import org.dcm4che3.img.stream.DicomFileInputStream;
+import org.dcm4che3.img.stream.FrameBufferArena;
+import org.dcm4che3.img.stream.ImageAdapter;
 import org.dcm4che3.img.stream.ImageDescriptor;
+import org.dcm4che3.img.stream.PixelDataSource;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomInputStream.IncludeBulkData;
+import org.dcm4che3.io.DicomOutputStream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -39,10 +54,13 @@ import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
+import org.opencv.core.Rect;
 import org.weasis.opencv.data.ImageCV;
 import org.weasis.opencv.data.PlanarImage;
 
@@ -289,6 +307,323 @@ class DicomImageReaderTest {
     }
   }
 
+  @Nested
+  class Pixel_Data_Source_Tests {
+
+    @TempDir Path tempDir;
+
+    private Path zipInstance(String filename, boolean stored) throws IOException {
+      byte[] bytes = Files.readAllBytes(TEST_RESOURCES.resolve(filename));
+      Path zip = tempDir.resolve(stored ? "stored.zip" : "deflated.zip");
+      try (var out = new ZipOutputStream(Files.newOutputStream(zip))) {
+        var entry = new ZipEntry(filename);
+        if (stored) {
+          var crc = new CRC32();
+          crc.update(bytes);
+          entry.setMethod(ZipEntry.STORED);
+          entry.setSize(bytes.length);
+          entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(bytes);
+        out.closeEntry();
+      }
+      return zip;
+    }
+
+    private PlanarImage readEntry(Path zip, String filename) throws IOException {
+      reader.setInput(new DicomFileInputStream(PixelDataSource.ofZipEntry(zip, filename)));
+      return reader.getPlanarImage();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CT-JPEGLosslessSV1.dcm", "mono2-CT-16bit.dcm"})
+    void decode_archive_entries_like_the_file(String filename) throws IOException {
+      Mat expected = readDicomFile(filename).get(0).toMat();
+
+      Mat stored = readEntry(zipInstance(filename, true), filename).toMat();
+      Mat deflated = readEntry(zipInstance(filename, false), filename).toMat();
+
+      assertEquals(0.0, Core.norm(expected, stored, Core.NORM_INF));
+      assertEquals(0.0, Core.norm(expected, deflated, Core.NORM_INF));
+    }
+
+    private PixelDataSource openSource(String kind, String filename) throws IOException {
+      byte[] bytes = Files.readAllBytes(TEST_RESOURCES.resolve(filename));
+      switch (kind) {
+        case "tar" -> {
+          byte[] header = new byte[512];
+          byte[] name = filename.getBytes(StandardCharsets.US_ASCII);
+          System.arraycopy(name, 0, header, 0, name.length);
+          byte[] size = "%011o".formatted(bytes.length).getBytes(StandardCharsets.US_ASCII);
+          System.arraycopy(size, 0, header, 124, size.length);
+          header[156] = '0';
+          System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+          Path tar = tempDir.resolve("study.tar");
+          try (var out = Files.newOutputStream(tar)) {
+            out.write(header);
+            out.write(bytes);
+            out.write(new byte[(512 - bytes.length % 512) % 512 + 1024]);
+          }
+          return PixelDataSource.ofTarEntry(tar, filename);
+        }
+        case "region" -> {
+          Path file = tempDir.resolve("region.bin");
+          try (var out = Files.newOutputStream(file)) {
+            out.write(new byte[100]);
+            out.write(bytes);
+          }
+          return PixelDataSource.ofMappedRegion(file, 100, bytes.length);
+        }
+        default -> {
+          return PixelDataSource.ofBuffer(ByteBuffer.wrap(bytes), null);
+        }
+      }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"tar", "region", "buffer"})
+    void read_the_overlay_data_of_sources_like_the_file(String kind) throws IOException {
+      Mat expectedImage = readDicomFile("overlay.dcm").get(0).toMat();
+      var expectedOverlays = reader.getImageDescriptor().getOverlayData();
+      assertFalse(expectedOverlays.isEmpty());
+
+      var input = new DicomFileInputStream(openSource(kind, "overlay.dcm"));
+      assertFalse(input.isBulkDataURIResolvable());
+      reader.setInput(input);
+
+      // The overlay data is read in memory, the pixel data from the source
+      assertEquals(expectedOverlays, reader.getImageDescriptor().getOverlayData());
+      Mat image = reader.getPlanarImage().toMat();
+      assertEquals(0.0, Core.norm(expectedImage, image, Core.NORM_INF));
+    }
+
+    @Test
+    void keep_a_decoded_frame_when_the_next_one_reuses_the_buffer() throws IOException {
+      var data = new Attributes();
+      data.setInt(Tag.Rows, VR.US, 4);
+      data.setInt(Tag.Columns, VR.US, 4);
+      data.setInt(Tag.NumberOfFrames, VR.IS, 2);
+      data.setInt(Tag.SamplesPerPixel, VR.US, 1);
+      data.setInt(Tag.BitsAllocated, VR.US, 8);
+      data.setInt(Tag.BitsStored, VR.US, 8);
+      data.setInt(Tag.HighBit, VR.US, 7);
+      data.setInt(Tag.PixelRepresentation, VR.US, 0);
+      data.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+      byte[] pixels = new byte[32];
+      Arrays.fill(pixels, 0, 16, (byte) 10);
+      Arrays.fill(pixels, 16, 32, (byte) 200);
+      data.setBytes(Tag.PixelData, VR.OB, pixels);
+      var fmi =
+          Attributes.createFileMetaInformation(
+              "1.2.3.4", UID.SecondaryCaptureImageStorage, UID.ExplicitVRLittleEndian);
+      var out = new ByteArrayOutputStream();
+      try (var dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian)) {
+        dos.writeDataset(fmi, data);
+      }
+
+      // The frames are read from the source in the same buffer of the arena of the reader
+      ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray());
+      reader.setInput(new DicomFileInputStream(PixelDataSource.ofBuffer(bytes, null)));
+      Mat first = reader.getPlanarImage(0, null).toMat();
+      Mat second = reader.getPlanarImage(1, null).toMat();
+
+      assertEquals(10.0, Core.minMaxLoc(first).maxVal);
+      assertEquals(10.0, Core.minMaxLoc(first).minVal);
+      assertEquals(200.0, Core.minMaxLoc(second).minVal);
+    }
+  }
+
+  @Nested
+  class Direct_Buffer_Tests {
+
+    private BytesWithImageDescriptor inMemory(String filename) throws IOException {
+      try (var dis = new DicomInputStream(TEST_RESOURCES.resolve(filename).toFile())) {
+        Attributes data = dis.readDataset();
+        return ImageAdapter.bytesWithImageDescriptor(data, dis.getTransferSyntax());
+      }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"CT-JPEGLosslessSV1.dcm", "mono2-CT-16bit.dcm"})
+    void decode_heap_and_direct_buffers_like_the_file(String filename) throws IOException {
+      Mat expected = readDicomFile(filename).get(0).toMat();
+
+      BytesWithImageDescriptor heap = inMemory(filename);
+      reader.setInput(heap);
+      Mat fromHeap = reader.getPlanarImage().toMat();
+
+      reader.setInput(new DirectBytesDescriptor(heap));
+      Mat fromDirect = reader.getPlanarImage().toMat();
+
+      assertEquals(0.0, Core.norm(expected, fromHeap, Core.NORM_INF));
+      assertEquals(0.0, Core.norm(expected, fromDirect, Core.NORM_INF));
+    }
+
+    @Test
+    void assemble_fragments_in_the_arena() throws IOException {
+      BytesWithImageDescriptor desc = inMemory("CT-JPEGLosslessSV1.dcm");
+      var arena = new FrameBufferArena();
+
+      ByteBuffer frame = desc.getBytes(0, arena);
+      assertTrue(frame.isDirect());
+      assertEquals(desc.getBytes(0), frame);
+      assertEquals(1, arena.getLentCount());
+
+      arena.release(frame);
+      assertEquals(0, arena.getLentCount());
+      assertSame(frame, desc.getBytes(0, arena));
+    }
+  }
+
+  @Nested
+  class Fragment_Streaming_Tests {
+
+    private static final String MULTI_FRAGMENTS = "jpeg2000-multiframe-multifragments.dcm";
+
+    private BytesWithImageDescriptor withBulkDataReferences(String filename) throws IOException {
+      try (var dis = new DicomInputStream(TEST_RESOURCES.resolve(filename).toFile())) {
+        dis.setIncludeBulkData(IncludeBulkData.URI);
+        Attributes data = dis.readDataset();
+        return ImageAdapter.bytesWithImageDescriptor(data, dis.getTransferSyntax());
+      }
+    }
+
+    @Test
+    void decode_fragments_in_place_like_the_file() throws IOException {
+      List<PlanarImage> expected = readDicomFile(MULTI_FRAGMENTS);
+      BytesWithImageDescriptor desc = withBulkDataReferences(MULTI_FRAGMENTS);
+
+      var segments = desc.getSegments(3);
+      assertNotNull(segments);
+      assertEquals(TEST_RESOURCES.resolve(MULTI_FRAGMENTS).toAbsolutePath(), segments.path());
+
+      reader.setInput(desc);
+      Mat frame = reader.getPlanarImage(3, null).toMat();
+      assertEquals(0.0, Core.norm(expected.get(3).toMat(), frame, Core.NORM_INF));
+    }
+
+    @Test
+    void gather_fragments_of_a_file_in_one_buffer() throws IOException {
+      BytesWithImageDescriptor inFile = withBulkDataReferences(MULTI_FRAGMENTS);
+      BytesWithImageDescriptor inMemory;
+      try (var dis = new DicomInputStream(TEST_RESOURCES.resolve(MULTI_FRAGMENTS).toFile())) {
+        Attributes data = dis.readDataset();
+        inMemory = ImageAdapter.bytesWithImageDescriptor(data, dis.getTransferSyntax());
+      }
+      var arena = new FrameBufferArena();
+
+      for (int i = 0; i < inFile.getImageDescriptor().getFrames(); i++) {
+        ByteBuffer frame = inFile.getBytes(i, arena);
+        assertTrue(frame.isDirect());
+        assertEquals(inMemory.getBytes(i), frame);
+        assertNull(inMemory.getSegments(i));
+        arena.release(frame);
+      }
+      assertEquals(0, arena.getLentCount());
+    }
+  }
+
+  @Nested
+  class Tile_Tests {
+
+    private List<ImageTile> tiles(Rectangle viewport, int tileSize, int resolution) {
+      List<ImageTile> tiles = new ArrayList<>();
+      reader.getTiles(0, viewport, tileSize, resolution).forEachRemaining(tiles::add);
+      return tiles;
+    }
+
+    private void assertTilesMatchFrame(Mat frame, List<ImageTile> tiles) {
+      for (ImageTile tile : tiles) {
+        Rectangle r = tile.region();
+        Mat expected = new Mat(frame, new Rect(r.x, r.y, r.width, r.height));
+        assertEquals(0.0, Core.norm(expected, tile.image().toMat(), Core.NORM_INF));
+      }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mono2-CT-16bit.dcm", "CT-JPEGLosslessSV1.dcm"})
+    void cut_the_tiles_of_the_viewport_like_the_frame(String filename) throws IOException {
+      Mat frame = readDicomFile(filename).get(0).toMat();
+      int width = frame.cols();
+
+      List<ImageTile> all = tiles(null, 100, 0);
+      int tilesPerRow = (width + 99) / 100;
+      assertEquals(tilesPerRow * ((frame.rows() + 99) / 100), all.size());
+      assertEquals(new Rectangle(100, 0, 100, 100), all.get(1).region());
+      assertEquals(tilesPerRow, all.get(tilesPerRow).index());
+      assertTilesMatchFrame(frame, all);
+
+      List<ImageTile> viewport = tiles(new Rectangle(150, 250, 120, 10), 100, 0);
+      assertEquals(
+          List.of(2 * tilesPerRow + 1, 2 * tilesPerRow + 2),
+          viewport.stream().map(ImageTile::index).toList());
+      assertTilesMatchFrame(frame, viewport);
+      assertTrue(tiles(new Rectangle(-50, -50, 10, 10), 100, 0).isEmpty());
+    }
+
+    @Test
+    void reduce_the_tiles_of_a_resolution_level() throws IOException {
+      Mat frame = readDicomFile("mono2-CT-16bit.dcm").get(0).toMat();
+
+      List<ImageTile> tiles = tiles(null, 64, 1);
+      ImageTile first = tiles.get(0);
+      assertEquals(new Rectangle(0, 0, 128, 128), first.region());
+      assertEquals(64, first.image().width());
+      assertEquals(64, first.image().height());
+      assertEquals(((frame.cols() + 127) / 128) * ((frame.rows() + 127) / 128), tiles.size());
+    }
+
+    @Test
+    void reuse_the_cached_tiles() throws IOException {
+      var cache = new TileCache(64L * 1024 * 1024);
+      readDicomFile("mono2-CT-16bit.dcm");
+      reader.setTileCache(cache);
+      try {
+        ImageTile first = tiles(null, 128, 0).get(0);
+        int count = cache.size();
+        assertTrue(count > 0);
+
+        assertSame(first.image(), tiles(new Rectangle(0, 0, 10, 10), 128, 0).get(0).image());
+        assertEquals(count, cache.size());
+
+        cache.invalidate(reader.getImageDescriptor().getSopInstanceUID());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMemorySize());
+      } finally {
+        reader.setTileCache(null);
+      }
+    }
+
+    @Test
+    void share_the_cache_between_tile_sizes() throws IOException {
+      var cache = new TileCache(64L * 1024 * 1024);
+      Mat frame = readDicomFile("mono2-CT-16bit.dcm").get(0).toMat();
+      reader.setTileCache(cache);
+      try {
+        List<ImageTile> small = tiles(null, 64, 0);
+        List<ImageTile> large = tiles(null, 128, 0);
+
+        assertEquals(small.size() + large.size(), cache.size());
+        assertEquals(new Rectangle(0, 0, 128, 128), large.get(0).region());
+        assertEquals(128, large.get(0).image().width());
+        assertTilesMatchFrame(frame, small);
+        assertTilesMatchFrame(frame, large);
+        assertTilesMatchFrame(frame, tiles(null, 64, 0));
+      } finally {
+        reader.setTileCache(null);
+      }
+    }
+
+    @Test
+    void reject_invalid_tile_parameters() throws IOException {
+      readDicomFile("mono2-CT-16bit.dcm");
+      assertThrows(IllegalArgumentException.class, () -> reader.getTiles(0, null, 0, 0));
+      assertThrows(IllegalArgumentException.class, () -> reader.getTiles(0, null, 64, -1));
+      assertThrows(IndexOutOfBoundsException.class, () -> reader.getTiles(5, null, 64, 0));
+    }
+  }
+
   // Helper methods using real data structures
 
   private BytesWithImageDescriptor createTestBytesDescriptor(int width, int height, int frames) {
@@ -316,6 +651,37 @@ class DicomImageReaderTest {
     return ImageCV.fromMat(mat);
   }
 
+  /** Descriptor giving the frames of another descriptor in read-only direct buffers */
+  private record DirectBytesDescriptor(BytesWithImageDescriptor delegate)
+      implements BytesWithImageDescriptor {
+
+    @Override
+    public ByteBuffer getBytes(int frame) throws IOException {
+      ByteBuffer bytes = delegate.getBytes(frame);
+      return ByteBuffer.allocateDirect(bytes.remaining()).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    @Override
+    public String getTransferSyntax() {
+      return delegate.getTransferSyntax();
+    }
+
+    @Override
+    public boolean isBigEndian() {
+      return delegate.isBigEndian();
+    }
+
+    @Override
+    public VR getPixelDataVR() {
+      return delegate.getPixelDataVR();
+    }
+
+    @Override
+    public ImageDescriptor getImageDescriptor() {
+      return delegate.getImageDescriptor();
+    }
+  }
+
   /** Test implementation of BytesWithImageDescriptor using real data structures */
   private static class TestBytesDescriptor implements BytesWithImageDescriptor {
     private final ImageDescriptor descriptor;
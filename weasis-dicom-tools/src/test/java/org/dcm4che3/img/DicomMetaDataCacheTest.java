@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.BulkData;
+import org.dcm4che3.data.Fragments;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DicomMetaDataCacheTest {
+
+  @TempDir Path tempDir;
+
+  private Path writeImage(String name, String patientName) throws IOException {
+    var dataset = new Attributes();
+    dataset.setString(Tag.SpecificCharacterSet, VR.CS, "ISO_IR 100");
+    dataset.setString(Tag.PatientName, VR.PN, patientName);
+    dataset.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4");
+    dataset.setInt(Tag.Rows, VR.US, 4);
+    dataset.setInt(Tag.Columns, VR.US, 4);
+    dataset.setInt(Tag.BitsAllocated, VR.US, 16);
+    dataset.setInt(Tag.BitsStored, VR.US, 12);
+    dataset.setInt(Tag.SamplesPerPixel, VR.US, 1);
+    dataset.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+    dataset.setNull(Tag.StudyDate, VR.DA);
+    var item = new Attributes();
+    item.setString(Tag.CodeValue, VR.SH, "T-D1100");
+    dataset.newSequence(Tag.AnatomicRegionSequence, 1).add(item);
+    dataset.setBytes(Tag.PixelData, VR.OW, new byte[32]);
+    return write(name, dataset, UID.ExplicitVRLittleEndian);
+  }
+
+  private Path write(String name, Attributes dataset, String tsuid) throws IOException {
+    var fmi = dataset.createFileMetaInformation(tsuid);
+    Path file = tempDir.resolve(name);
+    try (var dos = new DicomOutputStream(file.toFile())) {
+      dos.writeDataset(fmi, dataset);
+    }
+    return file;
+  }
+
+  private static BulkData pixelData(DicomMetaData metadata) {
+    return (BulkData) metadata.getDicomObject().getValue(Tag.PixelData);
+  }
+
+  @Nested
+  class Memory_tier {
+
+    @Test
+    void restores_the_attributes_and_the_pixel_data_reference() throws IOException {
+      Path file = writeImage("image.dcm", "Müller^Anna");
+      var cache = new DicomMetaDataCache(1 << 20);
+
+      DicomMetaData parsed = cache.get(file);
+      DicomMetaData cached = cache.get(file);
+
+      Attributes dcm = cached.getDicomObject();
+      assertAll(
+          () -> assertNotSame(parsed.getDicomObject(), dcm),
+          () -> assertEquals(1, cache.size()),
+          () -> assertTrue(cache.getMemorySize() > 0),
+          () -> assertEquals(UID.ExplicitVRLittleEndian, cached.getTransferSyntaxUID()),
+          () ->
+              assertEquals(
+                  "1.2.3.4",
+                  cached.getFileMetaInformation().getString(Tag.MediaStorageSOPInstanceUID)),
+          () -> assertEquals("Müller^Anna", dcm.getString(Tag.PatientName)),
+          () ->
+              assertEquals(
+                  "T-D1100",
+                  dcm.getNestedDataset(Tag.AnatomicRegionSequence).getString(Tag.CodeValue)),
+          () -> assertTrue(dcm.contains(Tag.StudyDate)),
+          () -> assertFalse(dcm.containsValue(Tag.StudyDate)),
+          () -> assertEquals(4, cached.getImageDescriptor().getRows()),
+          () -> assertEquals(pixelData(parsed).offset(), pixelData(cached).offset()),
+          () -> assertEquals(32, pixelData(cached).length()),
+          () -> assertTrue(pixelData(cached).getURI().startsWith(file.toUri().toString())));
+    }
+
+    @Test
+    void returns_attributes_that_can_be_modified() throws IOException {
+      Path file = writeImage("image.dcm", "Doe^John");
+      var cache = new DicomMetaDataCache(1 << 20);
+
+      cache.get(file).getDicomObject().setString(Tag.PatientName, VR.PN, "Changed");
+
+      assertEquals("Doe^John", cache.get(file).getDicomObject().getString(Tag.PatientName));
+    }
+
+    @Test
+    void parses_again_a_modified_file() throws IOException {
+      Path file = writeImage("image.dcm", "Doe^John");
+      var cache = new DicomMetaDataCache(1 << 20);
+      cache.get(file);
+
+      writeImage("image.dcm", "Doe^Jane");
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+      assertEquals("Doe^Jane", cache.get(file).getDicomObject().getString(Tag.PatientName));
+      assertEquals(1, cache.size());
+    }
+
+    @Test
+    void evicts_the_least_recently_used_entries() throws IOException {
+      Path first = writeImage("first.dcm", "Doe^John");
+      Path second = writeImage("second.dcm", "Doe^Jane");
+      var probe = new DicomMetaDataCache(1 << 20);
+      probe.get(first);
+      long entrySize = probe.getMemorySize();
+      var cache = new DicomMetaDataCache(entrySize + entrySize / 2);
+
+      cache.get(first);
+      cache.get(second);
+
+      assertEquals(1, cache.size());
+      assertTrue(cache.getMemorySize() <= cache.getMaxMemorySize());
+      try (var dis = cache.open(second)) {
+        assertEquals("Doe^Jane", dis.getMetadata().getDicomObject().getString(Tag.PatientName));
+      }
+    }
+
+    @Test
+    void keeps_the_fragments_of_encapsulated_pixel_data() throws IOException {
+      var dataset = new Attributes();
+      dataset.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.5");
+      Fragments fragments = dataset.newFragments(Tag.PixelData, VR.OB, 3);
+      fragments.add(new byte[0]);
+      fragments.add(new byte[10]);
+      fragments.add(new byte[20]);
+      Path file = write("encapsulated.dcm", dataset, UID.JPEGBaseline8Bit);
+      var cache = new DicomMetaDataCache(1 << 20);
+
+      Fragments parsed = (Fragments) cache.get(file).getDicomObject().getValue(Tag.PixelData);
+      Fragments cached = (Fragments) cache.get(file).getDicomObject().getValue(Tag.PixelData);
+
+      assertEquals(parsed.size(), cached.size());
+      for (int i = 1; i < parsed.size(); i++) {
+        var expected = (BulkData) parsed.get(i);
+        var actual = (BulkData) cached.get(i);
+        assertEquals(expected.offset(), actual.offset());
+        assertEquals(expected.length(), actual.length());
+      }
+    }
+  }
+
+  @Nested
+  class Disk_tier {
+
+    @Test
+    void reuses_the_metadata_stored_by_another_cache() throws IOException {
+      Path file = writeImage("image.dcm", "Doe^John");
+      Path directory = tempDir.resolve("cache");
+      new DicomMetaDataCache(1 << 20, directory).get(file);
+
+      var cache = new DicomMetaDataCache(1 << 20, directory);
+      DicomMetaData metadata = cache.get(file);
+
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(1, files.filter(f -> f.toString().endsWith(".dmc")).count());
+      }
+      assertEquals("Doe^John", metadata.getDicomObject().getString(Tag.PatientName));
+      assertEquals(1, cache.size());
+    }
+
+    @Test
+    void ignores_an_invalid_file_and_invalidates_an_entry() throws IOException {
+      Path file = writeImage("image.dcm", "Doe^John");
+      Path directory = tempDir.resolve("cache");
+      var cache = new DicomMetaDataCache(0, directory);
+      cache.get(file);
+      Path stored;
+      try (Stream<Path> files = Files.list(directory)) {
+        stored = files.findFirst().orElseThrow();
+      }
+      Files.write(stored, new byte[] {1, 2, 3});
+
+      assertEquals("Doe^John", cache.get(file).getDicomObject().getString(Tag.PatientName));
+      assertEquals(0, cache.size());
+      assertTrue(Files.size(stored) > 3);
+
+      cache.invalidate(file);
+      assertFalse(Files.exists(stored));
+    }
+  }
+}
@@ -30,6 +30,9 @@ import org.dcm4che3.img.data.PrDicomObject;
 import org.dcm4che3.img.op.MaskArea;
 import org.dcm4che3.img.stream.DicomFileInputStream;
 import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.tool.common.DicomDirIndex;
+import org.dcm4che3.tool.common.DicomDirRecorder;
+import org.dcm4che3.tool.common.FilesetInfo;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
@@ -839,6 +842,78 @@ class TranscoderTest {
     }
   }
 
+  @Nested
+  @DisplayNameGeneration(ReplaceUnderscores.class)
+  class DicomDir_Tests {
+
+    @Test
+    void should_record_the_transcoded_files_in_a_dicomdir() throws Exception {
+      var fileSet = OUT_DIR.resolve("fileset");
+      Files.createDirectories(fileSet.resolve("IMAGES"));
+      var dicomdir = fileSet.resolve("DICOMDIR");
+      Files.deleteIfExists(dicomdir);
+      var params = new DicomTranscodeParam(UID.ExplicitVRLittleEndian);
+
+      Path outPath;
+      try (var recorder = DicomDirRecorder.open(dicomdir, new FilesetInfo(null, "EXPORT"))) {
+        outPath =
+            Transcoder.dcm2dcm(
+                IN_DIR.resolve("mono2-CT-16bit.dcm"),
+                fileSet.resolve("IMAGES/IM1"),
+                params,
+                null,
+                recorder::add);
+      }
+
+      var index = DicomDirIndex.read(dicomdir);
+      assertEquals("EXPORT", index.filesetInfo().getFilesetID());
+      assertEquals(1, index.instances().size());
+      var instance = index.instances().get(0);
+      assertEquals(fileSet.resolve("IMAGES/IM1"), outPath);
+      assertEquals(outPath.toAbsolutePath().normalize(), instance.path());
+      assertEquals(UID.ExplicitVRLittleEndian, instance.transferSyntaxUID());
+    }
+
+    @Test
+    void should_give_the_file_with_the_requested_extension_to_the_handler() throws Exception {
+      var params = new DicomTranscodeParam(UID.ExplicitVRLittleEndian);
+      var handled = new ArrayList<Path>();
+
+      Path outPath =
+          Transcoder.dcm2dcm(
+              IN_DIR.resolve("mono2-CT-16bit.dcm"),
+              OUT_DIR.resolve("handled"),
+              params,
+              ".dcm",
+              (file, fmi, dataset) -> handled.add(file));
+
+      assertEquals(OUT_DIR.resolve("handled.dcm"), outPath);
+      assertEquals(List.of(outPath), handled);
+    }
+
+    @Test
+    void should_reject_a_file_id_that_is_not_valid_on_a_media() throws Exception {
+      var fileSet = OUT_DIR.resolve("fileset-invalid");
+      Files.createDirectories(fileSet.resolve("images"));
+      var dicomdir = fileSet.resolve("DICOMDIR");
+      Files.deleteIfExists(dicomdir);
+      var params = new DicomTranscodeParam(UID.ExplicitVRLittleEndian);
+
+      try (var recorder = DicomDirRecorder.open(dicomdir, null)) {
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                Transcoder.dcm2dcm(
+                    IN_DIR.resolve("mono2-CT-16bit.dcm"),
+                    fileSet.resolve("images/image1.dcm"),
+                    params,
+                    null,
+                    recorder::add));
+      }
+      assertTrue(DicomDirIndex.read(dicomdir).instances().isEmpty());
+    }
+  }
+
   @Nested
   @DisplayNameGeneration(ReplaceUnderscores.class)
   class Memory_Management_Tests {
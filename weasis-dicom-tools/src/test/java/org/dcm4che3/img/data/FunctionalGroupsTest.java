@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.OptionalDouble;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Sequence;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class FunctionalGroupsTest {
+
+  private static Attributes group(int sequenceTag, int tag, VR vr, double... values) {
+    var item = new Attributes(1);
+    item.setDouble(tag, vr, values);
+    var group = new Attributes(1);
+    group.newSequence(sequenceTag, 1).add(item);
+    return group;
+  }
+
+  private static void merge(Attributes target, Attributes group) {
+    for (int tag : group.tags()) {
+      Attributes item = group.getNestedDataset(tag);
+      Attributes existing = target.getNestedDataset(tag);
+      if (existing == null) {
+        target.newSequence(tag, 1).add(new Attributes(item));
+      } else {
+        existing.addAll(item);
+      }
+    }
+  }
+
+  /**
+   * Enhanced object of 3 frames with a shared pixel spacing, orientation and window, and a
+   * position and rescale per frame. The rescale of the last frame is missing.
+   */
+  private static Attributes enhancedObject() {
+    var dcm = new Attributes();
+    dcm.setInt(Tag.NumberOfFrames, VR.IS, 3);
+    dcm.setString(Tag.Modality, VR.CS, "CT");
+
+    var shared = new Attributes();
+    merge(shared, group(Tag.PixelMeasuresSequence, Tag.PixelSpacing, VR.DS, 0.5, 0.6));
+    merge(
+        shared,
+        group(Tag.PlaneOrientationSequence, Tag.ImageOrientationPatient, VR.DS, 1, 0, 0, 0, 1, 0));
+    merge(shared, group(Tag.FrameVOILUTSequence, Tag.WindowCenter, VR.DS, 40));
+    merge(shared, group(Tag.FrameVOILUTSequence, Tag.WindowWidth, VR.DS, 400));
+    dcm.newSequence(Tag.SharedFunctionalGroupsSequence, 1).add(shared);
+
+    Sequence perFrame = dcm.newSequence(Tag.PerFrameFunctionalGroupsSequence, 3);
+    for (int i = 0; i < 3; i++) {
+      var frame = new Attributes();
+      merge(
+          frame,
+          group(Tag.PlanePositionSequence, Tag.ImagePositionPatient, VR.DS, 0, 0, i * 2.5));
+      if (i < 2) {
+        merge(frame, group(Tag.PixelValueTransformationSequence, Tag.RescaleSlope, VR.DS, 1));
+        merge(
+            frame,
+            group(Tag.PixelValueTransformationSequence, Tag.RescaleIntercept, VR.DS, -1024 + i));
+      }
+      merge(frame, group(Tag.FrameContentSequence, Tag.FrameAcquisitionDuration, VR.FD, 33.3));
+      perFrame.add(frame);
+    }
+    return dcm;
+  }
+
+  @Nested
+  class Reading {
+
+    @Test
+    void flattens_shared_and_per_frame_values() {
+      var groups = FunctionalGroups.read(enhancedObject());
+
+      assertNotNull(groups);
+      assertAll(
+          () -> assertEquals(3, groups.getFrames()),
+          () -> assertArrayEquals(new double[] {0, 0, 5}, groups.getImagePosition(2)),
+          () -> assertArrayEquals(new double[] {1, 0, 0, 0, 1, 0}, groups.getImageOrientation(1)),
+          () -> assertArrayEquals(new double[] {0.5, 0.6}, groups.getPixelSpacing(0)),
+          () -> assertEquals(OptionalDouble.of(-1023), groups.getRescaleIntercept(1)),
+          () -> assertEquals(OptionalDouble.of(1), groups.getRescaleSlope(0)),
+          () -> assertEquals(OptionalDouble.of(40), groups.getWindowCenter(2)),
+          () -> assertEquals(OptionalDouble.of(400), groups.getWindowWidth(2)),
+          () -> assertEquals(OptionalDouble.of(33.3), groups.getFrameTime(1)),
+          () -> assertTrue(groups.hasRescale()),
+          () -> assertTrue(groups.hasWindow()));
+    }
+
+    @Test
+    void reports_missing_values_of_a_frame() {
+      var groups = FunctionalGroups.read(enhancedObject());
+
+      assertTrue(groups.getRescaleSlope(2).isEmpty());
+      assertTrue(groups.getRescaleType().isEmpty());
+      assertTrue(groups.getVoiLutFunction().isEmpty());
+      assertThrows(IndexOutOfBoundsException.class, () -> groups.getImagePosition(3));
+    }
+
+    @Test
+    void uses_the_shared_values_for_frames_without_item() {
+      var dcm = new Attributes();
+      dcm.setInt(Tag.NumberOfFrames, VR.IS, 4);
+      dcm.newSequence(Tag.SharedFunctionalGroupsSequence, 1)
+          .add(group(Tag.PixelValueTransformationSequence, Tag.RescaleSlope, VR.DS, 2));
+      dcm.newSequence(Tag.PerFrameFunctionalGroupsSequence, 1)
+          .add(group(Tag.PixelValueTransformationSequence, Tag.RescaleSlope, VR.DS, 3));
+
+      var groups = FunctionalGroups.read(dcm);
+
+      assertEquals(OptionalDouble.of(3), groups.getRescaleSlope(0));
+      assertEquals(OptionalDouble.of(2), groups.getRescaleSlope(3));
+      assertFalse(groups.hasWindow());
+      assertNull(groups.getPixelSpacing(0));
+    }
+
+    @Test
+    void returns_null_without_functional_groups() {
+      var dcm = new Attributes();
+      dcm.setInt(Tag.NumberOfFrames, VR.IS, 2);
+
+      assertNull(FunctionalGroups.read(dcm));
+    }
+  }
+}
@@ -11,11 +11,13 @@ package org.dcm4che3.img.stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
 import java.util.stream.Stream;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.VR;
 import org.dcm4che3.image.PhotometricInterpretation;
+import org.dcm4che3.img.lut.ModalityLutModule;
 import org.dcm4che3.img.util.LutTestDataBuilder;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -379,6 +381,102 @@ class ImageDescriptorTest {
     }
   }
 
+  @Nested
+  @DisplayName("Functional Groups Tests")
+  class Functional_Groups_Tests {
+
+    @Test
+    void should_apply_the_rescale_and_window_of_each_frame() {
+      var descriptor = new ImageDescriptor(createEnhancedAttributes());
+
+      var first = descriptor.getModalityLutForFrame(0);
+      var second = descriptor.getModalityLutForFrame(1);
+      assertNotNull(descriptor.getFunctionalGroups());
+      assertEquals(-1024.0, first.getRescaleIntercept().getAsDouble());
+      assertEquals(-1023.0, second.getRescaleIntercept().getAsDouble());
+      assertSame(descriptor.getModalityLUT(), descriptor.getModalityLutForFrame(2));
+      assertEquals(List.of(40.0), descriptor.getVoiLutForFrame(2).getWindowCenter());
+      assertEquals(List.of(400.0), descriptor.getVoiLutForFrame(2).getWindowWidth());
+    }
+
+    @Test
+    void should_keep_a_frame_lut_set_explicitly() {
+      var descriptor = new ImageDescriptor(createEnhancedAttributes());
+      var lut = ModalityLutModule.getResetInstance();
+
+      descriptor.setModalityLutForFrame(0, lut);
+
+      assertSame(lut, descriptor.getModalityLutForFrame(0));
+    }
+
+    @Test
+    void should_have_no_functional_groups_for_a_classic_object() {
+      var descriptor = new ImageDescriptor(createCompleteAttributes());
+
+      assertNull(descriptor.getFunctionalGroups());
+    }
+  }
+
+  @Nested
+  @DisplayName("Lazy Loading Tests")
+  class Lazy_Loading_Tests {
+
+    private void addOverlay(Attributes attributes) {
+      attributes.setInt(Tag.OverlayRows, VR.US, 2);
+      attributes.setInt(Tag.OverlayColumns, VR.US, 4);
+      attributes.setBytes(Tag.OverlayData, VR.OW, new byte[] {(byte) 0xFF, 0});
+    }
+
+    @Test
+    void should_read_the_overlays_as_of_construction_time() {
+      var attributes = createCompleteAttributes();
+      addOverlay(attributes);
+      var descriptor = new ImageDescriptor(attributes);
+
+      attributes.remove(Tag.OverlayData);
+      attributes.setInt(Tag.OverlayRows, VR.US, 8);
+      var overlays = descriptor.getOverlayData();
+
+      assertEquals(1, overlays.size());
+      assertEquals(2, overlays.get(0).rows());
+      assertSame(overlays, descriptor.getOverlayData());
+    }
+
+    @Test
+    void should_ignore_the_overlays_added_after_construction() {
+      var attributes = createCompleteAttributes();
+      var descriptor = new ImageDescriptor(attributes);
+
+      addOverlay(attributes);
+
+      assertTrue(descriptor.getOverlayData().isEmpty());
+    }
+
+    @Test
+    void should_read_the_palette_as_of_construction_time() {
+      var attributes = LutTestDataBuilder.createCompletePaletteLutAttributes();
+      attributes.setString(Tag.PhotometricInterpretation, VR.CS, "PALETTE_COLOR");
+      var descriptor = new ImageDescriptor(attributes);
+
+      attributes.remove(Tag.RedPaletteColorLookupTableDescriptor);
+
+      var lut = descriptor.getPaletteColorLookupTable();
+      assertNotNull(lut);
+      assertSame(lut, descriptor.getPaletteColorLookupTable());
+    }
+
+    @Test
+    void should_ignore_the_palette_added_after_construction() {
+      var attributes = new Attributes();
+      attributes.setString(Tag.PhotometricInterpretation, VR.CS, "PALETTE_COLOR");
+      var descriptor = new ImageDescriptor(attributes);
+
+      attributes.addAll(LutTestDataBuilder.createCompletePaletteLutAttributes());
+
+      assertNull(descriptor.getPaletteColorLookupTable());
+    }
+  }
+
   @Nested
   @DisplayName("Edge Cases and Validation")
   class Edge_Cases_Tests {
@@ -683,6 +781,33 @@ class ImageDescriptorTest {
     return result;
   }
 
+  /** Enhanced CT of 3 frames with a shared window and a rescale for the first 2 frames. */
+  private Attributes createEnhancedAttributes() {
+    var attributes = new Attributes();
+    attributes.setInt(Tag.NumberOfFrames, VR.IS, 3);
+    attributes.setString(Tag.Modality, VR.CS, "CT");
+
+    var window = new Attributes();
+    window.setDouble(Tag.WindowCenter, VR.DS, 40);
+    window.setDouble(Tag.WindowWidth, VR.DS, 400);
+    var shared = new Attributes();
+    shared.newSequence(Tag.FrameVOILUTSequence, 1).add(window);
+    attributes.newSequence(Tag.SharedFunctionalGroupsSequence, 1).add(shared);
+
+    var perFrame = attributes.newSequence(Tag.PerFrameFunctionalGroupsSequence, 3);
+    for (int i = 0; i < 3; i++) {
+      var frame = new Attributes();
+      if (i < 2) {
+        var rescale = new Attributes();
+        rescale.setDouble(Tag.RescaleSlope, VR.DS, 1);
+        rescale.setDouble(Tag.RescaleIntercept, VR.DS, -1024 + i);
+        frame.newSequence(Tag.PixelValueTransformationSequence, 1).add(rescale);
+      }
+      perFrame.add(frame);
+    }
+    return attributes;
+  }
+
   private Attributes createCompleteAttributes() {
     var attributes = LutTestDataBuilder.createCompletePaletteLutAttributes();
 
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.img.stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class PixelDataSourceTest {
+
+  private static final byte[] CONTENT = content(1000);
+
+  @TempDir Path tempDir;
+
+  private static byte[] content(int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) (i * 7);
+    }
+    return bytes;
+  }
+
+  private static byte[] read(PixelDataSource source, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    source.readFully(buffer, position);
+    return buffer.array();
+  }
+
+  private static byte[] readAll(PixelDataSource source) throws IOException {
+    try (InputStream in = source.openStream()) {
+      return in.readAllBytes();
+    }
+  }
+
+  private static void assertContent(PixelDataSource source) throws IOException {
+    assertEquals(CONTENT.length, source.size());
+    assertArrayEquals(CONTENT, readAll(source));
+    assertArrayEquals(Arrays.copyOfRange(CONTENT, 500, 600), read(source, 500, 100));
+    assertEquals(-1, source.read(ByteBuffer.allocate(10), CONTENT.length));
+  }
+
+  private static byte[] tarHeader(String name, long size, char type) {
+    byte[] header = new byte[512];
+    byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+    System.arraycopy(bytes, 0, header, 0, Math.min(bytes.length, 100));
+    byte[] octal = "%011o".formatted(size).getBytes(StandardCharsets.US_ASCII);
+    System.arraycopy(octal, 0, header, 124, octal.length);
+    header[156] = (byte) type;
+    System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+    return header;
+  }
+
+  private static void writeTarEntry(ByteArrayOutputStream out, String name, byte[] data, char type)
+      throws IOException {
+    out.write(tarHeader(name, data.length, type));
+    out.write(data);
+    out.write(new byte[(512 - data.length % 512) % 512]);
+  }
+
+  @Nested
+  class Local_sources {
+
+    @Test
+    void reads_a_file_and_a_mapped_region() throws IOException {
+      Path file = tempDir.resolve("data.bin");
+      Files.write(file, CONTENT);
+
+      try (PixelDataSource source = PixelDataSource.ofFile(file);
+          PixelDataSource region = PixelDataSource.ofMappedRegion(file, 100, 50)) {
+        assertContent(source);
+        assertEquals(file, source.getLocalFile());
+        assertEquals(0, source.getLocalOffset());
+
+        assertEquals(50, region.size());
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 100, 150), readAll(region));
+        assertEquals(100, region.getLocalOffset());
+      }
+    }
+
+    @Test
+    void reads_a_direct_buffer_without_moving_it() throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(CONTENT.length + 10);
+      buffer.position(10);
+      buffer.put(CONTENT).position(10);
+
+      try (PixelDataSource source = PixelDataSource.ofBuffer(buffer, null)) {
+        assertContent(source);
+        assertNull(source.getLocalFile());
+      }
+      assertEquals(10, buffer.position());
+    }
+
+    @Test
+    void skips_without_reading_and_reads_through_a_channel() throws IOException {
+      Path file = tempDir.resolve("data.bin");
+      Files.write(file, CONTENT);
+
+      try (PixelDataSource source = PixelDataSource.ofFile(file);
+          InputStream in = source.openStream();
+          SeekableByteChannel channel = source.newChannel()) {
+        assertEquals(900, in.skip(900));
+        assertEquals(CONTENT[900] & 0xFF, in.read());
+        assertEquals(99, in.skip(1000));
+        assertEquals(-1, in.read());
+
+        channel.position(10);
+        ByteBuffer buffer = ByteBuffer.allocate(5);
+        assertEquals(5, channel.read(buffer));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 10, 15), buffer.array());
+        assertEquals(15, channel.position());
+      }
+    }
+
+    @Test
+    void reads_stored_and_compressed_zip_entries() throws IOException {
+      Path zip = tempDir.resolve("study.zip");
+      try (var out = new ZipOutputStream(Files.newOutputStream(zip))) {
+        out.putNextEntry(new ZipEntry("compressed.dcm"));
+        out.write(CONTENT);
+        out.closeEntry();
+        var stored = new ZipEntry("dir/stored.dcm");
+        var crc = new CRC32();
+        crc.update(CONTENT);
+        stored.setMethod(ZipEntry.STORED);
+        stored.setSize(CONTENT.length);
+        stored.setCrc(crc.getValue());
+        out.putNextEntry(stored);
+        out.write(CONTENT);
+        out.closeEntry();
+      }
+
+      try (PixelDataSource stored = PixelDataSource.ofZipEntry(zip, "dir/stored.dcm");
+          PixelDataSource compressed = PixelDataSource.ofZipEntry(zip, "compressed.dcm")) {
+        assertContent(stored);
+        assertEquals(zip, stored.getLocalFile());
+        assertTrue(stored.getLocalOffset() > 0);
+        assertTrue(stored.getURI().startsWith("jar:"));
+
+        assertContent(compressed);
+        assertNull(compressed.getLocalFile());
+      }
+      assertThrows(IOException.class, () -> PixelDataSource.ofZipEntry(zip, "missing.dcm"));
+    }
+
+    @Test
+    void reads_tar_entries_with_long_names() throws IOException {
+      String longName = "studies/" + "a".repeat(120) + "/image.dcm";
+      var out = new ByteArrayOutputStream();
+      writeTarEntry(out, "first.dcm", content(700), '0');
+      writeTarEntry(out, "././@LongLink", (longName + "\0").getBytes(), 'L');
+      writeTarEntry(out, "truncated", CONTENT, '0');
+      out.write(new byte[1024]);
+      Path tar = tempDir.resolve("study.tar");
+      Files.write(tar, out.toByteArray());
+
+      try (PixelDataSource first = PixelDataSource.ofTarEntry(tar, "first.dcm");
+          PixelDataSource entry = PixelDataSource.ofTarEntry(tar, longName)) {
+        assertArrayEquals(content(700), readAll(first));
+        assertEquals(512, first.getLocalOffset());
+        assertContent(entry);
+        assertEquals(tar, entry.getLocalFile());
+      }
+      assertThrows(IOException.class, () -> PixelDataSource.ofTarEntry(tar, "truncated"));
+    }
+  }
+
+  @Nested
+  class Http_source {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile boolean supportRanges = true;
+
+    @BeforeEach
+    void startServer() throws IOException {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      server.createContext(
+          "/data",
+          exchange -> {
+            requests.incrementAndGet();
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+              exchange.getResponseHeaders().add("Content-Length", "" + CONTENT.length);
+              exchange.sendResponseHeaders(200, -1);
+            } else if (range == null || !supportRanges) {
+              exchange.sendResponseHeaders(200, CONTENT.length);
+              exchange.getResponseBody().write(CONTENT);
+            } else {
+              String[] bounds = range.substring("bytes=".length()).split("-");
+              int first = Integer.parseInt(bounds[0]);
+              int last = Math.min(Integer.parseInt(bounds[1]), CONTENT.length - 1);
+              if (first >= CONTENT.length) {
+                exchange.sendResponseHeaders(416, -1);
+              } else {
+                exchange
+                    .getResponseHeaders()
+                    .add("Content-Range", "bytes %d-%d/%d".formatted(first, last, CONTENT.length));
+                exchange.sendResponseHeaders(206, last - first + 1);
+                exchange.getResponseBody().write(CONTENT, first, last - first + 1);
+              }
+            }
+            exchange.close();
+          });
+      server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+      server.stop(0);
+    }
+
+    private PixelDataSource open() {
+      var address = server.getAddress();
+      String host = address.getAddress().getHostAddress();
+      URI uri = URI.create("http://" + host + ":" + address.getPort() + "/data");
+      HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      return PixelDataSource.ofHttp(client, uri);
+    }
+
+    @Test
+    void reads_ranges_ahead() throws IOException {
+      try (PixelDataSource source = open()) {
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 10, 20), read(source, 10, 10));
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 30, 40), read(source, 30, 10));
+        assertEquals(1, requests.get());
+
+        assertContent(source);
+        assertNull(source.getLocalFile());
+      }
+    }
+
+    @Test
+    void rejects_a_server_without_range_support() throws IOException {
+      supportRanges = false;
+      try (PixelDataSource source = open()) {
+        assertThrows(IOException.class, () -> read(source, 0, 10));
+      }
+    }
+
+    @Test
+    void rejects_a_read_after_close() throws IOException {
+      PixelDataSource source = open();
+      read(source, 0, 10);
+      source.close();
+
+      assertThrows(ClosedChannelException.class, () -> read(source, 0, 10));
+      assertEquals(1, requests.get());
+    }
+  }
+
+  @Nested
+  class Buffer_pool {
+
+    @Test
+    void reuses_the_released_buffers() {
+      var pool = new ReadAheadBufferPool(64, 1);
+
+      ByteBuffer first = pool.acquire();
+      ByteBuffer second = pool.acquire();
+      pool.release(first);
+      pool.release(second);
+      pool.release(ByteBuffer.allocate(64));
+      pool.release(ByteBuffer.allocateDirect(64));
+
+      assertEquals(1, pool.getPooledCount());
+      assertEquals(0, pool.getLentCount());
+      assertSame(first, pool.acquire());
+      assertTrue(first.isDirect());
+      assertEquals(64, first.remaining());
+      assertEquals(0, pool.getPooledCount());
+    }
+  }
+
+  @Nested
+  class Frame_buffer_arena {
+
+    @Test
+    void reuses_the_buffers_of_the_same_size_class() {
+      var arena = new FrameBufferArena();
+
+      ByteBuffer first = arena.acquire(5000);
+      assertTrue(first.isDirect());
+      assertEquals(0, first.position());
+      assertEquals(5000, first.limit());
+      assertEquals(8192, first.capacity());
+      assertEquals(1, arena.getLentCount());
+
+      arena.release(first);
+      assertEquals(0, arena.getLentCount());
+      assertEquals(8192, arena.getRetainedSize());
+
+      ByteBuffer second = arena.acquire(6000);
+      assertSame(first, second);
+      assertEquals(6000, second.limit());
+      assertEquals(0, arena.getRetainedSize());
+      assertNotSame(second, arena.acquire(100));
+    }
+
+    @Test
+    void ignores_foreign_buffers_and_keeps_the_budget() {
+      var arena = new FrameBufferArena(8192);
+
+      arena.release(ByteBuffer.allocateDirect(4096));
+      arena.release(null);
+      assertEquals(0, arena.getRetainedSize());
+
+      ByteBuffer first = arena.acquire(4096);
+      ByteBuffer second = arena.acquire(4096);
+      ByteBuffer third = arena.acquire(4096);
+      arena.release(first);
+      arena.release(second);
+      arena.release(third);
+      arena.release(third);
+      assertEquals(8192, arena.getRetainedSize());
+
+      arena.clear();
+      assertEquals(0, arena.getRetainedSize());
+      assertNotSame(second, arena.acquire(4096));
+    }
+  }
+}
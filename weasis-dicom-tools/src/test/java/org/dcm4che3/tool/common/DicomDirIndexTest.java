@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.tool.common.DicomIndexer.InstanceRecord;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.weasis.dicom.mf.DefaultQueryResult;
+import org.weasis.dicom.mf.WadoParameters;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DicomDirIndexTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void reads_the_hierarchy_written_by_the_recorder() throws IOException {
+    Path dicomdir = tempDir.resolve("DICOMDIR");
+    try (var recorder = DicomDirRecorder.open(dicomdir, new FilesetInfo("1.2.3", "MEDIA"))) {
+      assertTrue(add(recorder, "IMAGES/IM1", "PAT1", "1.1", "1.1.1", 1));
+      assertTrue(add(recorder, "IMAGES/IM2", "PAT1", "1.1", "1.1.2", 2));
+      assertTrue(add(recorder, "IMAGES/IM3", "PAT1", "1.2", "1.2.1", 1));
+      assertFalse(add(recorder, "IMAGES/IM4", "PAT1", "1.1", "1.1.1", 1));
+    }
+
+    var index = DicomDirIndex.read(dicomdir);
+
+    assertEquals("1.2.3", index.filesetInfo().getFilesetUID());
+    assertEquals("MEDIA", index.filesetInfo().getFilesetID());
+    List<InstanceRecord> instances = index.instances();
+    assertEquals(3, instances.size());
+    InstanceRecord first = instances.get(0);
+    assertEquals(tempDir.resolve("IMAGES/IM1").toAbsolutePath().normalize(), first.path());
+    assertEquals("1.1.1", first.sopInstanceUID());
+    assertEquals(UID.CTImageStorage, first.sopClassUID());
+    assertEquals(UID.ExplicitVRLittleEndian, first.transferSyntaxUID());
+    assertEquals("CT", first.series().modality());
+    assertEquals("PAT1", first.series().study().patient().patientID());
+    assertSame(first.series(), instances.get(1).series());
+  }
+
+  @Test
+  void completes_an_existing_dicomdir_without_duplicates() throws IOException {
+    Path dicomdir = tempDir.resolve("DICOMDIR");
+    try (var recorder = DicomDirRecorder.open(dicomdir, null)) {
+      add(recorder, "IM1", "PAT1", "1.1", "1.1.1", 1);
+    }
+    try (var recorder = DicomDirRecorder.open(dicomdir, null)) {
+      assertFalse(add(recorder, "IM1", "PAT1", "1.1", "1.1.1", 1));
+      assertTrue(add(recorder, "IM2", "PAT1", "1.1", "1.1.2", 2));
+    }
+
+    var index = DicomDirIndex.read(dicomdir);
+
+    assertNotNull(index.filesetInfo().getFilesetUID());
+    assertEquals(2, index.instances().size());
+    assertSame(index.instances().get(0).series(), index.instances().get(1).series());
+  }
+
+  @Test
+  void records_feed_the_manifest_model() throws IOException {
+    Path dicomdir = tempDir.resolve("DICOMDIR");
+    try (var recorder = DicomDirRecorder.open(dicomdir, null)) {
+      add(recorder, "IM1", null, "1.1", "1.1.1", 1);
+    }
+
+    var result = new DefaultQueryResult(WadoParameters.wadoUri("http://localhost/wado", true));
+    for (InstanceRecord r : DicomDirIndex.read(dicomdir).instances()) {
+      r.addTo(result);
+    }
+
+    // Without Patient ID, the patient is identified by the Study Instance UID
+    var patient = result.getPatient("1", null);
+    assertNotNull(patient);
+    assertNotNull(patient.getStudy("1").getSeries("1.1").getSopInstance("1.1.1", 1));
+  }
+
+  @Test
+  void rejects_a_file_outside_the_file_set() throws IOException {
+    Path media = Files.createDirectories(tempDir.resolve("media"));
+    try (var recorder = DicomDirRecorder.open(media.resolve("DICOMDIR"), null)) {
+      assertThrows(
+          IllegalArgumentException.class, () -> add(recorder, "IM1", "PAT1", "1.1", "1.1.1", 1));
+    }
+  }
+
+  @Test
+  void rejects_a_file_id_that_is_not_valid_on_a_media() throws IOException {
+    try (var recorder = DicomDirRecorder.open(tempDir.resolve("DICOMDIR"), null)) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> add(recorder, "IMAGES/1.2.3.dcm", "PAT1", "1.1", "1.1.1", 1));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> add(recorder, "images/IM1", "PAT1", "1.1", "1.1.1", 1));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> add(recorder, "IMAGES/IMAGE0001", "PAT1", "1.1", "1.1.1", 1));
+      // The instance has not been recorded by the rejected attempts
+      assertTrue(add(recorder, "IMAGES/IM1", "PAT1", "1.1", "1.1.1", 1));
+    }
+    assertTrue(DicomDirRecorder.isValidFileIDComponent("IM_0001"));
+    assertFalse(DicomDirRecorder.isValidFileIDComponent(""));
+  }
+
+  private boolean add(
+      DicomDirRecorder recorder,
+      String fileID,
+      String patientID,
+      String seriesUID,
+      String sopUID,
+      int instanceNumber)
+      throws IOException {
+    var attrs = new Attributes();
+    attrs.setString(Tag.SOPClassUID, VR.UI, UID.CTImageStorage);
+    attrs.setString(Tag.SOPInstanceUID, VR.UI, sopUID);
+    attrs.setString(Tag.StudyDate, VR.DA, "20260101");
+    attrs.setString(Tag.StudyTime, VR.TM, "120000");
+    attrs.setString(Tag.AccessionNumber, VR.SH, "A1");
+    attrs.setString(Tag.Modality, VR.CS, "CT");
+    attrs.setString(Tag.PatientName, VR.PN, "Doe^John");
+    if (patientID != null) {
+      attrs.setString(Tag.PatientID, VR.LO, patientID);
+    }
+    attrs.setString(Tag.StudyInstanceUID, VR.UI, "1");
+    attrs.setString(Tag.SeriesInstanceUID, VR.UI, seriesUID);
+    attrs.setString(Tag.StudyID, VR.SH, "S1");
+    attrs.setString(Tag.SeriesNumber, VR.IS, "1");
+    attrs.setInt(Tag.InstanceNumber, VR.IS, instanceNumber);
+    var fmi = attrs.createFileMetaInformation(UID.ExplicitVRLittleEndian);
+    return recorder.add(tempDir.resolve(fileID), fmi, attrs);
+  }
+}
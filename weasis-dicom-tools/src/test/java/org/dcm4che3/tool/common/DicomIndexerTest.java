@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.dcm4che3.tool.common.DicomIndexer.InstanceRecord;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.weasis.dicom.mf.DefaultQueryResult;
+import org.weasis.dicom.mf.Patient;
+import org.weasis.dicom.mf.SopInstance;
+import org.weasis.dicom.mf.WadoParameters;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DicomIndexerTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void indexes_a_tree_and_shares_the_parent_records() throws IOException {
+    write(tempDir.resolve("a/1.dcm"), instance("1.1", "1.1.1", 1));
+    write(tempDir.resolve("a/b/2.dcm"), instance("1.1", "1.1.2", 2));
+    write(tempDir.resolve("c/3.dcm"), instance("1.2", "1.2.1", 1));
+    Attributes noSeries = instance("1.3", "1.3.1", 1);
+    noSeries.remove(Tag.SeriesInstanceUID);
+    write(tempDir.resolve("c/4.dcm"), noSeries);
+    Files.writeString(tempDir.resolve("c/readme.txt"), "This is not a DICOM file");
+
+    DicomIndexer indexer = DicomIndexer.builder().parallelism(3).build();
+    Map<String, InstanceRecord> records = byUID(indexer.index(List.of(tempDir)));
+
+    assertEquals(3, records.size());
+    InstanceRecord first = records.get("1.1.1");
+    InstanceRecord second = records.get("1.1.2");
+    InstanceRecord third = records.get("1.2.1");
+    assertEquals(tempDir.resolve("a/b/2.dcm"), second.path());
+    assertEquals(UID.CTImageStorage, first.sopClassUID());
+    assertEquals(UID.ExplicitVRLittleEndian, first.transferSyntaxUID());
+    assertEquals(2, second.instanceNumber());
+    assertSame(first.series(), second.series());
+    assertSame(first.series().study(), third.series().study());
+    assertEquals("CT", first.series().modality());
+    assertEquals("Study", first.series().study().studyDescription());
+    assertEquals("Doe^John", first.series().study().patient().patientName());
+  }
+
+  @Test
+  void parsing_stops_at_the_stop_tag() throws IOException {
+    Path file = write(tempDir.resolve("1.dcm"), instance("1.1", "1.1.1", 7));
+
+    InstanceRecord full = DicomIndexer.builder().stopTag(Tag.PixelData).build().read(file);
+    InstanceRecord partial =
+        DicomIndexer.builder().stopTag(Tag.SeriesInstanceUID + 1).build().read(file);
+
+    assertEquals(7, full.instanceNumber());
+    assertNull(partial.instanceNumber());
+    assertEquals("1.1", partial.series().seriesInstanceUID());
+  }
+
+  @Test
+  void records_feed_the_manifest_model() throws IOException {
+    write(tempDir.resolve("1.dcm"), instance("1.1", "1.1.1", 1));
+    write(tempDir.resolve("2.dcm"), instance("1.1", "1.1.2", 2));
+    write(tempDir.resolve("3.dcm"), instance("1.2", "1.2.1", 1));
+
+    var result = new DefaultQueryResult(WadoParameters.wadoUri("http://localhost/wado", true));
+    DicomIndexer.builder()
+        .build()
+        .index(List.of(tempDir))
+        .stream()
+        .sorted(Comparator.comparing(InstanceRecord::sopInstanceUID))
+        .forEach(r -> r.addTo(result));
+
+    Patient patient = result.getPatient("PAT1", null);
+    assertNotNull(patient);
+    var study = patient.getStudy("1");
+    assertEquals("Study", study.getStudyDescription());
+    assertEquals(2, study.getSeries().size());
+    assertEquals("CT", study.getSeries("1.1").getModality());
+    SopInstance sop = study.getSeries("1.1").getSopInstance("1.1.2", 2);
+    assertEquals(UID.CTImageStorage, sop.getSopClassUID());
+    assertEquals(UID.ExplicitVRLittleEndian, sop.getTransferSyntaxUID());
+    assertEquals(tempDir.resolve("2.dcm").toString(), sop.getDirectDownloadFile());
+  }
+
+  @Test
+  void indexes_once_a_directory_reached_by_symbolic_links() throws IOException {
+    write(tempDir.resolve("a/1.dcm"), instance("1.1", "1.1.1", 1));
+    try {
+      Files.createSymbolicLink(tempDir.resolve("a/loop"), tempDir);
+      Files.createSymbolicLink(tempDir.resolve("b"), tempDir.resolve("a"));
+    } catch (IOException | UnsupportedOperationException e) {
+      assumeTrue(false, "Symbolic links are not supported: " + e);
+    }
+
+    List<InstanceRecord> records = DicomIndexer.builder().build().index(List.of(tempDir));
+
+    assertEquals(1, records.size());
+    assertEquals("1.1.1", records.get(0).sopInstanceUID());
+  }
+
+  @Test
+  void builder_rejects_an_invalid_parallelism() {
+    assertThrows(IllegalArgumentException.class, () -> DicomIndexer.builder().parallelism(0));
+  }
+
+  private static Map<String, InstanceRecord> byUID(List<InstanceRecord> records) {
+    return records.stream()
+        .collect(Collectors.toMap(InstanceRecord::sopInstanceUID, Function.identity()));
+  }
+
+  private static Attributes instance(String seriesUID, String sopUID, int instanceNumber) {
+    var attrs = new Attributes();
+    attrs.setString(Tag.SOPClassUID, VR.UI, UID.CTImageStorage);
+    attrs.setString(Tag.SOPInstanceUID, VR.UI, sopUID);
+    attrs.setString(Tag.Modality, VR.CS, "CT");
+    attrs.setString(Tag.StudyDescription, VR.LO, "Study");
+    attrs.setString(Tag.PatientName, VR.PN, "Doe^John");
+    attrs.setString(Tag.PatientID, VR.LO, "PAT1");
+    attrs.setString(Tag.StudyInstanceUID, VR.UI, "1");
+    attrs.setString(Tag.SeriesInstanceUID, VR.UI, seriesUID);
+    attrs.setInt(Tag.InstanceNumber, VR.IS, instanceNumber);
+    attrs.setString(Tag.ImageComments, VR.LT, "After the stop tag");
+    attrs.setBytes(Tag.PixelData, VR.OW, new byte[512]);
+    return attrs;
+  }
+
+  private static Path write(Path file, Attributes dataset) throws IOException {
+    Files.createDirectories(file.getParent());
+    var fmi = dataset.createFileMetaInformation(UID.ExplicitVRLittleEndian);
+    try (var dos = new DicomOutputStream(file.toFile())) {
+      dos.writeDataset(fmi, dataset);
+    }
+    return file;
+  }
+}
@@ -10,10 +10,14 @@
 package org.dcm4che3.tool.getscu;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -21,19 +25,29 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.UID;
 import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Association;
+import org.dcm4che3.net.Commands;
 import org.dcm4che3.net.Connection;
 import org.dcm4che3.net.Device;
+import org.dcm4che3.net.Dimse;
 import org.dcm4che3.net.DimseRSPHandler;
 import org.dcm4che3.net.PDVInputStream;
+import org.dcm4che3.net.Priority;
+import org.dcm4che3.net.pdu.PresentationContext;
 import org.dcm4che3.tool.getscu.GetSCU.InformationModel;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -386,6 +400,131 @@ class GetSCUTest {
     }
   }
 
+  @Nested
+  class In_Memory_Receiver {
+
+    private static final byte[] PIXELS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+
+    @Test
+    void should_keep_small_pixel_data_in_memory() throws IOException {
+      var fmi = fileMetaInformation(UID.ExplicitVRLittleEndian);
+      var data = encode(image(), UID.ExplicitVRLittleEndian, false);
+
+      try (var instance = GetSCU.readInstance(fmi, data, tempDir, 1024)) {
+        assertAll(
+            () -> assertTrue(instance.spillFiles().isEmpty()),
+            () -> assertEquals("1.2.3.4", instance.dataset().getString(Tag.SOPInstanceUID)),
+            () -> assertArrayEquals(PIXELS, bytes(instance.image().getBytes(0))));
+      }
+    }
+
+    @Test
+    void should_spill_large_pixel_data_to_a_file() throws IOException {
+      var fmi = fileMetaInformation(UID.ExplicitVRLittleEndian);
+      var data = encode(image(), UID.ExplicitVRLittleEndian, false);
+
+      var instance = GetSCU.readInstance(fmi, data, tempDir.resolve("spill"), 8);
+      Path spillFile = instance.spillFiles().get(0);
+
+      assertTrue(Files.exists(spillFile));
+      assertArrayEquals(PIXELS, bytes(instance.image().getBytes(0)));
+      instance.close();
+      assertFalse(Files.exists(spillFile));
+    }
+
+    @Test
+    void should_read_encapsulated_fragments_in_memory() throws IOException {
+      var fmi = fileMetaInformation(UID.JPEGBaseline8Bit);
+      var data = encode(image(), UID.JPEGBaseline8Bit, true);
+
+      try (var instance = GetSCU.readInstance(fmi, data, tempDir, 0)) {
+        assertTrue(instance.spillFiles().isEmpty());
+        assertEquals(UID.JPEGBaseline8Bit, instance.image().getTransferSyntax());
+        assertArrayEquals(PIXELS, bytes(instance.image().getBytes(0)));
+      }
+    }
+
+    @Test
+    void should_count_the_received_bytes_and_update_the_progress() throws IOException {
+      var progress = new DicomProgress();
+      progress.setProcessedFile(tempDir.resolve("previous.dcm"));
+      var scu = new GetSCU(progress);
+      List<String> received = new ArrayList<>();
+      scu.setInstanceHandler(
+          instance -> {
+            received.add(instance.dataset().getString(Tag.SOPInstanceUID));
+            instance.close();
+          });
+      var cuid = UID.SecondaryCaptureImageStorage;
+      var tsuid = UID.ExplicitVRLittleEndian;
+      var data = encode(image(), tsuid, false);
+      int length = data.available();
+      var association = mock(Association.class);
+      when(association.createFileMetaInformation("1.2.3.4", cuid, tsuid))
+          .thenReturn(fileMetaInformation(tsuid));
+
+      scu.getDevice()
+          .getDimseRQHandler()
+          .onDimseRQ(
+              association,
+              new PresentationContext(1, cuid, tsuid),
+              Dimse.C_STORE_RQ,
+              Commands.mkCStoreRQ(1, cuid, "1.2.3.4", Priority.NORMAL),
+              mock(PDVInputStream.class, delegatesTo(data)));
+
+      assertEquals(List.of("1.2.3.4"), received);
+      assertEquals(length, scu.getTotalSize());
+      assertNull(progress.getProcessedFile());
+    }
+
+    @Test
+    void should_reject_a_negative_spill_threshold() {
+      assertThrows(IllegalArgumentException.class, () -> getSCU.setSpillThreshold(-1));
+    }
+
+    private static Attributes fileMetaInformation(String tsuid) {
+      return Attributes.createFileMetaInformation(
+          "1.2.3.4", UID.SecondaryCaptureImageStorage, tsuid);
+    }
+
+    private static Attributes image() {
+      var attributes = new Attributes();
+      attributes.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4");
+      attributes.setInt(Tag.Rows, VR.US, 4);
+      attributes.setInt(Tag.Columns, VR.US, 4);
+      attributes.setInt(Tag.SamplesPerPixel, VR.US, 1);
+      attributes.setInt(Tag.BitsAllocated, VR.US, 8);
+      attributes.setInt(Tag.BitsStored, VR.US, 8);
+      attributes.setInt(Tag.HighBit, VR.US, 7);
+      attributes.setInt(Tag.PixelRepresentation, VR.US, 0);
+      attributes.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+      return attributes;
+    }
+
+    private static ByteArrayInputStream encode(
+        Attributes attributes, String tsuid, boolean encapsulated) throws IOException {
+      if (encapsulated) {
+        var fragments = attributes.newFragments(Tag.PixelData, VR.OB, 3);
+        fragments.add(new byte[0]);
+        fragments.add(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        fragments.add(new byte[] {9, 10, 11, 12, 13, 14, 15, 16});
+      } else {
+        attributes.setBytes(Tag.PixelData, VR.OB, PIXELS);
+      }
+      var out = new ByteArrayOutputStream();
+      try (var dos = new DicomOutputStream(out, tsuid)) {
+        dos.writeDataset(null, attributes);
+      }
+      return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+      var bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      return bytes;
+    }
+  }
+
   @Nested
   class Information_Model_Enum {
 
@@ -14,6 +14,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
@@ -36,6 +37,7 @@ import org.dcm4che3.net.Status;
 import org.dcm4che3.net.TransferCapability;
 import org.dcm4che3.net.pdu.PresentationContext;
 import org.dcm4che3.net.service.DicomServiceRegistry;
+import org.dcm4che3.tool.common.DicomDirRecorder;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -185,6 +187,24 @@ class StoreSCPTest {
       // The internal array should not be affected by external modifications
       assertTrue(true); // Test passes as no exception is thrown
     }
+
+    @Test
+    void should_accept_a_dicomdir_only_around_the_storage_directory() throws IOException {
+      try (var inside = DicomDirRecorder.open(tempStorageDir.resolve("DICOMDIR"), null);
+          var outside =
+              DicomDirRecorder.open(
+                  Files.createDirectories(tempStorageDir.resolve("other")).resolve("DICOMDIR"),
+                  null)) {
+        storeSCP.setDicomDir(inside);
+        assertSame(inside, storeSCP.getDicomDir());
+
+        assertThrows(IllegalArgumentException.class, () -> storeSCP.setDicomDir(outside));
+        assertSame(inside, storeSCP.getDicomDir());
+
+        storeSCP.setDicomDir(null);
+        assertNull(storeSCP.getDicomDir());
+      }
+    }
   }
 
   @Nested
@@ -25,8 +25,11 @@ import org.dcm4che3.data.UID;
 import org.dcm4che3.data.VR;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Association;
+import org.dcm4che3.net.Connection;
+import org.dcm4che3.net.DataWriter;
 import org.dcm4che3.net.DimseRSP;
 import org.dcm4che3.net.DimseRSPHandler;
+import org.dcm4che3.net.pdu.AAssociateRQ;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
@@ -299,6 +302,103 @@ class StoreSCUTest {
     }
   }
 
+  @Nested
+  class ParallelFileScanning {
+
+    @Test
+    void scans_directory_with_several_threads_in_walk_order() throws IOException {
+      createRealDicomFile("a/test1.dcm");
+      createRealDicomFile("a/b/test2.dcm");
+      createRealDicomFile("test3.dcm");
+      Files.writeString(tempDir.resolve("a/test.txt"), "This is not a DICOM file");
+
+      storeSCU.scanFiles(List.of(tempDir.toString()), 4, null);
+
+      assertEquals(3, storeSCU.getFilesScanned());
+      var rq = storeSCU.getAAssociateRQ();
+      assertTrue(
+          rq.containsPresentationContextFor(UID.GrayscaleSoftcopyPresentationStateStorage));
+    }
+
+    @Test
+    void scan_index_skips_unchanged_files() throws IOException {
+      var file = createRealDicomFile("indexed/test.dcm");
+      var indexFile = tempDir.resolve("scan.idx");
+      storeSCU.scanFiles(List.of(file.toString()), 2, ScanIndex.open(indexFile));
+      assertTrue(Files.exists(indexFile));
+
+      // Same size and modification time: the header must come from the index
+      var lastModified = Files.getLastModifiedTime(file);
+      Files.write(file, new byte[(int) Files.size(file)]);
+      Files.setLastModifiedTime(file, lastModified);
+
+      var scu = new StoreSCU(ae, null);
+      scu.setTmpFileDirectory(tempDir);
+      scu.scanFiles(List.of(file.toString()), 2, ScanIndex.open(indexFile));
+
+      assertEquals(1, scu.getFilesScanned());
+    }
+
+    @Test
+    void scan_index_reads_again_modified_files() throws IOException {
+      var file = createRealDicomFile("modified/test.dcm");
+      var indexFile = tempDir.resolve("modified.idx");
+      storeSCU.scanFiles(List.of(file.toString()), 2, ScanIndex.open(indexFile));
+
+      Files.writeString(file, "This is not a DICOM file anymore");
+
+      var scu = new StoreSCU(ae, null);
+      scu.setTmpFileDirectory(tempDir);
+      scu.scanFiles(List.of(file.toString()), 2, ScanIndex.open(indexFile));
+
+      assertEquals(0, scu.getFilesScanned());
+    }
+
+    @Test
+    void scan_and_send_does_not_open_association_without_dicom_files() throws Exception {
+      var textFile = tempDir.resolve("test.txt");
+      Files.writeString(textFile, "This is not a DICOM file");
+
+      storeSCU.scanAndSendFiles(List.of(textFile.toString()), 2, null, 10);
+
+      assertEquals(0, storeSCU.getFilesScanned());
+      assertEquals(0, storeSCU.getOpenTime());
+    }
+
+    @Test
+    void scan_and_send_reports_files_not_sent_when_association_closes() throws Exception {
+      var files =
+          List.of(
+              createRealDicomFile("closed/a.dcm").toString(),
+              createRealDicomFile("closed/b.dcm").toString(),
+              createRealDicomFile("closed/c.dcm").toString());
+      var spiedAe = spy(new ApplicationEntity(TEST_AE_TITLE));
+      doReturn(mockAssociation)
+          .when(spiedAe)
+          .connect(any(Connection.class), any(AAssociateRQ.class));
+      // The remote node closes the association right after it is opened
+      when(mockAssociation.isReadyForDataTransfer()).thenReturn(false);
+      var progress = new DicomProgress();
+      var scu = new StoreSCU(spiedAe, progress);
+      scu.setTmpFileDirectory(tempDir);
+
+      scu.scanAndSendFiles(files, 2, null, 1);
+
+      assertEquals(3, scu.getFilesScanned());
+      assertEquals(3, scu.getFilesNotSent());
+      assertEquals(3, progress.getNumberOfFailedSuboperations());
+      assertNotNull(progress.getProcessedFile());
+      verify(mockAssociation, never())
+          .cstore(
+              anyString(),
+              anyString(),
+              anyInt(),
+              any(DataWriter.class),
+              anyString(),
+              any(DimseRSPHandler.class));
+    }
+  }
+
   @Nested
   class FileAddition {
 
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.dcm4che3.tool.storescu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.dcm4che3.net.Status;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class TransferJournalTest {
+
+  @TempDir Path tempDir;
+
+  private Path journalFile() {
+    return tempDir.resolve("transfer.journal");
+  }
+
+  @Nested
+  class Within_a_run {
+
+    @Test
+    void new_files_are_sent() throws IOException {
+      try (var journal = TransferJournal.open(journalFile())) {
+        assertTrue(journal.shouldSend("1.1", tempDir.resolve("1.dcm")));
+      }
+    }
+
+    @Test
+    void stored_and_permanently_failed_files_are_not_sent_again() throws IOException {
+      var stored = tempDir.resolve("1.dcm");
+      var warning = tempDir.resolve("2.dcm");
+      var rejected = tempDir.resolve("3.dcm");
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(stored, "1.1", Status.Success);
+        journal.record(warning, "1.2", Status.CoercionOfDataElements);
+        journal.record(rejected, "1.3", Status.DataSetDoesNotMatchSOPClassError);
+
+        assertFalse(journal.shouldSend("1.1", stored));
+        assertFalse(journal.shouldSend("1.2", warning));
+        assertFalse(journal.shouldSend("1.3", rejected));
+      }
+    }
+
+    @Test
+    void transient_failures_are_sent_again() throws IOException {
+      var file = tempDir.resolve("1.dcm");
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(file, "1.1", Status.OutOfResources | 0x12);
+        assertTrue(journal.shouldSend("1.1", file));
+
+        journal.record(file, "1.1", Status.Success);
+        assertFalse(journal.shouldSend("1.1", file));
+      }
+    }
+
+    @Test
+    void summary_counts_the_last_status_of_each_file() throws IOException {
+      var instances =
+          List.of(
+              new TransferJournal.Instance("1.1", tempDir.resolve("1.dcm")),
+              new TransferJournal.Instance("1.2", tempDir.resolve("2.dcm")));
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(instances.get(0).file(), "1.1", Status.ProcessingFailure);
+
+        var summary = journal.summarize(instances);
+
+        assertEquals(new TransferJournal.Summary(0, 0, 1, 1, 2, Status.ProcessingFailure), summary);
+        assertEquals(2, summary.notStored());
+      }
+    }
+  }
+
+  @Nested
+  class Resuming_a_transfer {
+
+    @Test
+    void only_files_not_stored_are_sent() throws IOException {
+      var stored = tempDir.resolve("1.dcm");
+      var rejected = tempDir.resolve("2.dcm");
+      var unsent = tempDir.resolve("3.dcm");
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(stored, "1.1", Status.Success);
+        journal.record(rejected, "1.2", Status.DataSetDoesNotMatchSOPClassError);
+      }
+
+      try (var journal = TransferJournal.open(journalFile())) {
+        assertFalse(journal.shouldSend("1.1", stored));
+        assertTrue(journal.shouldSend("1.2", rejected));
+        assertTrue(journal.shouldSend("1.3", unsent));
+        var instances =
+            List.of(
+                new TransferJournal.Instance("1.1", stored),
+                new TransferJournal.Instance("1.2", rejected),
+                new TransferJournal.Instance("1.3", unsent));
+        assertEquals(2, journal.summarize(instances).toSend());
+      }
+    }
+
+    @Test
+    void journal_is_compacted_on_open() throws IOException {
+      var file = tempDir.resolve("1.dcm");
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(file, "1.1", Status.OutOfResources);
+        journal.record(file, "1.1", Status.Success);
+      }
+      assertEquals(2, Files.readAllLines(journalFile()).size());
+
+      try (var journal = TransferJournal.open(journalFile())) {
+        assertFalse(journal.shouldSend("1.1", file));
+      }
+      assertEquals(1, Files.readAllLines(journalFile()).size());
+    }
+
+    @Test
+    void truncated_last_line_is_ignored() throws IOException {
+      var file = tempDir.resolve("1.dcm");
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(file, "1.1", Status.Success);
+      }
+      Files.writeString(
+          journalFile(), "0000\t1.2", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+      try (var journal = TransferJournal.open(journalFile())) {
+        assertFalse(journal.shouldSend("1.1", file));
+        assertEquals(
+            1, journal.summarize(List.of(new TransferJournal.Instance("1.1", file))).completed());
+      }
+    }
+
+    @Test
+    void an_instance_is_found_by_its_uid_whatever_its_path() throws IOException {
+      var file = tempDir.resolve("1.dcm");
+      var moved = tempDir.resolve("moved").resolve("1.dcm");
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(file, "1.1", Status.Success);
+      }
+
+      try (var journal = TransferJournal.open(journalFile())) {
+        assertFalse(journal.shouldSend("1.1", moved));
+        var summary =
+            journal.summarize(
+                List.of(
+                    new TransferJournal.Instance("1.1", file),
+                    new TransferJournal.Instance("1.1", moved)));
+        assertEquals(new TransferJournal.Summary(1, 0, 0, 0, 0, -1), summary);
+      }
+    }
+
+    @Test
+    void a_file_without_uid_is_found_by_its_path() throws IOException {
+      var file = tempDir.resolve("1.dcm");
+      try (var journal = TransferJournal.open(journalFile())) {
+        journal.record(file, null, Status.Success);
+      }
+
+      try (var journal = TransferJournal.open(journalFile())) {
+        assertFalse(journal.shouldSend(null, file));
+        assertTrue(journal.shouldSend(null, tempDir.resolve("2.dcm")));
+      }
+    }
+  }
+}
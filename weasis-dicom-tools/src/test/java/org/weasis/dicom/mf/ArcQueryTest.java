@@ -13,15 +13,21 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import jakarta.json.Json;
+import jakarta.json.JsonArray;
 import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
 import org.junit.jupiter.api.Nested;
@@ -581,6 +587,127 @@ class ArcQueryTest {
     }
   }
 
+  @Nested
+  class Stream_Output_Tests {
+
+    private ArcQuery createQuery() {
+      var instance = new SopInstance("1.2.3.4.5.1", "1.2.840.10008.5.1.4.1.1.2", 1);
+      var series = new Series("1.2.3.4.5");
+      series.setModality("CT");
+      series.addSopInstance(instance);
+      series.addSopInstance(new SopInstance("1.2.3.4.5.2", 2));
+      var study = new Study("1.2.3.4");
+      study.addSeries(series);
+      var patient = createTestPatient("PAT001", null);
+      patient.addStudy(study);
+      var result = new DefaultQueryResult(List.of(patient), createTestWadoParameters());
+      result.setViewerMessage(ViewerMessage.warn("Warning", "Partial result"));
+      return new ArcQuery(List.of(result), "manifest-1");
+    }
+
+    @Test
+    void xml_stream_matches_the_string_manifest() throws IOException {
+      var query = createQuery();
+      var out = new ByteArrayOutputStream();
+
+      query.writeManifest(out, ManifestFormat.XML, false);
+
+      assertEquals(query.xmlManifest("2.5"), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void gzip_stream_is_complete_without_closing() throws IOException {
+      var query = createQuery();
+      var out = new ByteArrayOutputStream();
+
+      query.writeManifest(out, ManifestFormat.JSON, true);
+
+      try (var in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+        assertEquals(
+            query.jsonManifest("2.5"), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+
+    @Test
+    void cbor_stream_decodes_to_the_json_manifest() throws IOException {
+      var query = createQuery();
+      var out = new ByteArrayOutputStream();
+
+      query.writeManifest(out, ManifestFormat.CBOR, false);
+
+      JsonObject expected;
+      try (var reader = Json.createReader(new StringReader(query.jsonManifest("2.5")))) {
+        expected = reader.readObject();
+      }
+      var in = new ByteArrayInputStream(out.toByteArray());
+      assertEquals(expected, CborDecoder.read(in));
+      assertEquals(-1, in.read());
+      assertTrue(out.size() < query.jsonManifest("2.5").length());
+    }
+
+    @Test
+    void cbor_is_only_available_as_a_stream() {
+      var query = createQuery();
+
+      assertThrows(
+          IllegalArgumentException.class, () -> query.manifest("2.5", ManifestFormat.CBOR));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> query.writeManifest(new StringWriter(), "2.5", ManifestFormat.CBOR));
+    }
+  }
+
+  /** Minimal CBOR decoder for the subset written by {@link CborManifestSerializer}. */
+  private static final class CborDecoder {
+
+    private static final int BREAK = 0xFF;
+
+    static JsonValue read(ByteArrayInputStream in) {
+      int initial = in.read();
+      return switch (initial) {
+        case 0xBF -> readMap(in);
+        case 0x9F -> readArray(in);
+        case 0xF4 -> JsonValue.FALSE;
+        case 0xF5 -> JsonValue.TRUE;
+        default -> Json.createValue(readText(in, initial));
+      };
+    }
+
+    private static JsonObject readMap(ByteArrayInputStream in) {
+      var builder = Json.createObjectBuilder();
+      int initial;
+      while ((initial = in.read()) != BREAK) {
+        builder.add(readText(in, initial), read(in));
+      }
+      return builder.build();
+    }
+
+    private static JsonArray readArray(ByteArrayInputStream in) {
+      var builder = Json.createArrayBuilder();
+      while (true) {
+        in.mark(1);
+        if (in.read() == BREAK) {
+          return builder.build();
+        }
+        in.reset();
+        builder.add(read(in));
+      }
+    }
+
+    private static String readText(ByteArrayInputStream in, int initial) {
+      assertEquals(0x60, initial & 0xE0, "Text string expected");
+      int length = initial & 0x1F;
+      if (length >= 24) {
+        int size = 1 << (length - 24);
+        length = 0;
+        for (int i = 0; i < size; i++) {
+          length = (length << 8) | in.read();
+        }
+      }
+      return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+  }
+
   @Nested
   class Edge_Cases_And_Scenarios_Tests {
 
@@ -274,6 +274,36 @@ class SeriesTest {
       assertTrue(xml.contains("SOPInstanceUID=\"1.2.3.4.7\""));
     }
 
+    @Test
+    void toXml_keeps_the_order_when_instances_are_added_after_a_write() throws IOException {
+      series.addSopInstance(new SopInstance("1.2.3.9.7", 3));
+      series.addSopInstance(new SopInstance("1.2.3.9.5", 1));
+      series.toXml(new StringWriter());
+      series.addSopInstance(new SopInstance("1.2.3.9.6", 2));
+
+      var writer = new StringWriter();
+      series.toXml(writer);
+      String xml = writer.toString();
+
+      int first = xml.indexOf("1.2.3.9.5\"");
+      int second = xml.indexOf("1.2.3.9.6\"");
+      int third = xml.indexOf("1.2.3.9.7\"");
+      assertTrue(first > 0 && first < second && second < third);
+    }
+
+    @Test
+    void toXml_reflects_instances_removed_through_the_entry_set() throws IOException {
+      series.addSopInstance(new SopInstance("1.2.3.4.7", 1));
+      series.addSopInstance(new SopInstance("1.2.3.4.8", 2));
+      series.toXml(new StringWriter());
+      series.getEntrySet().removeIf(e -> e.getValue().getInstanceNumber() == 2);
+
+      var writer = new StringWriter();
+      series.toXml(writer);
+
+      assertFalse(writer.toString().contains("1.2.3.4.8"));
+    }
+
     private void setupCompleteSeries() {
       series.setSeriesDescription(SERIES_DESCRIPTION);
       series.setSeriesNumber(SERIES_NUMBER);
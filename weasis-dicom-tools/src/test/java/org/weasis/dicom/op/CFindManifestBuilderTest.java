@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.op;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.weasis.dicom.mf.ArcQuery;
+import org.weasis.dicom.mf.DefaultQueryResult;
+import org.weasis.dicom.mf.Patient;
+import org.weasis.dicom.mf.Study;
+import org.weasis.dicom.mf.ViewerMessage;
+import org.weasis.dicom.mf.WadoParameters;
+import org.weasis.dicom.param.DicomNode;
+import org.weasis.dicom.param.DicomParam;
+import org.weasis.dicom.param.DicomState;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class CFindManifestBuilderTest {
+
+  private static final WadoParameters WADO = new WadoParameters("http://wado", false);
+
+  /** Archive of two studies: 1.1 with series 1.1.1 (2 instances) and 1.1.2, 1.2 with 1.2.1. */
+  private static DicomState archive(QueryRetrieveLevel level, DicomParam... keys) {
+    var state = new DicomState(Status.Success, null, null);
+    switch (level) {
+      case STUDY -> {
+        state.addDicomRSP(dataset(Tag.StudyInstanceUID, "1.1", Tag.PatientID, "P1"));
+        state.addDicomRSP(dataset(Tag.StudyInstanceUID, "1.2", Tag.PatientID, "P1"));
+      }
+      case SERIES -> {
+        String studyUID = value(keys, Tag.StudyInstanceUID);
+        int count = studyUID.equals("1.1") ? 2 : 1;
+        for (int i = 1; i <= count; i++) {
+          state.addDicomRSP(
+              dataset(Tag.SeriesInstanceUID, studyUID + "." + i, Tag.Modality, "CT"));
+        }
+      }
+      case IMAGE -> {
+        String seriesUID = value(keys, Tag.SeriesInstanceUID);
+        int count = seriesUID.equals("1.1.1") ? 2 : 1;
+        for (int i = 1; i <= count; i++) {
+          state.addDicomRSP(
+              dataset(Tag.SOPInstanceUID, seriesUID + "." + i, Tag.InstanceNumber, "" + i));
+        }
+      }
+      default -> fail("Unexpected level " + level);
+    }
+    return state;
+  }
+
+  private static Attributes dataset(int tag1, String value1, int tag2, String value2) {
+    var attributes = new Attributes();
+    attributes.setString(tag1, VR.UI, value1);
+    attributes.setString(tag2, tag2 == Tag.InstanceNumber ? VR.IS : VR.LO, value2);
+    return attributes;
+  }
+
+  private static String value(DicomParam[] keys, int tag) {
+    return Arrays.stream(keys)
+        .filter(key -> key.getTag() == tag)
+        .map(key -> key.getValues()[0])
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Nested
+  class Build_Tests {
+
+    @Test
+    void builds_the_hierarchy_with_one_query_per_study_and_series() throws Exception {
+      var queries = new AtomicInteger();
+      var builder =
+          new CFindManifestBuilder(
+              (level, keys) -> {
+                queries.incrementAndGet();
+                return archive(level, keys);
+              });
+
+      ArcQuery manifest = builder.build(WADO, new DicomParam(Tag.PatientID, "P1"));
+
+      assertEquals(1 + 2 + 3, queries.get());
+      var result = (DefaultQueryResult) manifest.getQueryList().get(0);
+      Patient patient = result.getPatient("P1", null);
+      Study study = patient.getStudy("1.1");
+      assertEquals(2, study.getSeries("1.1.1").getSopInstances().size());
+      assertEquals("CT", study.getSeries("1.1.2").getModality());
+      assertEquals(1, patient.getStudy("1.2").getSeries("1.2.1").getSopInstances().size());
+      assertTrue(result.getViewerMessages().isEmpty());
+    }
+
+    @Test
+    void adds_the_return_keys_to_the_study_query() throws Exception {
+      List<DicomParam> studyKeys = new ArrayList<>();
+      var builder =
+          new CFindManifestBuilder(
+              (level, keys) -> {
+                if (level == QueryRetrieveLevel.STUDY) {
+                  studyKeys.addAll(List.of(keys));
+                }
+                return new DicomState(Status.Success, null, null);
+              });
+
+      builder.fill(new DefaultQueryResult(WADO), new DicomParam(Tag.PatientID, "P1"));
+
+      assertTrue(studyKeys.contains(CFind.StudyInstanceUID));
+      assertEquals("P1", value(studyKeys.toArray(DicomParam[]::new), Tag.PatientID));
+      assertEquals(1, studyKeys.stream().filter(k -> k.getTag() == Tag.PatientID).count());
+    }
+
+    @Test
+    void notifies_each_completed_series() throws Exception {
+      List<String> completed = Collections.synchronizedList(new ArrayList<>());
+      var builder =
+          new CFindManifestBuilder(CFindManifestBuilderTest::archive)
+              .setMaxAssociations(2)
+              .setSeriesListener(
+                  (patient, study, series) -> {
+                    assertEquals("P1", patient.getPatientID());
+                    assertSame(series, study.getSeries(series.getSeriesInstanceUID()));
+                    completed.add(series.getSeriesInstanceUID());
+                  });
+
+      builder.build(WADO);
+
+      assertEquals(List.of("1.1.1", "1.1.2", "1.2.1"), completed.stream().sorted().toList());
+    }
+
+    @Test
+    void reports_a_failed_query_as_viewer_message() throws Exception {
+      var builder =
+          new CFindManifestBuilder(
+              (level, keys) -> {
+                if (level == QueryRetrieveLevel.SERIES
+                    && value(keys, Tag.StudyInstanceUID).equals("1.2")) {
+                  return new DicomState(Status.UnableToProcess, "Association rejected", null);
+                }
+                return archive(level, keys);
+              });
+      var result = new DefaultQueryResult(WADO);
+
+      assertEquals(2, builder.fill(result));
+
+      assertEquals(1, result.getViewerMessages().size());
+      ViewerMessage message = result.getViewerMessage();
+      assertEquals(ViewerMessage.Level.WARN, message.level());
+      assertEquals("Association rejected", message.message());
+      assertEquals(2, result.getPatient("P1", null).getStudy("1.1").getSeries().size());
+    }
+  }
+
+  @Nested
+  class Configuration_Tests {
+
+    @Test
+    void requires_the_nodes() {
+      var node = new DicomNode("SCU");
+      assertThrows(
+          IllegalArgumentException.class, () -> new CFindManifestBuilder(null, node, null));
+    }
+
+    @Test
+    void requires_at_least_one_association() {
+      var builder = new CFindManifestBuilder(CFindManifestBuilderTest::archive);
+      assertEquals(CFindManifestBuilder.DEFAULT_MAX_ASSOCIATIONS, builder.getMaxAssociations());
+      assertThrows(IllegalArgumentException.class, () -> builder.setMaxAssociations(0));
+    }
+  }
+}
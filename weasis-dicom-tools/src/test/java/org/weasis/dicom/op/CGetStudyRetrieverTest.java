@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.op;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.QueryRetrieveLevel;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.weasis.dicom.op.CGetStudyRetriever.SeriesProgress;
+import org.weasis.dicom.param.DicomParam;
+import org.weasis.dicom.param.DicomProgress;
+import org.weasis.dicom.param.DicomState;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class CGetStudyRetrieverTest {
+
+  private static final String STUDY_UID = "1.2.3";
+
+  private final List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+  private final List<SeriesProgress> progress = Collections.synchronizedList(new ArrayList<>());
+  private Set<String> failingInstances = Set.of();
+  private Path outputDir;
+
+  @TempDir Path tempDir;
+
+  /** Study with series 1.2.3.1 (5 instances, listed in reverse order) and 1.2.3.2 (1 instance). */
+  private static DicomState find(QueryRetrieveLevel level, DicomParam... keys) {
+    assertEquals(QueryRetrieveLevel.IMAGE, level);
+    assertArrayEquals(new String[] {STUDY_UID}, values(keys, Tag.StudyInstanceUID));
+    var state = new DicomState(Status.Success, null, null);
+    for (int i = 5; i >= 1; i--) {
+      state.addDicomRSP(instance("1.2.3.1", i));
+    }
+    state.addDicomRSP(instance("1.2.3.2", 1));
+    return state;
+  }
+
+  private static Attributes instance(String seriesUID, int number) {
+    var attributes = new Attributes();
+    attributes.setString(Tag.SeriesInstanceUID, VR.UI, seriesUID);
+    attributes.setString(Tag.SOPInstanceUID, VR.UI, seriesUID + "." + number);
+    attributes.setInt(Tag.InstanceNumber, VR.IS, number);
+    return attributes;
+  }
+
+  private static String[] values(DicomParam[] keys, int tag) {
+    return Arrays.stream(keys)
+        .filter(k -> k.getTag() == tag)
+        .findFirst()
+        .map(DicomParam::getValues)
+        .orElse(null);
+  }
+
+  private DicomState get(DicomProgress dicomProgress, DicomParam... keys) {
+    assertArrayEquals(new String[] {"IMAGE"}, values(keys, Tag.QueryRetrieveLevel));
+    List<String> uids = List.of(values(keys, Tag.SOPInstanceUID));
+    String seriesUID = values(keys, Tag.SeriesInstanceUID)[0];
+    uids.forEach(uid -> assertTrue(uid.startsWith(seriesUID + ".")));
+    requests.add(uids);
+    if (outputDir != null) {
+      for (String uid : uids) {
+        try {
+          InstanceCacheTest.writeInstance(outputDir, uid, UID.ExplicitVRLittleEndian);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+
+    int failed = (int) uids.stream().filter(failingInstances::contains).count();
+    var rsp = new Attributes();
+    rsp.setInt(Tag.Status, VR.US, failed == 0 ? Status.Success : Status.OneOrMoreFailures);
+    rsp.setInt(Tag.NumberOfCompletedSuboperations, VR.US, uids.size() - failed);
+    rsp.setInt(Tag.NumberOfFailedSuboperations, VR.US, failed);
+    rsp.setInt(Tag.NumberOfRemainingSuboperations, VR.US, 0);
+    dicomProgress.setAttributes(rsp);
+    return new DicomState(rsp.getInt(Tag.Status, 0), null, dicomProgress);
+  }
+
+  private CGetStudyRetriever newRetriever() {
+    return new CGetStudyRetriever(CGetStudyRetrieverTest::find, this::get, outputDir)
+        .setSeriesProgressListener(progress::add);
+  }
+
+  @Nested
+  class Request_ordering {
+
+    @Test
+    void retrieves_the_middle_instance_of_each_series_first() throws Exception {
+      var state = newRetriever().setMaxAssociations(1).retrieve(STUDY_UID);
+
+      assertEquals(Status.Success, state.getStatus());
+      assertEquals(List.of("1.2.3.1.3"), requests.get(0));
+      assertEquals(List.of("1.2.3.2.1"), requests.get(1));
+      assertEquals(List.of("1.2.3.1.1", "1.2.3.1.2", "1.2.3.1.4", "1.2.3.1.5"), requests.get(2));
+      assertEquals(3, requests.size());
+    }
+
+    @Test
+    void splits_the_other_instances_in_batches() throws Exception {
+      newRetriever().setMaxAssociations(1).setBatchSize(3).retrieve(STUDY_UID);
+
+      assertEquals(4, requests.size());
+      assertEquals(List.of("1.2.3.1.1", "1.2.3.1.2", "1.2.3.1.4"), requests.get(2));
+      assertEquals(List.of("1.2.3.1.5"), requests.get(3));
+    }
+
+    @Test
+    @Timeout(5)
+    void retrieves_each_instance_once_with_concurrent_associations() throws Exception {
+      var state = newRetriever().setMaxAssociations(4).setBatchSize(1).retrieve(STUDY_UID);
+
+      assertEquals(Status.Success, state.getStatus());
+      assertEquals(6, requests.size());
+      assertEquals(6, requests.stream().flatMap(List::stream).distinct().count());
+    }
+
+    @Test
+    void rejects_invalid_settings() {
+      var retriever = newRetriever();
+
+      assertThrows(IllegalArgumentException.class, () -> retriever.setMaxAssociations(0));
+      assertThrows(IllegalArgumentException.class, () -> retriever.setBatchSize(0));
+      assertThrows(IllegalArgumentException.class, () -> retriever.retrieve(""));
+    }
+  }
+
+  @Nested
+  class Progress_and_status {
+
+    @Test
+    void reports_the_progress_of_each_series() throws Exception {
+      newRetriever().setMaxAssociations(1).retrieve(STUDY_UID);
+
+      assertEquals(3, progress.size());
+      assertEquals(new SeriesProgress("1.2.3.1", 5, 1, 0, true), progress.get(0));
+      assertEquals(new SeriesProgress("1.2.3.2", 1, 1, 0, true), progress.get(1));
+      assertTrue(progress.get(1).isDone());
+      assertEquals(new SeriesProgress("1.2.3.1", 5, 5, 0, false), progress.get(2));
+    }
+
+    @Test
+    void reports_partial_failures() throws Exception {
+      failingInstances = Set.of("1.2.3.1.4");
+
+      var state = newRetriever().setMaxAssociations(1).retrieve(STUDY_UID);
+
+      assertEquals(Status.OneOrMoreFailures, state.getStatus());
+      assertEquals(new SeriesProgress("1.2.3.1", 5, 4, 1, false), progress.get(2));
+      assertTrue(state.getMessage().contains("1 failed"));
+    }
+
+    @Test
+    void counts_unreported_instances_as_failed() throws Exception {
+      var retriever =
+          new CGetStudyRetriever(
+              CGetStudyRetrieverTest::find,
+              (p, keys) -> new DicomState(Status.UnableToProcess, "refused", p),
+              null);
+
+      var state = retriever.retrieve(STUDY_UID);
+
+      assertEquals(Status.UnableToProcess, state.getStatus());
+      assertTrue(state.getMessage().contains("6 failed"));
+    }
+
+    @Test
+    void returns_the_state_of_a_failed_query() throws Exception {
+      var findState = new DicomState(Status.UnableToProcess, "no association", null);
+      var retriever =
+          new CGetStudyRetriever(
+              (level, keys) -> findState, CGetStudyRetrieverTest.this::get, null);
+
+      assertSame(findState, retriever.retrieve(STUDY_UID));
+      assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    void skips_the_remaining_requests_when_cancelled() throws Exception {
+      var retriever = newRetriever().setMaxAssociations(1);
+      retriever.setSeriesProgressListener(p -> retriever.cancel());
+
+      var state = retriever.retrieve(STUDY_UID);
+
+      assertEquals(Status.Cancel, state.getStatus());
+      assertEquals(1, requests.size());
+    }
+  }
+
+  @Nested
+  class Instance_cache {
+
+    @Test
+    void retrieves_only_the_missing_instances() throws Exception {
+      outputDir = tempDir.resolve("out");
+      try (var cache = InstanceCache.open(tempDir.resolve("cache"), 1_000_000)) {
+        Path in = tempDir.resolve("in");
+        cache.put(InstanceCacheTest.writeInstance(in, "1.2.3.1.3", UID.ExplicitVRLittleEndian));
+        cache.put(InstanceCacheTest.writeInstance(in, "1.2.3.1.5", UID.ExplicitVRLittleEndian));
+
+        var state = newRetriever().setMaxAssociations(1).setCache(cache).retrieve(STUDY_UID);
+
+        assertEquals(Status.Success, state.getStatus());
+        assertEquals(List.of("1.2.3.2.1"), requests.get(0));
+        assertEquals(List.of("1.2.3.1.1", "1.2.3.1.2", "1.2.3.1.4"), requests.get(1));
+        assertEquals(2, requests.size());
+        assertEquals(new SeriesProgress("1.2.3.1", 5, 2, 0, true), progress.get(0));
+        assertTrue(Files.isRegularFile(outputDir.resolve("1.2.3.1.5")));
+        assertEquals(6, cache.size());
+      }
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.op;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomOutputStream;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.weasis.dicom.op.InstanceCache.CachedInstance;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class InstanceCacheTest {
+
+  @TempDir Path tempDir;
+
+  /** Writes a DICOM file of a study 1.2 and a series 1.2.3, with 100 bytes of pixel data. */
+  static Path writeInstance(Path dir, String iuid, String tsuid) throws IOException {
+    var dataset = new Attributes();
+    dataset.setString(Tag.StudyInstanceUID, VR.UI, "1.2");
+    dataset.setString(Tag.SeriesInstanceUID, VR.UI, "1.2.3");
+    dataset.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+    dataset.setBytes(Tag.PixelData, VR.OB, new byte[100]);
+    var fmi = Attributes.createFileMetaInformation(iuid, UID.SecondaryCaptureImageStorage, tsuid);
+    Files.createDirectories(dir);
+    Path file = dir.resolve(iuid);
+    try (var dos = new DicomOutputStream(file.toFile())) {
+      dos.writeDataset(fmi, dataset);
+    }
+    return file;
+  }
+
+  private Path cacheDir() {
+    return tempDir.resolve("cache");
+  }
+
+  @Nested
+  class Storage {
+
+    @Test
+    void keeps_the_instances_by_uid_and_transfer_syntax() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.3.1", UID.ExplicitVRLittleEndian);
+      Path other = writeInstance(tempDir.resolve("jpeg"), "1.2.3.1", UID.JPEGBaseline8Bit);
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        CachedInstance instance = cache.put(source);
+        cache.put(other);
+
+        assertAll(
+            () -> assertEquals("1.2", instance.studyInstanceUID()),
+            () -> assertEquals("1.2.3", instance.seriesInstanceUID()),
+            () -> assertEquals(Files.size(source), instance.size()),
+            () -> assertTrue(Files.isRegularFile(instance.file())),
+            () -> assertTrue(Files.isRegularFile(source)),
+            () -> assertEquals(2, cache.size()),
+            () -> assertTrue(cache.contains("1.2.3.1")),
+            () -> assertFalse(cache.contains("1.2.3.2")),
+            () -> assertEquals(instance, cache.get("1.2.3.1", UID.ExplicitVRLittleEndian)),
+            () -> assertNull(cache.get("1.2.3.1", UID.ImplicitVRLittleEndian)),
+            () -> assertEquals(2, cache.findStudy("1.2").size()),
+            () -> assertTrue(cache.findSeries("9.9").isEmpty()));
+      }
+    }
+
+    @Test
+    void exports_a_cached_instance() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.3.1", UID.ExplicitVRLittleEndian);
+      Path target = tempDir.resolve("out").resolve("1.2.3.1");
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        cache.put(source);
+
+        assertTrue(cache.export("1.2.3.1", target));
+        assertFalse(cache.export("1.2.3.2", tempDir.resolve("none")));
+        assertEquals(Files.size(source), Files.size(target));
+      }
+    }
+
+    @Test
+    void exports_only_the_requested_transfer_syntax() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.3.1", UID.JPEGBaseline8Bit);
+      Path target = tempDir.resolve("out").resolve("1.2.3.1");
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        cache.put(source);
+
+        assertFalse(cache.contains("1.2.3.1", UID.ExplicitVRLittleEndian));
+        assertFalse(cache.export("1.2.3.1", UID.ExplicitVRLittleEndian, target));
+        assertFalse(Files.exists(target));
+        assertTrue(cache.contains("1.2.3.1", UID.JPEGBaseline8Bit));
+        assertTrue(cache.export("1.2.3.1", UID.JPEGBaseline8Bit, target));
+      }
+    }
+
+    @Test
+    void keeps_the_cached_file_when_it_is_modified_outside() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.3.1", UID.ExplicitVRLittleEndian);
+      Path target = tempDir.resolve("out").resolve("1.2.3.1");
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        Path file = cache.put(source).file();
+        long size = Files.size(file);
+        cache.export("1.2.3.1", target);
+        Files.write(source, new byte[1]);
+        Files.write(target, new byte[1]);
+
+        assertEquals(size, Files.size(file));
+      }
+    }
+
+    @Test
+    void puts_again_the_cached_file_itself() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.3.1", UID.ExplicitVRLittleEndian);
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        CachedInstance instance = cache.put(source);
+
+        assertEquals(instance, cache.put(instance.file()));
+        assertTrue(Files.isRegularFile(instance.file()));
+        assertEquals(1, cache.size());
+        assertEquals(instance.size(), cache.getTotalSize());
+      }
+    }
+
+    @Test
+    void removes_an_instance() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.3.1", UID.ExplicitVRLittleEndian);
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        Path file = cache.put(source).file();
+
+        assertTrue(cache.remove("1.2.3.1", UID.ExplicitVRLittleEndian));
+        assertFalse(cache.remove("1.2.3.1", UID.ExplicitVRLittleEndian));
+        assertFalse(Files.exists(file));
+        assertEquals(0, cache.getTotalSize());
+      }
+    }
+
+    @Test
+    void rejects_an_invalid_uid() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.abc", UID.ExplicitVRLittleEndian);
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        assertThrows(IOException.class, () -> cache.put(source));
+      }
+    }
+  }
+
+  @Nested
+  class Eviction {
+
+    @Test
+    void evicts_the_least_recently_used_instances() throws IOException {
+      Path in = tempDir.resolve("in");
+      Path first = writeInstance(in, "1.2.3.1", UID.ExplicitVRLittleEndian);
+      long size = Files.size(first);
+
+      try (var cache = InstanceCache.open(cacheDir(), 2 * size)) {
+        cache.put(first);
+        cache.put(writeInstance(in, "1.2.3.2", UID.ExplicitVRLittleEndian));
+        cache.get("1.2.3.1");
+        cache.put(writeInstance(in, "1.2.3.3", UID.ExplicitVRLittleEndian));
+
+        assertTrue(cache.contains("1.2.3.1"));
+        assertFalse(cache.contains("1.2.3.2"));
+        assertTrue(cache.contains("1.2.3.3"));
+        assertEquals(2 * size, cache.getTotalSize());
+      }
+    }
+
+    @Test
+    void keeps_an_instance_larger_than_the_cache() throws IOException {
+      Path source = writeInstance(tempDir.resolve("in"), "1.2.3.1", UID.ExplicitVRLittleEndian);
+
+      try (var cache = InstanceCache.open(cacheDir(), 1)) {
+        cache.put(source);
+
+        assertTrue(cache.contains("1.2.3.1"));
+      }
+    }
+  }
+
+  @Nested
+  class Index {
+
+    @Test
+    void reloads_the_index_in_the_order_of_recency() throws IOException {
+      Path in = tempDir.resolve("in");
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        cache.put(writeInstance(in, "1.2.3.1", UID.ExplicitVRLittleEndian));
+        cache.put(writeInstance(in, "1.2.3.2", UID.ExplicitVRLittleEndian));
+        cache.put(writeInstance(in, "1.2.3.3", UID.ExplicitVRLittleEndian));
+        cache.remove("1.2.3.3", UID.ExplicitVRLittleEndian);
+        cache.get("1.2.3.1");
+      }
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        List<String> uids =
+            cache.find(i -> true).stream().map(CachedInstance::sopInstanceUID).toList();
+
+        assertEquals(List.of("1.2.3.2", "1.2.3.1"), uids);
+        assertEquals(2, Files.readAllLines(cacheDir().resolve("index.log")).size());
+      }
+    }
+
+    @Test
+    void recovers_from_a_truncated_index_and_missing_files() throws IOException {
+      Path in = tempDir.resolve("in");
+      Path deleted;
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        cache.put(writeInstance(in, "1.2.3.1", UID.ExplicitVRLittleEndian));
+        deleted = cache.put(writeInstance(in, "1.2.3.2", UID.ExplicitVRLittleEndian)).file();
+      }
+      Files.delete(deleted);
+      Files.writeString(cacheDir().resolve("index.log"), "+\t12", StandardOpenOption.APPEND);
+
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        assertEquals(1, cache.size());
+        assertTrue(cache.contains("1.2.3.1"));
+      }
+    }
+
+    @Test
+    void evicts_when_reopened_with_a_smaller_size() throws IOException {
+      Path in = tempDir.resolve("in");
+      long size;
+      try (var cache = InstanceCache.open(cacheDir(), 1_000_000)) {
+        size = cache.put(writeInstance(in, "1.2.3.1", UID.ExplicitVRLittleEndian)).size();
+        cache.put(writeInstance(in, "1.2.3.2", UID.ExplicitVRLittleEndian));
+      }
+
+      try (var cache = InstanceCache.open(cacheDir(), size)) {
+        assertEquals(1, cache.size());
+        assertTrue(cache.contains("1.2.3.2"));
+      }
+    }
+  }
+}
@@ -15,6 +15,8 @@ import static org.mockito.Mockito.*;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import org.dcm4che3.data.Attributes;
@@ -223,6 +225,82 @@ class CstoreParamsTest {
     }
   }
 
+  @Nested
+  class Scan_options {
+
+    @Test
+    void uses_default_scan_threads_without_index() {
+      var params = new CstoreParams(null);
+
+      assertEquals(CstoreParams.DEFAULT_SCAN_THREADS, params.getScanThreads());
+      assertNull(params.getScanIndex());
+    }
+
+    @Test
+    void with_methods_return_a_modified_copy() throws MalformedURLException {
+      var url = URI.create(TEST_URL).toURL();
+      var params = new CstoreParams(createTestEditors(), true, url);
+      var index = Path.of("scan.idx");
+
+      var modified = params.withScanThreads(3).withScanIndex(index);
+
+      assertEquals(3, modified.getScanThreads());
+      assertEquals(index, modified.getScanIndex());
+      assertEquals(params.getDicomEditors(), modified.getDicomEditors());
+      assertEquals(url, modified.getExtendSopClassesURL());
+      assertNull(params.getScanIndex());
+      assertNotEquals(params, modified);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void rejects_invalid_scan_threads(int threads) {
+      var params = new CstoreParams(null);
+
+      assertThrows(IllegalArgumentException.class, () -> params.withScanThreads(threads));
+    }
+  }
+
+  @Nested
+  class Journal_options {
+
+    @Test
+    void uses_default_retries_without_journal() {
+      var params = new CstoreParams(null);
+
+      assertNull(params.getJournal());
+      assertEquals(CstoreParams.DEFAULT_MAX_RETRIES, params.getMaxRetries());
+      assertEquals(CstoreParams.DEFAULT_RETRY_DELAY, params.getRetryDelay());
+    }
+
+    @Test
+    void with_methods_return_a_modified_copy() {
+      var params = new CstoreParams(createTestEditors(), false, null).withScanThreads(2);
+      var journal = Path.of("transfer.journal");
+
+      var modified = params.withJournal(journal).withRetries(0, Duration.ofMillis(100));
+
+      assertEquals(journal, modified.getJournal());
+      assertEquals(0, modified.getMaxRetries());
+      assertEquals(Duration.ofMillis(100), modified.getRetryDelay());
+      assertEquals(2, modified.getScanThreads());
+      assertEquals(params.getDicomEditors(), modified.getDicomEditors());
+      assertNull(params.getJournal());
+      assertNotEquals(params, modified);
+      assertEquals(modified, params.withJournal(journal).withRetries(0, Duration.ofMillis(100)));
+    }
+
+    @Test
+    void rejects_invalid_retries() {
+      var params = new CstoreParams(null);
+
+      assertThrows(IllegalArgumentException.class, () -> params.withRetries(-1, Duration.ZERO));
+      assertThrows(
+          IllegalArgumentException.class, () -> params.withRetries(1, Duration.ofSeconds(-1)));
+      assertThrows(NullPointerException.class, () -> params.withRetries(1, null));
+    }
+  }
+
   @Nested
   class Equals_and_hash_code {
 
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.param;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.dcm4che3.net.Device;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DicomExecutionRuntimeTest {
+
+  private DicomExecutionRuntime runtime;
+
+  @AfterEach
+  void tearDown() {
+    DicomExecutionRuntime.setShared(null);
+    if (runtime != null) {
+      runtime.close();
+    }
+  }
+
+  @Nested
+  class Runtime_configuration {
+
+    @Test
+    void uses_virtual_threads_when_the_jvm_supports_them() {
+      runtime = DicomExecutionRuntime.builder().build();
+
+      assertEquals(Runtime.version().feature() >= 21, runtime.isVirtualThreads());
+    }
+
+    @Test
+    void uses_platform_threads_when_virtual_threads_are_disabled() {
+      runtime = DicomExecutionRuntime.builder().name("pacs").virtualThreads(false).build();
+
+      assertFalse(runtime.isVirtualThreads());
+      assertEquals("pacs", runtime.getName());
+    }
+
+    @Test
+    void rejects_invalid_sizes() {
+      var builder = DicomExecutionRuntime.builder();
+
+      assertThrows(IllegalArgumentException.class, () -> builder.maxThreads(-1));
+      assertThrows(IllegalArgumentException.class, () -> builder.schedulerThreads(0));
+    }
+
+    @Test
+    void close_uninstalls_the_shared_runtime() {
+      runtime = DicomExecutionRuntime.builder().build();
+      DicomExecutionRuntime.setShared(runtime);
+
+      runtime.close();
+
+      assertNull(DicomExecutionRuntime.getShared());
+      assertThrows(IllegalStateException.class, () -> runtime.newOperationExecutor("op"));
+    }
+  }
+
+  @Nested
+  class Operation_executor {
+
+    @Test
+    @Timeout(5)
+    void reports_active_and_queued_tasks() throws Exception {
+      runtime = DicomExecutionRuntime.builder().virtualThreads(false).maxThreads(1).build();
+      var view = runtime.newOperationExecutor("find");
+      var started = new CountDownLatch(1);
+      var release = new CountDownLatch(1);
+
+      view.execute(
+          () -> {
+            started.countDown();
+            await(release);
+          });
+      view.execute(() -> {});
+      assertTrue(started.await(1, TimeUnit.SECONDS));
+
+      var metrics = view.getMetrics();
+      assertEquals("find", metrics.name());
+      assertEquals(1, metrics.activeTasks());
+      assertEquals(1, metrics.queuedTasks());
+      assertEquals(1, runtime.getOperationMetrics().size());
+
+      release.countDown();
+      view.shutdown();
+      assertTrue(view.awaitTermination(1, TimeUnit.SECONDS));
+      assertEquals(2, view.getMetrics().completed());
+      assertTrue(runtime.getOperationMetrics().isEmpty());
+    }
+
+    @Test
+    @Timeout(5)
+    void shutdown_now_interrupts_only_its_own_tasks() throws Exception {
+      runtime = DicomExecutionRuntime.builder().build();
+      var view = runtime.newOperationExecutor("get");
+      var other = runtime.newOperationExecutor("store");
+      var started = new CountDownLatch(2);
+      var interrupted = new AtomicBoolean();
+      var otherRelease = new CountDownLatch(1);
+
+      view.execute(
+          () -> {
+            started.countDown();
+            try {
+              Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+              interrupted.set(true);
+            }
+          });
+      other.execute(
+          () -> {
+            started.countDown();
+            await(otherRelease);
+          });
+      assertTrue(started.await(1, TimeUnit.SECONDS));
+
+      view.shutdownNow();
+
+      assertTrue(view.awaitTermination(1, TimeUnit.SECONDS));
+      assertTrue(interrupted.get());
+      assertFalse(other.isShutdown());
+      assertEquals(1, runtime.getMetrics().activeTasks());
+      assertThrows(RejectedExecutionException.class, () -> view.execute(() -> {}));
+      otherRelease.countDown();
+    }
+
+    @Test
+    @Timeout(5)
+    void a_cancelled_task_does_not_interrupt_the_next_operation() throws Exception {
+      runtime = DicomExecutionRuntime.builder().virtualThreads(false).maxThreads(1).build();
+      var cancelled = runtime.newOperationExecutor("get");
+      var started = new CountDownLatch(1);
+      Future<?> task =
+          cancelled.submit(
+              () -> {
+                started.countDown();
+                // Restores the interrupt status when interrupted, as a well-behaved task does
+                await(new CountDownLatch(1));
+              });
+      assertTrue(started.await(1, TimeUnit.SECONDS));
+      task.cancel(true);
+      cancelled.shutdown();
+      assertTrue(cancelled.awaitTermination(1, TimeUnit.SECONDS));
+
+      var next = runtime.newOperationExecutor("store");
+      Future<Boolean> interrupted = next.submit(() -> Thread.currentThread().isInterrupted());
+
+      assertFalse(interrupted.get(1, TimeUnit.SECONDS));
+    }
+  }
+
+  @Nested
+  class Device_op_service {
+
+    @Test
+    void borrows_the_executors_of_the_runtime() {
+      runtime = DicomExecutionRuntime.builder().build();
+      var device = new Device("borrower");
+      var service = new DeviceOpService(device, runtime);
+
+      service.start();
+
+      assertAll(
+          () -> assertTrue(service.isRunning()),
+          () -> assertInstanceOf(OperationExecutor.class, device.getExecutor()),
+          () -> assertSame(runtime.getScheduler(), device.getScheduledExecutor()),
+          () -> assertEquals("borrower", service.getMetrics().name()));
+
+      service.stop();
+
+      assertAll(
+          () -> assertFalse(service.isRunning()),
+          () -> assertFalse(runtime.getScheduler().isShutdown()),
+          () -> assertTrue(runtime.getOperationMetrics().isEmpty()));
+    }
+
+    @Test
+    void uses_the_shared_runtime_by_default() {
+      runtime = DicomExecutionRuntime.builder().build();
+      DicomExecutionRuntime.setShared(runtime);
+
+      var service = new DeviceOpService(new Device("shared"));
+
+      assertSame(runtime, service.getRuntime());
+    }
+
+    @Test
+    void shutting_down_the_device_scheduler_keeps_the_shared_one_running() throws Exception {
+      runtime = DicomExecutionRuntime.builder().build();
+      var device = new Device("scheduler");
+      var service = new DeviceOpService(device, runtime);
+      service.start();
+
+      device.getScheduledExecutor().shutdown();
+      service.stop();
+
+      var latch = new CountDownLatch(1);
+      runtime.getScheduler().schedule(latch::countDown, 10, TimeUnit.MILLISECONDS);
+      assertTrue(latch.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void has_no_metrics_with_dedicated_executors() {
+      var service = new DeviceOpService(new Device("dedicated"), null);
+      service.start();
+      try {
+        assertNull(service.getRuntime());
+        assertNull(service.getMetrics());
+      } finally {
+        service.stop();
+      }
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -16,15 +16,21 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 import javax.imageio.ImageIO;
 import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Fragments;
 import org.dcm4che3.data.Tag;
 import org.dcm4che3.data.UID;
 import org.dcm4che3.data.VR;
+import org.dcm4che3.data.Value;
+import org.dcm4che3.imageio.codec.jpeg.JPEGParser;
 import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.util.ByteUtils;
 import org.dcm4che3.util.UIDUtils;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayNameGeneration;
@@ -309,6 +315,38 @@ class DicomizerTest {
       assertTrue(Files.exists(dcmFile));
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void jpeg_fragment_contains_the_source_code_stream(boolean noAPPn) throws Exception {
+      var jpegFile = createTestJpegFile();
+      var dcmFile = tempDir.resolve("test_fragment_" + noAPPn + ".dcm");
+
+      Dicomizer.jpeg(createBasicAttributes(), jpegFile, dcmFile, noAPPn);
+
+      byte[] source = Files.readAllBytes(jpegFile);
+      byte[] expected;
+      try (var channel = Files.newByteChannel(jpegFile)) {
+        var parser = new JPEGParser(channel);
+        if (noAPPn && parser.getPositionAfterAPPSegments() > 0) {
+          byte[] codeStream =
+              Arrays.copyOfRange(source, (int) parser.getPositionAfterAPPSegments(), source.length);
+          expected = new byte[codeStream.length + 2];
+          expected[0] = (byte) 0xFF;
+          expected[1] = (byte) 0xD8;
+          System.arraycopy(codeStream, 0, expected, 2, codeStream.length);
+        } else {
+          expected =
+              Arrays.copyOfRange(source, (int) parser.getCodeStreamPosition(), source.length);
+        }
+      }
+
+      var fragments = (Fragments) readDicomAttributes(dcmFile).getValue(Tag.PixelData);
+      assertEquals(2, fragments.size(), "Expected an empty offset table and a single fragment");
+      byte[] fragment = (byte[]) fragments.get(1);
+      assertEquals((expected.length + 1) & ~1, fragment.length);
+      assertArrayEquals(expected, Arrays.copyOf(fragment, expected.length));
+    }
+
     @Test
     void jpeg_preserves_image_specific_attributes() throws IOException, URISyntaxException {
       var attrs = createBasicAttributes();
@@ -326,6 +364,62 @@ class DicomizerTest {
     }
   }
 
+  @Nested
+  class Multi_Frame_Encapsulation_Tests {
+
+    @Test
+    void jpeg_frames_creates_one_fragment_per_frame_with_offset_table() throws Exception {
+      var jpegFile = createTestJpegFile();
+      var attrs = createBasicAttributes();
+      var dcmFile = tempDir.resolve("multiframe.dcm");
+
+      Dicomizer.jpegFrames(attrs, List.of(jpegFile, jpegFile, jpegFile), dcmFile, false);
+
+      var dataset = readDicomAttributes(dcmFile);
+      assertEquals(3, dataset.getInt(Tag.NumberOfFrames, 0));
+      assertEquals(
+          UID.MultiFrameTrueColorSecondaryCaptureImageStorage, dataset.getString(Tag.SOPClassUID));
+      assertEquals(Tag.PageNumberVector, dataset.getInt(Tag.FrameIncrementPointer, 0));
+
+      var fragments = (Fragments) dataset.getValue(Tag.PixelData);
+      assertEquals(4, fragments.size());
+      byte[] offsetTable = (byte[]) fragments.get(0);
+      assertEquals(12, offsetTable.length);
+      long frameItemLength = 8L + ((byte[]) fragments.get(1)).length;
+      for (int i = 0; i < 3; i++) {
+        assertEquals(i * frameItemLength, ByteUtils.bytesToIntLE(offsetTable, i * 4));
+        assertArrayEquals((byte[]) fragments.get(1), (byte[]) fragments.get(i + 1));
+      }
+    }
+
+    @Test
+    void jpeg_frames_reads_images_of_a_directory_sorted_by_name() throws Exception {
+      var frameDir = Files.createDirectories(tempDir.resolve("frames"));
+      Files.copy(createTestJpegFile(), frameDir.resolve("img002.jpg"));
+      Files.copy(createTestJpegFile(), frameDir.resolve("img001.JPG"));
+      Files.writeString(frameDir.resolve("notes.txt"), "not a frame");
+      var dcmFile = tempDir.resolve("multiframe_dir.dcm");
+
+      Dicomizer.jpegFrames(createBasicAttributes(), frameDir, dcmFile, false);
+
+      assertEquals(2, readDicomAttributes(dcmFile).getInt(Tag.NumberOfFrames, 0));
+    }
+
+    @Test
+    void jpeg_frames_rejects_frames_with_different_parameters() throws URISyntaxException {
+      var j2kResource =
+          getClass().getResource("/org/dcm4che3/imageio/codec/jpeg/readable/p0_16.j2k");
+      assertNotNull(j2kResource);
+      var frames = List.of(createTestJpegFile(), Path.of(j2kResource.toURI()));
+      var dcmFile = tempDir.resolve("multiframe_mismatch.dcm");
+
+      assertThrows(
+          IOException.class,
+          () -> Dicomizer.jpegFrames(createBasicAttributes(), frames, dcmFile, false));
+      assertFalse(Files.exists(dcmFile));
+    }
+  }
+
   @Nested
   class JPEG_Conversion_Utility_Tests {
 
@@ -447,6 +541,42 @@ class DicomizerTest {
       assertDoesNotThrow(() -> Dicomizer.mpeg2(attrs, invalidFile, dcmFile));
       assertFalse(Files.exists(dcmFile));
     }
+
+    @Test
+    void mpeg2_segments_hold_one_fragment_starting_at_a_sequence_header() throws Exception {
+      List<Long> cuts = new ArrayList<>();
+      Path mpegFile = Mpeg2SegmenterTest.writeStream(tempDir, false, cuts);
+      byte[] stream = Files.readAllBytes(mpegFile);
+
+      List<Path> dcmFiles =
+          Dicomizer.mpeg2Segments(
+              createBasicDicomAttributes(),
+              mpegFile,
+              tempDir.resolve("segments"),
+              Duration.ofSeconds(1));
+
+      // 25 fps: a segment needs 25 pictures, i.e. three GOPs of 12 pictures
+      long[] bounds = {0, cuts.get(3), cuts.get(6), cuts.get(9), stream.length};
+      int[] frames = {36, 36, 36, 12};
+      assertEquals(4, dcmFiles.size());
+      for (int i = 0; i < dcmFiles.size(); i++) {
+        var dataset = readDicomAttributes(dcmFiles.get(i));
+        assertEquals(i + 1, dataset.getInt(Tag.InstanceNumber, 0));
+        assertEquals(frames[i], dataset.getInt(Tag.NumberOfFrames, 0));
+
+        var fragments = (Fragments) dataset.getValue(Tag.PixelData);
+        assertEquals(2, fragments.size(), "Expected an offset table and a single fragment");
+        Object offsetTable = fragments.get(0);
+        assertTrue(
+            offsetTable == Value.NULL || offsetTable instanceof byte[] b && b.length == 0,
+            "Expected an empty Basic Offset Table");
+        byte[] expected = Arrays.copyOfRange(stream, (int) bounds[i], (int) bounds[i + 1]);
+        byte[] fragment = (byte[]) fragments.get(1);
+        assertArrayEquals(new byte[] {0, 0, 1, (byte) 0xB3}, Arrays.copyOf(fragment, 4));
+        assertEquals((expected.length + 1) & ~1, fragment.length);
+        assertArrayEquals(expected, Arrays.copyOf(fragment, expected.length));
+      }
+    }
   }
 
   @Nested
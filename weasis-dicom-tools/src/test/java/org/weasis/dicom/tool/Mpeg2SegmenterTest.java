@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.tool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class Mpeg2SegmenterTest {
+
+  private static final int GOP_COUNT = 10;
+  private static final int PICTURES_PER_GOP = 12;
+
+  @TempDir Path tempDir;
+
+  @Test
+  void elementary_stream_is_cut_at_sequence_headers() throws IOException {
+    List<Long> sequenceHeaders = new ArrayList<>();
+    Path file = writeStream(tempDir, false, sequenceHeaders);
+
+    List<Mpeg2Segmenter.Segment> segments = split(file, Duration.ofSeconds(1));
+
+    // 25 fps: a segment needs 25 pictures, i.e. three GOPs of 12 pictures
+    assertEquals(4, segments.size());
+    assertSegment(segments.get(0), 0, sequenceHeaders.get(3), 36);
+    assertSegment(segments.get(1), sequenceHeaders.get(3), sequenceHeaders.get(6), 36);
+    assertSegment(segments.get(2), sequenceHeaders.get(6), sequenceHeaders.get(9), 36);
+    assertSegment(segments.get(3), sequenceHeaders.get(9), Files.size(file), 12);
+  }
+
+  @Test
+  void program_stream_is_cut_at_pack_headers() throws IOException {
+    List<Long> packHeaders = new ArrayList<>();
+    Path file = writeStream(tempDir, true, packHeaders);
+
+    List<Mpeg2Segmenter.Segment> segments = split(file, Duration.ofMillis(2000));
+
+    assertEquals(2, segments.size());
+    assertSegment(segments.get(0), 0, packHeaders.get(5), 60);
+    assertSegment(segments.get(1), packHeaders.get(5), Files.size(file), 60);
+  }
+
+  @Test
+  void stream_shorter_than_the_duration_is_a_single_segment() throws IOException {
+    Path file = writeStream(tempDir, false, new ArrayList<>());
+
+    List<Mpeg2Segmenter.Segment> segments = split(file, Duration.ofMinutes(1));
+
+    assertEquals(1, segments.size());
+    assertSegment(segments.get(0), 0, Files.size(file), GOP_COUNT * PICTURES_PER_GOP);
+  }
+
+  private static List<Mpeg2Segmenter.Segment> split(Path file, Duration duration)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(file)) {
+      return Mpeg2Segmenter.split(channel, 0, duration);
+    }
+  }
+
+  private static void assertSegment(
+      Mpeg2Segmenter.Segment segment, long start, long end, int frames) {
+    assertEquals(start, segment.start());
+    assertEquals(end, segment.end());
+    assertEquals(frames, segment.frames());
+  }
+
+  /**
+   * Writes a 352x288 stream at 25 fps made of GOPs starting with a sequence header. Each GOP of a
+   * program stream is preceded by a pack header. The positions of the headers where a cut is
+   * possible are added to {@code cuts}.
+   */
+  static Path writeStream(Path dir, boolean programStream, List<Long> cuts) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int gop = 0; gop < GOP_COUNT; gop++) {
+      if (programStream) {
+        cuts.add((long) out.size());
+        out.writeBytes(new byte[] {0, 0, 1, (byte) 0xBA, 0x44, 0, 4, 0, 4, 1});
+        out.writeBytes(new byte[] {0, 0, 1, (byte) 0xE0, 0, 0});
+      } else {
+        cuts.add((long) out.size());
+      }
+      // Sequence header: 352x288, aspect ratio 1:1, frame_rate_code 3 (25 fps)
+      out.writeBytes(new byte[] {0, 0, 1, (byte) 0xB3, 0x16, 0x01, 0x20, 0x13});
+      out.writeBytes(new byte[] {0, 0, 1, (byte) 0xB8, 0, 8, 0, 0});
+      for (int picture = 0; picture < PICTURES_PER_GOP; picture++) {
+        out.writeBytes(new byte[] {0, 0, 1, 0, 0, 0x0F, (byte) 0xFF, (byte) 0xF8});
+        out.writeBytes(new byte[] {0, 0, 1, 1, 0x55, 0x55, 0x55, 0x55});
+      }
+    }
+    out.writeBytes(new byte[] {0, 0, 1, (byte) 0xB7});
+    Path file = dir.resolve(programStream ? "stream.mpg" : "stream.m2v");
+    Files.write(file, out.toByteArray());
+    return file;
+  }
+}
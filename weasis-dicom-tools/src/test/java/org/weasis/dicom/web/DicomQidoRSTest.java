@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.weasis.dicom.mf.DefaultQueryResult;
+import org.weasis.dicom.mf.Patient;
+import org.weasis.dicom.mf.Series;
+import org.weasis.dicom.mf.Study;
+import org.weasis.dicom.mf.WadoParameters;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DicomQidoRSTest {
+
+  private static String study(String patientID, String studyUID) {
+    return "{\"00100020\":{\"vr\":\"LO\",\"Value\":[\"%s\"]},"
+            .formatted(patientID)
+        + "\"00100010\":{\"vr\":\"PN\",\"Value\":[{\"Alphabetic\":\"Doe^John\"}]},"
+        + "\"0020000D\":{\"vr\":\"UI\",\"Value\":[\"%s\"]}}".formatted(studyUID);
+  }
+
+  private static String series(String seriesUID, String modality) {
+    return "{\"0020000E\":{\"vr\":\"UI\",\"Value\":[\"%s\"]},".formatted(seriesUID)
+        + "\"00080060\":{\"vr\":\"CS\",\"Value\":[\"%s\"]}}".formatted(modality);
+  }
+
+  private static String instance(String seriesUID, String sopUID, int number) {
+    return "{\"0020000E\":{\"vr\":\"UI\",\"Value\":[\"%s\"]},".formatted(seriesUID)
+        + "\"00080016\":{\"vr\":\"UI\",\"Value\":[\"1.2.840.10008.5.1.4.1.1.2\"]},"
+        + "\"00080018\":{\"vr\":\"UI\",\"Value\":[\"%s\"]},".formatted(sopUID)
+        + "\"00200013\":{\"vr\":\"IS\",\"Value\":[%d]}}".formatted(number);
+  }
+
+  private static String array(String... datasets) {
+    return "[" + String.join(",", datasets) + "]";
+  }
+
+  @Nested
+  class Json_Parsing_Tests {
+
+    @Test
+    void reads_each_dataset_of_the_array() throws IOException {
+      var body = array(study("P1", "1.1"), study("P2", "1.2"));
+      List<Attributes> datasets = new ArrayList<>();
+
+      int count =
+          DicomQidoRS.readDatasets(
+              new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), datasets::add);
+
+      assertEquals(2, count);
+      assertEquals("P1", datasets.get(0).getString(Tag.PatientID));
+      assertEquals("Doe^John", datasets.get(0).getString(Tag.PatientName));
+      assertEquals("1.2", datasets.get(1).getString(Tag.StudyInstanceUID));
+    }
+
+    @Test
+    void rejects_invalid_json() {
+      var body = new ByteArrayInputStream("[{\"00100020\":".getBytes(StandardCharsets.UTF_8));
+
+      assertThrows(IOException.class, () -> DicomQidoRS.readDatasets(body, dataset -> {}));
+    }
+  }
+
+  @Nested
+  class Http_Search_Tests {
+
+    private HttpServer server;
+    private final Map<String, List<String>> resources = new ConcurrentHashMap<>();
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    private volatile int maxResults = Integer.MAX_VALUE;
+    private volatile boolean ignoreOffset;
+
+    @BeforeEach
+    void startServer() throws IOException {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      server.createContext(
+          "/dicom-web",
+          exchange -> {
+            var uri = exchange.getRequestURI();
+            queries.add(uri.getPath() + "?" + uri.getQuery());
+            String path = uri.getPath().substring("/dicom-web".length());
+            List<String> datasets = resources.getOrDefault(path, List.of());
+            Map<String, String> params = parseQuery(uri.getQuery());
+            int offset = ignoreOffset ? 0 : Integer.parseInt(params.getOrDefault("offset", "0"));
+            int limit =
+                Math.min(maxResults, Integer.parseInt(params.getOrDefault("limit", "1000")));
+            var page =
+                datasets.subList(
+                    Math.min(offset, datasets.size()), Math.min(offset + limit, datasets.size()));
+            if (page.isEmpty()) {
+              exchange.sendResponseHeaders(204, -1);
+            } else {
+              byte[] body = array(page.toArray(String[]::new)).getBytes(StandardCharsets.UTF_8);
+              exchange.getResponseHeaders().add("Content-Type", "application/dicom+json");
+              int remaining = datasets.size() - offset - page.size();
+              if (page.size() == maxResults && remaining > 0) {
+                exchange
+                    .getResponseHeaders()
+                    .add(
+                        "Warning",
+                        "299 localhost: \"There are %d additional results that can be requested\""
+                            .formatted(remaining));
+              }
+              exchange.sendResponseHeaders(200, body.length);
+              exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+          });
+      server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+      server.stop(0);
+    }
+
+    private DicomQidoRS createClient(int pageSize) {
+      var address = server.getAddress();
+      String host = address.getAddress().getHostAddress();
+      return new DicomQidoRS(
+          DicomWadoConfig.builder()
+              .baseUrl("http://" + host + ":" + address.getPort() + "/dicom-web")
+              .httpVersion(HttpClient.Version.HTTP_1_1)
+              .build(),
+          pageSize);
+    }
+
+    @Test
+    void builds_the_query_uri_with_encoded_keys() {
+      try (var client = createClient(DicomQidoRS.DEFAULT_PAGE_SIZE);
+          var unpaged = createClient(0)) {
+        String uri = client.buildUri("/studies", Map.of("PatientName", "Doe^J*"), 2000).toString();
+
+        assertTrue(uri.endsWith("/dicom-web/studies?PatientName=Doe%5EJ*&limit=1000&offset=2000"));
+        assertTrue(unpaged.buildUri("/studies", null, 0).toString().endsWith("/studies"));
+      }
+      assertThrows(IllegalArgumentException.class, () -> createClient(-1));
+    }
+
+    @Test
+    void requests_the_pages_until_an_incomplete_page() throws Exception {
+      resources.put(
+          "/studies", List.of(study("P1", "1.1"), study("P1", "1.2"), study("P2", "2.1")));
+      List<String> studyUIDs = new ArrayList<>();
+
+      try (var client = createClient(2)) {
+        int count =
+            client.searchStudies(
+                Map.of("PatientName", "Doe*"),
+                dataset -> studyUIDs.add(dataset.getString(Tag.StudyInstanceUID)));
+
+        assertEquals(3, count);
+      }
+      assertEquals(List.of("1.1", "1.2", "2.1"), studyUIDs);
+      assertEquals(2, queries.size());
+      assertTrue(queries.get(0).contains("PatientName=Doe*"));
+      assertTrue(queries.get(1).endsWith("limit=2&offset=2"));
+    }
+
+    @Test
+    void stops_when_the_server_ignores_the_offset() throws Exception {
+      resources.put(
+          "/studies", List.of(study("P1", "1.1"), study("P1", "1.2"), study("P2", "2.1")));
+      ignoreOffset = true;
+      List<String> studyUIDs = new ArrayList<>();
+
+      try (var client = createClient(2)) {
+        int count =
+            client.searchStudies(
+                null, dataset -> studyUIDs.add(dataset.getString(Tag.StudyInstanceUID)));
+
+        assertEquals(2, count);
+      }
+      assertEquals(List.of("1.1", "1.2"), studyUIDs);
+      assertEquals(2, queries.size());
+    }
+
+    @Test
+    void continues_after_a_page_limited_by_the_server_with_a_warning() throws Exception {
+      resources.put(
+          "/studies", List.of(study("P1", "1.1"), study("P1", "1.2"), study("P2", "2.1")));
+      maxResults = 2;
+
+      try (var client = createClient(DicomQidoRS.DEFAULT_PAGE_SIZE)) {
+        assertEquals(3, client.searchStudies(null, dataset -> {}));
+      }
+      assertEquals(2, queries.size());
+      assertTrue(queries.get(1).endsWith("limit=1000&offset=2"));
+    }
+
+    @Test
+    void fills_the_query_result_with_one_search_per_level_and_study() throws Exception {
+      resources.put("/studies", List.of(study("P1", "1.1"), study("P1", "1.2")));
+      resources.put("/studies/1.1/series", List.of(series("1.1.1", "CT"), series("1.1.2", "SR")));
+      resources.put(
+          "/studies/1.1/instances",
+          List.of(
+              instance("1.1.1", "1.1.1.1", 1),
+              instance("1.1.1", "1.1.1.2", 2),
+              instance("1.1.2", "1.1.2.1", 1)));
+      resources.put("/studies/1.2/series", List.of(series("1.2.1", "MR")));
+      resources.put("/studies/1.2/instances", List.of(instance("1.2.1", "1.2.1.1", 1)));
+      var result = new DefaultQueryResult(new WadoParameters("http://wado", false));
+
+      try (var client = createClient(DicomQidoRS.DEFAULT_PAGE_SIZE)) {
+        assertEquals(2, client.fillQueryResult(result, Map.of("PatientID", "P1")));
+      }
+
+      assertEquals(5, queries.size());
+      Patient patient = result.getPatient("P1", null);
+      assertEquals("Doe^John", patient.getPatientName());
+      Study study = patient.getStudy("1.1");
+      Series ct = study.getSeries("1.1.1");
+      assertEquals("CT", ct.getModality());
+      assertEquals(2, ct.getSopInstances().size());
+      assertNotNull(ct.getSopInstance("1.1.1.2", 2));
+      assertEquals(1, study.getSeries("1.1.2").getSopInstances().size());
+      assertEquals("MR", patient.getStudy("1.2").getSeries("1.2.1").getModality());
+    }
+
+    @Test
+    void error_status_is_reported_as_http_exception() {
+      server.removeContext("/dicom-web");
+      server.createContext(
+          "/dicom-web",
+          exchange -> {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+          });
+
+      try (var client = createClient(DicomQidoRS.DEFAULT_PAGE_SIZE)) {
+        var e = assertThrows(HttpException.class, () -> client.searchStudies(null, d -> {}));
+        assertEquals(400, e.getStatusCode());
+      }
+    }
+  }
+
+  private static Map<String, String> parseQuery(String query) {
+    Map<String, String> params = new ConcurrentHashMap<>();
+    if (query != null) {
+      for (String param : query.split("&")) {
+        int index = param.indexOf('=');
+        params.put(param.substring(0, index), param.substring(index + 1));
+      }
+    }
+    return params;
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2026 Weasis Team and other contributors.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at https://www.eclipse.org/legal/epl-2.0, or the Apache
+ * License, Version 2.0 which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package org.weasis.dicom.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.UID;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.io.DicomOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.weasis.dicom.web.DicomWadoRS.RetrieveTarget;
+
+@DisplayNameGeneration(ReplaceUnderscores.class)
+class DicomWadoRSTest {
+
+  private static final String BOUNDARY = "wadoBoundary";
+  private static final String CONTENT_TYPE =
+      "multipart/related; type=\"application/dicom\"; boundary=" + BOUNDARY;
+  private static final String STUDY_UID = "1.2.3";
+  private static final String SERIES_UID = "1.2.3.4";
+
+  @TempDir Path tempDir;
+
+  @Nested
+  class Retrieve_target_Tests {
+
+    @Test
+    void builds_the_resource_paths() {
+      assertEquals("/studies/1.2.3", RetrieveTarget.study(STUDY_UID).path());
+      assertEquals(
+          "/studies/1.2.3/series/1.2.3.4", RetrieveTarget.series(STUDY_UID, SERIES_UID).path());
+      assertEquals(
+          "/studies/1.2.3/series/1.2.3.4/instances/1.2.3.4.5",
+          RetrieveTarget.instance(STUDY_UID, SERIES_UID, "1.2.3.4.5").path());
+    }
+
+    @Test
+    void requires_the_parent_uids() {
+      assertThrows(IllegalArgumentException.class, () -> RetrieveTarget.study(" "));
+      assertThrows(
+          IllegalArgumentException.class, () -> RetrieveTarget.instance(STUDY_UID, null, "1"));
+    }
+  }
+
+  @Nested
+  class Read_parts_Tests {
+
+    @Test
+    void gives_each_part_to_the_handler() throws IOException {
+      List<byte[]> instances = List.of(createInstance("1.1"), createInstance("1.2"));
+      List<String> received = new ArrayList<>();
+
+      int parts =
+          DicomWadoRS.readParts(
+              new ByteArrayInputStream(createMultipart(instances)),
+              CONTENT_TYPE,
+              (headers, content) -> {
+                assertEquals("application/dicom", headers.get("Content-Type"));
+                received.add(readSopInstanceUID(content.readAllBytes()));
+              });
+
+      assertEquals(2, parts);
+      assertEquals(List.of("1.1", "1.2"), received);
+    }
+
+    @Test
+    void rejects_a_response_without_boundary() {
+      var body = new ByteArrayInputStream(new byte[0]);
+
+      assertThrows(
+          MultipartStreamException.class,
+          () -> DicomWadoRS.readParts(body, "application/dicom", (headers, content) -> {}));
+    }
+
+    @Test
+    void save_to_names_the_files_by_sop_instance_uid() throws IOException {
+      byte[] multipart = createMultipart(List.of(createInstance("1.1"), createInstance("1.2")));
+      Path dir = tempDir.resolve("series");
+
+      DicomWadoRS.readParts(
+          new ByteArrayInputStream(multipart), CONTENT_TYPE, DicomWadoRS.saveTo(dir));
+
+      try (var files = Files.list(dir)) {
+        assertEquals(
+            List.of("1.1.dcm", "1.2.dcm"),
+            files.map(p -> p.getFileName().toString()).sorted().toList());
+      }
+      assertEquals("1.2", readSopInstanceUID(Files.readAllBytes(dir.resolve("1.2.dcm"))));
+    }
+
+    @Test
+    void save_to_does_not_keep_a_part_without_sop_instance_uid() throws IOException {
+      byte[] multipart = createMultipart(List.of(new byte[] {1, 2, 3}, createInstance("1.1")));
+      Path dir = tempDir.resolve("series");
+
+      DicomWadoRS.readParts(
+          new ByteArrayInputStream(multipart), CONTENT_TYPE, DicomWadoRS.saveTo(dir));
+
+      try (var files = Files.list(dir)) {
+        assertEquals(List.of("1.1.dcm"), files.map(p -> p.getFileName().toString()).toList());
+      }
+    }
+
+    @Test
+    void read_instances_gives_access_to_the_frames() throws IOException {
+      byte[] multipart = createMultipart(List.of(createInstance("1.1")));
+      List<ByteBuffer> frames = new ArrayList<>();
+
+      DicomWadoRS.readParts(
+          new ByteArrayInputStream(multipart),
+          CONTENT_TYPE,
+          DicomWadoRS.readInstances(
+              (dataset, image) -> {
+                assertEquals("1.1", dataset.getString(Tag.SOPInstanceUID));
+                assertEquals(UID.ExplicitVRLittleEndian, image.getTransferSyntax());
+                frames.add(image.getBytes(1));
+              }));
+
+      assertEquals(1, frames.size());
+      ByteBuffer frame = frames.get(0);
+      assertEquals(4, frame.remaining());
+      assertEquals(4, frame.get(0));
+      assertEquals(7, frame.get(3));
+    }
+  }
+
+  @Nested
+  class Http_Retrieve_Tests {
+
+    private HttpServer server;
+    private final Map<String, byte[]> resources = new ConcurrentHashMap<>();
+    private final List<String> acceptHeaders = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void startServer() throws IOException {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      server.createContext(
+          "/dicom-web",
+          exchange -> {
+            acceptHeaders.add(exchange.getRequestHeaders().getFirst("Accept"));
+            String path = exchange.getRequestURI().getPath().substring("/dicom-web".length());
+            byte[] body = resources.get(path);
+            if (body == null) {
+              byte[] error = "Not found".getBytes(StandardCharsets.UTF_8);
+              exchange.sendResponseHeaders(404, error.length);
+              exchange.getResponseBody().write(error);
+            } else {
+              exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE);
+              exchange.sendResponseHeaders(200, 0);
+              exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+          });
+      server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+      server.stop(0);
+    }
+
+    private DicomWadoRS createClient() {
+      var address = server.getAddress();
+      String host = address.getAddress().getHostAddress();
+      return new DicomWadoRS(
+          DicomWadoConfig.builder()
+              .baseUrl("http://" + host + ":" + address.getPort() + "/dicom-web/studies/")
+              .transferSyntax("*")
+              .httpVersion(HttpClient.Version.HTTP_1_1)
+              .threadPoolSize(2)
+              .build());
+    }
+
+    @Test
+    void retrieves_series_concurrently() throws Exception {
+      resources.put(
+          "/studies/1.2.3/series/1.2.3.4",
+          createMultipart(List.of(createInstance("1.1"), createInstance("1.2"))));
+      resources.put(
+          "/studies/1.2.3/series/1.2.3.5", createMultipart(List.of(createInstance("2.1"))));
+      List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+      try (var client = createClient()) {
+        int parts =
+            client.retrieveAll(
+                List.of(
+                    RetrieveTarget.series(STUDY_UID, SERIES_UID),
+                    RetrieveTarget.series(STUDY_UID, "1.2.3.5")),
+                (headers, content) -> received.add(readSopInstanceUID(content.readAllBytes())));
+
+        assertEquals(3, parts);
+      }
+      assertEquals(List.of("1.1", "1.2", "2.1"), received.stream().sorted().toList());
+      assertEquals(
+          "multipart/related; type=\"application/dicom\"; transfer-syntax=*",
+          acceptHeaders.get(0));
+    }
+
+    @Test
+    void error_status_is_reported_as_http_exception() {
+      try (var client = createClient()) {
+        var target = RetrieveTarget.study("9.9");
+        var e =
+            assertThrows(HttpException.class, () -> client.retrieve(target, (h, content) -> {}));
+        assertEquals(404, e.getStatusCode());
+        assertEquals("Not found", e.getResponseBody().orElseThrow());
+      }
+    }
+  }
+
+  private static byte[] createInstance(String iuid) throws IOException {
+    var dataset = new Attributes();
+    dataset.setString(Tag.SOPClassUID, VR.UI, UID.SecondaryCaptureImageStorage);
+    dataset.setString(Tag.SOPInstanceUID, VR.UI, iuid);
+    dataset.setString(Tag.StudyInstanceUID, VR.UI, STUDY_UID);
+    dataset.setString(Tag.SeriesInstanceUID, VR.UI, SERIES_UID);
+    dataset.setInt(Tag.SamplesPerPixel, VR.US, 1);
+    dataset.setString(Tag.PhotometricInterpretation, VR.CS, "MONOCHROME2");
+    dataset.setInt(Tag.NumberOfFrames, VR.IS, 2);
+    dataset.setInt(Tag.Rows, VR.US, 2);
+    dataset.setInt(Tag.Columns, VR.US, 2);
+    dataset.setInt(Tag.BitsAllocated, VR.US, 8);
+    dataset.setInt(Tag.BitsStored, VR.US, 8);
+    dataset.setInt(Tag.HighBit, VR.US, 7);
+    dataset.setInt(Tag.PixelRepresentation, VR.US, 0);
+    dataset.setBytes(Tag.PixelData, VR.OB, new byte[] {0, 1, 2, 3, 4, 5, 6, 7});
+
+    var out = new ByteArrayOutputStream();
+    try (var dos = new DicomOutputStream(out, UID.ExplicitVRLittleEndian)) {
+      dos.writeDataset(dataset.createFileMetaInformation(UID.ExplicitVRLittleEndian), dataset);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] createMultipart(List<byte[]> instances) {
+    var out = new ByteArrayOutputStream();
+    for (byte[] instance : instances) {
+      out.writeBytes(
+          ("\r\n--" + BOUNDARY + "\r\nContent-Type: application/dicom\r\n\r\n")
+              .getBytes(StandardCharsets.US_ASCII));
+      out.writeBytes(instance);
+    }
+    out.writeBytes(("\r\n--" + BOUNDARY + "--").getBytes(StandardCharsets.US_ASCII));
+    return out.toByteArray();
+  }
+
+  private static String readSopInstanceUID(byte[] instance) throws IOException {
+    try (var dis = new DicomInputStream(new ByteArrayInputStream(instance))) {
+      return dis.readFileMetaInformation().getString(Tag.MediaStorageSOPInstanceUID);
+    }
+  }
+}
@@ -16,6 +16,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator.ReplaceUnderscores;
 import org.junit.jupiter.api.Nested;
@@ -527,6 +528,110 @@ class MultipartReaderTest {
     }
   }
 
+  @Nested
+  class Boundary_Search_Tests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {256, 1000, 65536})
+    void should_find_boundaries_split_across_reads(int bufferSize) throws IOException {
+      // Parts full of near-boundary sequences, received a few bytes at a time so that the
+      // boundaries straddle the buffer refills
+      var first = createPartBody(5000, 1);
+      var second = createPartBody(3000, 7);
+      var body = createBody(first, second);
+
+      try (var reader = new MultipartReader(new TricklingInputStream(body), TEST_BOUNDARY_BYTES)) {
+        assertTrue(reader.skipFirstBoundary());
+        reader.readHeaders();
+        try (var partStream = reader.newPartInputStream()) {
+          assertArrayEquals(first, partStream.readAllBytes());
+        }
+        assertTrue(reader.readBoundary());
+        reader.readHeaders();
+        try (var partStream = reader.newPartInputStream()) {
+          assertArrayEquals(second, partStream.readAllBytes());
+        }
+        assertFalse(reader.readBoundary());
+      }
+
+      try (var reader =
+          new MultipartReader(new ByteArrayInputStream(body), TEST_BOUNDARY_BYTES, bufferSize)) {
+        assertTrue(reader.skipFirstBoundary());
+        reader.readHeaders();
+        try (var partStream = reader.newPartInputStream()) {
+          for (byte b : first) {
+            assertEquals(b & 0xFF, partStream.read());
+          }
+          assertEquals(-1, partStream.read());
+        }
+      }
+    }
+
+    @Test
+    void should_transfer_part_to_output_stream() throws IOException {
+      var first = createPartBody(200_000, 3);
+      var second = createPartBody(10, 5);
+      var body = createBody(first, second);
+
+      try (var reader =
+          new MultipartReader(new ByteArrayInputStream(body), TEST_BOUNDARY_BYTES, 4096)) {
+        assertTrue(reader.skipFirstBoundary());
+        reader.readHeaders();
+        var out = new ByteArrayOutputStream();
+        try (var partStream = reader.newPartInputStream()) {
+          assertEquals(first.length, partStream.transferTo(out));
+        }
+        assertArrayEquals(first, out.toByteArray());
+        assertTrue(reader.readBoundary());
+        reader.readHeaders();
+        try (var partStream = reader.newPartInputStream()) {
+          assertArrayEquals(second, partStream.readAllBytes());
+        }
+      }
+    }
+
+    /** Returns data containing truncated boundaries and bytes of the boundary. */
+    private static byte[] createPartBody(int size, int seed) {
+      var near =
+          ("\r\n--" + TEST_BOUNDARY.substring(0, TEST_BOUNDARY.length() - 1) + "x")
+              .getBytes(StandardCharsets.UTF_8);
+      var out = new ByteArrayOutputStream();
+      int i = seed;
+      while (out.size() < size) {
+        if (i % 17 == 0) {
+          out.write(near, 0, Math.min(near.length, 1 + i % near.length));
+        } else {
+          out.write(0x80 | (i * 31) & 0x7F); // never a byte of the boundary
+        }
+        i++;
+      }
+      return Arrays.copyOf(out.toByteArray(), size);
+    }
+
+    private static byte[] createBody(byte[] first, byte[] second) {
+      var out = new ByteArrayOutputStream();
+      var header = "\r\nContent-Type: application/octet-stream\r\n\r\n";
+      out.writeBytes(("--" + TEST_BOUNDARY + header).getBytes(StandardCharsets.UTF_8));
+      out.writeBytes(first);
+      out.writeBytes(("\r\n--" + TEST_BOUNDARY + header).getBytes(StandardCharsets.UTF_8));
+      out.writeBytes(second);
+      out.writeBytes(("\r\n--" + TEST_BOUNDARY + "--").getBytes(StandardCharsets.UTF_8));
+      return out.toByteArray();
+    }
+  }
+
+  /** Returns at most 7 bytes per read, like a slow network stream. */
+  private static final class TricklingInputStream extends ByteArrayInputStream {
+    TricklingInputStream(byte[] data) {
+      super(data);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      return super.read(b, off, Math.min(len, 7));
+    }
+  }
+
   @Nested
   class Error_Handling_Tests {
 